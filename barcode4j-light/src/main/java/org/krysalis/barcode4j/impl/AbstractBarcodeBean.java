@@ -15,10 +15,16 @@
  */
 package org.krysalis.barcode4j.impl;
 
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
 import org.krysalis.barcode4j.BarcodeDimension;
-import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.BatchBarcodeGenerator;
 import org.krysalis.barcode4j.HumanReadablePlacement;
+import org.krysalis.barcode4j.output.Canvas;
 import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
 import org.krysalis.barcode4j.tools.Length;
 import org.krysalis.barcode4j.tools.UnitConv;
 
@@ -30,7 +36,7 @@ import com.github.mbhk.barcode4j.ConfigurationException;
  *
  * @version $Id$
  */
-public abstract class AbstractBarcodeBean implements BarcodeGenerator {
+public abstract class AbstractBarcodeBean implements BatchBarcodeGenerator {
 
     /** Net height of bars in mm. Defaults to 15mm */
     protected double height = 15.0;
@@ -285,9 +291,142 @@ public abstract class AbstractBarcodeBean implements BarcodeGenerator {
         this.fontName = name;
     }
 
+    /**
+     * Aligns the geometry of the barcode to a grid of device pixels. The
+     * module width becomes a whole number of pixels (at least one), the quiet
+     * zones and the bar height are rounded to whole pixels. Subclasses align
+     * their additional widths and heights, too.
+     *
+     * @param pixelSize the size of a device pixel (in mm)
+     * @return the number of pixels per module
+     */
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = Math.max(1, (int) Math.round(getModuleWidth() / pixelSize));
+        setModuleWidth(pixelsPerModule * pixelSize);
+        setQuietZone(snapToPixels(getQuietZone(), pixelSize));
+        if (this.quietZoneVertical != null) {
+            setVerticalQuietZone(snapToPixels(this.quietZoneVertical, pixelSize));
+        }
+        this.height = snapToPixels(this.height, pixelSize);
+        return pixelsPerModule;
+    }
+
+    /**
+     * Records the settings changed by {@link #snapToPixelGrid(double)}, so
+     * they can be restored with {@link #restorePixelGridSettings(Iterator)}.
+     * Subclasses that align additional settings add them after the ones of
+     * their superclass.
+     *
+     * @param settings the list to add the settings to
+     */
+    public void savePixelGridSettings(List<Double> settings) {
+        settings.add(this.moduleWidth);
+        settings.add(this.quietZone);
+        settings.add(this.quietZoneVertical);
+        settings.add(this.height);
+    }
+
+    /**
+     * Restores the settings recorded by {@link #savePixelGridSettings(List)}.
+     *
+     * @param settings the recorded settings, in the order they were added
+     */
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        this.moduleWidth = settings.next();
+        this.quietZone = settings.next();
+        this.quietZoneVertical = settings.next();
+        this.height = settings.next();
+    }
+
+    /**
+     * Rounds a length to whole pixels.
+     *
+     * @param value the length (in mm)
+     * @param pixelSize the size of a device pixel (in mm)
+     * @return the rounded length (in mm)
+     */
+    protected static double snapToPixels(double value, double pixelSize) {
+        return Math.round(value / pixelSize) * pixelSize;
+    }
+
+    /**
+     * Rounds a wide factor so wide bars are whole pixels, at least one pixel
+     * wider than narrow bars.
+     *
+     * @param wideFactor the wide factor
+     * @param pixelsPerModule the number of pixels of a narrow bar
+     * @return the rounded wide factor
+     */
+    protected static double snapWideFactor(double wideFactor, int pixelsPerModule) {
+        final long wide = Math.max(pixelsPerModule + 1, Math.round(wideFactor * pixelsPerModule));
+        return (double) wide / pixelsPerModule;
+    }
+
     @Override
     public abstract void generateBarcode(CanvasProvider canvas, String msg);
 
+    /**
+     * Paints barcodes of a bean on a {@link Canvas}. A painter holds the logic
+     * handler and the logic implementation, so a batch creates it once and
+     * retargets the canvas for every message.
+     */
+    protected interface BarcodePainter {
+
+        /**
+         * Paints a barcode on the canvas the painter was created for.
+         * @param msg the message to encode
+         */
+        void paint(String msg);
+    }
+
+    /**
+     * Creates a painter for the current settings of this bean. The default
+     * implementation calls {@link #generateBarcode(CanvasProvider, String)}
+     * with the current canvas provider of the canvas.
+     * @param canvas the canvas to paint on
+     * @return the painter
+     */
+    protected BarcodePainter createPainter(final Canvas canvas) {
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                generateBarcode(canvas.getCanvasImp(), msg);
+            }
+        };
+    }
+
+    /**
+     * Checks that a message is not empty.
+     * @param msg the message
+     */
+    protected static void checkMessage(String msg) {
+        if ((msg == null) || (msg.length() == 0)) {
+            throw new NullPointerException("Parameter msg must not be empty");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One canvas and one painter are used for the whole batch, the canvas is
+     * pointed to the provider of each message.
+     */
+    @Override
+    public int generateBarcodes(Iterable<String> msgs, CanvasProviderFactory canvases)
+            throws IOException {
+        final Canvas canvas = new Canvas(null);
+        final BarcodePainter painter = createPainter(canvas);
+        int index = 0;
+        for (String msg : msgs) {
+            final CanvasProvider provider = canvases.createCanvasProvider(index, msg);
+            canvas.setCanvasImp(provider);
+            painter.paint(msg);
+            canvases.finishCanvasProvider(provider, index, msg);
+            index++;
+        }
+        return index;
+    }
+
     @Override
     public BarcodeDimension calcDimensions(String msg) {
         throw new UnsupportedOperationException("NYI");
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
+import org.krysalis.barcode4j.output.Canvas;
+import org.krysalis.barcode4j.output.CanvasProvider;
+
+import com.github.mbhk.barcode4j.Configuration;
+import com.github.mbhk.barcode4j.ConfigurationException;
+
+/**
+ * Base class for matrix and stacked symbologies. The message is encoded only
+ * once into a {@link TwoDimSymbol} which then provides both the dimensions and
+ * the module matrix for painting.
+ *
+ * @author mk
+ * @version 1.1
+ */
+public abstract class AbstractTwoDimBarcodeBean extends AbstractBarcodeBean {
+
+    /** True if the symbol should be painted as a merged rectangle cover */
+    private boolean rectangleMerging;
+
+    /**
+     * Controls whether the dark modules are painted with a near-minimal set of
+     * rectangles, merging runs horizontally and across rows. This reduces the
+     * size of vector output considerably.
+     *
+     * @param value true to merge rectangles, false to paint row by row
+     * @see TwoDimSymbol#getRectangles()
+     */
+    public void setRectangleMerging(boolean value) {
+        this.rectangleMerging = value;
+    }
+
+    /**
+     * Indicates whether the dark modules are painted with merged rectangles.
+     *
+     * @return true if rectangles are merged
+     */
+    public boolean isRectangleMerging() {
+        return this.rectangleMerging;
+    }
+
+    /**
+     * Encodes a message into a symbol which can be measured and painted
+     * repeatedly. If a default {@link SymbolCache} is installed, previously
+     * encoded symbols are taken from there.
+     *
+     * @param msg the message to encode
+     * @return the encoded symbol
+     */
+    public TwoDimSymbol encode(String msg) {
+        if (msg == null || msg.length() == 0) {
+            throw new NullPointerException("Parameter msg must not be empty");
+        }
+        final SymbolCache cache = SymbolCache.getDefault();
+        if (cache == null) {
+            return createSymbol(msg);
+        }
+        final String settings = getSymbolSettings();
+        TwoDimSymbol symbol = cache.get(settings, msg);
+        if (symbol == null) {
+            symbol = createSymbol(msg);
+            cache.put(settings, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * Returns a string identifying all settings which influence the encoded
+     * symbol, used as part of the {@link SymbolCache} key.
+     *
+     * @return the settings
+     */
+    protected String getSymbolSettings() {
+        final StringBuilder sb = new StringBuilder(128);
+        sb.append(getClass().getName())
+                .append(';').append(getModuleWidth())
+                .append(';').append(getBarHeight())
+                .append(';').append(hasQuietZone());
+        if (hasQuietZone()) {
+            sb.append(';').append(getQuietZone())
+                    .append(';').append(getVerticalQuietZone());
+        }
+        appendSymbolSettings(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the symbology-specific settings which influence the encoded
+     * symbol.
+     *
+     * @param sb the buffer to append to
+     * @see #getSymbolSettings()
+     */
+    protected abstract void appendSymbolSettings(StringBuilder sb);
+
+    /**
+     * Runs the encoder of the symbology. Implementations usually pass a
+     * {@link TwoDimSymbolBuilder} to their logic implementation and finish
+     * with {@link #createSymbol(TwoDimSymbolBuilder)}.
+     *
+     * @param msg the message to encode (not empty)
+     * @return the encoded symbol
+     */
+    protected abstract TwoDimSymbol createSymbol(String msg);
+
+    /**
+     * Builds the symbol from the recorded module matrix, using the module
+     * width, bar height and quiet zone settings of this bean.
+     *
+     * @param builder the builder holding the module matrix
+     * @return the encoded symbol
+     */
+    protected TwoDimSymbol createSymbol(TwoDimSymbolBuilder builder) {
+        final double width = builder.getColumnCount() * getModuleWidth();
+        final double height = builder.getRowCount() * getBarHeight();
+        final double qzh = hasQuietZone() ? getQuietZone() : 0;
+        final double qzv = hasQuietZone() ? getVerticalQuietZone() : 0;
+        return builder.build(new BarcodeDimension(width, height,
+                width + (2 * qzh), height + (2 * qzv),
+                qzh, qzv));
+    }
+
+    @Override
+    public void configure(Configuration cfg) throws ConfigurationException {
+        super.configure(cfg);
+        configureRectangleMerging(this, cfg);
+    }
+
+    /**
+     * Reads the "rectangle-merging" element of a configuration.
+     *
+     * @param bean the bean to configure
+     * @param cfg the configuration
+     * @throws ConfigurationException if the element has no value
+     */
+    public static void configureRectangleMerging(AbstractTwoDimBarcodeBean bean,
+            Configuration cfg) throws ConfigurationException {
+        final Configuration child = cfg.getChild("rectangle-merging", false);
+        if (child != null) {
+            bean.setRectangleMerging(child.getValueAsBoolean());
+        }
+    }
+
+    @Override
+    public BarcodeDimension calcDimensions(String msg) {
+        return encode(msg).getDimension();
+    }
+
+    @Override
+    public void generateBarcode(CanvasProvider canvas, String msg) {
+        generateBarcode(canvas, encode(msg));
+    }
+
+    /**
+     * Paints a previously encoded symbol.
+     *
+     * @param canvas the canvas to paint on
+     * @param symbol the symbol returned by {@link #encode(String)}
+     */
+    public void generateBarcode(CanvasProvider canvas, TwoDimSymbol symbol) {
+        if (isRectangleMerging()) {
+            paintRectangles(new Canvas(canvas), symbol);
+            return;
+        }
+        final TwoDimBarcodeLogicHandler handler = new DefaultTwoDimCanvasLogicHandler(
+                this, new Canvas(canvas), symbol.getDimension());
+        symbol.generate(handler);
+    }
+
+    @Override
+    protected BarcodePainter createPainter(final Canvas canvas) {
+        final DefaultTwoDimCanvasLogicHandler handler = new DefaultTwoDimCanvasLogicHandler(
+                this, canvas);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                final TwoDimSymbol symbol = encode(msg);
+                if (isRectangleMerging()) {
+                    paintRectangles(canvas, symbol);
+                } else {
+                    handler.setKnownDimensions(symbol.getDimension());
+                    symbol.generate(handler);
+                }
+            }
+        };
+    }
+
+    private void paintRectangles(Canvas canvas, TwoDimSymbol symbol) {
+        canvas.establishDimensions(symbol.getDimension());
+        final double x = hasQuietZone() ? getQuietZone() : 0.0;
+        final double y = hasQuietZone() ? getVerticalQuietZone() : 0.0;
+        final double w = getModuleWidth();
+        final double h = getBarHeight();
+        final int[] rects = symbol.rectangles();
+        for (int i = 0; i < rects.length; i += 4) {
+            canvas.drawRectWH(x + rects[i] * w, y + rects[i + 1] * h,
+                    rects[i + 2] * w, rects[i + 3] * h);
+        }
+    }
+
+    @Override
+    public double getBarWidth(int width) {
+        return width * moduleWidth;
+    }
+}
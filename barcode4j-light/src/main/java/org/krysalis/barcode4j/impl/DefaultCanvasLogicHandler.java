@@ -25,6 +25,11 @@ import org.krysalis.barcode4j.tools.MessagePatternUtil;
 
 /**
  * Default Logic Handler implementation for painting on a Canvas.
+ * <p>
+ * Painting a bar doesn't allocate any objects. All per-barcode state is reset
+ * in {@link #startBarcode(String, String)}, so an instance can be reused for
+ * several barcodes of the same bean, retargeting its canvas with
+ * {@link Canvas#setCanvasImp(org.krysalis.barcode4j.output.CanvasProvider)}.
  *
  * @version $Id$
  */
@@ -21,14 +21,22 @@ import org.krysalis.barcode4j.output.Canvas;
 
 /**
  * Default 2D Logic Handler implementation for painting on a Canvas.
+ * <p>
+ * By default, adjacent dark bars within a row are coalesced and painted as a
+ * single rectangle. This greatly reduces the number of painting operations for
+ * logic implementations reporting one module at a time.
  *
  * @author Jeremias Maerki
- * @version 1.3
+ * @version 1.6
  */
 public class DefaultTwoDimCanvasLogicHandler extends DefaultCanvasLogicHandler implements TwoDimBarcodeLogicHandler {
 
     private double x = 0.0;
     private double y = 0.0;
+    private BarcodeDimension knownDimensions;
+    private boolean coalescing = true;
+    private double runX;
+    private double runWidth;
 
     /**
      * Main constructor.
@@ -37,7 +45,52 @@ public class DefaultTwoDimCanvasLogicHandler extends DefaultCanvasLogicHandler i
      * @param canvas the canvas to paint to
      */
     public DefaultTwoDimCanvasLogicHandler(AbstractBarcodeBean bcBean, Canvas canvas) {
+        this(bcBean, canvas, null);
+    }
+
+    /**
+     * Constructor for painting a symbol whose dimensions are already known.
+     * The barcode bean will not be asked to calculate the dimensions again.
+     *
+     * @param bcBean the barcode implementation class
+     * @param canvas the canvas to paint to
+     * @param dimensions the precalculated dimensions of the symbol (may be null)
+     */
+    public DefaultTwoDimCanvasLogicHandler(AbstractBarcodeBean bcBean, Canvas canvas,
+            BarcodeDimension dimensions) {
         super(bcBean, canvas);
+        this.knownDimensions = dimensions;
+    }
+
+    /**
+     * Sets the dimensions of the next symbol, so a handler can be reused for
+     * several symbols.
+     *
+     * @param dimensions the precalculated dimensions of the symbol (may be null)
+     */
+    public void setKnownDimensions(BarcodeDimension dimensions) {
+        this.knownDimensions = dimensions;
+    }
+
+    /**
+     * Controls whether adjacent dark bars in a row are painted as a single
+     * rectangle.
+     *
+     * @param value true to coalesce dark bars (the default), false to paint
+     * each bar separately
+     */
+    public void setCoalescing(boolean value) {
+        this.coalescing = value;
+    }
+
+    /**
+     * Indicates whether adjacent dark bars in a row are painted as a single
+     * rectangle.
+     *
+     * @return true if dark bars are coalesced
+     */
+    public boolean isCoalescing() {
+        return this.coalescing;
     }
 
     @Override
@@ -51,34 +104,51 @@ public class DefaultTwoDimCanvasLogicHandler extends DefaultCanvasLogicHandler i
 
     @Override
     public void startBarcode(String msg, String formattedMsg) {
-        //Calculate extents
-        final BarcodeDimension dim = bcBean.calcDimensions(msg);
+        //Calculate extents unless they are already known
+        dimensions = knownDimensions != null
+                ? knownDimensions : bcBean.calcDimensions(msg);
 
-        canvas.establishDimensions(dim);
+        canvas.establishDimensions(dimensions);
         y = getStartY();
     }
 
     @Override
     public void startRow() {
         x = getStartX();
+        runWidth = 0.0;
     }
 
     @Override
     public void addBar(boolean black, int width) {
         final double w = bcBean.getBarWidth(width);
-        if (black) {
+        if (!black) {
+            flushRun();
+        } else if (coalescing) {
+            if (runWidth == 0.0) {
+                runX = x;
+            }
+            runWidth += w;
+        } else {
             canvas.drawRectWH(x, y, w, bcBean.getBarHeight());
         }
         x += w;
     }
 
+    private void flushRun() {
+        if (runWidth > 0.0) {
+            canvas.drawRectWH(runX, y, runWidth, bcBean.getBarHeight());
+            runWidth = 0.0;
+        }
+    }
+
     @Override
     public void endRow() {
+        flushRun();
         y += bcBean.getBarHeight(); //=row height
     }
 
     @Override
     public void endBarcode() {
-        //nop
+        flushRun();
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Size-bounded cache of encoded symbols, keyed by generator settings and
+ * message. The least recently used symbol is evicted when the cache is full.
+ * <p>
+ * The cache is opt-in: 2D barcode beans consult the default cache, which is
+ * not set unless it is installed with {@link #setDefault(SymbolCache)} or the
+ * system property {@value #SIZE_PROPERTY} is set to a positive number of
+ * entries. All methods are thread-safe.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class SymbolCache {
+
+    /** System property defining the size of the default cache */
+    public static final String SIZE_PROPERTY = "org.krysalis.barcode4j.symbolCacheSize";
+
+    private static final Logger LOGGER = Logger.getLogger(SymbolCache.class.getName());
+
+    private static volatile SymbolCache defaultCache = createFromSystemProperty();
+
+    private final int maxEntries;
+    private final Map<Key, TwoDimSymbol> symbols;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries the maximum number of symbols to keep
+     */
+    public SymbolCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.symbols = new LinkedHashMap<Key, TwoDimSymbol>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TwoDimSymbol> eldest) {
+                if (size() > SymbolCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static SymbolCache createFromSystemProperty() {
+        final String size = System.getProperty(SIZE_PROPERTY);
+        if (size != null) {
+            try {
+                final int entries = Integer.parseInt(size.trim());
+                if (entries > 0) {
+                    return new SymbolCache(entries);
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING, "Invalid value for " + SIZE_PROPERTY + ": " + size, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cache used by the barcode beans.
+     *
+     * @return the default cache or null if caching is disabled
+     */
+    public static SymbolCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Installs the cache used by the barcode beans.
+     *
+     * @param cache the cache or null to disable caching
+     */
+    public static void setDefault(SymbolCache cache) {
+        defaultCache = cache;
+    }
+
+    /**
+     * Looks up a symbol.
+     *
+     * @param settings the generator settings the symbol depends on
+     * @param msg the message
+     * @return the symbol or null if it's not cached
+     */
+    public synchronized TwoDimSymbol get(String settings, String msg) {
+        final TwoDimSymbol symbol = symbols.get(new Key(settings, msg));
+        if (symbol == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return symbol;
+    }
+
+    /**
+     * Adds a symbol to the cache, possibly evicting the least recently used
+     * one.
+     *
+     * @param settings the generator settings the symbol depends on
+     * @param symbol the symbol
+     */
+    public synchronized void put(String settings, TwoDimSymbol symbol) {
+        symbols.put(new Key(settings, symbol.getMessage()), symbol);
+    }
+
+    /**
+     * Removes all symbols from the cache. The statistics are kept.
+     */
+    public synchronized void clear() {
+        symbols.clear();
+    }
+
+    /**
+     * Returns the maximum number of symbols kept.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the number of symbols currently cached.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Returns the number of lookups which found a symbol.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups which didn't find a symbol.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of symbols evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the ratio of hits to lookups.
+     *
+     * @return the hit ratio (0.0 if there was no lookup yet)
+     */
+    public synchronized double getHitRatio() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SymbolCache[size=" + symbols.size() + "/" + maxEntries
+                + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + "]";
+    }
+
+    private static final class Key {
+
+        private final String settings;
+        private final String msg;
+        private final int hash;
+
+        Key(String settings, String msg) {
+            this.settings = settings;
+            this.msg = msg;
+            this.hash = 31 * settings.hashCode() + msg.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && settings.equals(other.settings)
+                    && msg.equals(other.msg);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
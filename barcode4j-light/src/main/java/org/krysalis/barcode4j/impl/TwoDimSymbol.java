@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import java.util.Arrays;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
+
+/**
+ * Immutable result of encoding a message with a 2D symbology: the module
+ * matrix together with the dimensions of the symbol.
+ * <p>
+ * A symbol is created once by {@link AbstractTwoDimBarcodeBean#encode(String)}
+ * and may then be measured and painted any number of times without running
+ * the (expensive) encoder again. Instances are safe for use by multiple
+ * threads.
+ *
+ * @author mk
+ * @version 1.1
+ */
+public final class TwoDimSymbol {
+
+    private final String message;
+    private final int columns;
+    private final int rows;
+    private final int rowStride;
+    private final byte[] modules;
+    private final BarcodeDimension dimension;
+    /** the rectangle cover, computed on first use */
+    private volatile int[] rectangles;
+
+    /**
+     * Creates a new symbol.
+     *
+     * @param message the encoded message
+     * @param columns the number of modules per row
+     * @param rows the number of rows
+     * @param modules the packed module matrix, one bit per module (1 = dark),
+     * most significant bit first, each row padded to a full byte. The array is
+     * not copied.
+     * @param dimension the dimensions of the symbol
+     */
+    TwoDimSymbol(String message, int columns, int rows, byte[] modules,
+            BarcodeDimension dimension) {
+        this.message = message;
+        this.columns = columns;
+        this.rows = rows;
+        this.rowStride = getRowStride(columns);
+        if (modules.length != this.rowStride * rows) {
+            throw new IllegalArgumentException("Module matrix doesn't match "
+                    + columns + " x " + rows + " modules");
+        }
+        this.modules = modules;
+        this.dimension = dimension;
+    }
+
+    /**
+     * Returns the number of bytes used for one row of the packed module matrix.
+     *
+     * @param columns the number of modules per row
+     * @return the row stride in bytes
+     */
+    static int getRowStride(int columns) {
+        return (columns + 7) >> 3;
+    }
+
+    /**
+     * Returns the encoded message.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Returns the number of modules in each row.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the dimensions of the symbol including the quiet zone.
+     *
+     * @return the dimensions
+     */
+    public BarcodeDimension getDimension() {
+        return this.dimension;
+    }
+
+    /**
+     * Indicates whether a module is dark.
+     *
+     * @param col the column (0-based)
+     * @param row the row (0-based)
+     * @return true if the module is dark
+     */
+    public boolean isDark(int col, int row) {
+        if (col < 0 || col >= columns || row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Module (" + col + ", " + row
+                    + ") is outside the symbol");
+        }
+        return (modules[row * rowStride + (col >> 3)] & (0x80 >> (col & 7))) != 0;
+    }
+
+    /**
+     * Sends the symbol to a logic handler. Every row is reported as a sequence
+     * of runs of equally colored modules, i.e. the bar width passed to
+     * {@link TwoDimBarcodeLogicHandler#addBar(boolean, int)} is the number of
+     * modules in the run.
+     *
+     * @param logic the logic handler to receive the events
+     */
+    public void generate(TwoDimBarcodeLogicHandler logic) {
+        logic.startBarcode(message, message);
+        for (int row = 0; row < rows; row++) {
+            logic.startRow();
+            int col = 0;
+            while (col < columns) {
+                final boolean dark = isDark(col, row);
+                final int start = col;
+                do {
+                    col++;
+                } while (col < columns && isDark(col, row) == dark);
+                logic.addBar(dark, col - start);
+            }
+            logic.endRow();
+        }
+        logic.endBarcode();
+    }
+
+    /**
+     * Computes a cover of the dark modules with rectangles. Runs of dark
+     * modules within a row are merged horizontally and identical runs in
+     * consecutive rows are merged vertically, so solid areas like finder
+     * patterns, start and stop columns collapse into few rectangles.
+     *
+     * @return the rectangles as quadruples of column, row, width and height
+     * (in modules)
+     */
+    public int[] getRectangles() {
+        return rectangles().clone();
+    }
+
+    /**
+     * Returns the rectangle cover without copying it. The cover is computed
+     * once per symbol, the array must not be modified.
+     *
+     * @return the rectangles as quadruples of column, row, width and height
+     * (in modules)
+     */
+    int[] rectangles() {
+        int[] res = this.rectangles;
+        if (res == null) {
+            //computing the same cover twice in a race does no harm
+            res = computeRectangles();
+            this.rectangles = res;
+        }
+        return res;
+    }
+
+    private int[] computeRectangles() {
+        int[] res = new int[64];
+        int count = 0;
+        //Runs still open from the previous row: start, end (exclusive), first row
+        int[] open = new int[3 * (columns / 2 + 1)];
+        int openCount = 0;
+        int[] next = new int[open.length];
+        for (int row = 0; row <= rows; row++) {
+            int nextCount = 0;
+            int o = 0;
+            int col = 0;
+            while (row < rows && col < columns) {
+                if (!isDark(col, row)) {
+                    col++;
+                    continue;
+                }
+                final int start = col;
+                do {
+                    col++;
+                } while (col < columns && isDark(col, row));
+                //Close the open runs ending before this one
+                while (o < openCount && open[3 * o] < start) {
+                    res = addRectangle(res, count++, open, o, row);
+                    o++;
+                }
+                next[3 * nextCount] = start;
+                next[3 * nextCount + 1] = col;
+                if (o < openCount && open[3 * o] == start && open[3 * o + 1] == col) {
+                    next[3 * nextCount + 2] = open[3 * o + 2];
+                    o++;
+                } else {
+                    if (o < openCount && open[3 * o] == start) {
+                        res = addRectangle(res, count++, open, o, row);
+                        o++;
+                    }
+                    next[3 * nextCount + 2] = row;
+                }
+                nextCount++;
+            }
+            while (o < openCount) {
+                res = addRectangle(res, count++, open, o, row);
+                o++;
+            }
+            final int[] tmp = open;
+            open = next;
+            next = tmp;
+            openCount = nextCount;
+        }
+        return Arrays.copyOf(res, 4 * count);
+    }
+
+    private static int[] addRectangle(int[] rects, int index, int[] open, int run, int row) {
+        int[] res = rects;
+        if (4 * index + 4 > res.length) {
+            res = Arrays.copyOf(res, res.length * 2);
+        }
+        res[4 * index] = open[3 * run];
+        res[4 * index + 1] = open[3 * run + 2];
+        res[4 * index + 2] = open[3 * run + 1] - open[3 * run];
+        res[4 * index + 3] = row - open[3 * run + 2];
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(64).append("TwoDimSymbol[")
+                .append(columns).append('x').append(rows)
+                .append(", ").append(dimension)
+                .append(']').toString();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.krysalis.barcode4j.BarGroup;
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
+
+/**
+ * Logic handler that records the events of a 2D logic implementation into a
+ * module matrix from which a {@link TwoDimSymbol} is built. The bar width
+ * passed to {@link #addBar(boolean, int)} is interpreted as a number of
+ * modules.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class TwoDimSymbolBuilder implements TwoDimBarcodeLogicHandler {
+
+    private String message;
+    private int columns = -1;
+    private int rows;
+    private byte[] row = new byte[32];
+    private int col;
+    private final ByteArrayOutputStream matrix = new ByteArrayOutputStream(256);
+
+    @Override
+    public void startBarcode(String msg, String formattedMsg) {
+        this.message = msg;
+        this.columns = -1;
+        this.rows = 0;
+        this.matrix.reset();
+    }
+
+    @Override
+    public void startRow() {
+        Arrays.fill(row, (byte) 0);
+        col = 0;
+    }
+
+    @Override
+    public void startBarGroup(BarGroup type, String submsg) {
+        //nop
+    }
+
+    @Override
+    public void addBar(boolean black, int width) {
+        final int end = col + width;
+        ensureCapacity(end);
+        if (black) {
+            for (int i = col; i < end; i++) {
+                row[i >> 3] |= (byte) (0x80 >> (i & 7));
+            }
+        }
+        col = end;
+    }
+
+    private void ensureCapacity(int modules) {
+        final int needed = TwoDimSymbol.getRowStride(modules);
+        if (needed > row.length) {
+            row = Arrays.copyOf(row, Math.max(needed, row.length * 2));
+        }
+    }
+
+    @Override
+    public void endBarGroup() {
+        //nop
+    }
+
+    @Override
+    public void endRow() {
+        if (columns < 0) {
+            columns = col;
+        } else if (col != columns) {
+            throw new IllegalStateException("Row " + rows + " has " + col
+                    + " modules, expected " + columns);
+        }
+        matrix.write(row, 0, TwoDimSymbol.getRowStride(columns));
+        rows++;
+    }
+
+    @Override
+    public void endBarcode() {
+        //nop
+    }
+
+    /**
+     * Returns the number of modules per row recorded so far.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return Math.max(columns, 0);
+    }
+
+    /**
+     * Returns the number of rows recorded so far.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Creates the symbol from the recorded events.
+     *
+     * @param dimension the dimensions of the symbol
+     * @return the immutable symbol
+     */
+    public TwoDimSymbol build(BarcodeDimension dimension) {
+        if (message == null) {
+            throw new IllegalStateException("No barcode has been recorded");
+        }
+        return new TwoDimSymbol(message, getColumnCount(), rows,
+                matrix.toByteArray(), dimension);
+    }
+}
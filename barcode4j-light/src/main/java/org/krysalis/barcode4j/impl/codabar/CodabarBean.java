@@ -17,6 +17,8 @@ package org.krysalis.barcode4j.impl.codabar;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.ChecksumMode;
@@ -89,6 +91,25 @@ public class CodabarBean extends AbstractBarcodeBean {
         this.wideFactor = value;
     }
 
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setWideFactor(snapWideFactor(getWideFactor(), pixelsPerModule));
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.wideFactor);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.wideFactor = settings.next();
+    }
+
     @Override
     public double getBarWidth(int width) {
         if (width == 1) {
@@ -120,16 +141,20 @@ public class CodabarBean extends AbstractBarcodeBean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null)
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler =
-                new DefaultCanvasLogicHandler(this, new Canvas(canvas));
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new DefaultCanvasLogicHandler(this, canvas);
         final CodabarLogicImpl impl = new CodabarLogicImpl(getChecksumMode(), isDisplayStartStop());
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     private double calcCharWidth(char c) {
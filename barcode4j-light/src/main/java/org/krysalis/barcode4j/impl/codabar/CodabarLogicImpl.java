@@ -20,6 +20,7 @@ import java.util.TreeSet;
 import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * This class is an implementation of the Codabar barcode.
@@ -164,7 +165,7 @@ public class CodabarLogicImpl {
      */
     protected void encodeChar(ClassicBarcodeLogicHandler logic, char enc) {
         final char ch = Character.toLowerCase(enc);
-        logic.startBarGroup(BarGroup.MSG_CHARACTER, String.valueOf(ch));
+        logic.startBarGroup(BarGroup.MSG_CHARACTER, MessageUtil.charToString(ch));
         for (byte i = 0; i < 7; i++) {
             final int width = widthAt(ch, i);
             final boolean black = (i % 2) == 0;
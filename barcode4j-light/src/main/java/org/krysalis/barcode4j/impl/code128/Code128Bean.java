@@ -103,16 +103,20 @@ public class Code128Bean extends AbstractBarcodeBean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler =
-                new DefaultCanvasLogicHandler(this, new Canvas(canvas));
-        //handler = new LoggingLogicHandlerProxy(handler);
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new DefaultCanvasLogicHandler(this, canvas);
         final Code128LogicImpl impl = createLogicImpl();
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     @Override
@@ -153,6 +153,9 @@ public class Code128LogicImpl {
 
     private static final byte[] STOP = {2, 3, 3, 1, 1, 1, 2}; //106, STOP
 
+    /** Precomputed names of the symbol characters, reported per bar group */
+    private static final String[] SYMBOL_NAMES = createSymbolNames();
+
     private Code128Constants codeset;
 
     /**
@@ -228,23 +231,31 @@ public class Code128LogicImpl {
      * @return the String representation
      */
     public static String symbolCharToString(int index) {
-        if (index >= 96 && index <= 105) {
-            final String[] replacementString = new String[]{
-                "FNC3/96",
-                "FNC2/97",
-                "Shift/98",
-                "CodeC/99",
-                "CodeB/FNC4",
-                "CodeA/FNC4",
-                "FNC1",
-                "StartA",
-                "StartB",
-                "StartC"};
-            return replacementString[index - 96];
+        if (index >= 0 && index < SYMBOL_NAMES.length) {
+            return SYMBOL_NAMES[index];
         } else {
             return "idx" + Integer.toString(index);
         }
+    }
 
+    private static String[] createSymbolNames() {
+        final String[] replacementString = new String[]{
+            "FNC3/96",
+            "FNC2/97",
+            "Shift/98",
+            "CodeC/99",
+            "CodeB/FNC4",
+            "CodeA/FNC4",
+            "FNC1",
+            "StartA",
+            "StartB",
+            "StartC"};
+        final String[] names = new String[96 + replacementString.length];
+        for (int i = 0; i < 96; i++) {
+            names[i] = "idx" + Integer.toString(i);
+        }
+        System.arraycopy(replacementString, 0, names, 96, replacementString.length);
+        return names;
     }
 
     /**
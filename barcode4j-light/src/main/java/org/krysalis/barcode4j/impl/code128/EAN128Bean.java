@@ -23,7 +23,6 @@ import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
 import org.krysalis.barcode4j.impl.DefaultCanvasLogicHandler;
 import org.krysalis.barcode4j.output.Canvas;
-import org.krysalis.barcode4j.output.CanvasProvider;
 
 /**
  * This class is an implementation of the Code 128 barcode.
@@ -54,7 +53,10 @@ public class EAN128Bean extends Code128Bean {
     
     @Override
     public BarcodeDimension calcDimensions(String msg) {
-        final int msgLen = impl.getEncodedMessage(msg).length + 1; 
+        final int msgLen;
+        synchronized (impl) { //the logic impl caches the last message
+            msgLen = impl.getEncodedMessage(msg).length + 1;
+        }
         //TODO If the output is able to calculate text lenghts (e.g. awt, fop), and 
         //the human readable part is longer then barcode the size should be enlarged!
         final double width = ((msgLen * 11) + 13) * getModuleWidth();
@@ -65,14 +67,17 @@ public class EAN128Bean extends Code128Bean {
     }
 
     @Override
-    public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler = 
-                new DefaultCanvasLogicHandler(this, new Canvas(canvas));
-        impl.generateBarcodeLogic(handler, msg);
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new DefaultCanvasLogicHandler(this, canvas);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                synchronized (impl) {
+                    impl.generateBarcodeLogic(handler, msg);
+                }
+            }
+        };
     }
     
     /**
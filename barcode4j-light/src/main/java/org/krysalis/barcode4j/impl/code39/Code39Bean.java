@@ -17,6 +17,8 @@ package org.krysalis.barcode4j.impl.code39;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.ChecksumMode;
@@ -30,7 +32,7 @@ import org.krysalis.barcode4j.output.CanvasProvider;
  * This class is an implementation of the Code39 barcode.
  *
  * @author Jeremias Maerki
- * @version 1.1
+ * @version 1.3
  */
 public class Code39Bean extends AbstractBarcodeBean {
 
@@ -106,6 +108,28 @@ public class Code39Bean extends AbstractBarcodeBean {
         this.wideFactor = value;
     }
 
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setIntercharGapWidth(snapToPixels(getIntercharGapWidth(), pixelSize));
+        setWideFactor(snapWideFactor(getWideFactor(), pixelsPerModule));
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.intercharGapWidth);
+        settings.add(this.wideFactor);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.intercharGapWidth = settings.next();
+        this.wideFactor = settings.next();
+    }
+
     /**
      * Indicates whether the start and stop character will be displayed as
      * part of the human-readable message.
@@ -182,16 +206,20 @@ public class Code39Bean extends AbstractBarcodeBean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null)
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler =
-                new DefaultCanvasLogicHandler(this, new Canvas(canvas));
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new DefaultCanvasLogicHandler(this, canvas);
         final Code39LogicImpl impl = createLogicImpl();
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     private Code39LogicImpl createLogicImpl() {
@@ -18,6 +18,7 @@ package org.krysalis.barcode4j.impl.code39;
 import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * This class is an implementation of the Code39 barcode.
@@ -253,7 +254,7 @@ public class Code39LogicImpl {
      * @param c the character to encode
      */
     protected void encodeChar(ClassicBarcodeLogicHandler logic, char c) {
-        logic.startBarGroup(BarGroup.MSG_CHARACTER, String.valueOf(c));
+        logic.startBarGroup(BarGroup.MSG_CHARACTER, MessageUtil.charToString(c));
         for (byte i = 0; i < 9; i++) {
             final int width = widthAt(c, i);
             final boolean black = i % 2 == 0;
@@ -321,7 +322,7 @@ public class Code39LogicImpl {
         logic.startBarcode(sb.toString(), displayMsg);
 
         //Start character
-        logic.startBarGroup(BarGroup.START_CHARACTER, String.valueOf(STARTSTOP));
+        logic.startBarGroup(BarGroup.START_CHARACTER, MessageUtil.charToString(STARTSTOP));
         encodeChar(logic, STARTSTOP);
         logic.endBarGroup();
 
@@ -338,7 +339,7 @@ public class Code39LogicImpl {
         addIntercharacterGap(logic);
 
         //Start character
-        logic.startBarGroup(BarGroup.STOP_CHARACTER, String.valueOf(STARTSTOP));
+        logic.startBarGroup(BarGroup.STOP_CHARACTER, MessageUtil.charToString(STARTSTOP));
         encodeChar(logic, STARTSTOP);
         logic.endBarGroup();
 
@@ -16,24 +16,20 @@
 package org.krysalis.barcode4j.impl.datamatrix;
 
 import java.awt.Dimension;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import org.krysalis.barcode4j.BarcodeDimension;
-import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
-import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
-import org.krysalis.barcode4j.impl.DefaultTwoDimCanvasLogicHandler;
-import org.krysalis.barcode4j.output.Canvas;
-import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.impl.AbstractTwoDimBarcodeBean;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.impl.TwoDimSymbolBuilder;
 import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
  * This class is an implementation of DataMatrix (ISO 16022:2000(E)).
  *
- * @version 1.2
+ * @version 1.3
  */
-public class DataMatrixBean extends AbstractBarcodeBean {
+public class DataMatrixBean extends AbstractTwoDimBarcodeBean {
 
     /** The default module width (dot size) for DataMatrix. */
     protected static final double DEFAULT_MODULE_WIDTH = UnitConv.in2mm(1.0 / 72); //1px at 72dpi
@@ -108,37 +104,18 @@ public class DataMatrixBean extends AbstractBarcodeBean {
     }
 
     @Override
-    public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null)
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final TwoDimBarcodeLogicHandler handler =
-                new DefaultTwoDimCanvasLogicHandler(this, new Canvas(canvas));
-
+    protected TwoDimSymbol createSymbol(String msg) {
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
         final DataMatrixLogicImpl impl = new DataMatrixLogicImpl();
-        impl.generateBarcodeLogic(handler, msg, getShape(), getMinSize(), getMaxSize());
+        impl.generateBarcodeLogic(builder, msg, getShape(), getMinSize(), getMaxSize());
+        return createSymbol(builder);
     }
 
     @Override
-    public BarcodeDimension calcDimensions(String msg) {
-        String encoded;
-        try {
-            encoded = DataMatrixHighLevelEncoder.encodeHighLevel(msg,
-                    shape, getMinSize(), getMaxSize());
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Cannot fetch data: " + e.getLocalizedMessage());
-        }
-        final DataMatrixSymbolInfo symbolInfo = DataMatrixSymbolInfo.lookup(encoded.length(), shape);
-
-        final double symbolWidth = symbolInfo.getSymbolWidth() * getModuleWidth();
-        final double symbolHeight = symbolInfo.getSymbolHeight() * getBarHeight();
-        final double qzh = hasQuietZone() ? getQuietZone() : 0;
-        final double qzv = hasQuietZone() ? getVerticalQuietZone() : 0;
-        return new BarcodeDimension(symbolWidth, symbolHeight,
-                symbolWidth + (2 * qzh), symbolHeight + (2 * qzv),
-                qzh, qzv);
+    protected void appendSymbolSettings(StringBuilder sb) {
+        sb.append(';').append(shape.getName())
+                .append(';').append(minSize)
+                .append(';').append(maxSize);
     }
 
     @Override
@@ -146,11 +123,6 @@ public class DataMatrixBean extends AbstractBarcodeBean {
         return getQuietZone();
     }
 
-    @Override
-    public double getBarWidth(int width) {
-        return moduleWidth;
-    }
-
     @Override
     public double getBarHeight() {
         return moduleWidth;
@@ -15,6 +15,9 @@
  */
 package org.krysalis.barcode4j.impl.fourstate;
 
+import java.util.Iterator;
+import java.util.List;
+
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.HumanReadablePlacement;
 import org.krysalis.barcode4j.impl.HeightVariableBarcodeBean;
@@ -120,6 +123,32 @@ public abstract class AbstractFourStateBean extends HeightVariableBarcodeBean {
         setBarHeight(getTrackHeight() + (2 * getAscenderHeight()));
     }
     
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setIntercharGapWidth(snapToPixels(getIntercharGapWidth(), pixelSize));
+        this.trackHeight = snapToPixels(this.trackHeight, pixelSize);
+        this.ascenderHeight = snapToPixels(this.ascenderHeight, pixelSize);
+        updateHeight();
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.intercharGapWidth);
+        settings.add(this.trackHeight);
+        settings.add(this.ascenderHeight);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.intercharGapWidth = settings.next();
+        this.trackHeight = settings.next();
+        this.ascenderHeight = settings.next();
+    }
+
     @Override
     public double getBarWidth(int width) {
         if (width == 1) {
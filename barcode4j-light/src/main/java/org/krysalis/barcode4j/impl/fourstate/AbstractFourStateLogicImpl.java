@@ -18,6 +18,7 @@ package org.krysalis.barcode4j.impl.fourstate;
 import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * Provides a base class for "four-state" barcodes.
@@ -97,9 +98,9 @@ public abstract class AbstractFourStateLogicImpl {
      * @param codeword the codeword belonging to the character
      */
     protected void encodeCodeword(ClassicBarcodeLogicHandler logic, char c, String codeword) {
-        logic.startBarGroup(BarGroup.MSG_CHARACTER, String.valueOf(c));
+        logic.startBarGroup(BarGroup.MSG_CHARACTER, MessageUtil.charToString(c));
         for (int i = 0; i < codeword.length(); i++) {
-            final int height = Integer.parseInt(codeword.substring(i, i + 1));
+            final int height = codeword.charAt(i) - '0';
             logic.addBar(true, height);
         }
         logic.endBarGroup();
@@ -53,17 +53,20 @@ public class RoyalMailCBCBean extends AbstractFourStateBean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) 
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final FourStateLogicHandler handler = 
-                new FourStateLogicHandler(this, new Canvas(canvas));
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
-        final RoyalMailCBCLogicImpl impl = new RoyalMailCBCLogicImpl(
-                getChecksumMode());
-        impl.generateBarcodeLogic(handler, msg);
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final FourStateLogicHandler handler = new FourStateLogicHandler(this, canvas);
+        final RoyalMailCBCLogicImpl impl = new RoyalMailCBCLogicImpl(getChecksumMode());
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     @Override
@@ -28,7 +28,7 @@ import org.krysalis.barcode4j.tools.UnitConv;
  * Implements the USPS Intelligent Mail Barcode (Four State Customer Barcode).
  * 
  * @author Jeremias Maerki
- * @version 1.1
+ * @version 1.2
  */
 public class USPSIntelligentMailBean extends AbstractFourStateBean {
 
@@ -79,17 +79,21 @@ public class USPSIntelligentMailBean extends AbstractFourStateBean {
     
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) 
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
-        final FourStateLogicHandler handler = 
-                new FourStateLogicHandler(this, new Canvas(canvas));
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final FourStateLogicHandler handler = new FourStateLogicHandler(this, canvas);
         handler.setTextAlignment(TextAlignment.TA_LEFT);
-
         final USPSIntelligentMailLogicImpl impl = new USPSIntelligentMailLogicImpl();
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     @Override
@@ -200,16 +200,16 @@ public class USPSIntelligentMailLogicImpl extends AbstractFourStateLogicImpl {
 
         //First tracking code digit
         binary = binary.multiply(ten);
-        binary = binary.add(new BigInteger(trackingCode.substring(0, 1)));
+        binary = binary.add(BigInteger.valueOf(Character.digit(trackingCode.charAt(0), 10)));
 
         //Second tracking code digit
         binary = binary.multiply(five);
-        binary = binary.add(new BigInteger(trackingCode.substring(1, 2)));
+        binary = binary.add(BigInteger.valueOf(Character.digit(trackingCode.charAt(1), 10)));
 
         //Remaining tracking code digits
         for (int i = 2; i < 20; i++) {
             binary = binary.multiply(ten);
-            binary = binary.add(new BigInteger(trackingCode.substring(i, i + 1)));
+            binary = binary.add(BigInteger.valueOf(Character.digit(trackingCode.charAt(i), 10)));
         }
 
         return binary;
@@ -365,7 +365,7 @@ public class USPSIntelligentMailLogicImpl extends AbstractFourStateLogicImpl {
         // encode message
         final String codeword = encodedMsg[0];
         for (int i = 0; i < codeword.length(); i++) {
-            final int height = Integer.parseInt(codeword.substring(i, i + 1));
+            final int height = codeword.charAt(i) - '0';
             logic.addBar(true, height);
         }
 
@@ -18,6 +18,8 @@ package org.krysalis.barcode4j.impl.int2of5;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
@@ -29,7 +31,7 @@ import org.krysalis.barcode4j.output.CanvasProvider;
  * <a href="http://www.gs1.org">GS1 standards organization</a>).
  * ITF-14 is basically an Interleaved 2 of 5 barcode with an added, so-called bearer bar.
  *
- * @version 1.1
+ * @version 1.3
  */
 public class ITF14Bean extends Interleaved2Of5Bean {
 
@@ -90,6 +92,25 @@ public class ITF14Bean extends Interleaved2Of5Bean {
         this.bearerBarWidth = width;
     }
 
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setBearerBarWidth(snapToPixels(getBearerBarWidth(), pixelSize));
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.bearerBarWidth);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.bearerBarWidth = settings.next();
+    }
+
     @Override
     public void doQuietZone(boolean value) {
         if (!value) {
@@ -110,18 +131,21 @@ public class ITF14Bean extends Interleaved2Of5Bean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null)
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-        validate();
-
-        final ClassicBarcodeLogicHandler handler =
-                new ITF14CanvasLogicHandler(this, new Canvas(canvas));
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
-        final ITF14LogicImpl impl = new ITF14LogicImpl(
-                getChecksumMode(), isDisplayChecksum());
-        impl.generateBarcodeLogic(handler, msg);
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        validate();
+        final ClassicBarcodeLogicHandler handler = new ITF14CanvasLogicHandler(this, canvas);
+        final ITF14LogicImpl impl = new ITF14LogicImpl(getChecksumMode(), isDisplayChecksum());
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     @Override
@@ -17,6 +17,8 @@ package org.krysalis.barcode4j.impl.int2of5;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.ChecksumMode;
@@ -30,7 +32,7 @@ import org.krysalis.barcode4j.output.CanvasProvider;
  * This class is an implementation of the Interleaved 2 of 5 barcode.
  * 
  * @author Jeremias Maerki
- * @version 1.1
+ * @version 1.3
  */
 public class Interleaved2Of5Bean extends AbstractBarcodeBean {
 
@@ -72,18 +74,21 @@ public class Interleaved2Of5Bean extends AbstractBarcodeBean {
     
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) 
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler = 
-                new DefaultCanvasLogicHandler(this, new Canvas(canvas));
-        //handler = new LoggingLogicHandlerProxy(handler);
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new DefaultCanvasLogicHandler(this, canvas);
         final Interleaved2Of5LogicImpl impl = new Interleaved2Of5LogicImpl(
                 getChecksumMode(), isDisplayChecksum());
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
     
     @Override
@@ -149,6 +154,25 @@ public class Interleaved2Of5Bean extends AbstractBarcodeBean {
         this.wideFactor = value;
     }
 
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setWideFactor(snapWideFactor(getWideFactor(), pixelsPerModule));
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.wideFactor);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.wideFactor = settings.next();
+    }
+
     @Override
     public Collection<String> getAdditionalNames() {
         final Collection<String> res = new ArrayList<String>(1);
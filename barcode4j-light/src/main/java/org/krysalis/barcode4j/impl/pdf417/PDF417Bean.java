@@ -15,25 +15,21 @@
  */
 package org.krysalis.barcode4j.impl.pdf417;
 
-import java.awt.Dimension;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import org.krysalis.barcode4j.BarcodeDimension;
-import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
-import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
-import org.krysalis.barcode4j.impl.DefaultTwoDimCanvasLogicHandler;
-import org.krysalis.barcode4j.output.Canvas;
-import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.impl.AbstractTwoDimBarcodeBean;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.impl.TwoDimSymbolBuilder;
 import org.krysalis.barcode4j.tools.ECIUtil;
 import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
  * This class is an implementation of the PDF417 barcode.
  *
- * @version 1.1
+ * @version 1.2
  */
-public class PDF417Bean extends AbstractBarcodeBean {
+public class PDF417Bean extends AbstractTwoDimBarcodeBean {
 
     /** The default module width for PDF417. */
     protected static final double DEFAULT_MODULE_WIDTH = UnitConv.in2mm(1.0 / 72); //1px at 72dpi
@@ -71,42 +67,20 @@ public class PDF417Bean extends AbstractBarcodeBean {
     }
     
     @Override
-    public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final TwoDimBarcodeLogicHandler handler = new DefaultTwoDimCanvasLogicHandler(
-                this, new Canvas(canvas));
-
-        PDF417LogicImpl.generateBarcodeLogic(handler, msg, this);
-    }
-
-
-    @Override
-    public BarcodeDimension calcDimensions(String msg) {
-
-        final int sourceCodeWords = PDF417HighLevelEncoder.encodeHighLevel(msg,
-                getEncoding(), isECIEnabled()).length();
-        final Dimension dimension = PDF417LogicImpl.determineDimensions(this,
-                sourceCodeWords);
-
-        if (dimension == null) {
-            throw new IllegalArgumentException("Unable to fit message in columns");
-        }
-
-        final double width = (17 * dimension.width + 69) * getModuleWidth();
-        final double height = getBarHeight() * dimension.height;
-        final double qzh = hasQuietZone() ? getQuietZone() : 0;
-        final double qzv = hasQuietZone() ? getVerticalQuietZone() : 0;
-        return new BarcodeDimension(width, height,
-                width + (2 * qzh), height + (2 * qzv),
-                qzh, qzv);
+    protected TwoDimSymbol createSymbol(String msg) {
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
+        PDF417LogicImpl.generateBarcodeLogic(builder, msg, this);
+        return createSymbol(builder);
     }
 
     @Override
-    public double getBarWidth(int width) {
-        return width * moduleWidth;
+    protected void appendSymbolSettings(StringBuilder sb) {
+        sb.append(';').append(minRows).append('-').append(maxRows)
+                .append(';').append(minCols).append('-').append(maxCols)
+                .append(';').append(widthToHeightRatio)
+                .append(';').append(errorCorrectionLevel)
+                .append(';').append(encoding)
+                .append(';').append(enableECI);
     }
 
     /** @return the number of data columns to produce */
@@ -17,6 +17,8 @@ package org.krysalis.barcode4j.impl.postnet;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.BaselineAlignment;
 import org.krysalis.barcode4j.ChecksumMode;
@@ -30,7 +32,7 @@ import org.krysalis.barcode4j.tools.UnitConv;
  * Implements the United States Postal Service POSTNET barcode.
  * 
  * @author Chris Dolphy
- * @version 1.1
+ * @version 1.3
  */
 public class POSTNETBean extends HeightVariableBarcodeBean {
 
@@ -128,6 +130,28 @@ public class POSTNETBean extends HeightVariableBarcodeBean {
         this.shortBarHeight = height;
     }
     
+    @Override
+    public int snapToPixelGrid(double pixelSize) {
+        final int pixelsPerModule = super.snapToPixelGrid(pixelSize);
+        setIntercharGapWidth(snapToPixels(getIntercharGapWidth(), pixelSize));
+        setShortBarHeight(snapToPixels(getShortBarHeight(), pixelSize));
+        return pixelsPerModule;
+    }
+
+    @Override
+    public void savePixelGridSettings(List<Double> settings) {
+        super.savePixelGridSettings(settings);
+        settings.add(this.intercharGapWidth);
+        settings.add(this.shortBarHeight);
+    }
+
+    @Override
+    public void restorePixelGridSettings(Iterator<Double> settings) {
+        super.restorePixelGridSettings(settings);
+        this.intercharGapWidth = settings.next();
+        this.shortBarHeight = settings.next();
+    }
+
     @Override
     public double getBarWidth(int width) {
         if (width == 1) {
@@ -173,17 +197,20 @@ public class POSTNETBean extends HeightVariableBarcodeBean {
     
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) 
-                || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final POSTNETLogicHandler handler = 
-                new POSTNETLogicHandler(this, new Canvas(canvas));
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
-        final POSTNETLogicImpl impl = new POSTNETLogicImpl(
-                getChecksumMode(), isDisplayChecksum());
-        impl.generateBarcodeLogic(handler, msg);
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final POSTNETLogicHandler handler = new POSTNETLogicHandler(this, canvas);
+        final POSTNETLogicImpl impl = new POSTNETLogicImpl(getChecksumMode(), isDisplayChecksum());
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     @Override
@@ -18,6 +18,7 @@ package org.krysalis.barcode4j.impl.postnet;
 import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * Implements the United States Postal Service Postnet barcode.
@@ -146,7 +147,7 @@ public class POSTNETLogicImpl {
         if (isIgnoredChar(c)) {
             return;  // allow dash, but don't encode
         }
-        logic.startBarGroup(BarGroup.MSG_CHARACTER, String.valueOf(c));
+        logic.startBarGroup(BarGroup.MSG_CHARACTER, MessageUtil.charToString(c));
         for (byte i = 0; i < 5; i++) {
             final int height = heightAt(c, i);
             logic.addBar(true, height);
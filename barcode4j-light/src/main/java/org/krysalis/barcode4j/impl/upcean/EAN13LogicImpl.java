@@ -19,6 +19,7 @@ import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
 import org.krysalis.barcode4j.tools.CheckUtil;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * This class is an implementation of the EAN-13 barcode.
@@ -153,7 +154,7 @@ public class EAN13LogicImpl extends EAN8LogicImpl {
 
         //Checksum
         final char check = s.charAt(12);
-        logic.startBarGroup(BarGroup.UPC_EAN_CHECK, String.valueOf(check));
+        logic.startBarGroup(BarGroup.UPC_EAN_CHECK, MessageUtil.charToString(check));
         encodeChar(logic, check, RIGHT_HAND);
         logic.endBarGroup();
 
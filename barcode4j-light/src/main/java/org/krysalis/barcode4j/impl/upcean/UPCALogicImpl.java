@@ -19,6 +19,7 @@ import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
 import org.krysalis.barcode4j.tools.CheckUtil;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * This class is an implementation of the UPC-A barcode.
@@ -126,7 +127,7 @@ public class UPCALogicImpl extends UPCEANLogicImpl {
 
         //Number system character
         final char lead = s.charAt(0);
-        logic.startBarGroup(BarGroup.UPC_EAN_LEAD, String.valueOf(lead));
+        logic.startBarGroup(BarGroup.UPC_EAN_LEAD, MessageUtil.charToString(lead));
         encodeChar(logic, lead, LEFT_HAND_A);
         logic.endBarGroup();
 
@@ -153,7 +154,7 @@ public class UPCALogicImpl extends UPCEANLogicImpl {
 
         //Checksum
         final char check = s.charAt(11);
-        logic.startBarGroup(BarGroup.UPC_EAN_CHECK, String.valueOf(check));
+        logic.startBarGroup(BarGroup.UPC_EAN_CHECK, MessageUtil.charToString(check));
         encodeChar(logic, check, RIGHT_HAND);
         logic.endBarGroup();
 
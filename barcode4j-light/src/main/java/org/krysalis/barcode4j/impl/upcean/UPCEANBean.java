@@ -26,7 +26,7 @@ import org.krysalis.barcode4j.output.CanvasProvider;
  * This is an abstract base class for UPC and EAN barcodes.
  * 
  * @author Jeremias Maerki
- * @version 1.1
+ * @version 1.2
  */
 public abstract class UPCEANBean extends AbstractBarcodeBean {
 
@@ -78,15 +78,20 @@ public abstract class UPCEANBean extends AbstractBarcodeBean {
 
     @Override
     public void generateBarcode(CanvasProvider canvas, String msg) {
-        if ((msg == null) || (msg.length() == 0)) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final ClassicBarcodeLogicHandler handler = new UPCEANCanvasLogicHandler(this, new Canvas(canvas));
-        //handler = new LoggingLogicHandlerProxy(handler);
+        createPainter(new Canvas(canvas)).paint(msg);
+    }
 
+    @Override
+    protected BarcodePainter createPainter(Canvas canvas) {
+        final ClassicBarcodeLogicHandler handler = new UPCEANCanvasLogicHandler(this, canvas);
         final UPCEANLogicImpl impl = createLogicImpl();
-        impl.generateBarcodeLogic(handler, msg);
+        return new BarcodePainter() {
+            @Override
+            public void paint(String msg) {
+                checkMessage(msg);
+                impl.generateBarcodeLogic(handler, msg);
+            }
+        };
     }
 
     /**
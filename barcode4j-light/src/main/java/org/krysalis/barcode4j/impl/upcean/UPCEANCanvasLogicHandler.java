@@ -32,7 +32,7 @@ import org.krysalis.barcode4j.output.Canvas;
  * implementation for UPC and EAN barcodes.
  *
  * @author Jeremias Maerki
- * @version 1.2
+ * @version 1.3
  */
 public class UPCEANCanvasLogicHandler implements ClassicBarcodeLogicHandler {
 
@@ -78,6 +78,8 @@ public class UPCEANCanvasLogicHandler implements ClassicBarcodeLogicHandler {
 
         canvas.establishDimensions(dim);
         x = getStartX();
+        lastgroup = null;
+        groupStack.clear();
         inMsgGroup = false;
         inSupplemental = false;
     }
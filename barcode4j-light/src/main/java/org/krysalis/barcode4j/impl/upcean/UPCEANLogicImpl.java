@@ -19,6 +19,7 @@ import org.krysalis.barcode4j.BarGroup;
 import org.krysalis.barcode4j.ChecksumMode;
 import org.krysalis.barcode4j.ClassicBarcodeLogicHandler;
 import org.krysalis.barcode4j.tools.CheckUtil;
+import org.krysalis.barcode4j.tools.MessageUtil;
 
 /**
  * This is an abstract base class for UPC and EAN barcodes.
@@ -158,7 +159,7 @@ public abstract class UPCEANLogicImpl {
      * @param charset the character set to use
      */
     protected void encodeChar(ClassicBarcodeLogicHandler logic, char c, int charset) {
-        logic.startBarGroup(BarGroup.MSG_CHARACTER, String.valueOf(c));
+        logic.startBarGroup(BarGroup.MSG_CHARACTER, MessageUtil.charToString(c));
         if (charset == LEFT_HAND_B) {
             for (byte i = 0; i < 4; i++) {
                 final int width = widthAt(c, 3 - i);
@@ -18,6 +18,8 @@ package org.krysalis.barcode4j.output;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 
+import org.krysalis.barcode4j.tools.FixedDecimalFormatter;
+
 /**
  * Abstract base class that provides some commonly used methods for generating
  * XML representations of barcodes.
@@ -28,7 +30,8 @@ import java.text.DecimalFormatSymbols;
 public abstract class AbstractXMLGeneratingCanvasProvider
         extends AbstractCanvasProvider {
 
-    private final DecimalFormat decimalFormat;
+    private final FixedDecimalFormatter numberFormatter = new FixedDecimalFormatter(4);
+    private DecimalFormat decimalFormat;
 
     /**
      * Base Constructor for xml-Canvas.
@@ -37,20 +40,46 @@ public abstract class AbstractXMLGeneratingCanvasProvider
      */
     public AbstractXMLGeneratingCanvasProvider(Orientation orientation) {
         super(orientation);
-        final DecimalFormatSymbols dfs = new DecimalFormatSymbols();
-        dfs.setDecimalSeparator('.');
-        this.decimalFormat = new DecimalFormat("0.####", dfs);
     }
 
     /**
      * Returns the DecimalFormat instance to use internally to format numbers.
      *
      * @return a DecimalFormat instance
+     * @deprecated use {@link #getNumberFormatter()} or
+     * {@link #formatNumber(double)} instead, they produce the same output
+     * much faster
      */
+    @Deprecated
     protected DecimalFormat getDecimalFormat() {
+        if (this.decimalFormat == null) {
+            final DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+            dfs.setDecimalSeparator('.');
+            this.decimalFormat = new DecimalFormat("0.####", dfs);
+        }
         return this.decimalFormat;
     }
 
+    /**
+     * Returns the formatter to use internally to format numbers (up to four
+     * fraction digits).
+     *
+     * @return the number formatter
+     */
+    protected FixedDecimalFormatter getNumberFormatter() {
+        return this.numberFormatter;
+    }
+
+    /**
+     * Formats a number with up to four fraction digits.
+     *
+     * @param value the value to format
+     * @return the formatted value
+     */
+    protected String formatNumber(double value) {
+        return this.numberFormatter.format(value);
+    }
+
     /**
      * Formats a value and adds the unit specifier at the end.
      *
@@ -58,6 +87,6 @@ public abstract class AbstractXMLGeneratingCanvasProvider
      * @return the formatted value
      */
     protected String addUnit(double value) {
-        return getDecimalFormat().format(value) + "mm"; //was mm
+        return formatNumber(value) + "mm"; //was mm
     }
 }
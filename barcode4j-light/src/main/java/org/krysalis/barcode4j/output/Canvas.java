@@ -46,6 +46,15 @@ public class Canvas {
         return canvasImp;
     }
 
+    /**
+     * Sets the canvas provider to paint on. This allows to reuse the canvas
+     * and the logic handler wrapping it for several barcodes.
+     * @param canvasImp the canvas provider to use
+     */
+    public void setCanvasImp(CanvasProvider canvasImp) {
+        this.canvasImp = canvasImp;
+    }
+
     /**
      * Sets the dimensions of the barcode.
      * @param dim the barcode dimensions
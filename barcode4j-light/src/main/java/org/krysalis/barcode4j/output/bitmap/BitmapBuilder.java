@@ -24,6 +24,7 @@ import java.io.OutputStream;
 
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
 import org.krysalis.barcode4j.output.Orientation;
 import org.krysalis.barcode4j.output.java2d.Java2DCanvasProvider;
 import org.krysalis.barcode4j.tools.UnitConv;
@@ -122,6 +123,20 @@ public class BitmapBuilder {
         return bi;
     }
     
+    /**
+     * Generates a 2D symbol as bitmap image. The modules are written directly
+     * into the image, each covering a whole number of pixels.
+     * @param symbol the encoded symbol
+     * @param resolution the desired image resolution (dots per inch)
+     * @param imageType BufferedImage.TYPE_BYTE_BINARY or TYPE_BYTE_GRAY
+     * @return the requested BufferedImage
+     * @see TwoDimSymbolRasterizer
+     */
+    public static BufferedImage getImage(TwoDimSymbol symbol, int resolution, int imageType) {
+        return TwoDimSymbolRasterizer.forResolution(symbol, resolution, Orientation.ZERO)
+                .createImage(symbol, imageType);
+    }
+
     /**
      * Convenience method for save a bitmap to a file/OutputStream. It uses
      * BitmapEncoderRegistry to look up a suitable BitmapEncoder.
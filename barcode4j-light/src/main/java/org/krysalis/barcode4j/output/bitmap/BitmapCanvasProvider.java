@@ -15,26 +15,52 @@
  */
 package org.krysalis.barcode4j.output.bitmap;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SampleModel;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.TextAlignment;
 import org.krysalis.barcode4j.output.AbstractCanvasProvider;
 import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.ResettableCanvasProvider;
 import org.krysalis.barcode4j.output.java2d.Java2DCanvasProvider;
+import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
  * CanvasProvider implementation for generating bitmaps.
  *
  * This class wraps Java2DCanvasProvider to do the actual rendering.
+ * <p>
+ * With {@link #setScanlineReplication(boolean) scanline replication} enabled,
+ * bars are not rasterized by Java2D. Instead every distinct pixel row of the
+ * bar area is built once and copied into all rows it applies to, which is
+ * much faster for linear symbologies at high resolutions.
+ * <p>
+ * In {@link #setPixelExact(boolean) pixel-exact} mode bars are painted with
+ * integer coordinates, which is fast and crisp if the barcode bean has been
+ * aligned to the pixel grid with {@link PixelGrid}.
+ * <p>
+ * After {@link #reset()} the provider can paint the next barcode. The image
+ * of the previous barcode is recycled if the next one has the same pixel
+ * size, which saves allocating and clearing a new raster for every barcode.
  *
  * @author Jeremias Maerki
  * @author mk
- * @version 1.2
+ * @version 1.4
+ * @see BitmapCanvasProviderPool
  */
-public class BitmapCanvasProvider extends AbstractCanvasProvider {
+public class BitmapCanvasProvider extends AbstractCanvasProvider
+        implements ResettableCanvasProvider {
 
     private OutputStream out;
     private String mime;
@@ -42,7 +68,23 @@ public class BitmapCanvasProvider extends AbstractCanvasProvider {
     private int imageType;
     private boolean antiAlias;
     private BufferedImage image;
+    /** the image of the previous barcode, reused if the size matches */
+    private BufferedImage recycled;
+    /** the graphics prepared by BitmapBuilder for the delegate */
+    private Graphics2D graphics;
     private Java2DCanvasProvider delegate;
+    private boolean scanlineReplication;
+    private boolean pixelExact;
+    /** untransformed graphics for pixel-exact bars */
+    private Graphics2D pixelGraphics;
+    /** pixels per mm in x and y direction of the unrotated barcode */
+    private double scaleX;
+    private double scaleY;
+    /** true while bars and texts are recorded for scanline replication */
+    private boolean recording;
+    private double[] rects = new double[64];
+    private int rectCount;
+    private final List<PendingText> texts = new ArrayList<PendingText>(1);
 
     /**
      * Creates a new BitmapCanvasProvider.
@@ -120,6 +162,7 @@ public class BitmapCanvasProvider extends AbstractCanvasProvider {
      * @throws IOException in case of an I/O problem
      */
     public void finish() throws IOException {
+        flushRecorded();
         this.image.flush();
         if (this.out != null) {
             final BitmapEncoder encoder = BitmapEncoderRegistry.getInstance(mime);
@@ -127,35 +170,344 @@ public class BitmapCanvasProvider extends AbstractCanvasProvider {
         }
     }
 
+    /**
+     * Prepares the provider for the next barcode. Pending bars are discarded
+     * and the current image is kept for reuse, so it is overwritten by the
+     * next barcode if that has the same pixel size. The settings including
+     * the output stream are kept.
+     */
+    @Override
+    public void reset() {
+        super.establishDimensions(null);
+        if (this.image != null) {
+            this.recycled = this.image;
+            this.image = null;
+        }
+        this.recording = false;
+        this.rectCount = 0;
+        this.texts.clear();
+        disposeGraphics();
+    }
+
+    private void disposeGraphics() {
+        if (this.delegate != null && this.delegate.getGraphics2D() != this.graphics) {
+            this.delegate.getGraphics2D().dispose();
+        }
+        if (this.graphics != null) {
+            this.graphics.dispose();
+            this.graphics = null;
+        }
+        if (this.pixelGraphics != null) {
+            this.pixelGraphics.dispose();
+            this.pixelGraphics = null;
+        }
+    }
+
+    /**
+     * Sets the stream the image is written to by {@link #finish()}.
+     *
+     * @param out the OutputStream to write to, null to only paint the image
+     */
+    public void setOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Returns the MIME type of the output format.
+     *
+     * @return the MIME type (may be null)
+     */
+    public String getMimeType() {
+        return this.mime;
+    }
+
+    /**
+     * Returns the image resolution.
+     *
+     * @return the resolution (dots per inch)
+     */
+    public int getResolution() {
+        return this.resolution;
+    }
+
+    /**
+     * Returns the image type.
+     *
+     * @return the image type (Values: BufferedImage.TYPE_*)
+     */
+    public int getImageType() {
+        return this.imageType;
+    }
+
+    /**
+     * Indicates whether anti-aliasing is enabled.
+     *
+     * @return true if anti-aliasing is enabled
+     */
+    public boolean isAntiAlias() {
+        return this.antiAlias;
+    }
+
     /**
      * Returns the buffered image that is used to paint the barcode on.
      *
      * @return the image.
      */
     public BufferedImage getBufferedImage() {
+        flushRecorded();
         return this.image;
     }
 
+    /**
+     * Enables scanline replication for the bars. This is only applied to
+     * unrotated barcodes painted on 1 bit {@link BufferedImage#TYPE_BYTE_BINARY}
+     * or {@link BufferedImage#TYPE_BYTE_GRAY} images, otherwise Java2D is
+     * used as usual. Bar edges are always aligned to whole pixels, the
+     * human-readable text is still painted by Java2D.
+     *
+     * @param value true to enable scanline replication
+     */
+    public void setScanlineReplication(boolean value) {
+        this.scanlineReplication = value;
+    }
+
+    /**
+     * Indicates whether scanline replication is enabled.
+     *
+     * @return true if scanline replication is enabled
+     */
+    public boolean isScanlineReplication() {
+        return this.scanlineReplication;
+    }
+
+    /**
+     * Enables pixel-exact painting of the bars. Bar edges are rounded to whole
+     * pixels and painted with integer coordinates, without anti-aliasing. The
+     * human-readable text is still painted by Java2D.
+     *
+     * @param value true to enable pixel-exact painting
+     * @see PixelGrid
+     */
+    public void setPixelExact(boolean value) {
+        this.pixelExact = value;
+    }
+
+    /**
+     * Indicates whether pixel-exact painting is enabled.
+     *
+     * @return true if pixel-exact painting is enabled
+     */
+    public boolean isPixelExact() {
+        return this.pixelExact;
+    }
+
     @Override
     public void establishDimensions(BarcodeDimension dim) {
         super.establishDimensions(dim);
-        this.image = BitmapBuilder.prepareImage(dim, getOrientation(),
-                this.resolution, this.imageType);
-        this.delegate = new Java2DCanvasProvider(
-                BitmapBuilder.prepareGraphics2D(this.image, dim, getOrientation(),
-                        this.antiAlias), getOrientation());
+        final BufferedImage old = this.recycled;
+        this.recycled = null;
+        if (old != null
+                && old.getWidth() == UnitConv.mm2px(dim.getWidthPlusQuiet(getOrientation()), this.resolution)
+                && old.getHeight() == UnitConv.mm2px(dim.getHeightPlusQuiet(getOrientation()), this.resolution)) {
+            //cleared by prepareGraphics2D
+            this.image = old;
+        } else {
+            this.image = BitmapBuilder.prepareImage(dim, getOrientation(),
+                    this.resolution, this.imageType);
+        }
+        this.graphics = BitmapBuilder.prepareGraphics2D(this.image, dim, getOrientation(),
+                this.antiAlias);
+        if (this.delegate == null) {
+            this.delegate = new Java2DCanvasProvider(this.graphics, getOrientation());
+        } else {
+            this.delegate.setGraphics2D(this.graphics);
+        }
         this.delegate.establishDimensions(dim);
+        this.recording = this.scanlineReplication
+                && getOrientation() == Orientation.ZERO && isRasterizable(this.image);
+        this.rectCount = 0;
+        this.texts.clear();
+        final boolean switched = getOrientation().isSwitched();
+        this.scaleX = (switched ? this.image.getHeight() : this.image.getWidth())
+                / dim.getWidthPlusQuiet();
+        this.scaleY = (switched ? this.image.getWidth() : this.image.getHeight())
+                / dim.getHeightPlusQuiet();
+        this.pixelGraphics = null;
+        if (this.pixelExact && !this.recording) {
+            this.pixelGraphics = this.image.createGraphics();
+            this.pixelGraphics.setColor(Color.black);
+        }
+    }
+
+    private static boolean isRasterizable(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                || (image.getType() == BufferedImage.TYPE_BYTE_BINARY
+                        && image.getSampleModel().getSampleSize(0) == 1);
     }
 
     @Override
     public void deviceFillRect(double x, double y, double w, double h) {
-        this.delegate.deviceFillRect(x, y, w, h);
+        if (this.pixelGraphics != null) {
+            fillPixels(x, y, w, h);
+            return;
+        }
+        if (!this.recording) {
+            this.delegate.deviceFillRect(x, y, w, h);
+            return;
+        }
+        if (this.rectCount * 4 == this.rects.length) {
+            this.rects = Arrays.copyOf(this.rects, this.rects.length * 2);
+        }
+        final int i = this.rectCount * 4;
+        this.rects[i] = x;
+        this.rects[i + 1] = y;
+        this.rects[i + 2] = w;
+        this.rects[i + 3] = h;
+        this.rectCount++;
     }
 
     @Override
     public void deviceText(String text,
             double x1, double x2, double y1,
             String fontName, double fontSize, TextAlignment textAlign) {
+        if (this.recording) {
+            //painted after the bars which overwrite whole pixel rows
+            this.texts.add(new PendingText(text, x1, x2, y1, fontName, fontSize, textAlign));
+            return;
+        }
         this.delegate.deviceText(text, x1, x2, y1, fontName, fontSize, textAlign);
     }
+
+    private void fillPixels(double x, double y, double w, double h) {
+        final int x0 = (int) Math.round(x * this.scaleX);
+        final int y0 = (int) Math.round(y * this.scaleY);
+        final int x1 = (int) Math.round((x + w) * this.scaleX);
+        final int y1 = (int) Math.round((y + h) * this.scaleY);
+        final int width = getOrientation().isSwitched() ? this.image.getHeight() : this.image.getWidth();
+        final int height = getOrientation().isSwitched() ? this.image.getWidth() : this.image.getHeight();
+        switch (getOrientation()) {
+        case NINETY:
+            this.pixelGraphics.fillRect(y0, width - x1, y1 - y0, x1 - x0);
+            break;
+        case ONEHUNDRED_EIGHTY:
+            this.pixelGraphics.fillRect(width - x1, height - y1, x1 - x0, y1 - y0);
+            break;
+        case TWOHUNDRED_SEVENTY:
+            this.pixelGraphics.fillRect(height - y1, x0, y1 - y0, x1 - x0);
+            break;
+        default:
+            this.pixelGraphics.fillRect(x0, y0, x1 - x0, y1 - y0);
+        }
+    }
+
+    /**
+     * Paints the recorded bars and texts.
+     */
+    private void flushRecorded() {
+        if (!this.recording) {
+            return;
+        }
+        this.recording = false;
+        paintScanlines();
+        for (final PendingText t : this.texts) {
+            this.delegate.deviceText(t.text, t.x1, t.x2, t.y1,
+                    t.fontName, t.fontSize, t.textAlign);
+        }
+        this.texts.clear();
+    }
+
+    private void paintScanlines() {
+        final int width = this.image.getWidth();
+        final int height = this.image.getHeight();
+        final double sx = this.scaleX;
+        final double sy = this.scaleY;
+
+        //integer pixel boxes, edges are rounded so adjacent bars abut
+        final int[] px = new int[this.rectCount * 4];
+        final int[] bounds = new int[this.rectCount * 2];
+        for (int r = 0; r < this.rectCount; r++) {
+            final int i = r * 4;
+            px[i] = clamp((int) Math.round(this.rects[i] * sx), width);
+            px[i + 1] = clamp((int) Math.round(this.rects[i + 1] * sy), height);
+            px[i + 2] = clamp((int) Math.round((this.rects[i] + this.rects[i + 2]) * sx), width);
+            px[i + 3] = clamp((int) Math.round((this.rects[i + 1] + this.rects[i + 3]) * sy), height);
+            bounds[r * 2] = px[i + 1];
+            bounds[r * 2 + 1] = px[i + 3];
+        }
+        Arrays.sort(bounds);
+
+        final SampleModel model = this.image.getSampleModel();
+        final byte[] pixels = ((DataBufferByte) this.image.getRaster().getDataBuffer()).getData();
+        final boolean binary = this.image.getType() == BufferedImage.TYPE_BYTE_BINARY;
+        final int scanline = binary
+                ? ((MultiPixelPackedSampleModel) model).getScanlineStride()
+                : ((PixelInterleavedSampleModel) model).getScanlineStride();
+        final int stride = (width + 7) >> 3;
+        final byte[] line = new byte[stride];
+
+        //every band between two distinct rectangle edges has identical rows
+        for (int b = 0; b < bounds.length - 1; b++) {
+            final int top = bounds[b];
+            final int bottom = bounds[b + 1];
+            if (top == bottom) {
+                continue;
+            }
+            Arrays.fill(line, (byte) 0);
+            boolean empty = true;
+            for (int i = 0; i < px.length; i += 4) {
+                if (px[i + 1] <= top && px[i + 3] >= bottom) {
+                    TwoDimSymbolRasterizer.fillBits(line, 0, px[i], px[i + 2]);
+                    empty = false;
+                }
+            }
+            if (empty) {
+                continue;
+            }
+            final int offset = top * scanline;
+            if (binary) {
+                //the image uses 0 for black
+                for (int i = 0; i < stride; i++) {
+                    pixels[offset + i] = (byte) ~line[i];
+                }
+            } else {
+                for (int x = 0; x < width; x++) {
+                    if ((line[x >> 3] & (0x80 >> (x & 7))) != 0) {
+                        pixels[offset + x] = 0;
+                    }
+                }
+            }
+            for (int y = top + 1; y < bottom; y++) {
+                System.arraycopy(pixels, offset, pixels, y * scanline, scanline);
+            }
+        }
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * A text painted once the bars are done.
+     */
+    private static final class PendingText {
+
+        private final String text;
+        private final double x1;
+        private final double x2;
+        private final double y1;
+        private final String fontName;
+        private final double fontSize;
+        private final TextAlignment textAlign;
+
+        PendingText(String text, double x1, double x2, double y1,
+                String fontName, double fontSize, TextAlignment textAlign) {
+            this.text = text;
+            this.x1 = x1;
+            this.x2 = x2;
+            this.y1 = y1;
+            this.fontName = fontName;
+            this.fontSize = fontSize;
+            this.textAlign = textAlign;
+        }
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Canvas factory for generating a batch of bitmaps. The bitmap encoder is
+ * looked up once for the whole batch and the canvas is reset and reused for
+ * every message, so barcodes of the same size are painted into the same image.
+ * Subclasses decide where each image is written to.
+ *
+ * @author mk
+ * @version 1.1
+ */
+public abstract class BitmapCanvasProviderFactory implements CanvasProviderFactory {
+
+    private final String mime;
+    private final int resolution;
+    private final int imageType;
+    private final boolean antiAlias;
+    private final Orientation orientation;
+    private final BitmapEncoder encoder;
+    private BitmapCanvasProvider canvas;
+
+    /**
+     * Creates a new factory.
+     *
+     * @param mime MIME type of the desired output format (ex. "image/png")
+     * @param resolution the desired image resolution (dots per inch)
+     * @param imageType the desired image type (Values: BufferedImage.TYPE_*)
+     * @param antiAlias true if anti-aliasing should be enabled
+     * @param orientation the barcode orientation
+     */
+    public BitmapCanvasProviderFactory(String mime, int resolution, int imageType,
+            boolean antiAlias, Orientation orientation) {
+        this.mime = mime;
+        this.resolution = resolution;
+        this.imageType = imageType;
+        this.antiAlias = antiAlias;
+        this.orientation = orientation;
+        this.encoder = BitmapEncoderRegistry.getInstance(mime);
+    }
+
+    /**
+     * Opens the stream the image for a message is written to. The stream is
+     * closed by the factory once the image has been written.
+     *
+     * @param index the index of the message in the batch (0-based)
+     * @param msg the message
+     * @return the output stream
+     * @throws IOException if the stream can't be opened
+     */
+    protected abstract OutputStream openOutputStream(int index, String msg) throws IOException;
+
+    @Override
+    public CanvasProvider createCanvasProvider(int index, String msg) throws IOException {
+        if (canvas == null) {
+            canvas = new BitmapCanvasProvider(resolution, imageType, antiAlias, orientation);
+        } else {
+            canvas.reset();
+        }
+        return canvas;
+    }
+
+    @Override
+    public void finishCanvasProvider(CanvasProvider canvas, int index, String msg)
+            throws IOException {
+        final BitmapCanvasProvider bitmap = (BitmapCanvasProvider) canvas;
+        bitmap.finish();
+        final OutputStream out = openOutputStream(index, msg);
+        try {
+            encoder.encode(bitmap.getBufferedImage(), out, mime, resolution);
+        } finally {
+            out.close();
+        }
+    }
+}
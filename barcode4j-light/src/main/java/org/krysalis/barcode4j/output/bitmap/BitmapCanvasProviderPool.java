@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Pool of idle {@link BitmapCanvasProvider} instances, so a service rendering
+ * many barcodes paints into recycled images instead of allocating a new
+ * raster per barcode. Providers are pooled by output format, resolution,
+ * image type, anti-aliasing and orientation. A provider keeps the image of
+ * its last barcode, which is reused when the next barcode has the same pixel
+ * size.
+ * <p>
+ * A pool is confined to the thread which created it. Use
+ * {@link #forCurrentThread()} to get the pool of the current thread.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class BitmapCanvasProviderPool {
+
+    /** the default maximum number of idle providers per key */
+    public static final int DEFAULT_MAX_IDLE = 4;
+
+    private static final ThreadLocal<BitmapCanvasProviderPool> POOLS
+            = new ThreadLocal<BitmapCanvasProviderPool>() {
+                @Override
+                protected BitmapCanvasProviderPool initialValue() {
+                    return new BitmapCanvasProviderPool();
+                }
+            };
+
+    private final Thread owner = Thread.currentThread();
+    private final int maxIdle;
+    private final Map<Key, Deque<BitmapCanvasProvider>> idle
+            = new HashMap<Key, Deque<BitmapCanvasProvider>>();
+
+    /**
+     * Creates a new pool with {@link #DEFAULT_MAX_IDLE} idle providers per
+     * key.
+     */
+    public BitmapCanvasProviderPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxIdle the maximum number of idle providers per key
+     */
+    public BitmapCanvasProviderPool(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle must not be negative: " + maxIdle);
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns the pool of the current thread.
+     *
+     * @return the pool
+     */
+    public static BitmapCanvasProviderPool forCurrentThread() {
+        return POOLS.get();
+    }
+
+    /**
+     * Returns a provider which writes to a stream on {@link BitmapCanvasProvider#finish()}.
+     *
+     * @param out OutputStream to write to (may be null)
+     * @param mime MIME type of the desired output format (ex. "image/png")
+     * @param resolution the desired image resolution (dots per inch)
+     * @param imageType the desired image type (Values: BufferedImage.TYPE_*)
+     * @param antiAlias true if anti-aliasing should be enabled
+     * @param orientation the barcode orientation
+     * @return an idle provider or a new one
+     */
+    public BitmapCanvasProvider acquire(OutputStream out, String mime, int resolution,
+            int imageType, boolean antiAlias, Orientation orientation) {
+        checkThread();
+        final Deque<BitmapCanvasProvider> queue = idle.get(
+                new Key(mime, resolution, imageType, antiAlias, orientation));
+        final BitmapCanvasProvider provider = queue == null ? null : queue.pollFirst();
+        if (provider == null) {
+            return new BitmapCanvasProvider(out, mime, resolution, imageType, antiAlias, orientation);
+        }
+        provider.setOutputStream(out);
+        return provider;
+    }
+
+    /**
+     * Returns a provider which only paints the image.
+     *
+     * @param resolution the desired image resolution (dots per inch)
+     * @param imageType the desired image type (Values: BufferedImage.TYPE_*)
+     * @param antiAlias true if anti-aliasing should be enabled
+     * @param orientation the barcode orientation
+     * @return an idle provider or a new one
+     */
+    public BitmapCanvasProvider acquire(int resolution, int imageType, boolean antiAlias,
+            Orientation orientation) {
+        return acquire(null, null, resolution, imageType, antiAlias, orientation);
+    }
+
+    /**
+     * Hands a provider back to the pool. The provider is reset and its
+     * settings are restored to the defaults. The image of the last barcode
+     * must not be used anymore after this call.
+     *
+     * @param provider the provider
+     */
+    public void release(BitmapCanvasProvider provider) {
+        checkThread();
+        provider.reset();
+        provider.setOutputStream(null);
+        provider.setScanlineReplication(false);
+        provider.setPixelExact(false);
+        final Key key = new Key(provider.getMimeType(), provider.getResolution(),
+                provider.getImageType(), provider.isAntiAlias(), provider.getOrientation());
+        Deque<BitmapCanvasProvider> queue = idle.get(key);
+        if (queue == null) {
+            queue = new ArrayDeque<BitmapCanvasProvider>(maxIdle);
+            idle.put(key, queue);
+        }
+        if (queue.size() < maxIdle) {
+            queue.addFirst(provider);
+        }
+    }
+
+    /**
+     * Returns the number of idle providers.
+     *
+     * @return the number of idle providers of all keys
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (final Deque<BitmapCanvasProvider> queue : idle.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Drops all idle providers and their images.
+     */
+    public void clear() {
+        checkThread();
+        idle.clear();
+    }
+
+    private void checkThread() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Pool is confined to thread " + owner.getName());
+        }
+    }
+
+    /**
+     * The settings a provider is pooled by.
+     */
+    private static final class Key {
+
+        private final String mime;
+        private final int resolution;
+        private final int imageType;
+        private final boolean antiAlias;
+        private final Orientation orientation;
+
+        Key(String mime, int resolution, int imageType, boolean antiAlias,
+                Orientation orientation) {
+            this.mime = mime;
+            this.resolution = resolution;
+            this.imageType = imageType;
+            this.antiAlias = antiAlias;
+            this.orientation = orientation;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return resolution == other.resolution && imageType == other.imageType
+                    && antiAlias == other.antiAlias && orientation == other.orientation
+                    && (mime == null ? other.mime == null : mime.equals(other.mime));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 31 * hash + (mime == null ? 0 : mime.hashCode());
+            hash = 31 * hash + resolution;
+            hash = 31 * hash + imageType;
+            hash = 31 * hash + (antiAlias ? 1 : 0);
+            hash = 31 * hash + orientation.hashCode();
+            return hash;
+        }
+    }
+}
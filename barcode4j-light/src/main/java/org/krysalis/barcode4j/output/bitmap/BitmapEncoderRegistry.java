@@ -15,15 +15,26 @@
  */
 package org.krysalis.barcode4j.output.bitmap;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Registry class for BitmapEncoders.
+ * <p>
+ * Lookups use an immutable index from MIME type to encoder which is rebuilt
+ * whenever an encoder is registered, so they are a single map read and safe
+ * to use concurrently with {@link #register(String, int)}. The supported MIME
+ * types of an encoder are queried once when it is registered.
+ * <p>
+ * The ImageIO encoder has the lowest priority of the built-in encoders and is
+ * only registered when a MIME type is looked up that no encoder of a higher
+ * priority supports, so PNG and TIFF output don't initialize ImageIO.
  *
  * @author Jeremias Maerki
- * @version 1.2
+ * @author mk
+ * @version 1.6
  */
 public final class BitmapEncoderRegistry {
 
@@ -31,14 +42,28 @@ public final class BitmapEncoderRegistry {
 
         @Override
         public int compare(Entry o1, Entry o2) {
-            //highest priority first
-            return o1.priority - o2.priority;
+            //highest priority first, same priority in order of registration
+            if (o1.priority != o2.priority) {
+                return o1.priority > o2.priority ? -1 : 1;
+            }
+            return o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
         }
     });
 
+    private static int sequence;
+
+    /** priority of the ImageIO encoder */
+    private static final int IMAGEIO_PRIORITY = 0;
+
+    /** MIME type to encoder with the highest priority, replaced on register */
+    private static volatile Map<String, Entry> index = Collections.emptyMap();
+
+    /** whether the registration of the ImageIO encoder has been tried */
+    private static volatile boolean imageIOLoaded;
+
     static {
-        register(org.krysalis.barcode4j.output.bitmap.ImageIOBitmapEncoder.class.getName(),
-                0, false);
+        add(new PNGBitmapEncoder(), 10, sequence++);
+        add(new TIFFBitmapEncoder(), 10, sequence++);
     }
 
     /**
@@ -52,10 +77,12 @@ public final class BitmapEncoderRegistry {
 
         private final BitmapEncoder encoder;
         private final int priority;
+        private final int sequence;
 
-        public Entry(BitmapEncoder encoder, int priority) {
+        public Entry(BitmapEncoder encoder, int priority, int sequence) {
             this.encoder = encoder;
             this.priority = priority;
+            this.sequence = sequence;
         }
     }
 
@@ -72,8 +99,7 @@ public final class BitmapEncoderRegistry {
         Throwable error = null;
         try {
             final Class<?> clazz = Class.forName(classname);
-            final BitmapEncoder encoder = (BitmapEncoder) clazz.newInstance();
-            encoders.add(new Entry(encoder, priority));
+            add((BitmapEncoder) clazz.newInstance(), priority, sequence++);
         } catch (ClassNotFoundException e) {
             error = e;
         } catch (InstantiationException e) {
@@ -88,6 +114,52 @@ public final class BitmapEncoderRegistry {
         }
     }
 
+    private static synchronized void add(BitmapEncoder encoder, int priority, int seq) {
+        encoders.add(new Entry(encoder, priority, seq));
+        rebuildIndex();
+    }
+
+    /**
+     * Registers the ImageIO encoder unless that has already been tried.
+     */
+    private static synchronized void loadImageIO() {
+        if (imageIOLoaded) {
+            return;
+        }
+        try {
+            //registered first before, so it wins over encoders of the same priority
+            add(new ImageIOBitmapEncoder(), IMAGEIO_PRIORITY, -1);
+        } catch (ClassNotFoundException e) {
+            //ImageIO is unavailable, logged by the encoder
+        }
+        imageIOLoaded = true;
+    }
+
+    private static void rebuildIndex() {
+        final Map<String, Entry> newIndex = new java.util.HashMap<String, Entry>();
+        for (final Entry entry : encoders) {
+            for (final String mime : entry.encoder.getSupportedMIMETypes()) {
+                if (!newIndex.containsKey(mime)) {
+                    newIndex.put(mime, entry);
+                }
+            }
+        }
+        index = Collections.unmodifiableMap(newIndex);
+    }
+
+    /**
+     * Looks up the encoder for a MIME type, registering the ImageIO encoder
+     * if it could be chosen.
+     */
+    private static Entry lookup(String mime) {
+        Entry entry = index.get(mime);
+        if ((entry == null || entry.priority <= IMAGEIO_PRIORITY) && !imageIOLoaded) {
+            loadImageIO();
+            entry = index.get(mime);
+        }
+        return entry;
+    }
+
     /**
      * Register a new BitmapEncoder implementation.
      *
@@ -125,13 +197,7 @@ public final class BitmapEncoderRegistry {
      * @return true if the MIME type is supported
      */
     public static boolean supports(String mime) {
-        for (final Entry entry : encoders) {
-            final BitmapEncoder encoder = entry.encoder;
-            if (supports(encoder, mime)) {
-                return true;
-            }
-        }
-        return false;
+        return lookup(mime) != null;
     }
 
     /**
@@ -142,11 +208,9 @@ public final class BitmapEncoderRegistry {
      * if no suitable BitmapEncoder is available)
      */
     public static BitmapEncoder getInstance(String mime) {
-        for (final Entry entry : encoders) {
-            final BitmapEncoder encoder = entry.encoder;
-            if (supports(encoder, mime)) {
-                return encoder;
-            }
+        final Entry entry = lookup(mime);
+        if (entry != null) {
+            return entry.encoder;
         }
         throw new UnsupportedOperationException(
                 "No BitmapEncoder available for " + mime);
@@ -159,10 +223,7 @@ public final class BitmapEncoderRegistry {
      * @return a Set of Strings (MIME types)
      */
     public static Set<String> getSupportedMIMETypes() {
-        final Set<String> mimes = new java.util.HashSet<String>();
-        for (final Entry entry : encoders) {
-            mimes.addAll(Arrays.asList(entry.encoder.getSupportedMIMETypes()));
-        }
-        return mimes;
+        loadImageIO();
+        return new java.util.HashSet<String>(index.keySet());
     }
 }
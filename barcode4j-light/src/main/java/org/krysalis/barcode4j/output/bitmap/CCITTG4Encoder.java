@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.util.Arrays;
+
+/**
+ * Encoder for CCITT T.6 (Group 4) two-dimensional coding of bilevel images.
+ * Every row is coded against the row above it with the pass, horizontal and
+ * vertical modes; the first row is coded against an imaginary white row. The
+ * output ends with EOFB and is padded to a full byte, bits are filled most
+ * significant bit first.
+ * <p>
+ * Instances reuse their buffers and are not thread-safe.
+ *
+ * @author mk
+ * @version 1.0
+ */
+final class CCITTG4Encoder {
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+
+    /* T.4 run length codes: 0-63 terminating, then make-up codes 64-1728 */
+    private static final String[] WHITE_CODES = {
+        "00110101", "000111", "0111", "1000", "1011", "1100", "1110", "1111",
+        "10011", "10100", "00111", "01000", "001000", "000011", "110100", "110101",
+        "101010", "101011", "0100111", "0001100", "0001000", "0010111", "0000011", "0000100",
+        "0101000", "0101011", "0010011", "0100100", "0011000", "00000010", "00000011", "00011010",
+        "00011011", "00010010", "00010011", "00010100", "00010101", "00010110", "00010111", "00101000",
+        "00101001", "00101010", "00101011", "00101100", "00101101", "00000100", "00000101", "00001010",
+        "00001011", "01010010", "01010011", "01010100", "01010101", "00100100", "00100101", "01011000",
+        "01011001", "01011010", "01011011", "01001010", "01001011", "00110010", "00110011", "00110100",
+        "11011", "10010", "010111", "0110111", "00110110", "00110111", "01100100", "01100101",
+        "01101000", "01100111", "011001100", "011001101", "011010010", "011010011", "011010100",
+        "011010101", "011010110", "011010111", "011011000", "011011001", "011011010", "011011011",
+        "010011000", "010011001", "010011010", "011000", "010011011",
+    };
+
+    private static final String[] BLACK_CODES = {
+        "0000110111", "010", "11", "10", "011", "0011", "0010", "00011",
+        "000101", "000100", "0000100", "0000101", "0000111", "00000100", "00000111", "000011000",
+        "0000010111", "0000011000", "0000001000", "00001100111", "00001101000", "00001101100",
+        "00000110111", "00000101000", "00000010111", "00000011000", "000011001010", "000011001011",
+        "000011001100", "000011001101", "000001101000", "000001101001", "000001101010",
+        "000001101011", "000011010010", "000011010011", "000011010100", "000011010101",
+        "000011010110", "000011010111", "000001101100", "000001101101", "000011011010",
+        "000011011011", "000001010100", "000001010101", "000001010110", "000001010111",
+        "000001100100", "000001100101", "000001010010", "000001010011", "000000100100",
+        "000000110111", "000000111000", "000000100111", "000000101000", "000001011000",
+        "000001011001", "000000101011", "000000101100", "000001011010", "000001100110",
+        "000001100111",
+        "0000001111", "000011001000", "000011001001", "000001011011", "000000110011",
+        "000000110100", "000000110101", "0000001101100", "0000001101101", "0000001001010",
+        "0000001001011", "0000001001100", "0000001001101", "0000001110010", "0000001110011",
+        "0000001110100", "0000001110101", "0000001110110", "0000001110111", "0000001010010",
+        "0000001010011", "0000001010100", "0000001010101", "0000001011010", "0000001011011",
+        "0000001100100", "0000001100101",
+    };
+
+    /* make-up codes 1792-2560 shared by both colors */
+    private static final String[] EXTENDED_CODES = {
+        "00000001000", "00000001100", "00000001101", "000000010010", "000000010011",
+        "000000010100", "000000010101", "000000010110", "000000010111", "000000011100",
+        "000000011101", "000000011110", "000000011111",
+    };
+
+    /* index 63 + run / 64 for make-up codes */
+    private static final int[][] RUN_CODES = new int[2][];
+    private static final int[][] RUN_LENGTHS = new int[2][];
+
+    private static final int PASS = 0x1;
+    private static final int PASS_LENGTH = 4;
+    private static final int HORIZONTAL = 0x1;
+    private static final int HORIZONTAL_LENGTH = 3;
+    /* vertical modes VR3, VR2, VR1, V0, VL1, VL2, VL3 indexed by b1 - a1 + 3 */
+    private static final int[] VERTICAL = {0x03, 0x03, 0x03, 0x1, 0x2, 0x02, 0x02};
+    private static final int[] VERTICAL_LENGTH = {7, 6, 3, 1, 3, 6, 7};
+    private static final int EOL = 0x001;
+    private static final int EOL_LENGTH = 12;
+
+    private static final int MAX_MAKEUP = 2560;
+
+    static {
+        initCodes(WHITE, WHITE_CODES);
+        initCodes(BLACK, BLACK_CODES);
+    }
+
+    private byte[] reference = new byte[0];
+    private byte[] current = new byte[0];
+    private byte[] data = new byte[1024];
+    private int length;
+    private int bits;
+    private int bitCount;
+
+    private static void initCodes(int color, String[] codes) {
+        final int size = codes.length + EXTENDED_CODES.length;
+        RUN_CODES[color] = new int[size];
+        RUN_LENGTHS[color] = new int[size];
+        for (int i = 0; i < size; i++) {
+            final String code = i < codes.length ? codes[i] : EXTENDED_CODES[i - codes.length];
+            RUN_CODES[color][i] = Integer.parseInt(code, 2);
+            RUN_LENGTHS[color][i] = code.length();
+        }
+    }
+
+    /**
+     * Encodes a 1-bit image.
+     *
+     * @param pixels the packed pixels, rows start at a byte boundary
+     * @param scanlineStride the number of bytes per row in pixels
+     * @param width the image width
+     * @param height the image height
+     * @param blackBit the bit value of black pixels (0 or 1)
+     * @return the number of bytes of coded data, see {@link #getData()}
+     */
+    int encode(byte[] pixels, int scanlineStride, int width, int height, int blackBit) {
+        final int rowBytes = (width + 7) >> 3;
+        if (current.length < rowBytes) {
+            current = new byte[rowBytes];
+            reference = new byte[rowBytes];
+        }
+        Arrays.fill(reference, 0, rowBytes, (byte) 0);
+        length = 0;
+        bits = 0;
+        bitCount = 0;
+        for (int y = 0; y < height; y++) {
+            //normalized so that 1 is black, as in the coding rules
+            final int offset = y * scanlineStride;
+            if (blackBit == 1) {
+                System.arraycopy(pixels, offset, current, 0, rowBytes);
+            } else {
+                for (int i = 0; i < rowBytes; i++) {
+                    current[i] = (byte) ~pixels[offset + i];
+                }
+            }
+            if ((width & 7) != 0) {
+                current[rowBytes - 1] &= (byte) (0xFF00 >> (width & 7));
+            }
+            encodeRow(current, reference, width);
+            final byte[] swap = reference;
+            reference = current;
+            current = swap;
+        }
+        //EOFB
+        put(EOL, EOL_LENGTH);
+        put(EOL, EOL_LENGTH);
+        if (bitCount > 0) {
+            put(0, 8 - bitCount);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the buffer holding the coded data of the last image.
+     *
+     * @return the coded data, valid up to the length returned by encode
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    private void encodeRow(byte[] line, byte[] ref, int width) {
+        int a0 = 0;
+        int a1 = pixel(line, 0, width) != 0 ? 0 : findDiff(line, 0, width, WHITE);
+        int b1 = pixel(ref, 0, width) != 0 ? 0 : findDiff(ref, 0, width, WHITE);
+        while (true) {
+            final int b2 = findDiff(ref, b1, width, pixel(ref, b1, width));
+            if (b2 >= a1) {
+                final int d = b1 - a1;
+                if (d < -3 || d > 3) {
+                    final int a2 = findDiff(line, a1, width, pixel(line, a1, width));
+                    put(HORIZONTAL, HORIZONTAL_LENGTH);
+                    if (a0 + a1 == 0 || pixel(line, a0, width) == WHITE) {
+                        putRun(a1 - a0, WHITE);
+                        putRun(a2 - a1, BLACK);
+                    } else {
+                        putRun(a1 - a0, BLACK);
+                        putRun(a2 - a1, WHITE);
+                    }
+                    a0 = a2;
+                } else {
+                    put(VERTICAL[d + 3], VERTICAL_LENGTH[d + 3]);
+                    a0 = a1;
+                }
+            } else {
+                put(PASS, PASS_LENGTH);
+                a0 = b2;
+            }
+            if (a0 >= width) {
+                break;
+            }
+            final int color = pixel(line, a0, width);
+            a1 = findDiff(line, a0, width, color);
+            b1 = findDiff(ref, a0, width, color ^ 1);
+            b1 = findDiff(ref, b1, width, color);
+        }
+    }
+
+    private static int pixel(byte[] line, int x, int width) {
+        if (x >= width) {
+            return WHITE;
+        }
+        return (line[x >> 3] >> (7 - (x & 7))) & 1;
+    }
+
+    /**
+     * Returns the position of the first pixel at or after start which doesn't
+     * have the given color, or the width.
+     */
+    private static int findDiff(byte[] line, int start, int width, int color) {
+        final int skip = color == WHITE ? 0 : 0xFF;
+        int x = start;
+        while (x < width) {
+            if ((x & 7) == 0 && x + 8 <= width && (line[x >> 3] & 0xFF) == skip) {
+                x += 8;
+            } else if (((line[x >> 3] >> (7 - (x & 7))) & 1) != color) {
+                return x;
+            } else {
+                x++;
+            }
+        }
+        return width;
+    }
+
+    private void putRun(int run, int color) {
+        final int[] codes = RUN_CODES[color];
+        final int[] lengths = RUN_LENGTHS[color];
+        int span = run;
+        while (span >= MAX_MAKEUP + 64) {
+            final int i = 63 + (MAX_MAKEUP >> 6);
+            put(codes[i], lengths[i]);
+            span -= MAX_MAKEUP;
+        }
+        if (span >= 64) {
+            final int i = 63 + (span >> 6);
+            put(codes[i], lengths[i]);
+            span &= 63;
+        }
+        put(codes[span], lengths[span]);
+    }
+
+    private void put(int code, int len) {
+        bits = (bits << len) | code;
+        bitCount += len;
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[length++] = (byte) (bits >>> bitCount);
+        }
+        bits &= (1 << bitCount) - 1;
+    }
+}
@@ -16,9 +16,16 @@
 package org.krysalis.barcode4j.output.bitmap;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,21 +36,84 @@ import javax.imageio.ImageWriter;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 import org.krysalis.barcode4j.tools.MimeTypes;
 import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
  * BitmapEncoder implementation using ImageIO.
+ * <p>
+ * ImageWriters are pooled per MIME type and reused, and every pooled writer
+ * keeps the metadata it has set up per resolution and image type. So after
+ * warm-up encoding a barcode neither looks up the ImageIO service registry
+ * nor builds metadata trees.
  *
  * @author Jeremias Maerki
  * @author mk
- * @version 1.2
+ * @version 1.3
  */
 public class ImageIOBitmapEncoder implements BitmapEncoder {
 
     private static final Logger LOGGER = Logger.getLogger(ImageIOBitmapEncoder.class.getName());
 
+    /** upper limit of metadata entries cached per writer */
+    private static final int MAX_METADATA_ENTRIES = 16;
+
+    private final ConcurrentMap<String, Queue<PooledWriter>> writers =
+            new ConcurrentHashMap<String, Queue<PooledWriter>>();
+
+    /**
+     * An ImageWriter together with the metadata set up for it.
+     */
+    private static final class PooledWriter {
+
+        private final ImageWriter writer;
+        private final Map<MetadataKey, IIOMetadata> metadata =
+                new java.util.HashMap<MetadataKey, IIOMetadata>();
+
+        private PooledWriter(ImageWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * Identifies the metadata of an image: resolution, image type and palette.
+     */
+    private static final class MetadataKey {
+
+        private final int resolution;
+        private final int imageType;
+        private final int[] palette;
+
+        private MetadataKey(BufferedImage image, int resolution) {
+            this.resolution = resolution;
+            this.imageType = image.getType();
+            if (image.getColorModel() instanceof IndexColorModel) {
+                final IndexColorModel cm = (IndexColorModel) image.getColorModel();
+                this.palette = new int[cm.getMapSize()];
+                cm.getRGBs(this.palette);
+            } else {
+                this.palette = null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MetadataKey)) {
+                return false;
+            }
+            final MetadataKey other = (MetadataKey) obj;
+            return resolution == other.resolution && imageType == other.imageType
+                    && Arrays.equals(palette, other.palette);
+        }
+
+        @Override
+        public int hashCode() {
+            return (resolution * 31 + imageType) * 31 + Arrays.hashCode(palette);
+        }
+    }
+
     /**
      * Constructs the BitmapEncoder. The constructor checks if the ImageIO API
      * is available so it doesn't get registered in case it's not there.
@@ -67,23 +137,58 @@ public class ImageIOBitmapEncoder implements BitmapEncoder {
     @Override
     public void encode(BufferedImage image, OutputStream out,
             String mime, int resolution) throws IOException {
+        Queue<PooledWriter> pool = writers.get(mime);
+        if (pool == null) {
+            final Queue<PooledWriter> created = new ConcurrentLinkedQueue<PooledWriter>();
+            pool = writers.putIfAbsent(mime, created);
+            if (pool == null) {
+                pool = created;
+            }
+        }
+        PooledWriter pooled = pool.poll();
+        if (pooled == null) {
+            //Simply get first offered writer
+            final Iterator<ImageWriter> i = ImageIO.getImageWritersByMIMEType(mime);
+            pooled = new PooledWriter(i.next());
+        }
+        final ImageWriter writer = pooled.writer;
 
-        //Simply get first offered writer
-        final Iterator<ImageWriter> i = ImageIO.getImageWritersByMIMEType(mime);
-        final ImageWriter writer = i.next();
+        //Prepare output, memory cache avoids the registry lookup and temp files
+        final ImageOutputStream imout = new MemoryCacheImageOutputStream(out);
+        boolean success = false;
+        try {
+            writer.setOutput(imout);
 
-        //Prepare output
-        final ImageOutputStream imout = ImageIO.createImageOutputStream(out);
-        writer.setOutput(imout);
+            //Prepare metadata
+            final IIOMetadata iiometa = getMetadata(pooled, image, mime, resolution);
 
-        //Prepare metadata
-        final IIOMetadata iiometa = setupMetadata(image, writer, mime, resolution);
+            //Write image
+            final IIOImage iioimage = new IIOImage(image, null, iiometa);
+            writer.write(iioimage);
+            success = true;
+        } finally {
+            imout.close();
+            if (success) {
+                writer.reset();
+                pool.offer(pooled);
+            } else {
+                writer.dispose();
+            }
+        }
+    }
 
-        //Write image
-        final IIOImage iioimage = new IIOImage(image, null, iiometa);
-        writer.write(iioimage);
-        writer.dispose();
-        imout.close();
+    private IIOMetadata getMetadata(PooledWriter pooled, BufferedImage image,
+            String mime, int resolution) throws IOException {
+        final MetadataKey key = new MetadataKey(image, resolution);
+        if (pooled.metadata.containsKey(key)) {
+            return pooled.metadata.get(key);
+        }
+        final IIOMetadata iiometa = setupMetadata(image, pooled.writer, mime, resolution);
+        if (pooled.metadata.size() >= MAX_METADATA_ENTRIES) {
+            pooled.metadata.clear();
+        }
+        pooled.metadata.put(key, iiometa);
+        return iiometa;
     }
 
     private IIOMetadata setupMetadata(BufferedImage image, ImageWriter writer,
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes bilevel images as CCITT T.6 (Group 4) compressed TIFF, one page per
+ * image. Pages are streamed: only the compressed data of the last page is
+ * held in memory until the next page (or {@link #finish()}) tells whether it
+ * has a successor, so batch jobs can write thousands of barcodes into one
+ * file.
+ * <p>
+ * Only images accepted by {@link TIFFBitmapEncoder#isSupported(BufferedImage)}
+ * can be added. Instances are not thread-safe.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class MultiPageTIFFWriter implements Closeable {
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_RATIONAL = 5;
+    private static final int TYPE_ASCII = 2;
+
+    private static final int ENTRY_COUNT = 14;
+    private static final int IFD_SIZE = 2 + ENTRY_COUNT * 12 + 4;
+    private static final byte[] SOFTWARE = {'B', 'a', 'r', 'c', 'o', 'd', 'e', '4', 'J', 0};
+    /** IFD, X and Y resolution and the software name precede the image data */
+    private static final int PAGE_HEADER_SIZE = IFD_SIZE + 8 + 8 + SOFTWARE.length;
+
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    private final OutputStream out;
+    private final CCITTG4Encoder encoder;
+    private final byte[] header = new byte[PAGE_HEADER_SIZE];
+
+    private long position;
+    private int pageCount;
+    private boolean finished;
+
+    /* the page which is written once its successor is known */
+    private byte[] pending = new byte[0];
+    private int pendingLength;
+    private int pendingWidth;
+    private int pendingHeight;
+    private int pendingResolution;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param out the stream to write to
+     */
+    public MultiPageTIFFWriter(OutputStream out) {
+        this(out, new CCITTG4Encoder());
+    }
+
+    MultiPageTIFFWriter(OutputStream out, CCITTG4Encoder encoder) {
+        this.out = out;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Adds a page.
+     *
+     * @param image the bilevel image
+     * @param resolution the image resolution (dots per inch)
+     * @throws IOException in case of an I/O problem
+     */
+    public void addPage(BufferedImage image, int resolution) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The TIFF file has already been finished");
+        }
+        if (!TIFFBitmapEncoder.isSupported(image)) {
+            throw new IllegalArgumentException(
+                    "Only 1-bit black and white images are supported, image type: "
+                    + image.getType());
+        }
+        final MultiPixelPackedSampleModel sm
+                = (MultiPixelPackedSampleModel) image.getRaster().getSampleModel();
+        final byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final int blackBit = (((IndexColorModel) image.getColorModel()).getRGB(0) & 0xFFFFFF) == 0
+                ? 0 : 1;
+        final int len = encoder.encode(pixels, sm.getScanlineStride(),
+                image.getWidth(), image.getHeight(), blackBit);
+        if (pageCount == 0) {
+            writeFileHeader();
+        } else {
+            writePending(true);
+        }
+        if (pending.length < len) {
+            pending = new byte[Math.max(len, pending.length * 2)];
+        }
+        System.arraycopy(encoder.getData(), 0, pending, 0, len);
+        pendingLength = len;
+        pendingWidth = image.getWidth();
+        pendingHeight = image.getHeight();
+        pendingResolution = resolution;
+        pageCount++;
+    }
+
+    /**
+     * Returns the number of pages added so far.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Writes the last page and flushes the stream, which is not closed.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (pageCount == 0) {
+            throw new IllegalStateException("No page has been added");
+        }
+        writePending(false);
+        finished = true;
+        out.flush();
+    }
+
+    /**
+     * Finishes the file and closes the stream.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (pageCount > 0) {
+                finish();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeFileHeader() throws IOException {
+        final byte[] buf = header;
+        buf[0] = 'I';
+        buf[1] = 'I';
+        putShort(buf, 2, 42);
+        putInt(buf, 4, 8);
+        out.write(buf, 0, 8);
+        position = 8;
+    }
+
+    private void writePending(boolean hasNext) throws IOException {
+        final long ifd = position;
+        final long res = ifd + IFD_SIZE;
+        final long software = res + 16;
+        final long data = software + SOFTWARE.length;
+        final long end = data + pendingLength + (pendingLength & 1);
+        if (end > MAX_OFFSET) {
+            throw new IOException("TIFF file would exceed 4 GB");
+        }
+        final byte[] buf = header;
+        Arrays.fill(buf, (byte) 0);
+        putShort(buf, 0, ENTRY_COUNT);
+        int pos = 2;
+        pos = putEntry(buf, pos, 256, TYPE_LONG, 1, pendingWidth); //ImageWidth
+        pos = putEntry(buf, pos, 257, TYPE_LONG, 1, pendingHeight); //ImageLength
+        pos = putEntry(buf, pos, 258, TYPE_SHORT, 1, 1); //BitsPerSample
+        pos = putEntry(buf, pos, 259, TYPE_SHORT, 1, 4); //Compression: T.6
+        pos = putEntry(buf, pos, 262, TYPE_SHORT, 1, 0); //Photometric: WhiteIsZero
+        pos = putEntry(buf, pos, 273, TYPE_LONG, 1, data); //StripOffsets
+        pos = putEntry(buf, pos, 277, TYPE_SHORT, 1, 1); //SamplesPerPixel
+        pos = putEntry(buf, pos, 278, TYPE_LONG, 1, pendingHeight); //RowsPerStrip
+        pos = putEntry(buf, pos, 279, TYPE_LONG, 1, pendingLength); //StripByteCounts
+        pos = putEntry(buf, pos, 282, TYPE_RATIONAL, 1, res); //XResolution
+        pos = putEntry(buf, pos, 283, TYPE_RATIONAL, 1, res + 8); //YResolution
+        pos = putEntry(buf, pos, 293, TYPE_LONG, 1, 0); //T6Options
+        pos = putEntry(buf, pos, 296, TYPE_SHORT, 1, 2); //ResolutionUnit: inch
+        pos = putEntry(buf, pos, 305, TYPE_ASCII, SOFTWARE.length, software); //Software
+        putInt(buf, pos, hasNext ? end : 0);
+        pos += 4;
+        putInt(buf, pos, pendingResolution);
+        putInt(buf, pos + 4, 1);
+        putInt(buf, pos + 8, pendingResolution);
+        putInt(buf, pos + 12, 1);
+        System.arraycopy(SOFTWARE, 0, buf, pos + 16, SOFTWARE.length);
+        out.write(buf, 0, PAGE_HEADER_SIZE);
+        out.write(pending, 0, pendingLength);
+        if ((pendingLength & 1) != 0) {
+            //IFDs start on a word boundary
+            out.write(0);
+        }
+        position = end;
+    }
+
+    private static int putEntry(byte[] buf, int pos, int tag, int type, int count, long value) {
+        putShort(buf, pos, tag);
+        putShort(buf, pos + 2, type);
+        putInt(buf, pos + 4, count);
+        if (type == TYPE_SHORT) {
+            putShort(buf, pos + 8, (int) value);
+        } else {
+            putInt(buf, pos + 8, value);
+        }
+        return pos + 12;
+    }
+
+    private static void putShort(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putInt(byte[] buf, int offset, long value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >>> 8);
+        buf[offset + 2] = (byte) (value >>> 16);
+        buf[offset + 3] = (byte) (value >>> 24);
+    }
+}
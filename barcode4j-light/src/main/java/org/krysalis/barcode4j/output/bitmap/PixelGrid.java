@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ * Helpers for pixel-exact bitmap output. A barcode bean aligned to the pixel
+ * grid of the target resolution has modules, bars and quiet zones of whole
+ * pixels, so it can be painted with integer coordinates (see
+ * {@link BitmapCanvasProvider#setPixelExact(boolean)}).
+ * <p>
+ * Note that aligning changes the settings of the bean.
+ *
+ * @author mk
+ * @version 1.1
+ */
+public final class PixelGrid {
+
+    private PixelGrid() {
+    }
+
+    /**
+     * Returns the size of a device pixel.
+     *
+     * @param resolution the resolution (dots per inch)
+     * @return the pixel size (in mm)
+     */
+    public static double getPixelSize(int resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("resolution must be positive");
+        }
+        return UnitConv.in2mm(1.0) / resolution;
+    }
+
+    /**
+     * Aligns a bean to the pixel grid of a resolution, choosing the number of
+     * pixels per module closest to the current module width.
+     *
+     * @param bean the bean to align
+     * @param resolution the resolution (dots per inch)
+     * @return the number of pixels per module
+     */
+    public static int snap(AbstractBarcodeBean bean, int resolution) {
+        return bean.snapToPixelGrid(getPixelSize(resolution));
+    }
+
+    /**
+     * Aligns a bean to the pixel grid of a resolution, choosing the largest
+     * number of pixels per module for which the barcode (including quiet
+     * zones) fits into the given width. At least one pixel per module is used
+     * even if the barcode doesn't fit.
+     *
+     * @param bean the bean to align
+     * @param msg the message to fit
+     * @param resolution the resolution (dots per inch)
+     * @param maxWidth the available width (in pixels)
+     * @return the number of pixels per module
+     */
+    public static int fitToWidth(AbstractBarcodeBean bean, String msg,
+            int resolution, int maxWidth) {
+        final double pixelSize = getPixelSize(resolution);
+        final double moduleWidth = bean.getModuleWidth();
+        final double quietZone = bean.hasQuietZone() ? bean.getQuietZone() : 0.0;
+        //quiet zones are usually defined in modules, keep their proportion
+        final double quietModules = quietZone / moduleWidth;
+        final double modules = bean.calcDimensions(msg).getWidthPlusQuiet() / moduleWidth;
+        int pixelsPerModule = Math.max(1, (int) (maxWidth / modules));
+        //every attempt starts from the original settings, snapping an
+        //already snapped bean would let the wide factor drift
+        final List<Double> settings = new ArrayList<Double>();
+        bean.savePixelGridSettings(settings);
+        while (true) {
+            bean.restorePixelGridSettings(settings.iterator());
+            bean.setModuleWidth(pixelsPerModule * pixelSize);
+            bean.setQuietZone(quietModules * pixelsPerModule * pixelSize);
+            final int ppm = bean.snapToPixelGrid(pixelSize);
+            final double width = bean.calcDimensions(msg).getWidthPlusQuiet() / pixelSize;
+            if (ppm == 1 || Math.round(width) <= maxWidth) {
+                return ppm;
+            }
+            pixelsPerModule--;
+        }
+    }
+}
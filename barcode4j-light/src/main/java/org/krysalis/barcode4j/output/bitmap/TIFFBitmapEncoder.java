@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.krysalis.barcode4j.tools.MimeTypes;
+
+/**
+ * BitmapEncoder writing CCITT T.6 (Group 4) compressed TIFF files directly
+ * from the raster of black and white 1-bit (TYPE_BYTE_BINARY) images. Bar
+ * codes consist of long uniform runs, so they compress much better than with
+ * the LZW or Deflate compression of other formats.
+ * <p>
+ * Images of other types are handed to {@link ImageIOBitmapEncoder}. Use
+ * {@link MultiPageTIFFWriter} to write several barcodes into one file.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class TIFFBitmapEncoder implements BitmapEncoder {
+
+    private static final String[] MIME_TYPES = {MimeTypes.MIME_TIFF};
+
+    private final Queue<CCITTG4Encoder> pool = new ConcurrentLinkedQueue<CCITTG4Encoder>();
+    private ImageIOBitmapEncoder fallback;
+
+    @Override
+    public String[] getSupportedMIMETypes() {
+        return MIME_TYPES.clone();
+    }
+
+    /**
+     * Indicates whether an image can be written as Group 4 TIFF.
+     *
+     * @param image the image
+     * @return true for unshared 1-bit images with a black and a white color
+     */
+    public static boolean isSupported(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_BINARY
+                || !PNGBitmapEncoder.isSupported(image)
+                || image.getColorModel().getPixelSize() != 1) {
+            return false;
+        }
+        final IndexColorModel cm = (IndexColorModel) image.getColorModel();
+        final int c0 = cm.getRGB(0) & 0xFFFFFF;
+        final int c1 = cm.getRGB(1) & 0xFFFFFF;
+        return (c0 == 0 && c1 == 0xFFFFFF) || (c0 == 0xFFFFFF && c1 == 0);
+    }
+
+    @Override
+    public void encode(BufferedImage image, OutputStream out,
+            String mime, int resolution) throws IOException {
+        if (!isSupported(image)) {
+            getFallback().encode(image, out, mime, resolution);
+            return;
+        }
+        CCITTG4Encoder encoder = pool.poll();
+        if (encoder == null) {
+            encoder = new CCITTG4Encoder();
+        }
+        try {
+            final MultiPageTIFFWriter writer = new MultiPageTIFFWriter(out, encoder);
+            writer.addPage(image, resolution);
+            writer.finish();
+        } finally {
+            pool.offer(encoder);
+        }
+    }
+
+    private synchronized ImageIOBitmapEncoder getFallback() throws IOException {
+        if (fallback == null) {
+            try {
+                fallback = new ImageIOBitmapEncoder();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unsupported image type and no ImageIO available", e);
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Canvas factory writing a batch of barcodes as pages of one Group 4 TIFF
+ * file. The barcodes are painted on a reused 1-bit canvas. The writer is not
+ * finished by the factory.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class TIFFCanvasProviderFactory implements CanvasProviderFactory {
+
+    private final MultiPageTIFFWriter writer;
+    private final int resolution;
+    private final Orientation orientation;
+    private BitmapCanvasProvider canvas;
+
+    /**
+     * Creates a new factory.
+     *
+     * @param writer the writer the pages are added to
+     * @param resolution the desired image resolution (dots per inch)
+     * @param orientation the barcode orientation
+     */
+    public TIFFCanvasProviderFactory(MultiPageTIFFWriter writer, int resolution,
+            Orientation orientation) {
+        this.writer = writer;
+        this.resolution = resolution;
+        this.orientation = orientation;
+    }
+
+    @Override
+    public CanvasProvider createCanvasProvider(int index, String msg) throws IOException {
+        if (canvas == null) {
+            canvas = new BitmapCanvasProvider(resolution, BufferedImage.TYPE_BYTE_BINARY,
+                    false, orientation);
+        } else {
+            canvas.reset();
+        }
+        return canvas;
+    }
+
+    @Override
+    public void finishCanvasProvider(CanvasProvider canvas, int index, String msg)
+            throws IOException {
+        final BitmapCanvasProvider bitmap = (BitmapCanvasProvider) canvas;
+        bitmap.finish();
+        writer.addPage(bitmap.getBufferedImage(), resolution);
+    }
+}
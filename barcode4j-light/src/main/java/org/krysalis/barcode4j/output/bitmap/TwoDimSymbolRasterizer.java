@@ -0,0 +1,328 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SampleModel;
+import java.util.Arrays;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ * Renders the module matrix of a {@link TwoDimSymbol} directly into pixels,
+ * bypassing Java2D. Every module covers a whole number of pixels, so the
+ * modules are always crisp and equally sized.
+ * <p>
+ * The rasterizer writes either into a packed bi-level byte array or straight
+ * into the data buffer of a {@link BufferedImage#TYPE_BYTE_BINARY} or
+ * {@link BufferedImage#TYPE_BYTE_GRAY} image. Instances are immutable and may
+ * be shared by multiple threads.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class TwoDimSymbolRasterizer {
+
+    private final int modulePixels;
+    private final int rowPixels;
+    private final int quietZonePixels;
+    private final int verticalQuietZonePixels;
+    private final Orientation orientation;
+
+    /**
+     * Creates a new rasterizer.
+     *
+     * @param modulePixels the width of a module in pixels
+     * @param rowPixels the height of a row in pixels (equal to the module
+     * width for matrix symbologies)
+     * @param quietZonePixels the width of the left and right quiet zone in
+     * pixels
+     * @param verticalQuietZonePixels the height of the top and bottom quiet
+     * zone in pixels
+     * @param orientation the orientation of the symbol
+     */
+    public TwoDimSymbolRasterizer(int modulePixels, int rowPixels,
+            int quietZonePixels, int verticalQuietZonePixels, Orientation orientation) {
+        if (modulePixels <= 0 || rowPixels <= 0) {
+            throw new IllegalArgumentException("Modules must be at least one pixel");
+        }
+        if (quietZonePixels < 0 || verticalQuietZonePixels < 0) {
+            throw new IllegalArgumentException("Quiet zones must not be negative");
+        }
+        if (orientation == null) {
+            throw new NullPointerException("orientation must not be null");
+        }
+        this.modulePixels = modulePixels;
+        this.rowPixels = rowPixels;
+        this.quietZonePixels = quietZonePixels;
+        this.verticalQuietZonePixels = verticalQuietZonePixels;
+        this.orientation = orientation;
+    }
+
+    /**
+     * Creates a rasterizer matching the dimensions of a symbol at a given
+     * resolution. Module sizes and quiet zones are rounded to whole pixels,
+     * with modules being at least one pixel.
+     *
+     * @param symbol the symbol
+     * @param resolution the resolution (dots per inch)
+     * @param orientation the orientation of the symbol
+     * @return the rasterizer
+     */
+    public static TwoDimSymbolRasterizer forResolution(TwoDimSymbol symbol,
+            int resolution, Orientation orientation) {
+        final BarcodeDimension dim = symbol.getDimension();
+        final double moduleWidth = dim.getWidth() / symbol.getColumnCount();
+        final double rowHeight = dim.getHeight() / symbol.getRowCount();
+        return new TwoDimSymbolRasterizer(
+                Math.max(1, UnitConv.mm2px(moduleWidth, resolution)),
+                Math.max(1, UnitConv.mm2px(rowHeight, resolution)),
+                UnitConv.mm2px(dim.getXOffset(), resolution),
+                UnitConv.mm2px(dim.getYOffset(), resolution),
+                orientation);
+    }
+
+    /**
+     * Returns the width of a module in pixels.
+     *
+     * @return the module width
+     */
+    public int getModulePixels() {
+        return modulePixels;
+    }
+
+    /**
+     * Returns the height of a row in pixels.
+     *
+     * @return the row height
+     */
+    public int getRowPixels() {
+        return rowPixels;
+    }
+
+    /**
+     * Returns the orientation of the symbol.
+     *
+     * @return the orientation
+     */
+    public Orientation getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * Returns the width of the rendered symbol (including quiet zones).
+     *
+     * @param symbol the symbol
+     * @return the width in pixels
+     */
+    public int getWidth(TwoDimSymbol symbol) {
+        if (orientation.isSwitched()) {
+            return 2 * verticalQuietZonePixels + symbol.getRowCount() * rowPixels;
+        }
+        return 2 * quietZonePixels + symbol.getColumnCount() * modulePixels;
+    }
+
+    /**
+     * Returns the height of the rendered symbol (including quiet zones).
+     *
+     * @param symbol the symbol
+     * @return the height in pixels
+     */
+    public int getHeight(TwoDimSymbol symbol) {
+        if (orientation.isSwitched()) {
+            return 2 * quietZonePixels + symbol.getColumnCount() * modulePixels;
+        }
+        return 2 * verticalQuietZonePixels + symbol.getRowCount() * rowPixels;
+    }
+
+    /**
+     * Renders a symbol into a packed bi-level bitmap. Each pixel row occupies
+     * <code>(getWidth(symbol) + 7) / 8</code> bytes, pixels are stored most
+     * significant bit first with 1 meaning dark.
+     *
+     * @param symbol the symbol
+     * @return the bitmap
+     */
+    public byte[] rasterize(TwoDimSymbol symbol) {
+        final int width = getWidth(symbol);
+        final int stride = (width + 7) >> 3;
+        final byte[] data = new byte[stride * getHeight(symbol)];
+        rasterize(symbol, data, stride);
+        return data;
+    }
+
+    private void rasterize(TwoDimSymbol symbol, byte[] data, int stride) {
+        final boolean switched = orientation.isSwitched();
+        final int gridCols = switched ? symbol.getRowCount() : symbol.getColumnCount();
+        final int gridRows = switched ? symbol.getColumnCount() : symbol.getRowCount();
+        final int cellWidth = switched ? rowPixels : modulePixels;
+        final int cellHeight = switched ? modulePixels : rowPixels;
+        final int left = switched ? verticalQuietZonePixels : quietZonePixels;
+        final int top = switched ? quietZonePixels : verticalQuietZonePixels;
+        for (int gr = 0; gr < gridRows; gr++) {
+            final int offset = (top + gr * cellHeight) * stride;
+            int runStart = -1;
+            for (int gc = 0; gc <= gridCols; gc++) {
+                final boolean dark = gc < gridCols && isDark(symbol, gc, gr);
+                if (dark && runStart < 0) {
+                    runStart = gc;
+                } else if (!dark && runStart >= 0) {
+                    fillBits(data, offset, left + runStart * cellWidth, left + gc * cellWidth);
+                    runStart = -1;
+                }
+            }
+            for (int i = 1; i < cellHeight; i++) {
+                System.arraycopy(data, offset, data, offset + i * stride, stride);
+            }
+        }
+    }
+
+    /**
+     * Maps the module grid as seen in the output to the module matrix of the
+     * symbol. The rotations are counter-clockwise like in the Java2D output.
+     */
+    private boolean isDark(TwoDimSymbol symbol, int gc, int gr) {
+        switch (orientation) {
+        case NINETY:
+            return symbol.isDark(symbol.getColumnCount() - 1 - gr, gc);
+        case ONEHUNDRED_EIGHTY:
+            return symbol.isDark(symbol.getColumnCount() - 1 - gc,
+                    symbol.getRowCount() - 1 - gr);
+        case TWOHUNDRED_SEVENTY:
+            return symbol.isDark(gr, symbol.getRowCount() - 1 - gc);
+        default:
+            return symbol.isDark(gc, gr);
+        }
+    }
+
+    /**
+     * Sets the bits <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive) of a packed pixel row.
+     *
+     * @param data the bitmap
+     * @param offset the offset of the pixel row
+     * @param from the first pixel
+     * @param to the pixel after the last one
+     */
+    static void fillBits(byte[] data, int offset, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        final int first = offset + (from >> 3);
+        final int last = offset + ((to - 1) >> 3);
+        final int firstMask = 0xFF >> (from & 7);
+        final int lastMask = 0xFF << (7 - ((to - 1) & 7));
+        if (first == last) {
+            data[first] |= (byte) (firstMask & lastMask);
+        } else {
+            data[first] |= (byte) firstMask;
+            for (int i = first + 1; i < last; i++) {
+                data[i] = (byte) 0xFF;
+            }
+            data[last] |= (byte) lastMask;
+        }
+    }
+
+    /**
+     * Creates an image of a symbol.
+     *
+     * @param symbol the symbol
+     * @param imageType {@link BufferedImage#TYPE_BYTE_BINARY} or
+     * {@link BufferedImage#TYPE_BYTE_GRAY}
+     * @return the image
+     */
+    public BufferedImage createImage(TwoDimSymbol symbol, int imageType) {
+        if (imageType != BufferedImage.TYPE_BYTE_BINARY
+                && imageType != BufferedImage.TYPE_BYTE_GRAY) {
+            throw new IllegalArgumentException(
+                    "Only TYPE_BYTE_BINARY and TYPE_BYTE_GRAY images are supported");
+        }
+        final BufferedImage image = new BufferedImage(
+                getWidth(symbol), getHeight(symbol), imageType);
+        paint(symbol, image);
+        return image;
+    }
+
+    /**
+     * Paints a symbol on an image, replacing its whole content. The image
+     * must be exactly as large as the rendered symbol and either a 1 bit
+     * {@link BufferedImage#TYPE_BYTE_BINARY} image with black at index 0 or a
+     * {@link BufferedImage#TYPE_BYTE_GRAY} image.
+     *
+     * @param symbol the symbol
+     * @param image the image to paint on
+     */
+    public void paint(TwoDimSymbol symbol, BufferedImage image) {
+        final int width = getWidth(symbol);
+        final int height = getHeight(symbol);
+        if (image.getWidth() != width || image.getHeight() != height) {
+            throw new IllegalArgumentException("Image must be " + width + " x " + height
+                    + " pixels but is " + image.getWidth() + " x " + image.getHeight());
+        }
+        final SampleModel model = image.getRaster().getSampleModel();
+        final byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        final int stride = (width + 7) >> 3;
+        if (image.getType() == BufferedImage.TYPE_BYTE_BINARY
+                && model.getSampleSize(0) == 1) {
+            final int scanline = ((MultiPixelPackedSampleModel) model).getScanlineStride();
+            final byte[] bits = scanline == stride ? pixels : new byte[stride * height];
+            Arrays.fill(bits, (byte) 0);
+            rasterize(symbol, bits, stride);
+            //the image uses 0 for black
+            for (int y = 0; y < height; y++) {
+                final int src = y * stride;
+                final int dst = y * scanline;
+                for (int i = 0; i < stride; i++) {
+                    pixels[dst + i] = (byte) ~bits[src + i];
+                }
+            }
+        } else if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            final int scanline = ((PixelInterleavedSampleModel) model).getScanlineStride();
+            final byte[] bits = new byte[stride * height];
+            rasterize(symbol, bits, stride);
+            for (int y = 0; y < height; y++) {
+                final int dst = y * scanline;
+                if (y > 0 && sameRow(bits, (y - 1) * stride, y * stride, stride)) {
+                    System.arraycopy(pixels, dst - scanline, pixels, dst, width);
+                    continue;
+                }
+                final int src = y * stride;
+                for (int x = 0; x < width; x++) {
+                    final boolean dark = (bits[src + (x >> 3)] & (0x80 >> (x & 7))) != 0;
+                    pixels[dst + x] = dark ? 0 : (byte) 0xFF;
+                }
+            }
+        } else {
+            throw new IllegalArgumentException(
+                    "Only 1 bit TYPE_BYTE_BINARY and TYPE_BYTE_GRAY images are supported");
+        }
+    }
+
+    private static boolean sameRow(byte[] bits, int first, int second, int stride) {
+        for (int i = 0; i < stride; i++) {
+            if (bits[first + i] != bits[second + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -27,6 +27,7 @@ import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.TextAlignment;
 import org.krysalis.barcode4j.output.AbstractCanvasProvider;
 import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.FixedDecimalFormatter;
 import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
@@ -41,6 +42,7 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
 
     private Writer writer;
     private DecimalFormat df;
+    private final FixedDecimalFormatter formatter = new FixedDecimalFormatter(4);
     private IOException firstError;
     private double height;
 
@@ -54,7 +56,8 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
     public EPSCanvasProvider(OutputStream out, Orientation orientation) throws IOException {
         super(orientation);
         try {
-            this.writer = new java.io.OutputStreamWriter(out, "US-ASCII");
+            this.writer = new java.io.BufferedWriter(
+                    new java.io.OutputStreamWriter(out, "US-ASCII"));
         } catch (UnsupportedEncodingException uee) {
             throw new IllegalStateException("Incompatible VM: Need US-ASCII encoding.", uee);
         }
@@ -79,7 +82,10 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
      * Returns the DecimalFormat instance to use internally to format numbers.
      *
      * @return a DecimalFormat instance
+     * @deprecated numbers are formatted with a {@link FixedDecimalFormatter},
+     * this method is no longer used internally
      */
+    @Deprecated
     protected DecimalFormat getDecimalFormat() {
         if (this.df == null) {
             final DecimalFormatSymbols dfs = new DecimalFormatSymbols();
@@ -89,16 +95,14 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
         return this.df;
     }
 
-    private String format(double coord) {
-        return getDecimalFormat().format(coord);
-    }
-
-    private String formatmm(double coord) {
-        return getDecimalFormat().format(UnitConv.mm2pt(coord));
+    private void writemm(double coord) throws IOException {
+        formatter.write(UnitConv.mm2pt(coord), writer);
     }
 
-    private String formatmm(double x, double y) {
-        return formatmm(x) + " " + formatmm(this.height - y);
+    private void writemm(double x, double y) throws IOException {
+        writemm(x);
+        writer.write(' ');
+        writemm(this.height - y);
     }
 
     private void writeHeader(double width, double height) throws IOException {
@@ -108,9 +112,11 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
         writer.write("%%BoundingBox: 0 0 "
                 + Math.round(Math.ceil(widthpt)) + " "
                 + Math.round(Math.ceil(heightpt)) + "\n");
-        writer.write("%%HiResBoundingBox: 0 0 "
-                + format(widthpt) + " "
-                + format(heightpt) + "\n");
+        writer.write("%%HiResBoundingBox: 0 0 ");
+        formatter.write(widthpt, writer);
+        writer.write(' ');
+        formatter.write(heightpt, writer);
+        writer.write('\n');
         writer.write("%%Creator: Barcode4J (http://barcode4j.krysalis.org)\n");
         final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
         writer.write("%%CreationDate: " + sdf.format(new java.util.Date()) + "\n");
@@ -191,17 +197,25 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
         try {
             writeHeader(dim.getWidthPlusQuiet(orientation),
                     dim.getHeightPlusQuiet(orientation));
-            final String w = formatmm(dim.getWidthPlusQuiet());
-            final String h = formatmm(dim.getHeightPlusQuiet());
+            final double w = dim.getWidthPlusQuiet();
+            final double h = dim.getHeightPlusQuiet();
             switch (orientation) {
                 case NINETY:
-                    writer.write("90 rotate 0" + " -" + h + " translate\n");
+                    writer.write("90 rotate 0 -");
+                    writemm(h);
+                    writer.write(" translate\n");
                     break;
                 case ONEHUNDRED_EIGHTY:
-                    writer.write("180 rotate -" + w + " -" + h + " translate\n");
+                    writer.write("180 rotate -");
+                    writemm(w);
+                    writer.write(" -");
+                    writemm(h);
+                    writer.write(" translate\n");
                     break;
                 case TWOHUNDRED_SEVENTY:
-                    writer.write("270 rotate -" + w + " 0 translate\n");
+                    writer.write("270 rotate -");
+                    writemm(w);
+                    writer.write(" 0 translate\n");
                     break;
                 default:
                 //nop
@@ -217,8 +231,12 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
             return;
         }
         try {
-            writer.write(formatmm(x, y) + " "
-                    + formatmm(w) + " " + formatmm(h) + " rf\n");
+            writemm(x, y);
+            writer.write(' ');
+            writemm(w);
+            writer.write(' ');
+            writemm(h);
+            writer.write(" rf\n");
         } catch (IOException ioe) {
             firstError = ioe;
         }
@@ -266,25 +284,43 @@ public class EPSCanvasProvider extends AbstractCanvasProvider {
     }
 
     private void writeJustifyTextAlign(String text, double x1, double x2, double y1) throws IOException {
-        writer.write("(" + text + ") "
-                + formatmm(x1) + " "
-                + formatmm(x2) + " "
-                + formatmm(this.height - y1) + " jt\n");
+        writeTextBetween(text, x1, x2, y1);
+        writer.write(" jt\n");
     }
 
     private void writeRightTextAlign(String text, double x1, double x2, double y1) throws IOException {
-        writer.write("(" + text + ") "
-                + formatmm(x1) + " "
-                + formatmm(x2) + " "
-                + formatmm(this.height - y1) + " rt\n");
+        writeTextBetween(text, x1, x2, y1);
+        writer.write(" rt\n");
+    }
+
+    private void writeTextBetween(String text, double x1, double x2, double y1) throws IOException {
+        writeText(text);
+        writer.write(' ');
+        writemm(x1);
+        writer.write(' ');
+        writemm(x2);
+        writer.write(' ');
+        writemm(this.height - y1);
     }
 
     private void writeCenterTextAlign(String text, double x1, double x2, double y1) throws IOException {
-        writer.write("(" + text + ") " + formatmm((x1 + x2) / 2, y1) + " ct\n");
+        writeText(text);
+        writer.write(' ');
+        writemm((x1 + x2) / 2, y1);
+        writer.write(" ct\n");
     }
 
     private void writeLeftTextAlign(double x1, double y1, String text) throws IOException {
-        writer.write(formatmm(x1, y1) + " moveto (" + text + ") show\n");
+        writemm(x1, y1);
+        writer.write(" moveto ");
+        writeText(text);
+        writer.write(" show\n");
+    }
+
+    private void writeText(String text) throws IOException {
+        writer.write('(');
+        writer.write(text);
+        writer.write(')');
     }
 
     private void checkFontName(String fontName) {
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.java2d;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Point2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded caches for the fonts and laid-out glyph vectors of the
+ * human-readable text. Fonts are immutable and shared by all threads. Glyph
+ * vectors are mutable, so they are cached per thread and must not be
+ * modified by the caller. Justified text is cached as a separate layout
+ * with the glyphs already moved apart.
+ *
+ * @author mk
+ * @version 1.0
+ */
+final class FontCache {
+
+    /** the maximum number of cached fonts */
+    static final int MAX_FONTS = 64;
+
+    /** the maximum number of cached glyph vectors per thread */
+    static final int MAX_GLYPH_VECTORS = 256;
+
+    private static final ConcurrentMap<FontKey, Font> FONTS
+            = new ConcurrentHashMap<FontKey, Font>();
+
+    private static final ThreadLocal<Map<GlyphKey, Layout>> LAYOUTS
+            = new ThreadLocal<Map<GlyphKey, Layout>>() {
+                @Override
+                protected Map<GlyphKey, Layout> initialValue() {
+                    return new LinkedHashMap<GlyphKey, Layout>(16, 0.75f, true) {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<GlyphKey, Layout> eldest) {
+                            return size() > MAX_GLYPH_VECTORS;
+                        }
+                    };
+                }
+            };
+
+    /**
+     * Utility class: Constructor prevents instantiating.
+     */
+    private FontCache() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a plain font.
+     *
+     * @param name the font name
+     * @param size the point size
+     * @return the font
+     */
+    static Font getFont(String name, int size) {
+        final FontKey key = new FontKey(name, size);
+        Font font = FONTS.get(key);
+        if (font == null) {
+            if (FONTS.size() >= MAX_FONTS) {
+                FONTS.clear();
+            }
+            font = new Font(name, Font.PLAIN, size);
+            FONTS.put(key, font);
+        }
+        return font;
+    }
+
+    /**
+     * Returns the layout of a text.
+     *
+     * @param font the font
+     * @param text the text
+     * @param frc the font render context of the target
+     * @return the layout, shared with later calls of the current thread
+     */
+    static Layout getLayout(Font font, String text, FontRenderContext frc) {
+        return getLayout(font, text, frc, 0.0f);
+    }
+
+    /**
+     * Returns the layout of a text with additional space between the glyphs,
+     * as used for justified text.
+     *
+     * @param font the font
+     * @param text the text
+     * @param frc the font render context of the target
+     * @param spacing the additional space between two glyphs
+     * @return the layout, shared with later calls of the current thread
+     */
+    static Layout getLayout(Font font, String text, FontRenderContext frc, float spacing) {
+        final Map<GlyphKey, Layout> layouts = LAYOUTS.get();
+        final GlyphKey key = new GlyphKey(font, text, frc, spacing);
+        Layout layout = layouts.get(key);
+        if (layout == null) {
+            final GlyphVector gv = font.createGlyphVector(frc, text);
+            layout = new Layout(gv);
+            if (spacing != 0.0f) {
+                for (int i = 1; i < gv.getNumGlyphs(); i++) {
+                    final Point2D point = gv.getGlyphPosition(i);
+                    point.setLocation(point.getX() + i * spacing, point.getY());
+                    gv.setGlyphPosition(i, point);
+                }
+            }
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the number of cached fonts.
+     *
+     * @return the number of fonts
+     */
+    static int getFontCount() {
+        return FONTS.size();
+    }
+
+    /**
+     * Returns the number of glyph vectors cached for the current thread.
+     *
+     * @return the number of glyph vectors
+     */
+    static int getLayoutCount() {
+        return LAYOUTS.get().size();
+    }
+
+    /**
+     * A glyph vector with its logical width.
+     */
+    static final class Layout {
+
+        private final GlyphVector glyphs;
+        private final float width;
+
+        Layout(GlyphVector glyphs) {
+            this.glyphs = glyphs;
+            this.width = (float) glyphs.getLogicalBounds().getWidth();
+        }
+
+        /**
+         * Returns the glyph vector, which must not be modified.
+         *
+         * @return the glyph vector
+         */
+        GlyphVector getGlyphVector() {
+            return this.glyphs;
+        }
+
+        /**
+         * Returns the logical width of the text.
+         *
+         * @return the width
+         */
+        float getWidth() {
+            return this.width;
+        }
+    }
+
+    private static final class FontKey {
+
+        private final String name;
+        private final int size;
+
+        FontKey(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FontKey)) {
+                return false;
+            }
+            final FontKey other = (FontKey) obj;
+            return size == other.size
+                    && (name == null ? other.name == null : name.equals(other.name));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * size + (name == null ? 0 : name.hashCode());
+        }
+    }
+
+    private static final class GlyphKey {
+
+        private final Font font;
+        private final String text;
+        private final FontRenderContext frc;
+        private final int spacing;
+
+        GlyphKey(Font font, String text, FontRenderContext frc, float spacing) {
+            this.font = font;
+            this.text = text;
+            this.frc = frc;
+            this.spacing = Float.floatToIntBits(spacing);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GlyphKey)) {
+                return false;
+            }
+            final GlyphKey other = (GlyphKey) obj;
+            return spacing == other.spacing && text.equals(other.text)
+                    && font.equals(other.font) && frc.equals(other.frc);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = font.hashCode();
+            hash = 31 * hash + text.hashCode();
+            hash = 31 * hash + frc.hashCode();
+            hash = 31 * hash + spacing;
+            return hash;
+        }
+    }
+}
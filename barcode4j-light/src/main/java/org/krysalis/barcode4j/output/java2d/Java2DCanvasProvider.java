@@ -20,7 +20,6 @@ import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 
 import org.krysalis.barcode4j.BarcodeDimension;
@@ -31,15 +30,21 @@ import org.krysalis.barcode4j.tools.UnitConv;
 
 /**
  * CanvasProvider implementation that renders to Java2D (AWT).
+ * <p>
+ * Fonts and laid-out glyph vectors of the human-readable text are cached, so
+ * repeated texts (like the digit groups of EAN/UPC) are laid out only once.
  * 
  * @author Jeremias Maerki
- * @version $Id$
+ * @author mk
+ * @version 1.1
  */
 public class Java2DCanvasProvider extends AbstractCanvasProvider {
 
     private static final boolean DEBUG = false; 
 
     private Graphics2D g2d;
+    /** Reused for every bar, Graphics2D doesn't keep a reference to the shape */
+    private final Rectangle2D.Double rect = new Rectangle2D.Double();
 
     /**
      * Creates a new Java2DCanvasProvider.
@@ -105,11 +110,13 @@ public class Java2DCanvasProvider extends AbstractCanvasProvider {
 
     @Override
     public void deviceFillRect(double x, double y, double w, double h) {
-        g2d.fill(new Rectangle2D.Double(x, y, w, h));
+        rect.setRect(x, y, w, h);
+        g2d.fill(rect);
     }
 
     public void deviceDrawRect(double x, double y, double w, double h) {
-        g2d.draw(new Rectangle2D.Double(x, y, w, h));
+        rect.setRect(x, y, w, h);
+        g2d.draw(rect);
     }
 
     @Override
@@ -127,12 +134,12 @@ public class Java2DCanvasProvider extends AbstractCanvasProvider {
             System.out.println("fontSize: " 
                     + fontSize + "mm (" + UnitConv.mm2pt(fontSize) + "pt)");
         }
-        final Font font = new Font(fontName, Font.PLAIN, 
-            (int)Math.round(fontSize));
+        final Font font = FontCache.getFont(fontName, (int)Math.round(fontSize));
         final FontRenderContext frc = g2d.getFontRenderContext();
-        final GlyphVector gv = font.createGlyphVector(frc, text);
+        final FontCache.Layout layout = FontCache.getLayout(font, text, frc);
+        GlyphVector gv = layout.getGlyphVector();
         
-        final float textwidth = (float)gv.getLogicalBounds().getWidth();
+        final float textwidth = layout.getWidth();
         final float distributableSpace = (float)((x2 - x1) - textwidth);
         final float intercharSpace;
         if (gv.getNumGlyphs() > 1) {
@@ -163,17 +170,13 @@ public class Java2DCanvasProvider extends AbstractCanvasProvider {
         }
         final Font oldFont = g2d.getFont();
         g2d.setFont(font);
-        if (textAlign == TextAlignment.TA_JUSTIFY) {
-            //move the individual glyphs
-            for (int i = 0; i < gv.getNumGlyphs(); i++) {
-                final Point2D point = gv.getGlyphPosition(i);
-                point.setLocation(point.getX() + i * intercharSpace, point.getY());
-                gv.setGlyphPosition(i, point);
-                if (DEBUG) {
-                    System.out.println(i + " " + point 
+        if (textAlign == TextAlignment.TA_JUSTIFY && intercharSpace != 0.0f) {
+            //the individual glyphs are moved in a separately cached layout
+            gv = FontCache.getLayout(font, text, frc, intercharSpace).getGlyphVector();
+            if (DEBUG) {
+                for (int i = 0; i < gv.getNumGlyphs(); i++) {
+                    System.out.println(i + " " + gv.getGlyphPosition(i) 
                             + " " + gv.getGlyphLogicalBounds(i).getBounds2D());
-                    System.out.println(i + " " + text.substring(i, i + 1) 
-                        + " " + gv.getGlyphMetrics(i).getBounds2D());
                 }
             }
         }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.pdf;
+
+import java.io.IOException;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.ResettableCanvasProvider;
+import org.krysalis.barcode4j.tools.FixedDecimalFormatter;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ * CanvasProvider implementation for PDF output. Bars are written as rectangles
+ * (re) filled with one fill operator, texts with the standard font Helvetica
+ * whatever font name the barcode requests.
+ * <p>
+ * By default every barcode gets a page of its own, sized like the barcode.
+ * A provider created with a position draws into the page started on the
+ * {@link PDFDocument} instead, so several barcodes can share a page.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class PDFCanvasProvider extends AbstractCanvasProvider implements ResettableCanvasProvider {
+
+    /* Helvetica widths of the characters 32 to 126 (WinAnsiEncoding) */
+    private static final short[] WIDTHS = {
+        278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+        1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+        333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+        556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584,
+    };
+    private static final int DEFAULT_WIDTH = 556;
+
+    private final PDFDocument document;
+    private final boolean placed;
+    private final double x;
+    private final double y;
+    private double height;
+    private boolean filling;
+
+    /**
+     * Creates a provider writing the barcode on a page of its own.
+     *
+     * @param document the document
+     * @param orientation the barcode orientation
+     */
+    public PDFCanvasProvider(PDFDocument document, Orientation orientation) {
+        super(orientation);
+        this.document = document;
+        this.placed = false;
+        this.x = 0;
+        this.y = 0;
+    }
+
+    /**
+     * Creates a provider placing the barcode on the current page of the
+     * document.
+     *
+     * @param document the document with a started page
+     * @param orientation the barcode orientation
+     * @param x the distance of the barcode from the left page edge (in mm)
+     * @param y the distance of the barcode from the top page edge (in mm)
+     */
+    public PDFCanvasProvider(PDFDocument document, Orientation orientation, double x, double y) {
+        super(orientation);
+        this.document = document;
+        this.placed = true;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public void establishDimensions(BarcodeDimension dim) {
+        super.establishDimensions(dim);
+        final Orientation orientation = getOrientation();
+        if (!placed) {
+            try {
+                document.startPage(dim.getWidthPlusQuiet(orientation),
+                        dim.getHeightPlusQuiet(orientation));
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Could not start a PDF page", ioe);
+            }
+        }
+        this.height = dim.getHeightPlusQuiet();
+        final StringBuilder sb = document.getContent();
+        sb.append("q\n");
+        if (placed) {
+            sb.append("1 0 0 1 ");
+            append(x, sb).append(' ');
+            append(document.getPageHeight() - y - dim.getHeightPlusQuiet(orientation), sb)
+                    .append(" cm\n");
+        }
+        final double w = dim.getWidthPlusQuiet();
+        final double h = dim.getHeightPlusQuiet();
+        switch (orientation) {
+            case NINETY:
+                sb.append("0 1 -1 0 ");
+                append(h, sb).append(" 0 cm\n");
+                break;
+            case ONEHUNDRED_EIGHTY:
+                sb.append("-1 0 0 -1 ");
+                append(w, sb).append(' ');
+                append(h, sb).append(" cm\n");
+                break;
+            case TWOHUNDRED_SEVENTY:
+                sb.append("0 -1 1 0 0 ");
+                append(w, sb).append(" cm\n");
+                break;
+            default:
+            //nop
+        }
+    }
+
+    /**
+     * Completes the barcode. For barcodes on pages of their own the page is
+     * written to the document.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void finish() throws IOException {
+        final StringBuilder sb = document.getContent();
+        endFill(sb);
+        sb.append("Q\n");
+        if (!placed) {
+            document.endPage();
+        }
+    }
+
+    /**
+     * Prepares the provider for the next barcode.
+     */
+    @Override
+    public void reset() {
+        super.establishDimensions(null);
+        this.filling = false;
+    }
+
+    @Override
+    public void deviceFillRect(double x, double y, double w, double h) {
+        final StringBuilder sb = document.getContent();
+        append(x, sb).append(' ');
+        append(this.height - y - h, sb).append(' ');
+        append(w, sb).append(' ');
+        append(h, sb).append(" re\n");
+        filling = true;
+    }
+
+    private void endFill(StringBuilder sb) {
+        if (filling) {
+            sb.append("f\n");
+            filling = false;
+        }
+    }
+
+    @Override
+    public void deviceText(String text, double x1, double x2, double y1,
+            String fontName, double fontSize, TextAlignment textAlign) {
+        if (textAlign == null) {
+            throw new IllegalArgumentException("textAlign must not be NULL");
+        }
+        final StringBuilder sb = document.getContent();
+        endFill(sb);
+        final double width = getTextWidth(text, fontSize);
+        double tx = x1;
+        double spacing = 0;
+        switch (textAlign) {
+            case TA_LEFT:
+                break;
+            case TA_CENTER:
+                tx = (x1 + x2 - width) / 2;
+                break;
+            case TA_RIGHT:
+                tx = x2 - width;
+                break;
+            case TA_JUSTIFY:
+                if (text.length() > 1) {
+                    spacing = (x2 - x1 - width) / (text.length() - 1);
+                }
+                break;
+            default:
+                throw new AssertionError(textAlign.name());
+        }
+        sb.append("BT ").append(PDFDocument.FONT_NAME).append(' ');
+        append(fontSize, sb).append(" Tf ");
+        if (spacing != 0) {
+            append(spacing, sb).append(" Tc ");
+        }
+        append(tx, sb).append(' ');
+        append(this.height - y1, sb).append(" Td (");
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c > 0xFF) {
+                sb.append('?');
+            } else {
+                sb.append(c);
+            }
+        }
+        //the character spacing is part of the graphics state
+        sb.append(spacing != 0 ? ") Tj 0 Tc ET\n" : ") Tj ET\n");
+    }
+
+    /**
+     * Returns the width of a text set in Helvetica.
+     *
+     * @param text the text
+     * @param fontSize the font size (in mm)
+     * @return the width (in mm)
+     */
+    static double getTextWidth(String text, double fontSize) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            width += c >= 32 && c <= 126 ? WIDTHS[c - 32] : DEFAULT_WIDTH;
+        }
+        return width * fontSize / 1000;
+    }
+
+    /** Appends a length in mm as points. */
+    private StringBuilder append(double mm, StringBuilder sb) {
+        final FixedDecimalFormatter formatter = document.getFormatter();
+        return formatter.append(UnitConv.mm2pt(mm), sb);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.pdf;
+
+import java.io.IOException;
+
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Canvas factory writing a batch of barcodes as pages of one PDF document,
+ * one barcode per page. The document is not finished by the factory.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class PDFCanvasProviderFactory implements CanvasProviderFactory {
+
+    private final PDFCanvasProvider canvas;
+
+    /**
+     * Creates a new factory.
+     *
+     * @param document the document the pages are added to
+     * @param orientation the barcode orientation
+     */
+    public PDFCanvasProviderFactory(PDFDocument document, Orientation orientation) {
+        this.canvas = new PDFCanvasProvider(document, orientation);
+    }
+
+    @Override
+    public CanvasProvider createCanvasProvider(int index, String msg) throws IOException {
+        canvas.reset();
+        return canvas;
+    }
+
+    @Override
+    public void finishCanvasProvider(CanvasProvider canvas, int index, String msg)
+            throws IOException {
+        ((PDFCanvasProvider) canvas).finish();
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.krysalis.barcode4j.tools.FixedDecimalFormatter;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ * Writes a minimal PDF 1.4 document with vector pages. Every page is written
+ * as soon as it is ended, only the object offsets and page numbers are kept
+ * until the cross-reference table is written by {@link #finish()}. So
+ * documents with thousands of barcodes don't need more memory than one page.
+ * <p>
+ * Pages are filled by {@link PDFCanvasProvider}s, either one barcode per page
+ * or several barcodes placed on a page started with
+ * {@link #startPage(double, double)}. Text uses the standard font Helvetica.
+ * Instances are not thread-safe.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class PDFDocument implements Closeable {
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+    private static final int FIRST_PAGE = 4;
+
+    /** the font resource name used in content streams */
+    static final String FONT_NAME = "/F1";
+
+    private final OutputStream out;
+    private final FixedDecimalFormatter formatter = new FixedDecimalFormatter(4);
+    private final StringBuilder content = new StringBuilder(4096);
+    private final StringBuilder header = new StringBuilder(256);
+    private byte[] buffer = new byte[4096];
+    private byte[] deflated = new byte[4096];
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private boolean compressed = true;
+
+    private long position;
+    private long[] offsets = new long[64];
+    private int objectCount = FIRST_PAGE - 1;
+    private int pageCount;
+    private boolean pageOpen;
+    private double pageWidth;
+    private double pageHeight;
+    private boolean finished;
+
+    /**
+     * Creates a new document. The header is written with the first page.
+     *
+     * @param out the stream to write the PDF to
+     */
+    public PDFDocument(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 65536);
+    }
+
+    /**
+     * Controls whether page contents are compressed with the Flate filter.
+     *
+     * @param value true to compress page contents (the default)
+     */
+    public void setCompressed(boolean value) {
+        this.compressed = value;
+    }
+
+    /**
+     * Indicates whether page contents are compressed.
+     *
+     * @return true if page contents are compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Starts a new page.
+     *
+     * @param width the page width (in mm)
+     * @param height the page height (in mm)
+     * @throws IOException in case of an I/O problem
+     */
+    public void startPage(double width, double height) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("The PDF document has already been finished");
+        }
+        if (pageOpen) {
+            throw new IllegalStateException("The current page has not been ended");
+        }
+        if (position == 0) {
+            //the binary comment marks the file as binary for transfer programs
+            write("%PDF-1.4\n%\u00E2\u00E3\u00CF\u00D3\n");
+        }
+        pageOpen = true;
+        pageWidth = width;
+        pageHeight = height;
+        content.setLength(0);
+    }
+
+    /**
+     * Indicates whether a page is started and not yet ended.
+     *
+     * @return true if a page is open
+     */
+    public boolean isPageOpen() {
+        return pageOpen;
+    }
+
+    /**
+     * Returns the height of the current page.
+     *
+     * @return the page height (in mm)
+     */
+    public double getPageHeight() {
+        return pageHeight;
+    }
+
+    /**
+     * Returns the content stream of the current page, operators are appended
+     * by the canvas providers.
+     *
+     * @return the content stream
+     */
+    StringBuilder getContent() {
+        if (!pageOpen) {
+            throw new IllegalStateException("No page has been started");
+        }
+        return content;
+    }
+
+    /**
+     * Returns the number formatter for content streams.
+     *
+     * @return the formatter
+     */
+    FixedDecimalFormatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Writes the current page.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void endPage() throws IOException {
+        if (!pageOpen) {
+            throw new IllegalStateException("No page has been started");
+        }
+        pageOpen = false;
+        final int length = toBytes(content);
+        final int contents = startObject();
+        final StringBuilder sb = header;
+        sb.setLength(0);
+        if (compressed) {
+            deflater.reset();
+            deflater.setInput(buffer, 0, length);
+            deflater.finish();
+            int deflatedLength = 0;
+            while (!deflater.finished()) {
+                if (deflatedLength == deflated.length) {
+                    deflated = Arrays.copyOf(deflated, deflated.length * 2);
+                }
+                deflatedLength += deflater.deflate(deflated, deflatedLength,
+                        deflated.length - deflatedLength);
+            }
+            sb.append("<< /Length ").append(deflatedLength).append(" /Filter /FlateDecode >>\nstream\n");
+            write(sb);
+            write(deflated, deflatedLength);
+        } else {
+            sb.append("<< /Length ").append(length).append(" >>\nstream\n");
+            write(sb);
+            write(buffer, length);
+        }
+        write("\nendstream\nendobj\n");
+
+        startObject();
+        sb.setLength(0);
+        sb.append("<< /Type /Page /Parent ").append(PAGES).append(" 0 R /MediaBox [0 0 ");
+        formatter.append(UnitConv.mm2pt(pageWidth), sb).append(' ');
+        formatter.append(UnitConv.mm2pt(pageHeight), sb);
+        sb.append("] /Resources << /Font << ").append(FONT_NAME).append(' ').append(FONT)
+                .append(" 0 R >> >> /Contents ").append(contents).append(" 0 R >>\nendobj\n");
+        write(sb);
+        pageCount++;
+    }
+
+    /**
+     * Returns the number of pages written so far.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Writes the page tree, the cross-reference table and the trailer and
+     * flushes the stream, which is not closed.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (pageOpen) {
+            endPage();
+        }
+        if (pageCount == 0) {
+            throw new IllegalStateException("No page has been added");
+        }
+        final StringBuilder sb = header;
+        offsets[FONT] = position;
+        write(FONT + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica"
+                + " /Encoding /WinAnsiEncoding >>\nendobj\n");
+        offsets[PAGES] = position;
+        sb.setLength(0);
+        sb.append(PAGES).append(" 0 obj\n<< /Type /Pages /Count ").append(pageCount)
+                .append(" /Kids [");
+        for (int i = 0; i < pageCount; i++) {
+            //content stream and page object alternate
+            sb.append(FIRST_PAGE + i * 2 + 1).append(" 0 R ");
+            if (sb.length() > 4096) {
+                write(sb);
+                sb.setLength(0);
+            }
+        }
+        sb.append("] >>\nendobj\n");
+        write(sb);
+        offsets[CATALOG] = position;
+        write(CATALOG + " 0 obj\n<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        final long xref = position;
+        sb.setLength(0);
+        sb.append("xref\n0 ").append(objectCount + 1).append("\n0000000000 65535 f \n");
+        for (int i = 1; i <= objectCount; i++) {
+            final String offset = Long.toString(offsets[i]);
+            for (int pad = offset.length(); pad < 10; pad++) {
+                sb.append('0');
+            }
+            sb.append(offset).append(" 00000 n \n");
+            if (sb.length() > 4096) {
+                write(sb);
+                sb.setLength(0);
+            }
+        }
+        sb.append("trailer\n<< /Size ").append(objectCount + 1).append(" /Root ").append(CATALOG)
+                .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        write(sb);
+        finished = true;
+        out.flush();
+    }
+
+    /**
+     * Finishes the document and closes the stream.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (pageCount > 0 || pageOpen) {
+                finish();
+            }
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private int startObject() throws IOException {
+        objectCount++;
+        if (objectCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[objectCount] = position;
+        write(objectCount + " 0 obj\n");
+        return objectCount;
+    }
+
+    /** Converts ISO-8859-1 characters to the byte buffer. */
+    private int toBytes(CharSequence cs) {
+        final int length = cs.length();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            buffer[i] = (byte) cs.charAt(i);
+        }
+        return length;
+    }
+
+    private void write(CharSequence cs) throws IOException {
+        //the stream is buffered, the byte buffer may hold the page content
+        final int length = cs.length();
+        for (int i = 0; i < length; i++) {
+            out.write(cs.charAt(i));
+        }
+        position += length;
+    }
+
+    private void write(byte[] data, int length) throws IOException {
+        out.write(data, 0, length);
+        position += length;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.sheet;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+
+/**
+ * Places barcodes in the cells of a {@link SheetLayout} on one canvas, for
+ * example one bitmap, SVG document, EPS file or PDF page for a whole sheet of
+ * labels. Every barcode is centered in its cell, barcodes larger than a cell
+ * overlap the neighbouring cells.
+ * <p>
+ * The barcodes are encoded on the threads of an {@link ExecutorService} if
+ * one is given, then painted on the sheet one after the other. The sheet is
+ * always set up with the dimensions of the page, the orientation of the sheet
+ * canvas rotates the whole sheet. Instances can be used by several threads as
+ * long as every thread paints on its own canvas.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class LabelSheetComposer {
+
+    private final SheetLayout layout;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a composer encoding the barcodes on the calling thread.
+     *
+     * @param layout the sheet layout
+     */
+    public LabelSheetComposer(SheetLayout layout) {
+        this(layout, null);
+    }
+
+    /**
+     * Creates a composer encoding the barcodes in parallel.
+     *
+     * @param layout the sheet layout
+     * @param executor the executor encoding the barcodes, null to encode them
+     * on the calling thread
+     */
+    public LabelSheetComposer(SheetLayout layout, ExecutorService executor) {
+        if (layout == null) {
+            throw new NullPointerException("layout must not be null");
+        }
+        this.layout = layout;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the sheet layout.
+     *
+     * @return the layout
+     */
+    public SheetLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Paints one sheet of barcodes. The canvas is set up with the page
+     * dimensions, finishing it (for example writing the bitmap) is left to the
+     * caller.
+     *
+     * @param gen the barcode generator, which must be thread-safe when an
+     * executor is used
+     * @param msgs the messages
+     * @param start the index of the first message on this sheet
+     * @param sheet the canvas for the whole sheet
+     * @return the number of barcodes placed, at most the label count of the
+     * layout
+     */
+    public int compose(BarcodeGenerator gen, List<String> msgs, int start, CanvasProvider sheet) {
+        if (sheet instanceof BitmapCanvasProvider
+                && ((BitmapCanvasProvider) sheet).isScanlineReplication()) {
+            throw new IllegalArgumentException(
+                    "Scanline replication only supports a single barcode per image");
+        }
+        final List<RecordedLabel> labels = encode(gen, msgs, start);
+        sheet.establishDimensions(layout.getPageDimension());
+        final TranslatedCanvasProvider canvas = new TranslatedCanvasProvider(sheet);
+        for (int i = 0; i < labels.size(); i++) {
+            final RecordedLabel label = labels.get(i);
+            final BarcodeDimension dim = label.getDimensions();
+            double x = layout.getLabelX(i);
+            double y = layout.getLabelY(i);
+            if (dim != null) {
+                x += (layout.getLabelWidth() - dim.getWidthPlusQuiet()) / 2;
+                y += (layout.getLabelHeight() - dim.getHeightPlusQuiet()) / 2;
+            }
+            canvas.setOffset(x, y);
+            label.replay(canvas);
+        }
+        return labels.size();
+    }
+
+    /**
+     * Paints one sheet of barcodes on a bitmap.
+     *
+     * @param gen the barcode generator
+     * @param msgs the messages
+     * @param start the index of the first message on this sheet
+     * @param resolution the resolution of the bitmap (in dpi)
+     * @param imageType the type of the bitmap as defined by {@link BufferedImage}
+     * @return the bitmap of the sheet
+     */
+    public BufferedImage composeImage(BarcodeGenerator gen, List<String> msgs, int start,
+            int resolution, int imageType) {
+        final BitmapCanvasProvider canvas = new BitmapCanvasProvider(
+                resolution, imageType, true, Orientation.ZERO);
+        compose(gen, msgs, start, canvas);
+        try {
+            canvas.finish();
+        } catch (IOException ioe) {
+            //no output stream, nothing is written
+            throw new IllegalStateException(ioe);
+        }
+        return canvas.getBufferedImage();
+    }
+
+    private List<RecordedLabel> encode(final BarcodeGenerator gen, List<String> msgs, int start) {
+        final int end = Math.min(msgs.size(), start + layout.getLabelCount());
+        final List<RecordedLabel> labels = new ArrayList<RecordedLabel>(Math.max(end - start, 0));
+        if (executor == null) {
+            for (int i = start; i < end; i++) {
+                final RecordedLabel label = new RecordedLabel();
+                gen.generateBarcode(label, msgs.get(i));
+                labels.add(label);
+            }
+            return labels;
+        }
+        final List<Callable<RecordedLabel>> tasks = new ArrayList<Callable<RecordedLabel>>();
+        for (int i = start; i < end; i++) {
+            final String msg = msgs.get(i);
+            tasks.add(new Callable<RecordedLabel>() {
+                @Override
+                public RecordedLabel call() {
+                    final RecordedLabel label = new RecordedLabel();
+                    gen.generateBarcode(label, msg);
+                    return label;
+                }
+            });
+        }
+        try {
+            for (final Future<RecordedLabel> future : executor.invokeAll(tasks)) {
+                labels.add(future.get());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while encoding the labels", ie);
+        } catch (ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return labels;
+    }
+}
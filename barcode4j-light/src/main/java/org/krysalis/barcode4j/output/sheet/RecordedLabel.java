@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.sheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Records the painting operations of one barcode so the barcode can be
+ * encoded on any thread and painted on the sheet later.
+ *
+ * @author mk
+ * @version 1.0
+ */
+class RecordedLabel extends AbstractCanvasProvider {
+
+    private double[] rects = new double[64];
+    private int rectCount;
+    private final List<Text> texts = new ArrayList<Text>();
+
+    RecordedLabel() {
+        super(Orientation.ZERO);
+    }
+
+    @Override
+    public void deviceFillRect(double x, double y, double w, double h) {
+        if (rectCount * 4 == rects.length) {
+            rects = Arrays.copyOf(rects, rects.length * 2);
+        }
+        final int i = rectCount * 4;
+        rects[i] = x;
+        rects[i + 1] = y;
+        rects[i + 2] = w;
+        rects[i + 3] = h;
+        rectCount++;
+    }
+
+    @Override
+    public void deviceText(String text, double x1, double x2, double y1,
+            String fontName, double fontSize, TextAlignment textAlign) {
+        texts.add(new Text(rectCount, text, x1, x2, y1, fontName, fontSize, textAlign));
+    }
+
+    /**
+     * Paints the recorded operations in their original order.
+     *
+     * @param target the canvas to paint on
+     */
+    void replay(CanvasProvider target) {
+        int rect = 0;
+        for (final Text t : texts) {
+            rect = replayRects(target, rect, t.position);
+            target.deviceText(t.text, t.x1, t.x2, t.y1, t.fontName, t.fontSize, t.textAlign);
+        }
+        replayRects(target, rect, rectCount);
+    }
+
+    private int replayRects(CanvasProvider target, int from, int to) {
+        for (int r = from; r < to; r++) {
+            final int i = r * 4;
+            target.deviceFillRect(rects[i], rects[i + 1], rects[i + 2], rects[i + 3]);
+        }
+        return to;
+    }
+
+    private static final class Text {
+        final int position;
+        final String text;
+        final double x1;
+        final double x2;
+        final double y1;
+        final String fontName;
+        final double fontSize;
+        final TextAlignment textAlign;
+
+        Text(int position, String text, double x1, double x2, double y1,
+                String fontName, double fontSize, TextAlignment textAlign) {
+            this.position = position;
+            this.text = text;
+            this.x1 = x1;
+            this.x2 = x2;
+            this.y1 = y1;
+            this.fontName = fontName;
+            this.fontSize = fontSize;
+            this.textAlign = textAlign;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.sheet;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+
+/**
+ * Grid of equally sized labels on a sheet. The labels are filled row by row
+ * between the page margins, separated by the horizontal and vertical gutter.
+ * All lengths are in mm.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class SheetLayout {
+
+    /** Width of an A4 sheet (in mm). */
+    public static final double A4_WIDTH = 210;
+    /** Height of an A4 sheet (in mm). */
+    public static final double A4_HEIGHT = 297;
+
+    private final double pageWidth;
+    private final double pageHeight;
+    private final int columns;
+    private final int rows;
+    private double marginTop;
+    private double marginRight;
+    private double marginBottom;
+    private double marginLeft;
+    private double horizontalGutter;
+    private double verticalGutter;
+
+    /**
+     * Creates a new layout without margins and gutters.
+     *
+     * @param pageWidth the sheet width
+     * @param pageHeight the sheet height
+     * @param columns the number of labels in each row
+     * @param rows the number of label rows
+     */
+    public SheetLayout(double pageWidth, double pageHeight, int columns, int rows) {
+        if (pageWidth <= 0 || pageHeight <= 0) {
+            throw new IllegalArgumentException("The sheet size must be positive");
+        }
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("At least one column and row are required");
+        }
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Sets the page margins.
+     *
+     * @param top the top margin
+     * @param right the right margin
+     * @param bottom the bottom margin
+     * @param left the left margin
+     */
+    public void setMargins(double top, double right, double bottom, double left) {
+        checkLabelSize(pageWidth - left - right - (columns - 1) * horizontalGutter,
+                pageHeight - top - bottom - (rows - 1) * verticalGutter);
+        this.marginTop = top;
+        this.marginRight = right;
+        this.marginBottom = bottom;
+        this.marginLeft = left;
+    }
+
+    /**
+     * Sets the space between the labels.
+     *
+     * @param horizontal the space between two labels of a row
+     * @param vertical the space between two rows
+     */
+    public void setGutters(double horizontal, double vertical) {
+        checkLabelSize(pageWidth - marginLeft - marginRight - (columns - 1) * horizontal,
+                pageHeight - marginTop - marginBottom - (rows - 1) * vertical);
+        this.horizontalGutter = horizontal;
+        this.verticalGutter = vertical;
+    }
+
+    private static void checkLabelSize(double width, double height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Margins and gutters leave no space for labels");
+        }
+    }
+
+    /** @return the sheet width */
+    public double getPageWidth() {
+        return pageWidth;
+    }
+
+    /** @return the sheet height */
+    public double getPageHeight() {
+        return pageHeight;
+    }
+
+    /** @return the number of labels in each row */
+    public int getColumns() {
+        return columns;
+    }
+
+    /** @return the number of label rows */
+    public int getRows() {
+        return rows;
+    }
+
+    /** @return the number of labels on a sheet */
+    public int getLabelCount() {
+        return columns * rows;
+    }
+
+    /** @return the width of a label */
+    public double getLabelWidth() {
+        return (pageWidth - marginLeft - marginRight - (columns - 1) * horizontalGutter) / columns;
+    }
+
+    /** @return the height of a label */
+    public double getLabelHeight() {
+        return (pageHeight - marginTop - marginBottom - (rows - 1) * verticalGutter) / rows;
+    }
+
+    /**
+     * Returns the left edge of a label.
+     *
+     * @param index the label index on the sheet, counted row by row
+     * @return the distance from the left sheet edge
+     */
+    public double getLabelX(int index) {
+        return marginLeft + (index % columns) * (getLabelWidth() + horizontalGutter);
+    }
+
+    /**
+     * Returns the top edge of a label.
+     *
+     * @param index the label index on the sheet, counted row by row
+     * @return the distance from the top sheet edge
+     */
+    public double getLabelY(int index) {
+        return marginTop + (index / columns) * (getLabelHeight() + verticalGutter);
+    }
+
+    /**
+     * Returns the dimensions of the whole sheet, used to set up the canvas.
+     *
+     * @return the sheet dimensions
+     */
+    public BarcodeDimension getPageDimension() {
+        return new BarcodeDimension(pageWidth, pageHeight);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.sheet;
+
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * CanvasProvider painting a barcode at an offset on another canvas whose
+ * dimensions are already established, for example a sheet of labels. The
+ * dimensions of the barcode are kept but not passed on. Barcodes are painted
+ * unrotated, the orientation of the target canvas applies to the sheet.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class TranslatedCanvasProvider extends AbstractCanvasProvider {
+
+    private final CanvasProvider target;
+    private double offsetX;
+    private double offsetY;
+
+    /**
+     * Creates a new provider.
+     *
+     * @param target the canvas to paint on
+     */
+    public TranslatedCanvasProvider(CanvasProvider target) {
+        super(Orientation.ZERO);
+        this.target = target;
+    }
+
+    /**
+     * Sets the position of the barcode on the target canvas.
+     *
+     * @param x the horizontal offset (in mm)
+     * @param y the vertical offset (in mm)
+     */
+    public void setOffset(double x, double y) {
+        this.offsetX = x;
+        this.offsetY = y;
+    }
+
+    @Override
+    public void deviceFillRect(double x, double y, double w, double h) {
+        target.deviceFillRect(x + offsetX, y + offsetY, w, h);
+    }
+
+    @Override
+    public void deviceText(String text, double x1, double x2, double y1,
+            String fontName, double fontSize, TextAlignment textAlign) {
+        target.deviceText(text, x1 + offsetX, x2 + offsetX, y1 + offsetY,
+                fontName, fontSize, textAlign);
+    }
+}
@@ -25,6 +25,7 @@ import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.TextAlignment;
 import org.krysalis.barcode4j.output.AbstractXMLGeneratingCanvasProvider;
 import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.ResettableCanvasProvider;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
@@ -32,12 +33,20 @@ import org.w3c.dom.Element;
 
 /**
  * Implementation that outputs to a W3C DOM.
+ * <p>
+ * By default every bar or module becomes a rect element. In single path mode
+ * (see {@link #setSinglePath(boolean)}) all of them are collected into one
+ * path element instead, which makes the SVG of 2D symbols much smaller.
+ * <p>
+ * The JAXP default DOMImplementation is looked up only once. After
+ * {@link #reset()} the provider paints the next barcode into a new document.
  *
  * @author Jeremias Maerki
  * @author mk
- * @version 1.3
+ * @version 1.5
  */
-public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
+public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider
+        implements ResettableCanvasProvider {
 
     /**
      * the SVG namespace
@@ -46,6 +55,9 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
 
     private static final Logger LOGGER = Logger.getLogger(SVGCanvasProvider.class.getName());
 
+    /** the JAXP default DOMImplementation, looked up on first use */
+    private static volatile DOMImplementation defaultDOMImpl;
+
     private final boolean useNamespace;
     private final String prefix;
 
@@ -53,6 +65,11 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
     private Document doc;
     private Element detailGroup;
 
+    private boolean singlePath;
+    private int pathPrecision = SVGPathBuilder.DEFAULT_PRECISION;
+    private SVGPathBuilder pathBuilder;
+    private Element pathElement;
+
     /**
      * Main Constructor.
      *
@@ -174,12 +191,25 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
         }
     }
 
+    /**
+     * Prepares the provider for the next barcode, which is painted into a new
+     * document. Documents returned before stay untouched.
+     */
+    @Override
+    public void reset() {
+        super.establishDimensions(null);
+        pathBuilder = null;
+        pathElement = null;
+        init();
+    }
+
     /**
      * Returns the DOM document containing the SVG barcode.
      *
      * @return the DOM document
      */
     public Document getDOM() {
+        updatePath();
         return this.doc;
     }
 
@@ -189,6 +219,7 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
      * @return the DOM fragment
      */
     public DocumentFragment getDOMFragment() {
+        updatePath();
         final DocumentFragment frag = doc.createDocumentFragment();
         frag.appendChild(doc.importNode(doc.getFirstChild(), true));
         return frag;
@@ -201,8 +232,8 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
         final Element svg = doc.getDocumentElement();
         svg.setAttribute("width", addUnit(dim.getWidthPlusQuiet(orientation)));
         svg.setAttribute("height", addUnit(dim.getHeightPlusQuiet(orientation)));
-        final String w = getDecimalFormat().format(dim.getWidthPlusQuiet(orientation));
-        final String h = getDecimalFormat().format(dim.getHeightPlusQuiet(orientation));
+        final String w = formatNumber(dim.getWidthPlusQuiet(orientation));
+        final String h = formatNumber(dim.getHeightPlusQuiet(orientation));
         svg.setAttribute("viewBox", "0 0 " + w + " " + h);
         String transform;
         switch (orientation) {
@@ -223,13 +254,69 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
         }
     }
 
+    /**
+     * Enables or disables the single path mode. If enabled all filled
+     * rectangles are written as one path element instead of one rect element
+     * each. Must be set before the barcode is painted.
+     *
+     * @param singlePath true to enable the single path mode
+     */
+    public void setSinglePath(boolean singlePath) {
+        this.singlePath = singlePath;
+    }
+
+    /**
+     * Indicates whether the single path mode is enabled.
+     *
+     * @return true if filled rectangles are written as one path element
+     */
+    public boolean isSinglePath() {
+        return this.singlePath;
+    }
+
+    /**
+     * Sets the number of decimal places of the coordinates in single path
+     * mode. The default is 4.
+     *
+     * @param precision the number of decimal places (0 to 8)
+     */
+    public void setPathPrecision(int precision) {
+        SVGPathBuilder.checkPrecision(precision);
+        this.pathPrecision = precision;
+    }
+
+    /**
+     * Returns the number of decimal places of the coordinates in single path
+     * mode.
+     *
+     * @return the number of decimal places
+     */
+    public int getPathPrecision() {
+        return this.pathPrecision;
+    }
+
+    private void updatePath() {
+        if (pathElement != null) {
+            pathElement.setAttribute("d", pathBuilder.getPathData());
+        }
+    }
+
     @Override
     public void deviceFillRect(double x, double y, double w, double h) {
+        if (singlePath) {
+            if (pathBuilder == null) {
+                pathBuilder = new SVGPathBuilder(pathPrecision);
+                pathElement = createElement("path");
+                detailGroup.appendChild(pathElement);
+            }
+            pathBuilder.addRect(x, y, w, h);
+            return;
+        }
         final Element el = createElement("rect");
-        el.setAttribute("x", getDecimalFormat().format(x));
-        el.setAttribute("y", getDecimalFormat().format(y));
-        el.setAttribute("width", getDecimalFormat().format(w));
-        el.setAttribute("height", getDecimalFormat().format(h));
+        el.setAttribute("x", formatNumber(x));
+        el.setAttribute("y", formatNumber(y));
+        el.setAttribute("width", formatNumber(w));
+        el.setAttribute("height", formatNumber(h));
         detailGroup.appendChild(el);
     }
 
@@ -250,12 +337,12 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
             tx = x1 + (x2 - x1) / 2;
         }
         el.setAttribute("font-family", fontName);
-        el.setAttribute("font-size", getDecimalFormat().format(fontSize));
+        el.setAttribute("font-size", formatNumber(fontSize));
         el.setAttribute("text-anchor", anchor);
-        el.setAttribute("x", getDecimalFormat().format(tx));
-        el.setAttribute("y", getDecimalFormat().format(y1));
+        el.setAttribute("x", formatNumber(tx));
+        el.setAttribute("y", formatNumber(y1));
         if (textAlign == TextAlignment.TA_JUSTIFY) {
-            el.setAttribute("textLength", getDecimalFormat().format(x2 - x1));
+            el.setAttribute("textLength", formatNumber(x2 - x1));
         }
         el.appendChild(doc.createTextNode(text));
         detailGroup.appendChild(el);
@@ -264,12 +351,16 @@ public class SVGCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
     private DOMImplementation initDOMImplementation(DOMImplementation in) {
         try {
             DOMImplementation res = in;
+            if (res == null) {
+                res = defaultDOMImpl;
+            }
             if (res == null) {
                 final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
                 dbf.setNamespaceAware(true);
                 dbf.setValidating(false);
                 final DocumentBuilder db = dbf.newDocumentBuilder();
                 res = db.getDOMImplementation();
+                defaultDOMImpl = res;
             }
             return res;
         } catch (ParserConfigurationException pce) {
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.svg;
+
+import org.krysalis.barcode4j.tools.FixedDecimalFormatter;
+
+/**
+ * Collects filled rectangles into the data of a single SVG path element.
+ * <p>
+ * Coordinates are rounded to the configured number of decimal places before
+ * the commands are generated, and every rectangle is written relative to the
+ * previous one ({@code m dx dy h w v h h -w z}), which keeps the path data
+ * short. Rectangles of the same row touching each other are merged.
+ *
+ * @author mk
+ * @version 1.1
+ */
+final class SVGPathBuilder {
+
+    /** the default number of decimal places (same as the rect output) */
+    static final int DEFAULT_PRECISION = 4;
+
+    /** the maximum number of decimal places */
+    static final int MAX_PRECISION = 8;
+
+    private final StringBuilder data = new StringBuilder();
+    private final FixedDecimalFormatter formatter;
+    private final char[] buffer = new char[FixedDecimalFormatter.MAX_LENGTH];
+
+    private boolean pending;
+    private long pendingX;
+    private long pendingY;
+    private long pendingW;
+    private long pendingH;
+
+    private boolean first = true;
+    private long lastX;
+    private long lastY;
+
+    /**
+     * Creates a new path builder.
+     *
+     * @param precision the number of decimal places
+     */
+    SVGPathBuilder(int precision) {
+        checkPrecision(precision);
+        this.formatter = new FixedDecimalFormatter(precision);
+    }
+
+    /**
+     * Checks the number of decimal places.
+     *
+     * @param precision the number of decimal places
+     * @throws IllegalArgumentException if the value is out of range
+     */
+    static void checkPrecision(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 0 and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+    }
+
+    /**
+     * Adds a filled rectangle to the path.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param w the width
+     * @param h the height
+     */
+    void addRect(double x, double y, double w, double h) {
+        //round the edges, not the size, so neighbouring bars stay aligned
+        final long x1 = formatter.toUnits(x);
+        final long y1 = formatter.toUnits(y);
+        final long x2 = formatter.toUnits(x + w);
+        final long y2 = formatter.toUnits(y + h);
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+        if (pending && y1 == pendingY && y2 - y1 == pendingH
+                && x1 == pendingX + pendingW) {
+            pendingW = x2 - pendingX;
+            return;
+        }
+        flushPending();
+        pending = true;
+        pendingX = x1;
+        pendingY = y1;
+        pendingW = x2 - x1;
+        pendingH = y2 - y1;
+    }
+
+    private void flushPending() {
+        if (!pending) {
+            return;
+        }
+        if (first) {
+            data.append('M');
+            appendNumber(pendingX);
+            appendSecondNumber(pendingY);
+        } else {
+            //after 'z' the current point is the start of the previous subpath
+            data.append('m');
+            appendNumber(pendingX - lastX);
+            appendSecondNumber(pendingY - lastY);
+        }
+        data.append('h');
+        appendNumber(pendingW);
+        data.append('v');
+        appendNumber(pendingH);
+        data.append('h');
+        appendNumber(-pendingW);
+        data.append('z');
+        lastX = pendingX;
+        lastY = pendingY;
+        first = false;
+        pending = false;
+    }
+
+    private void appendSecondNumber(long units) {
+        if (units >= 0) {
+            data.append(' ');
+        }
+        appendNumber(units);
+    }
+
+    private void appendNumber(long units) {
+        final int end = formatter.formatUnits(units, buffer, 0);
+        final int sign = units < 0 ? 1 : 0;
+        if (end > sign + 1 && buffer[sign] == '0') {
+            //path data allows ".5" instead of "0.5"
+            data.append(buffer, 0, sign).append(buffer, sign + 1, end - sign - 1);
+        } else {
+            data.append(buffer, 0, end);
+        }
+    }
+
+    /**
+     * Indicates whether no rectangle has been added.
+     *
+     * @return true if the path is empty
+     */
+    boolean isEmpty() {
+        return first && !pending;
+    }
+
+    /**
+     * Returns the path data for the "d" attribute.
+     *
+     * @return the path data
+     */
+    String getPathData() {
+        flushPending();
+        return data.toString();
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.svg;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.output.AbstractXMLGeneratingCanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * CanvasProvider implementation which writes SVG text directly to a stream
+ * while the barcode is painted. No DOM is built and no XSLT transformer is
+ * needed for serialization, so this is the preferred SVG output if the caller
+ * doesn't need a DOM.
+ * <p>
+ * The output is equivalent to serializing the DOM of a
+ * {@link SVGCanvasProvider}. {@link #finish()} must be called once the barcode
+ * has been generated.
+ * <p>
+ * Like {@link SVGCanvasProvider} it supports a single path mode, in which case
+ * the path element is written when {@link #finish()} is called.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class SVGStreamCanvasProvider extends AbstractXMLGeneratingCanvasProvider {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Writer writer;
+    private final boolean useNamespace;
+    private boolean started;
+    private boolean singlePath;
+    private int pathPrecision = SVGPathBuilder.DEFAULT_PRECISION;
+    private SVGPathBuilder pathBuilder;
+    private IOException firstError;
+
+    /**
+     * Creates a new SVGStreamCanvasProvider writing UTF-8 encoded SVG.
+     *
+     * @param out OutputStream to write the SVG to
+     * @param useNamespace Controls whether the SVG namespace should be declared
+     * @param orientation the barcode orientation
+     */
+    public SVGStreamCanvasProvider(OutputStream out, boolean useNamespace,
+            Orientation orientation) {
+        this(new BufferedWriter(new OutputStreamWriter(out, UTF_8)), useNamespace, orientation);
+    }
+
+    /**
+     * Creates a new SVGStreamCanvasProvider writing UTF-8 encoded SVG with the
+     * SVG namespace declared.
+     *
+     * @param out OutputStream to write the SVG to
+     * @param orientation the barcode orientation
+     */
+    public SVGStreamCanvasProvider(OutputStream out, Orientation orientation) {
+        this(out, true, orientation);
+    }
+
+    /**
+     * Creates a new SVGStreamCanvasProvider. The XML declaration states UTF-8
+     * encoding, so the writer should use that encoding if it ends up in a
+     * byte stream.
+     *
+     * @param writer Writer to write the SVG to
+     * @param useNamespace Controls whether the SVG namespace should be declared
+     * @param orientation the barcode orientation
+     */
+    public SVGStreamCanvasProvider(Writer writer, boolean useNamespace,
+            Orientation orientation) {
+        super(orientation);
+        if (writer == null) {
+            throw new NullPointerException("writer must not be null");
+        }
+        this.writer = writer;
+        this.useNamespace = useNamespace;
+    }
+
+    /**
+     * Indicates whether the SVG namespace is declared.
+     *
+     * @return true if namespaces are enabled
+     */
+    public boolean isNamespaceEnabled() {
+        return this.useNamespace;
+    }
+
+    /**
+     * Enables or disables the single path mode. If enabled all filled
+     * rectangles are written as one path element instead of one rect element
+     * each. Must be set before the barcode is painted.
+     *
+     * @param singlePath true to enable the single path mode
+     */
+    public void setSinglePath(boolean singlePath) {
+        this.singlePath = singlePath;
+    }
+
+    /**
+     * Indicates whether the single path mode is enabled.
+     *
+     * @return true if filled rectangles are written as one path element
+     */
+    public boolean isSinglePath() {
+        return this.singlePath;
+    }
+
+    /**
+     * Sets the number of decimal places of the coordinates in single path
+     * mode. The default is 4.
+     *
+     * @param precision the number of decimal places (0 to 8)
+     */
+    public void setPathPrecision(int precision) {
+        SVGPathBuilder.checkPrecision(precision);
+        this.pathPrecision = precision;
+    }
+
+    /**
+     * Returns the number of decimal places of the coordinates in single path
+     * mode.
+     *
+     * @return the number of decimal places
+     */
+    public int getPathPrecision() {
+        return this.pathPrecision;
+    }
+
+    /**
+     * Writes the end of the SVG document and flushes the stream. Must be called
+     * after the barcode painting call returns. The stream is not closed.
+     *
+     * @throws IOException if an I/O error happened during SVG generation
+     */
+    public void finish() throws IOException {
+        if (firstError != null) {
+            throw firstError;
+        }
+        ensureStarted();
+        if (pathBuilder != null) {
+            writer.write("<path");
+            writeAttribute("d", pathBuilder.getPathData());
+            writer.write("/>");
+        }
+        writer.write("</g></svg>");
+        writer.flush();
+    }
+
+    private void ensureStarted() throws IOException {
+        if (!started) {
+            writeStart(null);
+        }
+    }
+
+    private void writeStart(BarcodeDimension dim) throws IOException {
+        started = true;
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        writer.write("<svg");
+        if (useNamespace) {
+            writer.write(" xmlns=\"");
+            writer.write(SVGCanvasProvider.SVG_NAMESPACE);
+            writer.write('"');
+        }
+        String transform = null;
+        if (dim != null) {
+            final Orientation orientation = getOrientation();
+            final String w = formatNumber(dim.getWidthPlusQuiet(orientation));
+            final String h = formatNumber(dim.getHeightPlusQuiet(orientation));
+            writeAttribute("height", addUnit(dim.getHeightPlusQuiet(orientation)));
+            writeAttribute("viewBox", "0 0 " + w + " " + h);
+            writeAttribute("width", addUnit(dim.getWidthPlusQuiet(orientation)));
+            switch (orientation) {
+                case NINETY:
+                    transform = "rotate(-90) translate(-" + h + ")";
+                    break;
+                case ONEHUNDRED_EIGHTY:
+                    transform = "rotate(-180) translate(-" + w + " -" + h + ")";
+                    break;
+                case TWOHUNDRED_SEVENTY:
+                    transform = "rotate(-270) translate(0 -" + w + ")";
+                    break;
+                default:
+                    transform = null;
+            }
+        }
+        writer.write("><g fill=\"black\" stroke=\"none\"");
+        if (transform != null) {
+            writeAttribute("transform", transform);
+        }
+        writer.write('>');
+    }
+
+    private void writeAttribute(String name, String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        writeEscaped(value);
+        writer.write('"');
+    }
+
+    private void writeNumberAttribute(String name, double value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        getNumberFormatter().write(value, writer);
+        writer.write('"');
+    }
+
+    private void writeEscaped(String text) throws IOException {
+        final int len = text.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            final char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                writer.write(text, start, i - start);
+                writer.write(replacement);
+                start = i + 1;
+            }
+        }
+        writer.write(text, start, len - start);
+    }
+
+    @Override
+    public void establishDimensions(BarcodeDimension dim) {
+        super.establishDimensions(dim);
+        if (firstError != null) {
+            return;
+        }
+        if (started) {
+            throw new IllegalStateException("Only one barcode can be written per stream");
+        }
+        try {
+            writeStart(dim);
+        } catch (IOException ioe) {
+            firstError = ioe;
+        }
+    }
+
+    @Override
+    public void deviceFillRect(double x, double y, double w, double h) {
+        if (firstError != null) {
+            return;
+        }
+        if (singlePath) {
+            if (pathBuilder == null) {
+                pathBuilder = new SVGPathBuilder(pathPrecision);
+            }
+            pathBuilder.addRect(x, y, w, h);
+            return;
+        }
+        try {
+            ensureStarted();
+            writer.write("<rect");
+            writeNumberAttribute("height", h);
+            writeNumberAttribute("width", w);
+            writeNumberAttribute("x", x);
+            writeNumberAttribute("y", y);
+            writer.write("/>");
+        } catch (IOException ioe) {
+            firstError = ioe;
+        }
+    }
+
+    @Override
+    public void deviceText(String text, double x1, double x2, double y1,
+            String fontName, double fontSize, TextAlignment textAlign) {
+        if (firstError != null) {
+            return;
+        }
+        String anchor;
+        double tx;
+        if (textAlign == TextAlignment.TA_LEFT) {
+            anchor = "start";
+            tx = x1;
+        } else if (textAlign == TextAlignment.TA_RIGHT) {
+            anchor = "end";
+            tx = x2;
+        } else {
+            anchor = "middle";
+            tx = x1 + (x2 - x1) / 2;
+        }
+        try {
+            ensureStarted();
+            writer.write("<text");
+            writeAttribute("font-family", fontName);
+            writeNumberAttribute("font-size", fontSize);
+            writeAttribute("text-anchor", anchor);
+            if (textAlign == TextAlignment.TA_JUSTIFY) {
+                writeNumberAttribute("textLength", x2 - x1);
+            }
+            writeNumberAttribute("x", tx);
+            writeNumberAttribute("y", y1);
+            writer.write('>');
+            writeEscaped(text);
+            writer.write("</text>");
+        } catch (IOException ioe) {
+            firstError = ioe;
+        }
+    }
+}
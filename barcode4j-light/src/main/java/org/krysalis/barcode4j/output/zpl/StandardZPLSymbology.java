@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.zpl;
+
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.ChecksumMode;
+import org.krysalis.barcode4j.HumanReadablePlacement;
+import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.code128.Code128Constants;
+import org.krysalis.barcode4j.impl.code39.Code39Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.impl.upcean.EAN13LogicImpl;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Maps the symbologies of barcode4j-light to native ZPL II barcode commands:
+ * Code 128 (^BC), Code 39 (^B3), EAN-13 (^BE), DataMatrix (^BX) and PDF417
+ * (^B7). Subclasses of the beans (like EAN-128) are not mapped.
+ * <p>
+ * The printer chooses the font of the human-readable text and, for Code 128,
+ * the code sets itself, so the printed barcode encodes the same data with the
+ * same module width and bar height but may differ in detail from the other
+ * output formats.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class StandardZPLSymbology implements ZPLSymbology {
+
+    private static final String CODE39_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ-. $/+%";
+
+    private static final int MAX_MODULE_DOTS = 10;
+
+    @Override
+    public String createCommand(BarcodeGenerator gen, String msg, int resolution,
+            Orientation orientation) {
+        final Class<?> clazz = gen.getClass();
+        if (clazz == Code128Bean.class) {
+            return createCode128((Code128Bean) gen, msg, resolution, orientation);
+        } else if (clazz == Code39Bean.class) {
+            return createCode39((Code39Bean) gen, msg, resolution, orientation);
+        } else if (clazz == EAN13Bean.class) {
+            return createEAN13((EAN13Bean) gen, msg, resolution, orientation);
+        } else if (clazz == DataMatrixBean.class) {
+            return createDataMatrix((DataMatrixBean) gen, msg, resolution, orientation);
+        } else if (clazz == PDF417Bean.class) {
+            return createPDF417((PDF417Bean) gen, msg, resolution, orientation);
+        }
+        return null;
+    }
+
+    private static String createCode128(Code128Bean bean, String msg, int resolution,
+            Orientation orientation) {
+        final String data = ZPLWriter.createFieldData(msg);
+        if (bean.getCodeset() != Code128Constants.CODESET_ALL || data == null) {
+            return null;
+        }
+        final String fieldDefault = createFieldDefault(bean, resolution, "3");
+        if (fieldDefault == null) {
+            return null;
+        }
+        //automatic mode: the printer selects the code sets
+        return fieldDefault + "^BC" + ZPLWriter.getOrientationCode(orientation)
+                + ',' + toDots(bean.getBarHeight(), resolution)
+                + ',' + getInterpretationLine(bean) + ",N,A" + data;
+    }
+
+    private static String createCode39(Code39Bean bean, String msg, int resolution,
+            Orientation orientation) {
+        final double wideFactor = Math.round(bean.getWideFactor() * 10) / 10.0;
+        if (bean.isExtendedCharSetEnabled()
+                || bean.getChecksumMode() == ChecksumMode.CP_CHECK
+                || wideFactor < 2.0 || wideFactor > 3.0
+                || toDots(bean.getIntercharGapWidth(), resolution)
+                        != toDots(bean.getModuleWidth(), resolution)) {
+            return null;
+        }
+        for (int i = 0; i < msg.length(); i++) {
+            if (CODE39_CHARS.indexOf(msg.charAt(i)) < 0) {
+                return null;
+            }
+        }
+        final String fieldDefault = createFieldDefault(bean, resolution, String.valueOf(wideFactor));
+        if (fieldDefault == null) {
+            return null;
+        }
+        return fieldDefault + "^B3" + ZPLWriter.getOrientationCode(orientation)
+                + ',' + (bean.getChecksumMode() == ChecksumMode.CP_ADD ? 'Y' : 'N')
+                + ',' + toDots(bean.getBarHeight(), resolution)
+                + ',' + getInterpretationLine(bean) + "^FD" + msg + "^FS";
+    }
+
+    private static String createEAN13(EAN13Bean bean, String msg, int resolution,
+            Orientation orientation) {
+        for (int i = 0; i < msg.length(); i++) {
+            if (msg.charAt(i) < '0' || msg.charAt(i) > '9') {
+                return null;
+            }
+        }
+        final String data;
+        if (msg.length() == 12 && bean.getChecksumMode() != ChecksumMode.CP_CHECK) {
+            data = msg;
+        } else if (msg.length() == 13 && bean.getChecksumMode() != ChecksumMode.CP_ADD
+                && new EAN13LogicImpl(ChecksumMode.CP_CHECK).calcChecksum(msg.substring(0, 12))
+                        == msg.charAt(12)) {
+            //the printer always calculates the check digit
+            data = msg.substring(0, 12);
+        } else {
+            return null;
+        }
+        final String fieldDefault = createFieldDefault(bean, resolution, "3");
+        if (fieldDefault == null) {
+            return null;
+        }
+        return fieldDefault + "^BE" + ZPLWriter.getOrientationCode(orientation)
+                + ',' + toDots(bean.getBarHeight(), resolution)
+                + ',' + getInterpretationLine(bean) + "^FD" + data + "^FS";
+    }
+
+    private static String createDataMatrix(DataMatrixBean bean, String msg, int resolution,
+            Orientation orientation) {
+        final int module = toDots(bean.getModuleWidth(), resolution);
+        if (module < 1 || msg.length() == 0 || !ZPLWriter.isPlainText(msg)) {
+            return null;
+        }
+        //the size chosen by barcode4j, so the symbol looks the same
+        final TwoDimSymbol symbol = bean.encode(msg);
+        final int columns = symbol.getColumnCount();
+        final int rows = symbol.getRowCount();
+        return "^BX" + ZPLWriter.getOrientationCode(orientation) + ',' + module
+                + ",200," + columns + ',' + rows + ",,," + (columns == rows ? '1' : '2')
+                + "^FD" + msg + "^FS";
+    }
+
+    private static String createPDF417(PDF417Bean bean, String msg, int resolution,
+            Orientation orientation) {
+        if (bean.isECIEnabled() || msg.length() == 0) {
+            return null;
+        }
+        final String data = ZPLWriter.createFieldData(msg);
+        final String fieldDefault = createFieldDefault(bean, resolution, "3");
+        if (data == null || fieldDefault == null) {
+            return null;
+        }
+        //the layout chosen by barcode4j: start and stop pattern, row
+        //indicators and data columns of 17 modules each
+        final TwoDimSymbol symbol = bean.encode(msg);
+        final int columns = (symbol.getColumnCount() - 1) / 17 - 4;
+        final int rows = symbol.getRowCount();
+        return fieldDefault + "^B7" + ZPLWriter.getOrientationCode(orientation)
+                + ',' + toDots(bean.getRowHeight(), resolution)
+                + ',' + bean.getErrorCorrectionLevel().getLevel()
+                + ',' + columns + ',' + rows + ",N" + data;
+    }
+
+    /**
+     * Creates the ^BY command setting the module width, the wide bar ratio and
+     * the bar height.
+     *
+     * @return the command or null if the module width cannot be printed
+     */
+    private static String createFieldDefault(AbstractBarcodeBean bean, int resolution,
+            String ratio) {
+        final int module = toDots(bean.getModuleWidth(), resolution);
+        if (module < 1 || module > MAX_MODULE_DOTS) {
+            return null;
+        }
+        return "^BY" + module + ',' + ratio + ',' + toDots(bean.getBarHeight(), resolution);
+    }
+
+    /**
+     * Returns the parameters printing the human-readable text, below or above
+     * the barcode.
+     */
+    private static String getInterpretationLine(AbstractBarcodeBean bean) {
+        final HumanReadablePlacement placement = bean.getMsgPosition();
+        if (placement == HumanReadablePlacement.HRP_NONE) {
+            return "N,N";
+        } else if (placement == HumanReadablePlacement.HRP_TOP) {
+            return "Y,Y";
+        } else {
+            return "Y,N";
+        }
+    }
+
+    private static int toDots(double mm, int resolution) {
+        return ZPLWriter.toDots(mm, resolution);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.zpl;
+
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ * Maps barcode generators to the native barcode commands of ZPL II printers.
+ * Implementations are loaded through the ServiceLoader interface, so plugins
+ * can register mappings for their own symbologies in
+ * {@code META-INF/services/org.krysalis.barcode4j.output.zpl.ZPLSymbology}.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public interface ZPLSymbology {
+
+    /**
+     * Creates the ZPL commands printing a barcode, from the ^BY or barcode
+     * command up to and including ^FS. The field origin is written by the
+     * caller.
+     *
+     * @param gen the barcode generator
+     * @param msg the message
+     * @param resolution the printer resolution (dots per inch)
+     * @param orientation the barcode orientation
+     * @return the commands, or null if the generator or its settings cannot
+     * be printed natively
+     */
+    String createCommand(BarcodeGenerator gen, String msg, int resolution,
+            Orientation orientation);
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.zpl;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+import org.krysalis.barcode4j.output.bitmap.TIFFBitmapEncoder;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ * Writes barcodes as ZPL II commands for Zebra label printers. Barcodes of the
+ * symbologies known to a {@link ZPLSymbology} are printed with the native
+ * barcode commands (^BC, ^B3, ^BE, ^BX, ^B7, ^BQ, ...), so the printer
+ * renders them at its own resolution and the label stays small. All other
+ * barcodes, and barcodes with settings the printer cannot reproduce, are
+ * painted on a 1-bit bitmap and sent as compressed ^GF graphic field.
+ * <p>
+ * Positions are given in printer dots. Instances are not thread-safe.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class ZPLWriter implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ZPLWriter.class.getName());
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final int MAX_REPEAT = 419;
+
+    private static List<ZPLSymbology> symbologies;
+
+    private final Writer writer;
+    private final int resolution;
+    private boolean nativeCommands = true;
+    private BitmapCanvasProvider canvas;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Creates a new writer.
+     *
+     * @param out the stream to write the ZPL commands to
+     * @param resolution the printer resolution (dots per inch)
+     */
+    public ZPLWriter(OutputStream out, int resolution) {
+        try {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, "US-ASCII"));
+        } catch (UnsupportedEncodingException uee) {
+            throw new IllegalStateException("Incompatible VM: Need US-ASCII encoding.", uee);
+        }
+        this.resolution = resolution;
+    }
+
+    /**
+     * Returns the printer resolution.
+     *
+     * @return the resolution (dots per inch)
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Controls whether native barcode commands are used. If disabled, all
+     * barcodes are sent as graphic fields, which look exactly like the
+     * bitmap output but are larger.
+     *
+     * @param value true to use native barcode commands (the default)
+     */
+    public void setNativeCommandsEnabled(boolean value) {
+        this.nativeCommands = value;
+    }
+
+    /**
+     * Indicates whether native barcode commands are used.
+     *
+     * @return true if native barcode commands are used
+     */
+    public boolean isNativeCommandsEnabled() {
+        return nativeCommands;
+    }
+
+    /**
+     * Starts a label (^XA).
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void startLabel() throws IOException {
+        writer.write("^XA\n");
+    }
+
+    /**
+     * Ends a label (^XZ).
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void endLabel() throws IOException {
+        writer.write("^XZ\n");
+    }
+
+    /**
+     * Writes a barcode. The position is the upper left corner of the barcode
+     * including its quiet zone, as with the other output formats.
+     *
+     * @param gen the barcode generator
+     * @param msg the message
+     * @param x the horizontal position (in dots)
+     * @param y the vertical position (in dots)
+     * @param orientation the barcode orientation
+     * @return true if the barcode was written with a native barcode command,
+     * false if it was written as graphic field
+     * @throws IOException in case of an I/O problem
+     */
+    public boolean writeBarcode(BarcodeGenerator gen, String msg, int x, int y,
+            Orientation orientation) throws IOException {
+        if (nativeCommands) {
+            final String command = createNativeCommand(gen, msg, orientation);
+            if (command != null) {
+                int dx = 0;
+                int dy = 0;
+                if (gen instanceof AbstractBarcodeBean && ((AbstractBarcodeBean) gen).hasQuietZone()) {
+                    final AbstractBarcodeBean bean = (AbstractBarcodeBean) gen;
+                    dx = toDots(bean.getQuietZone(), resolution);
+                    dy = toDots(bean.getVerticalQuietZone(), resolution);
+                    if (orientation.isSwitched()) {
+                        final int swap = dx;
+                        dx = dy;
+                        dy = swap;
+                    }
+                }
+                writer.write("^FO" + (x + dx) + ',' + (y + dy) + command + '\n');
+                return true;
+            }
+        }
+        writeGraphic(render(gen, msg, orientation), x, y);
+        return false;
+    }
+
+    private String createNativeCommand(BarcodeGenerator gen, String msg, Orientation orientation) {
+        for (final ZPLSymbology symbology : getSymbologies()) {
+            final String command = symbology.createCommand(gen, msg, resolution, orientation);
+            if (command != null) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    private BufferedImage render(BarcodeGenerator gen, String msg, Orientation orientation)
+            throws IOException {
+        if (canvas == null || canvas.getOrientation() != orientation) {
+            canvas = new BitmapCanvasProvider(resolution, BufferedImage.TYPE_BYTE_BINARY,
+                    false, orientation);
+        } else {
+            canvas.reset();
+        }
+        gen.generateBarcode(canvas, msg);
+        canvas.finish();
+        return canvas.getBufferedImage();
+    }
+
+    /**
+     * Writes an image as graphic field (^GF) in compressed ASCII hex format.
+     * Images which are not black and white 1-bit images are converted first.
+     *
+     * @param image the image
+     * @param x the horizontal position (in dots)
+     * @param y the vertical position (in dots)
+     * @throws IOException in case of an I/O problem
+     */
+    public void writeGraphic(BufferedImage image, int x, int y) throws IOException {
+        final BufferedImage bilevel = TIFFBitmapEncoder.isSupported(image) ? image : toBilevel(image);
+        final int width = bilevel.getWidth();
+        final int height = bilevel.getHeight();
+        final int stride = ((MultiPixelPackedSampleModel) bilevel.getRaster().getSampleModel())
+                .getScanlineStride();
+        final byte[] pixels = ((DataBufferByte) bilevel.getRaster().getDataBuffer()).getData();
+        //ZPL uses 1 for black
+        final int invert = (((IndexColorModel) bilevel.getColorModel()).getRGB(0) & 0xFFFFFF) == 0
+                ? 0xFF : 0;
+        final int bytesPerRow = (width + 7) >> 3;
+        final int padMask = (width & 7) == 0 ? 0xFF : 0xFF00 >> (width & 7);
+        final int total = bytesPerRow * height;
+        writer.write("^FO" + x + ',' + y + "^GFA," + total + ',' + total + ',' + bytesPerRow + ',');
+        char[] row = new char[bytesPerRow * 2];
+        char[] previous = new char[bytesPerRow * 2];
+        for (int r = 0; r < height; r++) {
+            final int offset = r * stride;
+            for (int i = 0; i < bytesPerRow; i++) {
+                int b = ((pixels[offset + i] & 0xFF) ^ invert);
+                if (i == bytesPerRow - 1) {
+                    b &= padMask;
+                }
+                row[i * 2] = HEX[b >> 4];
+                row[i * 2 + 1] = HEX[b & 0xF];
+            }
+            if (r > 0 && Arrays.equals(row, previous)) {
+                writer.write(':');
+            } else {
+                writer.write(compressRow(row));
+            }
+            final char[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        writer.write("^FS\n");
+    }
+
+    private static BufferedImage toBilevel(BufferedImage image) {
+        final BufferedImage bilevel = new BufferedImage(image.getWidth(), image.getHeight(),
+                BufferedImage.TYPE_BYTE_BINARY);
+        final Graphics2D g2d = bilevel.createGraphics();
+        try {
+            g2d.drawImage(image, 0, 0, null);
+        } finally {
+            g2d.dispose();
+        }
+        return bilevel;
+    }
+
+    /**
+     * Compresses a row of hex digits: trailing zeros are replaced by ',',
+     * trailing F's by '!' and runs by their repeat count (G-Y for 1-19, g-z
+     * for 20-400).
+     */
+    private String compressRow(char[] row) {
+        final StringBuilder sb = line;
+        sb.setLength(0);
+        int end = row.length;
+        final char last = row[end - 1];
+        if (last == '0' || last == 'F') {
+            while (end > 0 && row[end - 1] == last) {
+                end--;
+            }
+        }
+        int i = 0;
+        while (i < end) {
+            final char c = row[i];
+            int run = 1;
+            while (i + run < end && row[i + run] == c) {
+                run++;
+            }
+            i += run;
+            while (run > 2) {
+                final int count = Math.min(run, MAX_REPEAT);
+                if (count >= 20) {
+                    sb.append((char) ('g' + count / 20 - 1));
+                }
+                if (count % 20 != 0) {
+                    sb.append((char) ('G' + count % 20 - 1));
+                }
+                sb.append(c);
+                run -= count;
+            }
+            for (; run > 0; run--) {
+                sb.append(c);
+            }
+        }
+        if (end < row.length) {
+            sb.append(last == '0' ? ',' : '!');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Flushes the written commands.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Flushes the written commands and closes the stream.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static synchronized List<ZPLSymbology> getSymbologies() {
+        if (symbologies == null) {
+            final List<ZPLSymbology> list = new ArrayList<ZPLSymbology>();
+            final Iterator<ZPLSymbology> iterator
+                    = ServiceLoader.load(ZPLSymbology.class).iterator();
+            while (iterator.hasNext()) {
+                try {
+                    list.add(iterator.next());
+                } catch (ServiceConfigurationError e) {
+                    LOGGER.log(Level.WARNING, "Failed to load a ZPLSymbology service.", e);
+                }
+            }
+            symbologies = Collections.unmodifiableList(list);
+        }
+        return symbologies;
+    }
+
+    /**
+     * Converts a length to printer dots.
+     *
+     * @param mm the length (in mm)
+     * @param resolution the printer resolution (dots per inch)
+     * @return the length in dots
+     */
+    public static int toDots(double mm, int resolution) {
+        return UnitConv.mm2px(mm, resolution);
+    }
+
+    /**
+     * Returns the orientation parameter of the barcode commands.
+     *
+     * @param orientation the barcode orientation (counterclockwise)
+     * @return N, B, I or R
+     */
+    public static char getOrientationCode(Orientation orientation) {
+        switch (orientation) {
+            case NINETY:
+                return 'B';
+            case ONEHUNDRED_EIGHTY:
+                return 'I';
+            case TWOHUNDRED_SEVENTY:
+                return 'R';
+            default:
+                return 'N';
+        }
+    }
+
+    /**
+     * Creates the field data commands for a message. Characters with a
+     * special meaning and control characters are written as hexadecimal
+     * escapes (^FH).
+     *
+     * @param data the field data
+     * @return ^FD, the data and ^FS, or null if the data contains characters
+     * outside the US-ASCII range
+     */
+    public static String createFieldData(String data) {
+        final StringBuilder sb = new StringBuilder(data.length() + 10);
+        boolean escaped = false;
+        for (int i = 0; i < data.length(); i++) {
+            final char c = data.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            if (c < 0x20 || c == 0x7F || c == '^' || c == '~' || c == '_') {
+                sb.append('_').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                escaped = true;
+            } else {
+                sb.append(c);
+            }
+        }
+        return (escaped ? "^FH^FD" : "^FD") + sb + "^FS";
+    }
+
+    /**
+     * Indicates whether a message consists of printable US-ASCII characters
+     * without the ZPL command and escape characters ^, ~ and _. Symbologies
+     * which interpret escape sequences in their field data only accept such
+     * messages.
+     *
+     * @param msg the message
+     * @return true if the message can be sent without escapes
+     */
+    public static boolean isPlainText(String msg) {
+        for (int i = 0; i < msg.length(); i++) {
+            final char c = msg.charAt(i);
+            if (c < 0x20 || c >= 0x7F || c == '^' || c == '~' || c == '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
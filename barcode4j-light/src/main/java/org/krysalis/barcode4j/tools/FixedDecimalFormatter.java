@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Locale-independent formatter for numbers with a fixed maximum number of
+ * fraction digits, used for the coordinates of vector output formats.
+ * <p>
+ * The output equals that of {@code new DecimalFormat("0.####")} (for four
+ * fraction digits) with '.' as decimal separator: trailing zeros are dropped
+ * and ties are rounded half-even. Unlike DecimalFormat small negative values
+ * are printed as "0" instead of "-0". Digits are written directly into a char
+ * buffer, so formatting doesn't allocate (except for the rare values whose
+ * scaled product hits a rounding tie).
+ * <p>
+ * Values may also be given as integer fixed-point units of 10^-digits (for
+ * example micrometers with three fraction digits), which avoids floating
+ * point rounding altogether.
+ * <p>
+ * Instances are not thread-safe because of an internal buffer used by
+ * {@link #write(double, Writer)}.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class FixedDecimalFormatter {
+
+    /** the maximum number of fraction digits */
+    public static final int MAX_FRACTION_DIGITS = 9;
+
+    /** the maximum number of characters produced for one value */
+    public static final int MAX_LENGTH = 32;
+
+    /** values above this limit can't be scaled to a long safely */
+    private static final double MAX_SCALED = 1e17;
+
+    private final int fractionDigits;
+    private final long factor;
+    private final char[] buffer = new char[MAX_LENGTH];
+
+    /**
+     * Creates a new formatter.
+     *
+     * @param fractionDigits the maximum number of fraction digits
+     * (0 to {@link #MAX_FRACTION_DIGITS})
+     */
+    public FixedDecimalFormatter(int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("fractionDigits must be between 0 and "
+                    + MAX_FRACTION_DIGITS + ": " + fractionDigits);
+        }
+        this.fractionDigits = fractionDigits;
+        long f = 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            f *= 10;
+        }
+        this.factor = f;
+    }
+
+    /**
+     * Returns the maximum number of fraction digits.
+     *
+     * @return the number of fraction digits
+     */
+    public int getFractionDigits() {
+        return this.fractionDigits;
+    }
+
+    /**
+     * Converts a value to fixed-point units of this formatter.
+     *
+     * @param value the value
+     * @return the value in units of 10^-digits, rounded half-even
+     * @throws IllegalArgumentException if the value is not finite or too large
+     */
+    public long toUnits(double value) {
+        final double product = value * factor;
+        final double scaled = Math.rint(product);
+        if (!(Math.abs(scaled) < MAX_SCALED)) {
+            throw new IllegalArgumentException("Value out of range: " + value);
+        }
+        if (Math.abs(product - scaled) == 0.5) {
+            //the product may have been rounded to the tie, decide on the exact value
+            return new BigDecimal(value).setScale(fractionDigits, RoundingMode.HALF_EVEN)
+                    .unscaledValue().longValue();
+        }
+        return (long) scaled;
+    }
+
+    /**
+     * Formats a value into a char buffer.
+     *
+     * @param value the value
+     * @param buf the target buffer (needs room for {@link #MAX_LENGTH} chars)
+     * @param offset the position of the first char
+     * @return the position after the last char written
+     */
+    public int format(double value, char[] buf, int offset) {
+        return formatUnits(toUnits(value), buf, offset);
+    }
+
+    /**
+     * Formats a fixed-point value into a char buffer.
+     *
+     * @param units the value in units of 10^-digits
+     * @param buf the target buffer (needs room for {@link #MAX_LENGTH} chars)
+     * @param offset the position of the first char
+     * @return the position after the last char written
+     */
+    public int formatUnits(long units, char[] buf, int offset) {
+        int pos = offset;
+        long abs = units;
+        if (units < 0) {
+            buf[pos++] = '-';
+            abs = -units;
+        }
+        pos = writeDigits(abs / factor, buf, pos);
+        long frac = abs % factor;
+        if (frac != 0) {
+            int digits = fractionDigits;
+            while (frac % 10 == 0) {
+                frac /= 10;
+                digits--;
+            }
+            buf[pos++] = '.';
+            //right-aligned, leading zeros included
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buf[i] = (char) ('0' + frac % 10);
+                frac /= 10;
+            }
+            pos += digits;
+        }
+        return pos;
+    }
+
+    private static int writeDigits(long value, char[] buf, int pos) {
+        int len = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            len++;
+        }
+        long v = value;
+        for (int i = pos + len - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return pos + len;
+    }
+
+    /**
+     * Writes a formatted value to a Writer.
+     *
+     * @param value the value
+     * @param writer the target
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(double value, Writer writer) throws IOException {
+        writer.write(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Writes a formatted fixed-point value to a Writer.
+     *
+     * @param units the value in units of 10^-digits
+     * @param writer the target
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeUnits(long units, Writer writer) throws IOException {
+        writer.write(buffer, 0, formatUnits(units, buffer, 0));
+    }
+
+    /**
+     * Appends a formatted value to a StringBuilder.
+     *
+     * @param value the value
+     * @param sb the target
+     * @return the StringBuilder
+     */
+    public StringBuilder append(double value, StringBuilder sb) {
+        return sb.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Formats a value.
+     *
+     * @param value the value
+     * @return the formatted value
+     */
+    public String format(double value) {
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+}
@@ -22,15 +22,38 @@ import java.util.regex.Pattern;
 /**
  * Utilities for pre-processing messages.
  * 
- * @version 1.2
+ * @version 1.3
  */
 public class MessageUtil {
 
     private static final Pattern UNESCAPE_UNICODE_PATTERN = Pattern.compile("(\\\\\\\\)|(\\\\u([\\dA-Fa-f]{0,4}))");
 
+    private static final String[] SINGLE_CHARS = new String[256];
+
+    static {
+        for (int i = 0; i < SINGLE_CHARS.length; i++) {
+            SINGLE_CHARS[i] = String.valueOf((char) i).intern();
+        }
+    }
+
     private MessageUtil() {
     }
 
+    /**
+     * Returns a single-character string. Strings for the ISO-8859-1 range are
+     * shared instances so the symbologies can report their characters to the
+     * logic handlers without allocating.
+     *
+     * @param c the character
+     * @return the string consisting of only the given character
+     */
+    public static String charToString(char c) {
+        if (c < SINGLE_CHARS.length) {
+            return SINGLE_CHARS[c];
+        }
+        return String.valueOf(c);
+    }
+
     /**
      * Un-escapes escaped Unicode characters in a message.
      *
@@ -15,12 +15,39 @@
  */
 package org.krysalis.barcode4j.impl;
 
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.Assume;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import org.krysalis.barcode4j.BarcodeBatch;
+import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.HumanReadablePlacement;
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.code128.Code128LogicImpl;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.fourstate.USPSIntelligentMailBean;
+import org.krysalis.barcode4j.impl.fourstate.USPSIntelligentMailLogicImpl;
+import org.krysalis.barcode4j.impl.int2of5.ITF14Bean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.impl.postnet.POSTNETBean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
 import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.java2d.Java2DCanvasProvider;
 
 /**
  *
@@ -95,6 +122,237 @@ public class AbstractBarcodeBeanTest {
         instance.calcDimensions(msg);
     }
 
+    /**
+     * Canvas provider recording all painting operations.
+     */
+    private static class RecordingCanvasProvider extends AbstractCanvasProvider {
+
+        private final StringBuilder sb = new StringBuilder();
+
+        RecordingCanvasProvider() {
+            super(Orientation.ZERO);
+        }
+
+        @Override
+        public void establishDimensions(BarcodeDimension dim) {
+            super.establishDimensions(dim);
+            sb.append("D ").append(dim.getWidthPlusQuiet()).append(' ')
+                    .append(dim.getHeightPlusQuiet()).append('\n');
+        }
+
+        @Override
+        public void deviceFillRect(double x, double y, double w, double h) {
+            sb.append("R ").append(x).append(' ').append(y).append(' ')
+                    .append(w).append(' ').append(h).append('\n');
+        }
+
+        @Override
+        public void deviceText(String text, double x1, double x2, double y1,
+                String fontName, double fontSize, TextAlignment textAlign) {
+            sb.append("T ").append(text).append(' ').append(x1).append(' ')
+                    .append(x2).append(' ').append(y1).append(' ').append(textAlign).append('\n');
+        }
+    }
+
+    private static class RecordingFactory implements CanvasProviderFactory {
+
+        private final List<String> outputs = new ArrayList<String>();
+
+        @Override
+        public CanvasProvider createCanvasProvider(int index, String msg) throws IOException {
+            return new RecordingCanvasProvider();
+        }
+
+        @Override
+        public void finishCanvasProvider(CanvasProvider canvas, int index, String msg)
+                throws IOException {
+            assertEquals(outputs.size(), index);
+            outputs.add(((RecordingCanvasProvider) canvas).sb.toString());
+        }
+    }
+
+    private static void assertSameAsSingle(AbstractBarcodeBean bean, String... msgs)
+            throws IOException {
+        final RecordingFactory factory = new RecordingFactory();
+        assertEquals(msgs.length, BarcodeBatch.generateBarcodes(bean, Arrays.asList(msgs), factory));
+        for (int i = 0; i < msgs.length; i++) {
+            final RecordingCanvasProvider single = new RecordingCanvasProvider();
+            bean.generateBarcode(single, msgs[i]);
+            assertEquals(bean.getClass().getName(), single.sb.toString(), factory.outputs.get(i));
+        }
+    }
+
+    /**
+     * Test of generateBarcodes method, of class AbstractBarcodeBean. A batch
+     * reuses the canvas and the logic handler and must paint the same as
+     * single calls.
+     */
+    @Test
+    public void testGenerateBarcodes() throws Exception {
+        System.out.println("generateBarcodes");
+        assertSameAsSingle(new Code128Bean(), "Batch", "of", "Code 128 messages");
+        assertSameAsSingle(new EAN13Bean(), "4006381333931", "123456789012+12", "978020137962+52250");
+        assertSameAsSingle(new ITF14Bean(), "1234567890123", "0001234567890");
+        assertSameAsSingle(new POSTNETBean(), "12345", "123456789");
+        assertSameAsSingle(new USPSIntelligentMailBean(),
+                "00040123456200800001987654321", "0123456709498765432101234567891");
+        assertSameAsSingle(new DataMatrixBean(), "A", "Hello World, this is a longer message");
+        final PDF417Bean pdf417 = new PDF417Bean();
+        pdf417.setRectangleMerging(true);
+        assertSameAsSingle(pdf417, "PDF417", "Merged rectangles in a batch");
+    }
+
+    /**
+     * Java2D canvas which counts the painted bars.
+     */
+    private static class CountingJava2DCanvasProvider extends Java2DCanvasProvider {
+
+        private int rects;
+
+        CountingJava2DCanvasProvider(Graphics2D g2d) {
+            super(g2d, Orientation.ZERO);
+        }
+
+        @Override
+        public void deviceFillRect(double x, double y, double w, double h) {
+            rects++;
+            super.deviceFillRect(x, y, w, h);
+        }
+    }
+
+    /**
+     * Hands out the same Java2D canvas for every barcode of a batch.
+     */
+    private static class ReusingFactory implements CanvasProviderFactory {
+
+        private final Graphics2D g2d;
+        private final CountingJava2DCanvasProvider canvas;
+
+        ReusingFactory() {
+            final BufferedImage image = new BufferedImage(1000, 100, BufferedImage.TYPE_BYTE_BINARY);
+            g2d = image.createGraphics();
+            g2d.scale(2, 2);
+            canvas = new CountingJava2DCanvasProvider(g2d);
+        }
+
+        @Override
+        public CanvasProvider createCanvasProvider(int index, String msg) throws IOException {
+            canvas.setGraphics2D(g2d);
+            return canvas;
+        }
+
+        @Override
+        public void finishCanvasProvider(CanvasProvider canvas, int index, String msg)
+                throws IOException {
+            //nop
+        }
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread while running the
+     * given task, the best of a few runs after warming up. The JIT may
+     * allocate now and then, so the best run counts.
+     */
+    private static long measureAllocation(com.sun.management.ThreadMXBean threads,
+            Callable<?> task) throws Exception {
+        for (int i = 0; i < 20; i++) {
+            task.call(); //warm-up
+        }
+        final long threadId = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            final long before = threads.getThreadAllocatedBytes(threadId);
+            task.call();
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return allocated;
+    }
+
+    private static void assertAllocationFreeBars(com.sun.management.ThreadMXBean threads,
+            final AbstractBarcodeBean bean, final BarcodeLogic logic, String msg)
+            throws Exception {
+        bean.setMsgPosition(HumanReadablePlacement.HRP_NONE);
+        final List<String> msgs = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            msgs.add(msg);
+        }
+        final ReusingFactory factory = new ReusingFactory();
+        final long batch = measureAllocation(threads, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                factory.canvas.rects = 0;
+                return bean.generateBarcodes(msgs, factory);
+            }
+        });
+        final int rects = factory.canvas.rects;
+        //Java2D's rasterizer allocates on its own for every filled shape
+        final Rectangle2D.Double rect = new Rectangle2D.Double(1, 1, 0.3, 10);
+        final long fills = measureAllocation(threads, new Callable<Object>() {
+            @Override
+            public Object call() {
+                for (int i = 0; i < rects; i++) {
+                    factory.g2d.fill(rect);
+                }
+                return null;
+            }
+        });
+        //encoding the message allocates, too
+        final long encoding = measureAllocation(threads, new Callable<Object>() {
+            @Override
+            public Object call() {
+                for (String m : msgs) {
+                    logic.generate(m);
+                }
+                return null;
+            }
+        });
+        final long overhead = (batch - fills - encoding) / msgs.size();
+        final int bars = rects / msgs.size();
+        //the Graphics2D copy, the dimensions and the like are allocated once
+        //per barcode, a single object per bar would take 16 bytes or more
+        assertTrue(bean.getClass().getName() + " allocated " + overhead + " bytes for "
+                + bars + " bars", overhead < 1024 + bars * 4);
+    }
+
+    /**
+     * Encodes a message without painting it.
+     */
+    private interface BarcodeLogic {
+        void generate(String msg);
+    }
+
+    /**
+     * Tests that real beans painting through a reused Java2D canvas in a
+     * batch only allocate per barcode, not per bar.
+     */
+    @Test
+    public void testAllocationFreeBars() throws Exception {
+        System.out.println("allocation-free bars");
+        final ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final Code128LogicImpl code128 = new Code128LogicImpl();
+        final BarcodeLogic code128Logic = new BarcodeLogic() {
+            @Override
+            public void generate(String msg) {
+                code128.generateBarcodeLogic(new NullClassicBarcodeLogicHandler(), msg);
+            }
+        };
+        final String msg = "Code 128 allocation test 0123456789";
+        assertAllocationFreeBars(threads, new Code128Bean(), code128Logic, msg);
+        assertAllocationFreeBars(threads, new Code128Bean(), code128Logic, msg + msg + msg + msg);
+        final USPSIntelligentMailLogicImpl usps = new USPSIntelligentMailLogicImpl();
+        assertAllocationFreeBars(threads, new USPSIntelligentMailBean(), new BarcodeLogic() {
+            @Override
+            public void generate(String msg) {
+                usps.generateBarcodeLogic(new NullClassicBarcodeLogicHandler(), msg);
+            }
+        }, "0123456709498765432101234567891");
+    }
+
     public class AbstractBarcodeBeanImpl extends AbstractBarcodeBean {
 
         @Override
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixLogicImpl;
+import org.krysalis.barcode4j.impl.datamatrix.SymbolShapeHint;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
+import org.krysalis.barcode4j.output.Canvas;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class DefaultTwoDimCanvasLogicHandlerTest {
+
+    /**
+     * Canvas provider which counts rectangles and records the covered modules.
+     */
+    private static class ModuleCanvasProvider extends AbstractCanvasProvider {
+
+        private final double moduleWidth;
+        private final BitSet modules = new BitSet();
+        private int rects;
+
+        ModuleCanvasProvider(double moduleWidth) {
+            super(Orientation.ZERO);
+            this.moduleWidth = moduleWidth;
+        }
+
+        @Override
+        public void deviceFillRect(double x, double y, double w, double h) {
+            rects++;
+            final int col = (int) Math.round(x / moduleWidth);
+            final int row = (int) Math.round(y / moduleWidth);
+            final int cols = (int) Math.round(w / moduleWidth);
+            final int rows = (int) Math.round(h / moduleWidth);
+            for (int r = row; r < row + rows; r++) {
+                for (int c = col; c < col + cols; c++) {
+                    final int bit = r * 1000 + c;
+                    assertFalse("module painted twice", modules.get(bit));
+                    modules.set(bit);
+                }
+            }
+        }
+
+        @Override
+        public void deviceText(String text, double x1, double x2, double y1,
+                String fontName, double fontSize, TextAlignment textAlign) {
+            //nop
+        }
+    }
+
+    private static ModuleCanvasProvider paint(boolean coalescing) {
+        final DataMatrixBean bean = new DataMatrixBean();
+        final ModuleCanvasProvider provider = new ModuleCanvasProvider(bean.getModuleWidth());
+        final DefaultTwoDimCanvasLogicHandler handler =
+                new DefaultTwoDimCanvasLogicHandler(bean, new Canvas(provider));
+        handler.setCoalescing(coalescing);
+        new DataMatrixLogicImpl().generateBarcodeLogic(handler,
+                "Hello World! This is a somewhat longer DataMatrix message.",
+                SymbolShapeHint.FORCE_NONE, null, null);
+        return provider;
+    }
+
+    /**
+     * Test of the coalescing of dark bars, of class DefaultTwoDimCanvasLogicHandler.
+     */
+    @Test
+    public void testCoalescing() {
+        System.out.println("coalescing");
+        final ModuleCanvasProvider single = paint(false);
+        final ModuleCanvasProvider coalesced = paint(true);
+        assertEquals(single.modules, coalesced.modules);
+        assertEquals(single.modules.cardinality(), single.rects);
+        assertTrue(coalesced.rects < single.rects * 2 / 3);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.datamatrix.SymbolShapeHint;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+
+/**
+ *
+ * @author mk
+ */
+public class SymbolCacheTest {
+
+    @After
+    public void tearDown() {
+        SymbolCache.setDefault(null);
+    }
+
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+        final SymbolCache cache = new SymbolCache(2);
+        final PDF417Bean bean = new PDF417Bean();
+        final TwoDimSymbol a = bean.encode("A");
+        final TwoDimSymbol b = bean.encode("B");
+        final TwoDimSymbol c = bean.encode("C");
+        cache.put("s", a);
+        cache.put("s", b);
+        assertSame(a, cache.get("s", "A")); //A is now the most recently used
+        cache.put("s", c);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("s", "B"));
+        assertSame(a, cache.get("s", "A"));
+        assertSame(c, cache.get("s", "C"));
+        assertNull(cache.get("other", "C"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.6, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testDefaultCache() {
+        System.out.println("default cache");
+        final SymbolCache cache = new SymbolCache(10);
+        SymbolCache.setDefault(cache);
+
+        final DataMatrixBean bean = new DataMatrixBean();
+        final TwoDimSymbol first = bean.encode("Hello");
+        assertSame(first, bean.encode("Hello"));
+        bean.calcDimensions("Hello");
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        //changed settings must not hit the cached symbol
+        bean.setShape(SymbolShapeHint.FORCE_RECTANGLE);
+        final TwoDimSymbol rect = bean.encode("Hello");
+        assertNotSame(first, rect);
+        assertTrue(rect.getColumnCount() > rect.getRowCount());
+        bean.setModuleWidth(1.0);
+        bean.setShape(SymbolShapeHint.FORCE_NONE);
+        assertEquals(first.getColumnCount(), bean.encode("Hello").getDimension().getWidth(), 0.0001);
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        System.out.println("invalid size");
+        new SymbolCache(0);
+    }
+}
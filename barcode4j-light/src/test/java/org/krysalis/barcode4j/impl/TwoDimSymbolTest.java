@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.mbhk.barcode4j.Configuration;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.svg.SVGCanvasProvider;
+import org.krysalis.barcode4j.output.svg.SVGCanvasProviderTest;
+
+/**
+ *
+ * @author mk
+ */
+public class TwoDimSymbolTest {
+
+    private static TwoDimSymbol createSymbol() {
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
+        builder.startBarcode("msg", "msg");
+        builder.startRow();
+        builder.addBar(true, 2);
+        builder.addBar(false, 7);
+        builder.addBar(true, 1);
+        builder.endRow();
+        builder.startRow();
+        builder.addBar(false, 1);
+        builder.addBar(true, 9);
+        builder.endRow();
+        builder.endBarcode();
+        return builder.build(new BarcodeDimension(10, 2));
+    }
+
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+        final TwoDimSymbol symbol = createSymbol();
+        assertEquals("msg", symbol.getMessage());
+        assertEquals(10, symbol.getColumnCount());
+        assertEquals(2, symbol.getRowCount());
+        assertTrue(symbol.isDark(0, 0));
+        assertTrue(symbol.isDark(1, 0));
+        assertFalse(symbol.isDark(2, 0));
+        assertFalse(symbol.isDark(8, 0));
+        assertTrue(symbol.isDark(9, 0));
+        assertFalse(symbol.isDark(0, 1));
+        assertTrue(symbol.isDark(9, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuildUnevenRows() {
+        System.out.println("build uneven rows");
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
+        builder.startBarcode("msg", "msg");
+        builder.startRow();
+        builder.addBar(true, 2);
+        builder.endRow();
+        builder.startRow();
+        builder.addBar(true, 3);
+        builder.endRow();
+    }
+
+    @Test
+    public void testGenerate() {
+        System.out.println("generate");
+        final StringBuilder sb = new StringBuilder();
+        createSymbol().generate(new MockTwoDimBarcodeLogicHandler(sb));
+        assertEquals("<BC>B2W7B1|W1B9|</BC>", sb.toString());
+    }
+
+    @Test
+    public void testEncodeOnceDataMatrix() {
+        System.out.println("encode DataMatrix");
+        final DataMatrixBean bean = new DataMatrixBean();
+        final TwoDimSymbol symbol = bean.encode("Hello World");
+        assertEquals(16, symbol.getColumnCount());
+        assertEquals(16, symbol.getRowCount());
+        assertSame(symbol.getDimension(), symbol.getDimension());
+        assertEquals(bean.calcDimensions("Hello World").getWidthPlusQuiet(),
+                symbol.getDimension().getWidthPlusQuiet(), 0.0001);
+
+        final SVGCanvasProvider direct = new SVGCanvasProvider(Orientation.ZERO);
+        bean.generateBarcode(direct, "Hello World");
+        final SVGCanvasProvider shared = new SVGCanvasProvider(Orientation.ZERO);
+        bean.generateBarcode(shared, symbol);
+        assertEquals(getSvg(direct), getSvg(shared));
+    }
+
+    @Test
+    public void testEncodeOncePDF417() {
+        System.out.println("encode PDF417");
+        final PDF417Bean bean = new PDF417Bean();
+        final TwoDimSymbol symbol = bean.encode("Hello World");
+        assertEquals(17 * bean.getColumns() + 69, symbol.getColumnCount());
+        assertEquals(symbol.getColumnCount() * bean.getModuleWidth(),
+                symbol.getDimension().getWidth(), 0.0001);
+        assertEquals(symbol.getRowCount() * bean.getBarHeight(),
+                symbol.getDimension().getHeight(), 0.0001);
+    }
+
+    @Test
+    public void testGetRectangles() {
+        System.out.println("getRectangles");
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
+        builder.startBarcode("msg", "msg");
+        for (int i = 0; i < 3; i++) {
+            builder.startRow();
+            builder.addBar(true, 1);
+            builder.addBar(false, 1);
+            builder.addBar(true, i == 2 ? 1 : 2);
+            builder.addBar(false, i == 2 ? 1 : 0);
+            builder.endRow();
+        }
+        final TwoDimSymbol symbol = builder.build(new BarcodeDimension(4, 3));
+        assertArrayEquals(new int[] {0, 0, 1, 3, 2, 0, 2, 2, 2, 2, 1, 1},
+                sortedRectangles(symbol));
+    }
+
+    @Test
+    public void testGetRectanglesCover() {
+        System.out.println("getRectangles cover");
+        final DataMatrixBean dm = new DataMatrixBean();
+        assertExactCover(dm.encode("Hello World! This is a somewhat longer DataMatrix message."));
+        final PDF417Bean pdf417 = new PDF417Bean();
+        assertExactCover(pdf417.encode("Hello World! This is a somewhat longer PDF417 message."));
+    }
+
+    @Test
+    public void testRectangleMerging() {
+        System.out.println("rectangle merging");
+        final DataMatrixBean bean = new DataMatrixBean();
+        final TwoDimSymbol symbol = bean.encode("Hello World! This is a somewhat longer message.");
+        final SVGCanvasProvider rows = new SVGCanvasProvider(Orientation.ZERO);
+        bean.generateBarcode(rows, symbol);
+        bean.setRectangleMerging(true);
+        final SVGCanvasProvider merged = new SVGCanvasProvider(Orientation.ZERO);
+        bean.generateBarcode(merged, symbol);
+        final int rowRects = getSvg(rows).split("<rect").length - 1;
+        final int mergedRects = getSvg(merged).split("<rect").length - 1;
+        assertEquals(symbol.getRectangles().length / 4, mergedRects);
+        assertTrue(mergedRects < rowRects);
+
+        //the cover is computed once, callers get a copy
+        assertSame(symbol.rectangles(), symbol.rectangles());
+        final int[] copy = symbol.getRectangles();
+        assertNotSame(symbol.rectangles(), copy);
+        copy[0] = -1;
+        assertArrayEquals(symbol.rectangles(), symbol.getRectangles());
+    }
+
+    @Test
+    public void testConfigureRectangleMerging() throws Exception {
+        System.out.println("configure rectangle merging");
+        final DataMatrixBean bean = new DataMatrixBean();
+        final Configuration cfg = new Configuration("datamatrix");
+        bean.configure(cfg);
+        assertFalse(bean.isRectangleMerging());
+        cfg.addChild(new Configuration("rectangle-merging", "true"));
+        bean.configure(cfg);
+        assertTrue(bean.isRectangleMerging());
+    }
+
+    private static int[] sortedRectangles(TwoDimSymbol symbol) {
+        final int[] rects = symbol.getRectangles();
+        //sort quadruples by column, row for a stable comparison
+        final List<int[]> list = new ArrayList<int[]>();
+        for (int i = 0; i < rects.length; i += 4) {
+            list.add(Arrays.copyOfRange(rects, i, i + 4));
+        }
+        Collections.sort(list, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return o1[0] != o2[0] ? o1[0] - o2[0] : o1[1] - o2[1];
+            }
+        });
+        final int[] res = new int[rects.length];
+        for (int i = 0; i < list.size(); i++) {
+            System.arraycopy(list.get(i), 0, res, 4 * i, 4);
+        }
+        return res;
+    }
+
+    private static void assertExactCover(TwoDimSymbol symbol) {
+        final boolean[][] covered = new boolean[symbol.getRowCount()][symbol.getColumnCount()];
+        final int[] rects = symbol.getRectangles();
+        for (int i = 0; i < rects.length; i += 4) {
+            for (int row = rects[i + 1]; row < rects[i + 1] + rects[i + 3]; row++) {
+                for (int col = rects[i]; col < rects[i] + rects[i + 2]; col++) {
+                    assertTrue(symbol.isDark(col, row));
+                    assertFalse(covered[row][col]);
+                    covered[row][col] = true;
+                }
+            }
+        }
+        int runs = 0;
+        for (int row = 0; row < symbol.getRowCount(); row++) {
+            for (int col = 0; col < symbol.getColumnCount(); col++) {
+                assertEquals(symbol.isDark(col, row), covered[row][col]);
+                if (symbol.isDark(col, row) && (col == 0 || !symbol.isDark(col - 1, row))) {
+                    runs++;
+                }
+            }
+        }
+        assertTrue(rects.length / 4 < runs);
+    }
+
+    private static String getSvg(SVGCanvasProvider svg) {
+        return SVGCanvasProviderTest.getStringFromDoc(svg.getDOM());
+    }
+
+    /**
+     * Mock handler which additionally marks the end of each row.
+     */
+    private static class MockTwoDimBarcodeLogicHandler extends MockClassicBarcodeLogicHandler
+            implements TwoDimBarcodeLogicHandler {
+
+        private final StringBuilder sb;
+
+        MockTwoDimBarcodeLogicHandler(StringBuilder sb) {
+            super(sb);
+            this.sb = sb;
+        }
+
+        @Override
+        public void startRow() {
+            //nop
+        }
+
+        @Override
+        public void endRow() {
+            sb.append('|');
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class BitmapCanvasProviderFactoryTest {
+
+    private static class CollectingFactory extends BitmapCanvasProviderFactory {
+
+        private final List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+
+        CollectingFactory() {
+            super("image/png", 150, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.ZERO);
+        }
+
+        @Override
+        protected OutputStream openOutputStream(int index, String msg) throws IOException {
+            assertEquals(outputs.size(), index);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputs.add(out);
+            return out;
+        }
+    }
+
+    private static BufferedImage read(ByteArrayOutputStream out) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Test of generateBarcodes with a bitmap factory, 1D symbology.
+     */
+    @Test
+    public void testGenerateBarcodes() throws Exception {
+        System.out.println("generateBarcodes");
+        final CollectingFactory factory = new CollectingFactory();
+        final int count = new EAN13Bean().generateBarcodes(
+                Arrays.asList("123456789012", "400638133393", "978020137962"), factory);
+        assertEquals(3, count);
+        assertEquals(3, factory.outputs.size());
+        for (ByteArrayOutputStream out : factory.outputs) {
+            assertTrue(read(out).getWidth() > 0);
+        }
+    }
+
+    /**
+     * Test of generateBarcodes with a bitmap factory, 2D symbology.
+     */
+    @Test
+    public void testGenerateBarcodes2D() throws Exception {
+        System.out.println("generateBarcodes 2D");
+        final CollectingFactory factory = new CollectingFactory();
+        final int count = new DataMatrixBean().generateBarcodes(
+                Arrays.asList("A", "Hello World, this is a longer message"), factory);
+        assertEquals(2, count);
+        assertTrue(read(factory.outputs.get(1)).getWidth() > read(factory.outputs.get(0)).getWidth());
+    }
+}
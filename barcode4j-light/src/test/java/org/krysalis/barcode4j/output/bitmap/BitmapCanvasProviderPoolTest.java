@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class BitmapCanvasProviderPoolTest {
+
+    /**
+     * Test of acquire and release methods, of class BitmapCanvasProviderPool.
+     */
+    @Test
+    public void testAcquireRelease() throws Exception {
+        System.out.println("acquire and release");
+        final BitmapCanvasProviderPool instance = new BitmapCanvasProviderPool(1);
+        final Code128Bean bean = new Code128Bean();
+        final BitmapCanvasProvider first = instance.acquire(
+                300, BufferedImage.TYPE_BYTE_GRAY, true, Orientation.ZERO);
+        first.setScanlineReplication(true);
+        bean.generateBarcode(first, "pooled");
+        final BufferedImage image = first.getBufferedImage();
+        instance.release(first);
+        assertEquals(1, instance.getIdleCount());
+
+        //same key: the provider and its image are reused
+        final BitmapCanvasProvider second = instance.acquire(
+                300, BufferedImage.TYPE_BYTE_GRAY, true, Orientation.ZERO);
+        assertSame(first, second);
+        assertFalse(second.isScanlineReplication());
+        assertEquals(0, instance.getIdleCount());
+        bean.generateBarcode(second, "reused");
+        assertSame(image, second.getBufferedImage());
+
+        //other keys get other providers
+        assertNotSame(second, instance.acquire(600, BufferedImage.TYPE_BYTE_GRAY, true,
+                Orientation.ZERO));
+        assertNotSame(second, instance.acquire(300, BufferedImage.TYPE_BYTE_BINARY, true,
+                Orientation.ZERO));
+        assertNotSame(second, instance.acquire(300, BufferedImage.TYPE_BYTE_GRAY, true,
+                Orientation.NINETY));
+
+        //at most one idle provider per key
+        instance.release(second);
+        instance.release(new BitmapCanvasProvider(300, BufferedImage.TYPE_BYTE_GRAY, true,
+                Orientation.ZERO));
+        assertEquals(1, instance.getIdleCount());
+        instance.clear();
+        assertEquals(0, instance.getIdleCount());
+    }
+
+    /**
+     * Test of acquire with an output stream, of class BitmapCanvasProviderPool.
+     */
+    @Test
+    public void testOutputStream() throws Exception {
+        System.out.println("output stream");
+        final BitmapCanvasProviderPool instance = new BitmapCanvasProviderPool();
+        final Code128Bean bean = new Code128Bean();
+        for (final String msg : new String[] {"one", "two"}) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final BitmapCanvasProvider provider = instance.acquire(out, "image/png", 150,
+                    BufferedImage.TYPE_BYTE_BINARY, false, Orientation.ZERO);
+            bean.generateBarcode(provider, msg);
+            provider.finish();
+            instance.release(provider);
+            assertTrue(ImageIO.read(new ByteArrayInputStream(out.toByteArray())).getWidth() > 0);
+        }
+        assertEquals(1, instance.getIdleCount());
+    }
+
+    /**
+     * Test of the thread confinement, of class BitmapCanvasProviderPool.
+     */
+    @Test
+    public void testThreadConfinement() throws Exception {
+        System.out.println("thread confinement");
+        final BitmapCanvasProviderPool instance = BitmapCanvasProviderPool.forCurrentThread();
+        assertSame(instance, BitmapCanvasProviderPool.forCurrentThread());
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    instance.acquire(300, BufferedImage.TYPE_BYTE_GRAY, false, Orientation.ZERO);
+                    result.set(BitmapCanvasProviderPool.forCurrentThread());
+                } catch (IllegalStateException e) {
+                    result.set(e);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(result.get() instanceof IllegalStateException);
+    }
+}
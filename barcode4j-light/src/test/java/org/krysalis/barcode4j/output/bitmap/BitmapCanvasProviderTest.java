@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.code39.Code39Bean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class BitmapCanvasProviderTest {
+
+    private static BufferedImage paint(BarcodeGenerator gen, String msg,
+            int imageType, boolean scanline) {
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                600, imageType, false, Orientation.ZERO);
+        provider.setScanlineReplication(scanline);
+        gen.generateBarcode(provider, msg);
+        return provider.getBufferedImage();
+    }
+
+    private static boolean isDark(BufferedImage image, int x, int y) {
+        return (image.getRGB(x, y) & 0xFF) < 0x80;
+    }
+
+    private static List<Integer> edges(BufferedImage image, int y) {
+        final List<Integer> edges = new ArrayList<Integer>();
+        boolean dark = false;
+        for (int x = 0; x < image.getWidth(); x++) {
+            if (isDark(image, x, y) != dark) {
+                dark = !dark;
+                edges.add(x);
+            }
+        }
+        return edges;
+    }
+
+    private static void assertSimilar(BufferedImage expected, BufferedImage actual, int y) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        //same bars, edges may be rounded differently by one pixel
+        final List<Integer> exp = edges(expected, y);
+        final List<Integer> act = edges(actual, y);
+        assertEquals("row " + y, exp.size(), act.size());
+        for (int i = 0; i < exp.size(); i++) {
+            assertEquals("row " + y, exp.get(i), act.get(i), 1);
+        }
+    }
+
+    /**
+     * Test of the scanline replication mode with Code 128, of class
+     * BitmapCanvasProvider.
+     */
+    @Test
+    public void testScanlineReplication() {
+        System.out.println("scanline replication");
+        final Code128Bean bean = new Code128Bean();
+        final String msg = "Scanline 0123456789";
+        for (final int type : new int[] {BufferedImage.TYPE_BYTE_BINARY,
+                BufferedImage.TYPE_BYTE_GRAY}) {
+            final BufferedImage java2d = paint(bean, msg, type, false);
+            final BufferedImage fast = paint(bean, msg, type, true);
+            final int barBottom = (int) (fast.getHeight() * bean.getBarHeight() / bean.getHeight());
+            assertSimilar(java2d, fast, barBottom / 2);
+
+            //all rows of the bar area are identical
+            for (int y = 1; y < barBottom; y++) {
+                for (int x = 0; x < fast.getWidth(); x++) {
+                    assertEquals(isDark(fast, x, 0), isDark(fast, x, y));
+                }
+            }
+            //the human-readable text is still painted
+            boolean text = false;
+            for (int y = barBottom + 2; y < fast.getHeight() && !text; y++) {
+                text = !edges(fast, y).isEmpty();
+            }
+            assertTrue(text);
+        }
+    }
+
+    /**
+     * Test of the scanline replication mode with bars of different heights,
+     * of class BitmapCanvasProvider.
+     */
+    @Test
+    public void testScanlineReplicationGuardBars() {
+        System.out.println("scanline replication guard bars");
+        final EAN13Bean bean = new EAN13Bean();
+        final BufferedImage java2d = paint(bean, "400638133393", BufferedImage.TYPE_BYTE_GRAY, false);
+        final BufferedImage fast = paint(bean, "400638133393", BufferedImage.TYPE_BYTE_GRAY, true);
+        final double scale = fast.getHeight() / bean.calcDimensions("400638133393").getHeightPlusQuiet();
+        //normal bars
+        assertSimilar(java2d, fast, (int) (bean.getBarHeight() / 2 * scale));
+        //only guard bars and the human-readable text
+        final int guardRow = (int) ((bean.getBarHeight() + bean.getModuleWidth() * 2.5) * scale);
+        assertSimilar(java2d, fast, guardRow);
+        assertTrue(edges(fast, guardRow).size() < edges(fast, 0).size());
+    }
+
+    /**
+     * Test of the scanline replication mode with a rotated barcode, of class
+     * BitmapCanvasProvider.
+     */
+    @Test
+    public void testScanlineReplicationRotated() {
+        System.out.println("scanline replication rotated");
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                300, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.NINETY);
+        provider.setScanlineReplication(true);
+        new Code128Bean().generateBarcode(provider, "rotated");
+        final BufferedImage image = provider.getBufferedImage();
+        //falls back to Java2D
+        assertTrue(image.getHeight() > image.getWidth());
+    }
+
+    private static BufferedImage paintPixelExact(Code39Bean bean, String msg,
+            Orientation orientation) {
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                300, BufferedImage.TYPE_BYTE_GRAY, true, orientation);
+        provider.setPixelExact(true);
+        bean.generateBarcode(provider, msg);
+        return provider.getBufferedImage();
+    }
+
+    /**
+     * Test of the pixel-exact mode, of class BitmapCanvasProvider.
+     */
+    @Test
+    public void testPixelExact() {
+        System.out.println("pixel-exact");
+        final Code39Bean bean = new Code39Bean();
+        final int ppm = PixelGrid.snap(bean, 300);
+        assertEquals(2, ppm);
+        final BufferedImage image = paintPixelExact(bean, "PIXEL", Orientation.ZERO);
+        final int row = image.getHeight() / 2;
+        //no anti-aliased edges and only narrow and wide bars
+        final List<Integer> edges = edges(image, row);
+        for (int x = 0; x < image.getWidth(); x++) {
+            final int gray = image.getRGB(x, row) & 0xFF;
+            assertTrue(gray == 0 || gray == 0xFF);
+        }
+        final int wide = (int) Math.round(bean.getWideFactor() * ppm);
+        for (int i = 0; i < edges.size(); i += 2) {
+            final int bar = edges.get(i + 1) - edges.get(i);
+            assertTrue("bar width " + bar, bar == ppm || bar == wide);
+        }
+
+        //rotation counter-clockwise
+        final BufferedImage rotated = paintPixelExact(bean, "PIXEL", Orientation.NINETY);
+        assertEquals(image.getWidth(), rotated.getHeight());
+        for (int x = 0; x < image.getWidth(); x++) {
+            assertEquals(isDark(image, x, row),
+                    isDark(rotated, row, image.getWidth() - 1 - x));
+        }
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals("pixel " + x + "," + y, expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    /**
+     * Test of reset method, of class BitmapCanvasProvider.
+     */
+    @Test
+    public void testReset() {
+        System.out.println("reset");
+        final EAN13Bean bean = new EAN13Bean();
+        for (final boolean scanline : new boolean[] {false, true}) {
+            final BitmapCanvasProvider instance = new BitmapCanvasProvider(
+                    600, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.ZERO);
+            instance.setScanlineReplication(scanline);
+            bean.generateBarcode(instance, "123456789012");
+            final BufferedImage first = instance.getBufferedImage();
+
+            //same size: the image is recycled and repainted from scratch
+            instance.reset();
+            assertNull(instance.getDimensions());
+            bean.generateBarcode(instance, "400638133393");
+            assertSame(first, instance.getBufferedImage());
+            assertSamePixels(paint(bean, "400638133393", BufferedImage.TYPE_BYTE_BINARY, scanline),
+                    first);
+
+            //other size: a new image
+            instance.reset();
+            new Code128Bean().generateBarcode(instance, "Other size");
+            assertNotSame(first, instance.getBufferedImage());
+            assertSamePixels(paint(new Code128Bean(), "Other size",
+                    BufferedImage.TYPE_BYTE_BINARY, scanline), instance.getBufferedImage());
+        }
+    }
+}
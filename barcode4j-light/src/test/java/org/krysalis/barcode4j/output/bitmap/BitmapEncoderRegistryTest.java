@@ -15,6 +15,8 @@
  */
 package org.krysalis.barcode4j.output.bitmap;
 
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -26,6 +28,40 @@ import org.junit.Test;
  */
 public class BitmapEncoderRegistryTest {
 
+    private static final String TEST_MIME = "image/x-barcode4j-test";
+
+    /**
+     * Encoder for the priority tests.
+     */
+    public static class LowEncoder implements BitmapEncoder {
+
+        @Override
+        public String[] getSupportedMIMETypes() {
+            return new String[] {TEST_MIME};
+        }
+
+        @Override
+        public void encode(BufferedImage image, OutputStream out, String mime, int resolution) {
+        }
+    }
+
+    /**
+     * Encoder for the priority tests.
+     */
+    public static class HighEncoder extends LowEncoder {
+    }
+
+    /**
+     * Encoder for the priority tests.
+     */
+    public static class OtherHighEncoder extends LowEncoder {
+
+        @Override
+        public String[] getSupportedMIMETypes() {
+            return new String[] {TEST_MIME + "-other"};
+        }
+    }
+
     /**
      * Test of register method, of class BitmapEncoderRegistry.
      */
@@ -45,6 +81,57 @@ public class BitmapEncoderRegistryTest {
         }
     }
 
+    /**
+     * Encoder counting the queries of its MIME types.
+     */
+    public static class CountingEncoder extends LowEncoder {
+
+        private static final java.util.concurrent.atomic.AtomicInteger QUERIES =
+                new java.util.concurrent.atomic.AtomicInteger();
+
+        @Override
+        public String[] getSupportedMIMETypes() {
+            QUERIES.incrementAndGet();
+            return new String[] {TEST_MIME + "-counting"};
+        }
+    }
+
+    /**
+     * Tests that lookups use the index, of class BitmapEncoderRegistry.
+     */
+    @Test
+    public void testIndex() {
+        System.out.println("index");
+        BitmapEncoderRegistry.register(CountingEncoder.class.getName(), 1);
+        final int queries = CountingEncoder.QUERIES.get();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(CountingEncoder.class,
+                    BitmapEncoderRegistry.getInstance(TEST_MIME + "-counting").getClass());
+            assertTrue(BitmapEncoderRegistry.supports(TEST_MIME + "-counting"));
+        }
+        assertEquals(queries, CountingEncoder.QUERIES.get());
+
+        //the returned set is a copy
+        BitmapEncoderRegistry.getSupportedMIMETypes().clear();
+        assertTrue(BitmapEncoderRegistry.getSupportedMIMETypes().contains(TEST_MIME + "-counting"));
+        assertFalse(BitmapEncoderRegistry.supports(null));
+    }
+
+    /**
+     * Test of the priorities, of class BitmapEncoderRegistry.
+     */
+    @Test
+    public void testPriority() {
+        System.out.println("priority");
+        BitmapEncoderRegistry.register(LowEncoder.class.getName(), 5);
+        BitmapEncoderRegistry.register(HighEncoder.class.getName(), 500);
+        //same priority, must not replace HighEncoder
+        BitmapEncoderRegistry.register(OtherHighEncoder.class.getName(), 500);
+        assertEquals(HighEncoder.class, BitmapEncoderRegistry.getInstance(TEST_MIME).getClass());
+        assertEquals(OtherHighEncoder.class,
+                BitmapEncoderRegistry.getInstance(TEST_MIME + "-other").getClass());
+    }
+
     /**
      * Test of supports method, of class BitmapEncoderRegistry.
      */
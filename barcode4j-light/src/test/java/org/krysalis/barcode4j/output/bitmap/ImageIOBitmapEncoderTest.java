@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.MimeTypes;
+import org.w3c.dom.Element;
+
+/**
+ *
+ * @author mk
+ */
+public class ImageIOBitmapEncoderTest {
+
+    private static BufferedImage render(int imageType) {
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                200, imageType, false, Orientation.ZERO);
+        new Code128Bean().generateBarcode(provider, "ImageIO");
+        return provider.getBufferedImage();
+    }
+
+    private static byte[] encode(BitmapEncoder encoder, BufferedImage image, String mime,
+            int resolution) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(image, out, mime, resolution);
+        return out.toByteArray();
+    }
+
+    private static Element readMetadata(byte[] data, String format) throws IOException {
+        final ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data));
+        final ImageReader reader = ImageIO.getImageReaders(in).next();
+        reader.setInput(in);
+        final IIOMetadata meta = reader.getImageMetadata(0);
+        reader.dispose();
+        return (Element) meta.getAsTree(format);
+    }
+
+    /**
+     * Tests that reused writers and metadata produce the same output, of class
+     * ImageIOBitmapEncoder.
+     */
+    @Test
+    public void testReuse() throws Exception {
+        System.out.println("reuse");
+        final ImageIOBitmapEncoder instance = new ImageIOBitmapEncoder();
+        final BufferedImage binary = render(BufferedImage.TYPE_BYTE_BINARY);
+        final BufferedImage gray = render(BufferedImage.TYPE_BYTE_GRAY);
+        for (final String mime : new String[] {"image/png", MimeTypes.MIME_JPEG,
+                MimeTypes.MIME_GIF, MimeTypes.MIME_TIFF}) {
+            final byte[] first = encode(instance, gray, mime, 300);
+            encode(instance, binary, mime, 300);
+            encode(instance, gray, mime, 600);
+            assertArrayEquals(mime, first, encode(instance, gray, mime, 300));
+            assertArrayEquals(mime, first, encode(new ImageIOBitmapEncoder(), gray, mime, 300));
+        }
+    }
+
+    /**
+     * Tests the resolution written with cached metadata, of class
+     * ImageIOBitmapEncoder.
+     */
+    @Test
+    public void testResolution() throws Exception {
+        System.out.println("resolution");
+        final ImageIOBitmapEncoder instance = new ImageIOBitmapEncoder();
+        final BufferedImage image = render(BufferedImage.TYPE_BYTE_GRAY);
+        for (final int resolution : new int[] {300, 600, 300}) {
+            Element root = readMetadata(encode(instance, image, "image/png", resolution),
+                    "javax_imageio_png_1.0");
+            final Element phys = (Element) root.getElementsByTagName("pHYs").item(0);
+            assertEquals(Math.round(resolution / 0.0254),
+                    Long.parseLong(phys.getAttribute("pixelsPerUnitXAxis")));
+
+            root = readMetadata(encode(instance, image, MimeTypes.MIME_JPEG, resolution),
+                    "javax_imageio_jpeg_image_1.0");
+            final Element jfif = (Element) root.getElementsByTagName("app0JFIF").item(0);
+            assertEquals(Integer.toString(resolution), jfif.getAttribute("Xdensity"));
+        }
+    }
+}
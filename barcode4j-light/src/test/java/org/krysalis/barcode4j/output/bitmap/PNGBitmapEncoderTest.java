@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ *
+ * @author mk
+ */
+public class PNGBitmapEncoderTest {
+
+    private static BufferedImage render(int imageType) {
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                300, imageType, true, Orientation.ZERO);
+        new Code128Bean().generateBarcode(provider, "PNG 0123456789");
+        return provider.getBufferedImage();
+    }
+
+    private static byte[] encode(BitmapEncoder encoder, BufferedImage image) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(image, out, "image/png", 300);
+        return out.toByteArray();
+    }
+
+    private static void assertSamePixels(BufferedImage expected, byte[] png) throws IOException {
+        final BufferedImage actual = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals("pixel " + x + "," + y, expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    /**
+     * Test of encode method with all filters, of class PNGBitmapEncoder.
+     */
+    @Test
+    public void testEncode() throws Exception {
+        System.out.println("encode");
+        final PNGBitmapEncoder instance = new PNGBitmapEncoder();
+        for (final int type : new int[] {BufferedImage.TYPE_BYTE_BINARY,
+                BufferedImage.TYPE_BYTE_GRAY}) {
+            final BufferedImage image = render(type);
+            assertTrue(PNGBitmapEncoder.isSupported(image));
+            for (int filter = PNGBitmapEncoder.FILTER_NONE; filter <= PNGBitmapEncoder.FILTER_UP; filter++) {
+                instance.setFilter(filter);
+                assertSamePixels(image, encode(instance, image));
+            }
+            //same compression as ImageIO at level 9, a bit worse by default
+            instance.setFilter(PNGBitmapEncoder.FILTER_NONE);
+            final byte[] imageio = encode(new ImageIOBitmapEncoder(), image);
+            byte[] png = encode(new PNGBitmapEncoder(), image);
+            assertTrue(png.length + " vs. " + imageio.length, png.length < imageio.length * 1.1);
+            instance.setCompressionLevel(9);
+            png = encode(instance, image);
+            assertTrue(png.length + " vs. " + imageio.length, png.length <= imageio.length);
+            instance.setCompressionLevel(-1);
+        }
+
+        //2D symbol with a width not divisible by 8
+        final BufferedImage symbol = new TwoDimSymbolRasterizer(3, 3, 2, 2, Orientation.ZERO)
+                .createImage(new DataMatrixBean().encode("odd width"), BufferedImage.TYPE_BYTE_BINARY);
+        assertTrue(symbol.getWidth() % 8 != 0);
+        assertSamePixels(symbol, encode(instance, symbol));
+    }
+
+    /**
+     * Test of the pHYs chunk, of class PNGBitmapEncoder.
+     */
+    @Test
+    public void testResolution() throws Exception {
+        System.out.println("resolution");
+        final byte[] png = encode(new PNGBitmapEncoder(), render(BufferedImage.TYPE_BYTE_GRAY));
+        final ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(png));
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        final ImageReader reader = readers.next();
+        reader.setInput(in);
+        final IIOMetadata meta = reader.getImageMetadata(0);
+        final Element root = (Element) meta.getAsTree("javax_imageio_png_1.0");
+        final NodeList phys = root.getElementsByTagName("pHYs");
+        assertEquals(1, phys.getLength());
+        final Element el = (Element) phys.item(0);
+        //300 dpi
+        assertEquals("11811", el.getAttribute("pixelsPerUnitXAxis"));
+        assertEquals("meter", el.getAttribute("unitSpecifier"));
+        reader.dispose();
+    }
+
+    /**
+     * Test of encode method with other images, of class PNGBitmapEncoder.
+     */
+    @Test
+    public void testPaletteAndFallback() throws Exception {
+        System.out.println("palette and fallback");
+        final PNGBitmapEncoder instance = new PNGBitmapEncoder();
+        //two colors other than black and white
+        final IndexColorModel cm = new IndexColorModel(1, 2,
+                new byte[] {0, (byte) 0xFF}, new byte[] {0, (byte) 0xFF}, new byte[] {(byte) 0x80, 0});
+        final BufferedImage colored = new BufferedImage(13, 5, BufferedImage.TYPE_BYTE_BINARY, cm);
+        colored.getRaster().setSample(3, 2, 0, 1);
+        assertTrue(PNGBitmapEncoder.isSupported(colored));
+        assertSamePixels(colored, encode(instance, colored));
+
+        final BufferedImage rgb = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        rgb.setRGB(4, 4, 0xFF123456);
+        assertFalse(PNGBitmapEncoder.isSupported(rgb));
+        assertSamePixels(rgb, encode(instance, rgb));
+    }
+
+    /**
+     * Test of the settings, of class PNGBitmapEncoder.
+     */
+    @Test
+    public void testSettings() {
+        System.out.println("settings");
+        final PNGBitmapEncoder instance = new PNGBitmapEncoder();
+        instance.setCompressionLevel(9);
+        assertEquals(9, instance.getCompressionLevel());
+        try {
+            instance.setCompressionLevel(10);
+            fail("invalid compression level");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            instance.setFilter(4);
+            fail("unsupported filter");
+        } catch (IllegalArgumentException e) {
+        }
+        assertTrue(BitmapEncoderRegistry.supports(instance, "image/png"));
+        assertTrue(BitmapEncoderRegistry.supports(instance, "image/x-png"));
+    }
+}
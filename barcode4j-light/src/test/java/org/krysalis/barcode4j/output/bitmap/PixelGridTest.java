@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.code39.Code39Bean;
+import org.krysalis.barcode4j.impl.int2of5.ITF14Bean;
+
+/**
+ *
+ * @author mk
+ */
+public class PixelGridTest {
+
+    private static void assertOnGrid(double value, double pixelSize) {
+        final double pixels = value / pixelSize;
+        assertEquals(Math.rint(pixels), pixels, 1e-9);
+    }
+
+    /**
+     * Test of snap method, of class PixelGrid.
+     */
+    @Test
+    public void testSnap() {
+        System.out.println("snap");
+        final double pixelSize = PixelGrid.getPixelSize(600);
+        final ITF14Bean bean = new ITF14Bean();
+        final int ppm = PixelGrid.snap(bean, 600);
+        assertEquals(Math.round(new ITF14Bean().getModuleWidth() / pixelSize), ppm);
+        assertOnGrid(bean.getModuleWidth(), pixelSize);
+        assertOnGrid(bean.getBarWidth(2), pixelSize);
+        assertOnGrid(bean.getQuietZone(), pixelSize);
+        assertOnGrid(bean.getBarHeight(), pixelSize);
+        assertOnGrid(bean.getBearerBarWidth(), pixelSize);
+        assertOnGrid(bean.calcDimensions("0123456789012").getWidthPlusQuiet(), pixelSize);
+    }
+
+    /**
+     * Test of snap method with very small modules, of class PixelGrid.
+     */
+    @Test
+    public void testSnapMinimum() {
+        System.out.println("snap minimum");
+        final Code39Bean bean = new Code39Bean();
+        bean.setModuleWidth(0.01);
+        assertEquals(1, PixelGrid.snap(bean, 200));
+        assertEquals(PixelGrid.getPixelSize(200), bean.getModuleWidth(), 1e-9);
+        assertTrue(bean.getBarWidth(2) > bean.getBarWidth(1));
+    }
+
+    /**
+     * Test of fitToWidth method, of class PixelGrid.
+     */
+    @Test
+    public void testFitToWidth() {
+        System.out.println("fitToWidth");
+        final Code128Bean bean = new Code128Bean();
+        final int ppm = PixelGrid.fitToWidth(bean, "Fit me", 600, 800);
+        final double pixelSize = PixelGrid.getPixelSize(600);
+        final double width = bean.calcDimensions("Fit me").getWidthPlusQuiet() / pixelSize;
+        assertTrue(width <= 800.0001);
+        assertEquals(ppm * pixelSize, bean.getModuleWidth(), 1e-9);
+        //one more pixel per module would exceed the box
+        final Code128Bean larger = new Code128Bean();
+        larger.setModuleWidth((ppm + 1) * pixelSize);
+        larger.setQuietZone(10 * (ppm + 1) * pixelSize);
+        assertTrue(larger.calcDimensions("Fit me").getWidthPlusQuiet() / pixelSize > 800);
+    }
+
+    /**
+     * Test of fitToWidth method needing several attempts, of class PixelGrid.
+     */
+    @Test
+    public void testFitToWidthSnapsOnce() {
+        System.out.println("fitToWidth snaps once");
+        final Code39Bean bean = new Code39Bean();
+        bean.setWideFactor(2.25);
+        assertEquals(1, PixelGrid.fitToWidth(bean, "ABC123", 300, 260));
+        //a single snap at one pixel per module
+        final Code39Bean expected = new Code39Bean();
+        expected.setWideFactor(2.25);
+        expected.setModuleWidth(PixelGrid.getPixelSize(300));
+        assertEquals(1, PixelGrid.snap(expected, 300));
+        assertEquals(expected.getWideFactor(), bean.getWideFactor(), 1e-9);
+        assertEquals(expected.getIntercharGapWidth(), bean.getIntercharGapWidth(), 1e-9);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.MimeTypes;
+
+/**
+ *
+ * @author mk
+ */
+public class TIFFBitmapEncoderTest {
+
+    private static BufferedImage render(String msg) {
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                300, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.ZERO);
+        new EAN13Bean().generateBarcode(provider, msg);
+        return provider.getBufferedImage();
+    }
+
+    private static byte[] encode(BitmapEncoder encoder, BufferedImage image, String mime)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(image, out, mime, 300);
+        return out.toByteArray();
+    }
+
+    private static ImageReader createReader(byte[] tiff) throws IOException {
+        final ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(tiff));
+        final ImageReader reader = ImageIO.getImageReaders(in).next();
+        reader.setInput(in);
+        return reader;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals("pixel " + x + "," + y,
+                        expected.getRGB(x, y) & 0xFFFFFF, actual.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    private static void assertRoundTrip(BufferedImage image) throws IOException {
+        final byte[] tiff = encode(new TIFFBitmapEncoder(), image, MimeTypes.MIME_TIFF);
+        final ImageReader reader = createReader(tiff);
+        assertSamePixels(image, reader.read(0));
+        reader.dispose();
+    }
+
+    /**
+     * Test of encode method, of class TIFFBitmapEncoder.
+     */
+    @Test
+    public void testEncode() throws Exception {
+        System.out.println("encode");
+        final BufferedImage ean = render("400638133393");
+        assertTrue(TIFFBitmapEncoder.isSupported(ean));
+        assertRoundTrip(ean);
+
+        final BitmapCanvasProvider provider = new BitmapCanvasProvider(
+                600, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.NINETY);
+        new Code128Bean().generateBarcode(provider, "Group 4 TIFF");
+        assertRoundTrip(provider.getBufferedImage());
+
+        final BufferedImage symbol = new TwoDimSymbolRasterizer(3, 3, 2, 2, Orientation.ZERO)
+                .createImage(new DataMatrixBean().encode("odd width"), BufferedImage.TYPE_BYTE_BINARY);
+        assertTrue(symbol.getWidth() % 8 != 0);
+        assertRoundTrip(symbol);
+
+        //much smaller than the TIFF written by ImageIO
+        final byte[] g4 = encode(new TIFFBitmapEncoder(), ean, MimeTypes.MIME_TIFF);
+        final byte[] tiff = encode(new ImageIOBitmapEncoder(), ean, MimeTypes.MIME_TIFF);
+        assertTrue(g4.length + " vs. " + tiff.length, g4.length * 5 < tiff.length);
+        assertTrue(BitmapEncoderRegistry.supports(new TIFFBitmapEncoder(), MimeTypes.MIME_TIFF));
+    }
+
+    /**
+     * Test of encode method with random pixels and long runs, of class
+     * TIFFBitmapEncoder.
+     */
+    @Test
+    public void testAllCodes() throws Exception {
+        System.out.println("all codes");
+        final Random random = new Random(4711);
+        final BufferedImage image = new BufferedImage(6003, 40, BufferedImage.TYPE_BYTE_BINARY);
+        for (int y = 0; y < image.getHeight(); y++) {
+            int x = random.nextInt(3000);
+            boolean black = random.nextBoolean();
+            while (x < image.getWidth()) {
+                final int run = y < 20 ? 1 + random.nextInt(8) : random.nextInt(y * 100);
+                for (int i = x; i < Math.min(x + run, image.getWidth()); i++) {
+                    image.setRGB(i, y, black ? 0 : 0xFFFFFF);
+                }
+                black = !black;
+                x += run;
+            }
+        }
+        assertRoundTrip(image);
+
+        //white as index 0
+        final IndexColorModel cm = new IndexColorModel(1, 2,
+                new byte[] {(byte) 0xFF, 0}, new byte[] {(byte) 0xFF, 0}, new byte[] {(byte) 0xFF, 0});
+        final BufferedImage inverted = new BufferedImage(17, 5, BufferedImage.TYPE_BYTE_BINARY, cm);
+        inverted.getRaster().setSample(3, 2, 0, 1);
+        inverted.getRaster().setSample(16, 4, 0, 1);
+        assertTrue(TIFFBitmapEncoder.isSupported(inverted));
+        assertRoundTrip(inverted);
+    }
+
+    /**
+     * Test of encode method with other images, of class TIFFBitmapEncoder.
+     */
+    @Test
+    public void testFallback() throws Exception {
+        System.out.println("fallback");
+        final BufferedImage gray = new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY);
+        gray.getRaster().setSample(4, 4, 0, 0x80);
+        assertFalse(TIFFBitmapEncoder.isSupported(gray));
+        final ImageReader reader = createReader(
+                encode(new TIFFBitmapEncoder(), gray, MimeTypes.MIME_TIFF));
+        assertSamePixels(gray, reader.read(0));
+        reader.dispose();
+    }
+
+    /**
+     * Test of the multi-page writer.
+     */
+    @Test
+    public void testMultiPage() throws Exception {
+        System.out.println("multi-page");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MultiPageTIFFWriter writer = new MultiPageTIFFWriter(out);
+        final String[] msgs = {"123456789012", "400638133393", "978020137962"};
+        final int count = new EAN13Bean().generateBarcodes(Arrays.asList(msgs),
+                new TIFFCanvasProviderFactory(writer, 300, Orientation.ZERO));
+        assertEquals(3, count);
+        final BufferedImage symbol = BitmapBuilder.getImage(
+                new DataMatrixBean().encode("last page"), 300, BufferedImage.TYPE_BYTE_BINARY);
+        writer.addPage(symbol, 300);
+        assertEquals(4, writer.getPageCount());
+        writer.close();
+
+        final ImageReader reader = createReader(out.toByteArray());
+        assertEquals(4, reader.getNumImages(true));
+        for (int i = 0; i < msgs.length; i++) {
+            assertSamePixels(render(msgs[i]), reader.read(i));
+        }
+        assertSamePixels(symbol, reader.read(3));
+        reader.dispose();
+
+        try {
+            writer.addPage(symbol, 300);
+            fail("writer already finished");
+        } catch (IllegalStateException e) {
+        }
+        try {
+            new MultiPageTIFFWriter(out).addPage(
+                    new BufferedImage(3, 3, BufferedImage.TYPE_BYTE_GRAY), 300);
+            fail("gray image");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
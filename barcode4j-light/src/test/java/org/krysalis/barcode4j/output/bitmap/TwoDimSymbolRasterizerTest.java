@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.bitmap;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class TwoDimSymbolRasterizerTest {
+
+    private static boolean isSet(byte[] bits, int stride, int x, int y) {
+        return (bits[y * stride + (x >> 3)] & (0x80 >> (x & 7))) != 0;
+    }
+
+    /**
+     * Test of rasterize method, of class TwoDimSymbolRasterizer.
+     */
+    @Test
+    public void testRasterize() {
+        System.out.println("rasterize");
+        final TwoDimSymbol symbol = new PDF417Bean().encode("Hello World");
+        final TwoDimSymbolRasterizer instance =
+                new TwoDimSymbolRasterizer(3, 7, 5, 2, Orientation.ZERO);
+        final int width = instance.getWidth(symbol);
+        final int height = instance.getHeight(symbol);
+        assertEquals(10 + symbol.getColumnCount() * 3, width);
+        assertEquals(4 + symbol.getRowCount() * 7, height);
+        final int stride = (width + 7) / 8;
+        final byte[] bits = instance.rasterize(symbol);
+        assertEquals(stride * height, bits.length);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final boolean expected = x >= 5 && x < width - 5 && y >= 2 && y < height - 2
+                        && symbol.isDark((x - 5) / 3, (y - 2) / 7);
+                assertEquals("pixel " + x + "," + y, expected, isSet(bits, stride, x, y));
+            }
+        }
+    }
+
+    /**
+     * Test of rasterize method with rotated symbols, of class
+     * TwoDimSymbolRasterizer.
+     */
+    @Test
+    public void testOrientation() {
+        System.out.println("orientation");
+        final TwoDimSymbol symbol = new PDF417Bean().encode("Rotated");
+        final int cols = symbol.getColumnCount();
+        final int rows = symbol.getRowCount();
+
+        TwoDimSymbolRasterizer instance = new TwoDimSymbolRasterizer(1, 1, 0, 0, Orientation.NINETY);
+        assertEquals(rows, instance.getWidth(symbol));
+        assertEquals(cols, instance.getHeight(symbol));
+        byte[] bits = instance.rasterize(symbol);
+        int stride = (rows + 7) / 8;
+        //counter-clockwise: the last column becomes the top row
+        for (int r = 0; r < rows; r++) {
+            assertEquals(symbol.isDark(cols - 1, r), isSet(bits, stride, r, 0));
+            assertEquals(symbol.isDark(0, r), isSet(bits, stride, r, cols - 1));
+        }
+
+        instance = new TwoDimSymbolRasterizer(1, 1, 0, 0, Orientation.TWOHUNDRED_SEVENTY);
+        bits = instance.rasterize(symbol);
+        for (int r = 0; r < rows; r++) {
+            assertEquals(symbol.isDark(0, r), isSet(bits, stride, rows - 1 - r, 0));
+        }
+
+        instance = new TwoDimSymbolRasterizer(1, 1, 0, 0, Orientation.ONEHUNDRED_EIGHTY);
+        bits = instance.rasterize(symbol);
+        stride = (cols + 7) / 8;
+        for (int c = 0; c < cols; c++) {
+            assertEquals(symbol.isDark(c, 0), isSet(bits, stride, cols - 1 - c, rows - 1));
+        }
+    }
+
+    /**
+     * Test of createImage method, of class TwoDimSymbolRasterizer.
+     */
+    @Test
+    public void testCreateImage() {
+        System.out.println("createImage");
+        final TwoDimSymbol symbol = new DataMatrixBean().encode("Hello World");
+        final TwoDimSymbolRasterizer instance =
+                TwoDimSymbolRasterizer.forResolution(symbol, 300, Orientation.ZERO);
+        //default module width of 0.353mm, quiet zone of one module
+        assertEquals(4, instance.getModulePixels());
+        assertEquals(4, instance.getRowPixels());
+
+        final BufferedImage binary = instance.createImage(symbol, BufferedImage.TYPE_BYTE_BINARY);
+        final BufferedImage gray = instance.createImage(symbol, BufferedImage.TYPE_BYTE_GRAY);
+        final byte[] bits = instance.rasterize(symbol);
+        final int stride = (binary.getWidth() + 7) / 8;
+        assertEquals(binary.getWidth(), gray.getWidth());
+        assertEquals(binary.getHeight(), gray.getHeight());
+        for (int y = 0; y < binary.getHeight(); y++) {
+            for (int x = 0; x < binary.getWidth(); x++) {
+                final int expected = isSet(bits, stride, x, y) ? 0xFF000000 : 0xFFFFFFFF;
+                assertEquals(expected, binary.getRGB(x, y));
+                assertEquals(expected, gray.getRGB(x, y));
+            }
+        }
+        assertEquals(0xFFFFFFFF, binary.getRGB(0, 0));
+        assertEquals(0xFF000000, binary.getRGB(4, binary.getHeight() - 5));
+    }
+
+    /**
+     * Test of paint method with an unsuitable image, of class
+     * TwoDimSymbolRasterizer.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPaintWrongSize() {
+        System.out.println("paint wrong size");
+        final TwoDimSymbol symbol = new DataMatrixBean().encode("A");
+        new TwoDimSymbolRasterizer(2, 2, 0, 0, Orientation.ZERO).paint(symbol,
+                new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY));
+    }
+
+    /**
+     * Test of fillBits method, of class TwoDimSymbolRasterizer.
+     */
+    @Test
+    public void testFillBits() {
+        System.out.println("fillBits");
+        final byte[] data = new byte[4];
+        TwoDimSymbolRasterizer.fillBits(data, 1, 3, 5);
+        assertArrayEquals(new byte[]{0, 0x18, 0, 0}, data);
+        TwoDimSymbolRasterizer.fillBits(data, 1, 6, 20);
+        assertArrayEquals(new byte[]{0, 0x1B, (byte) 0xFF, (byte) 0xF0}, data);
+        TwoDimSymbolRasterizer.fillBits(data, 0, 4, 4);
+        assertEquals(0, data[0]);
+    }
+}
@@ -23,6 +23,7 @@ import java.text.DecimalFormatSymbols;
 import org.krysalis.barcode4j.BarcodeDimension;
 import org.krysalis.barcode4j.TextAlignment;
 import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.UnitConv;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -58,6 +59,25 @@ public class EPSCanvasProviderTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of the number format, of class EPSCanvasProvider. Numbers must be
+     * written like DecimalFormat("0.####") with '.' as decimal separator.
+     */
+    @Test
+    public void testNumberFormat() throws Exception {
+        System.out.println("number format");
+        DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+        dfs.setDecimalSeparator('.');
+        DecimalFormat df = new DecimalFormat("0.####", dfs);
+        EPSCanvasProvider instance = new EPSCanvasProvider(out, orientation);
+        instance.deviceFillRect(0.1, 0, 1.0 / 3, 12.3456789);
+        instance.finish();
+        String result = ((ByteArrayOutputStream) out).toString("US-ASCII");
+        assertEquals(df.format(UnitConv.mm2pt(0.1)) + " 0 "
+                + df.format(UnitConv.mm2pt(1.0 / 3)) + " "
+                + df.format(UnitConv.mm2pt(12.3456789)) + " rf\n%%EOF\n", result);
+    }
+
     /**
      * Test of finish method, of class EPSCanvasProvider.
      */
@@ -95,6 +115,13 @@ public class EPSCanvasProviderTest {
 
         assertThat(result, startsWith("%!PS-Adobe-3.0 EPSF-3.0\n%%BoundingBox: 0 0 567 284\n%%HiResBoundingBox: 0 0 567 283.5\n"));
         assertThat(result, endsWith("%%EndProlog\n90 rotate 0 -567 translate\n%%EOF\n"));
+
+        out = new ByteArrayOutputStream(1024);
+        instance = new EPSCanvasProvider(out, Orientation.ONEHUNDRED_EIGHTY);
+        instance.establishDimensions(dim);
+        instance.finish();
+        result = ((ByteArrayOutputStream) out).toString("US-ASCII");
+        assertThat(result, endsWith("%%EndProlog\n180 rotate -283.5 -567 translate\n%%EOF\n"));
     }
 
     /**
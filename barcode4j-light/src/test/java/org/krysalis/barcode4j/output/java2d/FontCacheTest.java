@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.java2d;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+
+/**
+ *
+ * @author mk
+ */
+public class FontCacheTest {
+
+    /**
+     * Test of getFont method, of class FontCache.
+     */
+    @Test
+    public void testGetFont() {
+        System.out.println("getFont");
+        final Font font = FontCache.getFont("Helvetica", 8);
+        assertSame(font, FontCache.getFont("Helvetica", 8));
+        assertEquals(new Font("Helvetica", Font.PLAIN, 8), font);
+        assertNotSame(font, FontCache.getFont("Helvetica", 9));
+        for (int size = 1; size <= FontCache.MAX_FONTS * 2; size++) {
+            FontCache.getFont("Courier", size);
+        }
+        assertTrue(FontCache.getFontCount() <= FontCache.MAX_FONTS);
+    }
+
+    /**
+     * Test of getLayout method, of class FontCache.
+     */
+    @Test
+    public void testGetLayout() {
+        System.out.println("getLayout");
+        final Font font = FontCache.getFont("Helvetica", 8);
+        final FontRenderContext frc = new FontRenderContext(new AffineTransform(), true, true);
+        final FontCache.Layout layout = FontCache.getLayout(font, "123456", frc);
+        assertSame(layout, FontCache.getLayout(font, "123456", frc));
+        assertSame(layout, FontCache.getLayout(font, new String("123456"),
+                new FontRenderContext(new AffineTransform(), true, true)));
+        assertNotSame(layout, FontCache.getLayout(font, "123456",
+                new FontRenderContext(AffineTransform.getScaleInstance(2, 2), true, true)));
+        assertEquals(font.createGlyphVector(frc, "123456").getLogicalBounds().getWidth(),
+                layout.getWidth(), 1e-6);
+        for (int i = 0; i < FontCache.MAX_GLYPH_VECTORS * 2; i++) {
+            FontCache.getLayout(font, Integer.toString(i), frc);
+        }
+        assertEquals(FontCache.MAX_GLYPH_VECTORS, FontCache.getLayoutCount());
+    }
+
+    /**
+     * Tests that justified text doesn't modify the cached glyph vectors.
+     */
+    @Test
+    public void testJustifiedText() {
+        System.out.println("justified text");
+        final BufferedImage image = new BufferedImage(200, 50, BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g2d = image.createGraphics();
+        final Java2DCanvasProvider provider = new Java2DCanvasProvider(g2d, Orientation.ZERO);
+        final Font font = FontCache.getFont("Helvetica", 8);
+        final FontCache.Layout layout = FontCache.getLayout(font, "4711",
+                g2d.getFontRenderContext());
+        final double x = layout.getGlyphVector().getGlyphPosition(3).getX();
+        provider.deviceJustifiedText("4711", 0, 150, 20, "Helvetica", 8);
+        assertEquals(x, layout.getGlyphVector().getGlyphPosition(3).getX(), 0);
+        final FontCache.Layout justified = FontCache.getLayout(font, "4711",
+                g2d.getFontRenderContext(), 10);
+        assertEquals(x + 30, justified.getGlyphVector().getGlyphPosition(3).getX(), 1e-4);
+        g2d.dispose();
+
+        //the same image with warm caches
+        final BufferedImage[] images = new BufferedImage[2];
+        for (int i = 0; i < images.length; i++) {
+            final BitmapCanvasProvider bitmap = new BitmapCanvasProvider(
+                    300, BufferedImage.TYPE_BYTE_GRAY, true, Orientation.ZERO);
+            new EAN13Bean().generateBarcode(bitmap, "400638133393");
+            images[i] = bitmap.getBufferedImage();
+        }
+        for (int y = 0; y < images[0].getHeight(); y++) {
+            for (int x2 = 0; x2 < images[0].getWidth(); x2++) {
+                assertEquals(images[0].getRGB(x2, y), images[1].getRGB(x2, y));
+            }
+        }
+    }
+}
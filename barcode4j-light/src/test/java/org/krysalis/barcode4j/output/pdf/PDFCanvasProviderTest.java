@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class PDFCanvasProviderTest {
+
+    private static String toString(ByteArrayOutputStream out) throws Exception {
+        return out.toString("ISO-8859-1");
+    }
+
+    /**
+     * Checks the cross-reference table and returns the page contents.
+     */
+    private static List<String> checkDocument(String pdf) throws Exception {
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        final int startxref = pdf.lastIndexOf("startxref\n");
+        final int xref = Integer.parseInt(pdf.substring(startxref + 10, pdf.length() - 7).trim());
+        assertTrue(pdf.startsWith("xref\n0 ", xref));
+        final String[] lines = pdf.substring(xref, pdf.indexOf("trailer", xref)).split("\n");
+        final int size = Integer.parseInt(lines[1].substring(2));
+        assertEquals(size + 2, lines.length);
+        for (int i = 1; i < size; i++) {
+            assertEquals(20, lines[i + 2].length() + 1);
+            final int offset = Integer.parseInt(lines[i + 2].substring(0, 10));
+            assertTrue(pdf.startsWith(i + " 0 obj\n", offset));
+        }
+
+        final List<String> contents = new ArrayList<String>();
+        final Matcher m = Pattern.compile("<< /Length (\\d+)( /Filter /FlateDecode)? >>\nstream\n")
+                .matcher(pdf);
+        while (m.find()) {
+            final int length = Integer.parseInt(m.group(1));
+            final byte[] data = pdf.substring(m.end(), m.end() + length).getBytes("ISO-8859-1");
+            assertTrue(pdf.startsWith("\nendstream", m.end() + length));
+            if (m.group(2) == null) {
+                contents.add(new String(data, "ISO-8859-1"));
+            } else {
+                final Inflater inflater = new Inflater();
+                inflater.setInput(data);
+                final byte[] buf = new byte[65536];
+                final int len = inflater.inflate(buf);
+                assertTrue(inflater.finished());
+                inflater.end();
+                contents.add(new String(buf, 0, len, "ISO-8859-1"));
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Test of a single barcode, of class PDFCanvasProvider.
+     */
+    @Test
+    public void testSinglePage() throws Exception {
+        System.out.println("single page");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PDFDocument document = new PDFDocument(out);
+        document.setCompressed(false);
+        final PDFCanvasProvider canvas = new PDFCanvasProvider(document, Orientation.ZERO);
+        final Code128Bean bean = new Code128Bean();
+        bean.generateBarcode(canvas, "Lightweight (PDF)");
+        canvas.finish();
+        document.close();
+
+        final String pdf = toString(out);
+        assertTrue(pdf.contains("/Type /Pages /Count 1 "));
+        final List<String> contents = checkDocument(pdf);
+        assertEquals(1, contents.size());
+        final String content = contents.get(0);
+        assertTrue(content, content.startsWith("q\n"));
+        assertTrue(content, content.endsWith(") Tj ET\nQ\n"));
+        assertTrue(content, content.contains(" re\nf\nBT /F1 "));
+        assertTrue(content, content.contains("(Lightweight \\(PDF\\))"));
+        assertEquals(1, content.split("\nf\n").length - 1);
+    }
+
+    /**
+     * Test of the canvas factory and compression, of class PDFCanvasProvider.
+     */
+    @Test
+    public void testMultiPage() throws Exception {
+        System.out.println("multi page");
+        final List<String> msgs = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            msgs.add(String.format("400638%06d", i * 997));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PDFDocument document = new PDFDocument(out);
+        assertEquals(1000, new EAN13Bean().generateBarcodes(msgs,
+                new PDFCanvasProviderFactory(document, Orientation.NINETY)));
+        assertEquals(1000, document.getPageCount());
+        document.close();
+
+        final String pdf = toString(out);
+        assertTrue(pdf.contains("/Type /Pages /Count 1000 "));
+        final List<String> contents = checkDocument(pdf);
+        assertEquals(1000, contents.size());
+        final String first = contents.get(0);
+        assertTrue(first, first.startsWith("q\n0 1 -1 0 "));
+        assertTrue(first, first.contains("(4) Tj ET\nBT /F1 "));
+
+        final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        final PDFDocument uncompressed = new PDFDocument(plain);
+        uncompressed.setCompressed(false);
+        final PDFCanvasProvider canvas = new PDFCanvasProvider(uncompressed, Orientation.NINETY);
+        new EAN13Bean().generateBarcode(canvas, msgs.get(0));
+        canvas.finish();
+        uncompressed.close();
+        assertEquals(first, checkDocument(toString(plain)).get(0));
+        assertTrue(pdf.length() < plain.size() * 1000 / 2);
+    }
+
+    /**
+     * Test of barcodes placed on one page, of class PDFCanvasProvider.
+     */
+    @Test
+    public void testPlaced() throws Exception {
+        System.out.println("placed");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PDFDocument document = new PDFDocument(out);
+        document.setCompressed(false);
+        document.startPage(210, 297);
+        final DataMatrixBean bean = new DataMatrixBean();
+        for (int i = 0; i < 3; i++) {
+            final PDFCanvasProvider canvas = new PDFCanvasProvider(
+                    document, Orientation.ONEHUNDRED_EIGHTY, 10 + i * 50, 20);
+            bean.generateBarcode(canvas, "Label " + i);
+            canvas.finish();
+        }
+        assertTrue(document.isPageOpen());
+        document.endPage();
+        document.close();
+
+        final String pdf = toString(out);
+        assertTrue(pdf.contains("/MediaBox [0 0 595.35 841.995]"));
+        final List<String> contents = checkDocument(pdf);
+        assertEquals(1, contents.size());
+        assertEquals(3, contents.get(0).split("q\n1 0 0 1 ").length - 1);
+        assertTrue(contents.get(0).startsWith("q\n1 0 0 1 28.35 "));
+        try {
+            document.startPage(10, 10);
+            fail("document already finished");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    /**
+     * Test of getTextWidth method, of class PDFCanvasProvider.
+     */
+    @Test
+    public void testGetTextWidth() {
+        System.out.println("getTextWidth");
+        assertEquals(5 * 0.556, PDFCanvasProvider.getTextWidth("01234", 1), 1e-9);
+        assertEquals(0.667 + 0.222 + 0.5, PDFCanvasProvider.getTextWidth("Aiz", 1), 1e-9);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.sheet;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+import org.krysalis.barcode4j.output.pdf.PDFCanvasProvider;
+import org.krysalis.barcode4j.output.pdf.PDFDocument;
+import org.krysalis.barcode4j.tools.UnitConv;
+
+/**
+ *
+ * @author mk
+ */
+public class LabelSheetComposerTest {
+
+    private static SheetLayout createA4() {
+        final SheetLayout layout = new SheetLayout(SheetLayout.A4_WIDTH, SheetLayout.A4_HEIGHT, 5, 13);
+        layout.setMargins(10.7, 4.75, 10.7, 4.75);
+        layout.setGutters(2.5, 0);
+        return layout;
+    }
+
+    private static List<String> createMessages(int count) {
+        final List<String> msgs = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            msgs.add(String.format("400638%06d", i * 997));
+        }
+        return msgs;
+    }
+
+    private static int[] getPixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    /**
+     * Test of the cell positions, of class SheetLayout.
+     */
+    @Test
+    public void testLayout() {
+        System.out.println("layout");
+        final SheetLayout layout = createA4();
+        assertEquals(65, layout.getLabelCount());
+        assertEquals(38.1, layout.getLabelWidth(), 1e-9);
+        assertEquals(21.2, layout.getLabelHeight(), 1e-9);
+        assertEquals(4.75, layout.getLabelX(0), 1e-9);
+        assertEquals(10.7, layout.getLabelY(0), 1e-9);
+        assertEquals(4.75 + 4 * 40.6, layout.getLabelX(64), 1e-9);
+        assertEquals(10.7 + 12 * 21.2, layout.getLabelY(64), 1e-9);
+        assertEquals(4.75 + 40.6, layout.getLabelX(6), 1e-9);
+        assertEquals(10.7 + 21.2, layout.getLabelY(6), 1e-9);
+        try {
+            layout.setGutters(60, 0);
+            fail("no space left for the labels");
+        } catch (IllegalArgumentException e) {
+        }
+        assertEquals(38.1, layout.getLabelWidth(), 1e-9);
+    }
+
+    /**
+     * Test of composeImage method, of class LabelSheetComposer.
+     */
+    @Test
+    public void testComposeImage() throws Exception {
+        System.out.println("composeImage");
+        final SheetLayout layout = createA4();
+        final EAN13Bean bean = new EAN13Bean();
+        bean.setModuleWidth(0.25);
+        bean.setBarHeight(12);
+        final List<String> msgs = createMessages(70);
+
+        final BufferedImage sequential = new LabelSheetComposer(layout)
+                .composeImage(bean, msgs, 0, 150, BufferedImage.TYPE_BYTE_GRAY);
+        assertEquals(UnitConv.mm2px(SheetLayout.A4_WIDTH, 150), sequential.getWidth());
+        assertEquals(UnitConv.mm2px(SheetLayout.A4_HEIGHT, 150), sequential.getHeight());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final LabelSheetComposer composer = new LabelSheetComposer(layout, executor);
+            final BufferedImage parallel = composer.composeImage(
+                    bean, msgs, 0, 150, BufferedImage.TYPE_BYTE_GRAY);
+            assertTrue(Arrays.equals(getPixels(sequential), getPixels(parallel)));
+
+            //the second sheet holds the remaining labels
+            final BitmapCanvasProvider canvas = new BitmapCanvasProvider(
+                    150, BufferedImage.TYPE_BYTE_GRAY, true, Orientation.ZERO);
+            assertEquals(5, composer.compose(bean, msgs, 65, canvas));
+            canvas.finish();
+            final BufferedImage second = canvas.getBufferedImage();
+            assertTrue(hasBlack(second, layout, 4));
+            assertFalse(hasBlack(second, layout, 5));
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < 65; i++) {
+            assertTrue("label " + i, hasBlack(sequential, layout, i));
+        }
+        //nothing is painted in the margins
+        final int top = UnitConv.mm2px(10, 150);
+        for (int y = 0; y < top; y++) {
+            for (int x = 0; x < sequential.getWidth(); x++) {
+                assertEquals(0xFFFFFF, sequential.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    private static boolean hasBlack(BufferedImage image, SheetLayout layout, int index) {
+        final int x = UnitConv.mm2px(layout.getLabelX(index) + layout.getLabelWidth() / 2, 150);
+        final int y0 = UnitConv.mm2px(layout.getLabelY(index), 150);
+        final int y1 = UnitConv.mm2px(layout.getLabelY(index) + layout.getLabelHeight(), 150);
+        for (int y = y0; y < y1; y++) {
+            for (int dx = -20; dx < 20; dx++) {
+                if ((image.getRGB(x + dx, y) & 0xFFFFFF) == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Test of compose method with a PDF page, of class LabelSheetComposer.
+     */
+    @Test
+    public void testComposePDF() throws Exception {
+        System.out.println("compose PDF");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PDFDocument document = new PDFDocument(out);
+        document.setCompressed(false);
+        final PDFCanvasProvider canvas = new PDFCanvasProvider(document, Orientation.ZERO);
+        final DataMatrixBean bean = new DataMatrixBean();
+        final List<String> msgs = createMessages(65);
+        assertEquals(65, new LabelSheetComposer(createA4()).compose(bean, msgs, 0, canvas));
+        canvas.finish();
+        document.close();
+        assertEquals(1, document.getPageCount());
+        final String pdf = out.toString("ISO-8859-1");
+        assertTrue(pdf.contains("/MediaBox [0 0 595.35 841.995]"));
+        //all bars of the sheet are filled at once
+        assertEquals(1, pdf.split("\nf\n").length - 1);
+    }
+
+    /**
+     * Test of the rejected scanline replication, of class LabelSheetComposer.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testScanlineReplication() {
+        System.out.println("scanline replication");
+        final BitmapCanvasProvider canvas = new BitmapCanvasProvider(
+                150, BufferedImage.TYPE_BYTE_GRAY, false, Orientation.ZERO);
+        canvas.setScanlineReplication(true);
+        new LabelSheetComposer(createA4()).compose(new EAN13Bean(), createMessages(1), 0, canvas);
+    }
+}
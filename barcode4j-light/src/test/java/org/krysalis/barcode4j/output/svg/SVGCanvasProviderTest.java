@@ -18,6 +18,7 @@ package org.krysalis.barcode4j.output.svg;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import org.krysalis.barcode4j.BarcodeDimension;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
 import org.krysalis.barcode4j.output.Orientation;
 import org.w3c.dom.DOMConfiguration;
 import org.w3c.dom.DOMImplementation;
@@ -104,6 +105,67 @@ public class SVGCanvasProviderTest {
         assertEquals(expResult, getStringFromDoc(fromFragment(result)));
     }
 
+    /**
+     * Test of the single path mode, of class SVGCanvasProvider.
+     */
+    @Test
+    public void testSinglePath() {
+        System.out.println("single path");
+        SVGCanvasProvider instance = new SVGCanvasProvider(false, Orientation.ZERO);
+        instance.setSinglePath(true);
+        instance.setPathPrecision(2);
+        assertTrue(instance.isSinglePath());
+        assertEquals(2, instance.getPathPrecision());
+        instance.establishDimensions(new BarcodeDimension(10, 10));
+        instance.deviceFillRect(1, 1, 2, 8);
+        //ties are rounded half-even like the numbers of the rect output
+        instance.deviceFillRect(4.125, 1, 1, 8);
+        String expResult = "<svg height=\"10mm\" viewBox=\"0 0 10 10\" width=\"10mm\">"
+                + "<g fill=\"black\" stroke=\"none\"><path d=\"M1 1h2v8h-2zm3.12 0h1v8h-1z\"/></g></svg>";
+        assertEquals(expResult, getStringFromDoc(instance.getDOM()));
+
+        //DataMatrix symbols shrink to about half of the size
+        final DataMatrixBean bean = new DataMatrixBean();
+        instance = new SVGCanvasProvider(Orientation.ZERO);
+        bean.generateBarcode(instance, "Single path output for 2D symbols");
+        final int rects = getStringFromDoc(instance.getDOM()).length();
+        instance = new SVGCanvasProvider(Orientation.ZERO);
+        instance.setSinglePath(true);
+        bean.generateBarcode(instance, "Single path output for 2D symbols");
+        final int path = getStringFromDoc(instance.getDOM()).length();
+        assertTrue(rects + " vs. " + path, path * 3 < rects * 2);
+
+        try {
+            instance.setPathPrecision(-1);
+            fail("negative precision");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test of reset method, of class SVGCanvasProvider.
+     */
+    @Test
+    public void testReset() {
+        System.out.println("reset");
+        final DataMatrixBean bean = new DataMatrixBean();
+        final SVGCanvasProvider instance = new SVGCanvasProvider(Orientation.NINETY);
+        instance.setSinglePath(true);
+        bean.generateBarcode(instance, "first");
+        final Document first = instance.getDOM();
+        final String expResult = getStringFromDoc(first);
+
+        instance.reset();
+        assertNull(instance.getDimensions());
+        bean.generateBarcode(instance, "second, a bit longer");
+        final SVGCanvasProvider fresh = new SVGCanvasProvider(Orientation.NINETY);
+        fresh.setSinglePath(true);
+        bean.generateBarcode(fresh, "second, a bit longer");
+        assertNotSame(first, instance.getDOM());
+        assertEquals(getStringFromDoc(fresh.getDOM()), getStringFromDoc(instance.getDOM()));
+        assertEquals(expResult, getStringFromDoc(first));
+    }
+
     private DOMImplementation getDomImpl() throws Exception {
         final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
         dbf.setNamespaceAware(true);
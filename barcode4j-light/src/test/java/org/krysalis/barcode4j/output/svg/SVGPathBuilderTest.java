@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.svg;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mk
+ */
+public class SVGPathBuilderTest {
+
+    /**
+     * Test of getPathData method, of class SVGPathBuilder.
+     */
+    @Test
+    public void testGetPathData() {
+        System.out.println("getPathData");
+        final SVGPathBuilder instance = new SVGPathBuilder(4);
+        assertTrue(instance.isEmpty());
+        assertEquals("", instance.getPathData());
+        instance.addRect(1, 2, 0.5, 10);
+        assertFalse(instance.isEmpty());
+        instance.addRect(3, 2, 0.005, 10);
+        instance.addRect(0.25, 1, 1.1234, 1);
+        assertEquals("M1 2h.5v10h-.5zm2 0h.005v10h-.005zm-2.75-1h1.1234v1h-1.1234z",
+                instance.getPathData());
+    }
+
+    /**
+     * Test of merging rectangles of the same row, of class SVGPathBuilder.
+     */
+    @Test
+    public void testMerge() {
+        System.out.println("merge");
+        final SVGPathBuilder instance = new SVGPathBuilder(2);
+        instance.addRect(0, 0, 1, 1);
+        instance.addRect(1, 0, 1, 1);
+        instance.addRect(2, 0, 0.5, 1);
+        //different height
+        instance.addRect(2.5, 0, 1, 2);
+        //next row
+        instance.addRect(0, 1, 1, 1);
+        assertEquals("M0 0h2.5v1h-2.5zm2.5 0h1v2h-1zm-2.5 1h1v1h-1z", instance.getPathData());
+    }
+
+    /**
+     * Test of the precision, of class SVGPathBuilder.
+     */
+    @Test
+    public void testPrecision() {
+        System.out.println("precision");
+        SVGPathBuilder instance = new SVGPathBuilder(0);
+        instance.addRect(0.4, 0.6, 1.2, 1.1);
+        //rectangles vanishing after rounding are dropped
+        instance.addRect(5.1, 0, 0.2, 1);
+        assertEquals("M0 1h2v1h-2z", instance.getPathData());
+
+        instance = new SVGPathBuilder(1);
+        instance.addRect(0.33, 0.66, 0.33, 1);
+        assertEquals("M.3 .7h.4v1h-.4z", instance.getPathData());
+        try {
+            new SVGPathBuilder(SVGPathBuilder.MAX_PRECISION + 1);
+            fail("precision out of range");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
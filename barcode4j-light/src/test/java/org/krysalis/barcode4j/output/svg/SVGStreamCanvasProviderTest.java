@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.svg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.TextAlignment;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+
+/**
+ *
+ * @author mk
+ */
+public class SVGStreamCanvasProviderTest {
+
+    private static final String XML_DECL = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    private static String stream(BarcodeGenerator gen, String msg, Orientation orientation)
+            throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(out, orientation);
+        gen.generateBarcode(svg, msg);
+        svg.finish();
+        final String res = out.toString("UTF-8");
+        assertTrue(res.startsWith(XML_DECL));
+        return res.substring(XML_DECL.length());
+    }
+
+    private static String dom(BarcodeGenerator gen, String msg, Orientation orientation) {
+        final SVGCanvasProvider svg = new SVGCanvasProvider(orientation);
+        gen.generateBarcode(svg, msg);
+        return SVGCanvasProviderTest.getStringFromDoc(svg.getDOM());
+    }
+
+    /**
+     * Tests that the streamed SVG equals the serialized DOM.
+     */
+    @Test
+    public void testSameAsDOM() throws Exception {
+        System.out.println("same as DOM");
+        for (final Orientation orientation : Orientation.values()) {
+            assertEquals(dom(new Code128Bean(), "Stream <&>", orientation),
+                    stream(new Code128Bean(), "Stream <&>", orientation));
+        }
+        assertEquals(dom(new EAN13Bean(), "400638133393", Orientation.ZERO),
+                stream(new EAN13Bean(), "400638133393", Orientation.ZERO));
+        assertEquals(dom(new DataMatrixBean(), "Hello World", Orientation.NINETY),
+                stream(new DataMatrixBean(), "Hello World", Orientation.NINETY));
+    }
+
+    /**
+     * Tests that the streamed single path SVG equals the serialized DOM.
+     */
+    @Test
+    public void testSinglePath() throws Exception {
+        System.out.println("single path");
+        final PDF417Bean bean = new PDF417Bean();
+        final SVGCanvasProvider dom = new SVGCanvasProvider(Orientation.ZERO);
+        dom.setSinglePath(true);
+        bean.generateBarcode(dom, "Hello World");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(out, Orientation.ZERO);
+        svg.setSinglePath(true);
+        bean.generateBarcode(svg, "Hello World");
+        svg.finish();
+        assertEquals(XML_DECL + SVGCanvasProviderTest.getStringFromDoc(dom.getDOM()),
+                out.toString("UTF-8"));
+    }
+
+    /**
+     * Test of the writer variant without namespace.
+     */
+    @Test
+    public void testWriterWithoutNamespace() throws Exception {
+        System.out.println("writer without namespace");
+        final StringWriter writer = new StringWriter();
+        final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(writer, false, Orientation.ZERO);
+        assertFalse(svg.isNamespaceEnabled());
+        svg.deviceText("a\"b", 0, 10, 5, "Helvetica", 2.5, TextAlignment.TA_JUSTIFY);
+        svg.finish();
+        assertEquals(XML_DECL + "<svg><g fill=\"black\" stroke=\"none\">"
+                + "<text font-family=\"Helvetica\" font-size=\"2.5\" text-anchor=\"middle\""
+                + " textLength=\"10\" x=\"5\" y=\"5\">a&quot;b</text></g></svg>", writer.toString());
+    }
+
+    /**
+     * Tests that only one barcode may be written.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSingleBarcode() throws Exception {
+        System.out.println("single barcode");
+        final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(
+                new StringWriter(), true, Orientation.ZERO);
+        new Code128Bean().generateBarcode(svg, "one");
+        new Code128Bean().generateBarcode(svg, "two");
+    }
+}
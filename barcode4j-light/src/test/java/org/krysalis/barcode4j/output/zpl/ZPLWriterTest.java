@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output.zpl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.ChecksumMode;
+import org.krysalis.barcode4j.HumanReadablePlacement;
+import org.krysalis.barcode4j.impl.code128.Code128Bean;
+import org.krysalis.barcode4j.impl.code128.Code128Constants;
+import org.krysalis.barcode4j.impl.code128.EAN128Bean;
+import org.krysalis.barcode4j.impl.code39.Code39Bean;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrixBean;
+import org.krysalis.barcode4j.impl.pdf417.PDF417Bean;
+import org.krysalis.barcode4j.impl.upcean.EAN13Bean;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
+
+/**
+ *
+ * @author mk
+ */
+public class ZPLWriterTest {
+
+    private static String write(BarcodeGenerator gen, String msg, Orientation orientation,
+            boolean expectNative) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZPLWriter writer = new ZPLWriter(out, 203);
+        assertEquals(expectNative, writer.writeBarcode(gen, msg, 0, 0, orientation));
+        writer.close();
+        return out.toString("US-ASCII");
+    }
+
+    /**
+     * Decodes the compressed ASCII hex data of a ^GF command.
+     */
+    private static BufferedImage decodeGraphic(String zpl) {
+        final int start = zpl.indexOf("^GFA,");
+        final String[] params = zpl.substring(start + 5).split(",", 4);
+        final int total = Integer.parseInt(params[0]);
+        final int bytesPerRow = Integer.parseInt(params[2]);
+        final String data = params[3].substring(0, params[3].indexOf("^FS"));
+        final int height = total / bytesPerRow;
+        final char[][] rows = new char[height][bytesPerRow * 2];
+        int row = 0;
+        int pos = 0;
+        int count = 0;
+        for (final char c : data.toCharArray()) {
+            if (c == ':') {
+                rows[row] = rows[row - 1].clone();
+                row++;
+            } else if (c == ',' || c == '!') {
+                while (pos < bytesPerRow * 2) {
+                    rows[row][pos++] = c == ',' ? '0' : 'F';
+                }
+            } else if (c >= 'G' && c <= 'Y') {
+                count += c - 'G' + 1;
+            } else if (c >= 'g' && c <= 'z') {
+                count += (c - 'g' + 1) * 20;
+            } else {
+                for (int i = 0; i < Math.max(count, 1); i++) {
+                    rows[row][pos++] = c;
+                }
+                count = 0;
+            }
+            if (pos == bytesPerRow * 2) {
+                row++;
+                pos = 0;
+            }
+        }
+        assertEquals(height, row);
+        final BufferedImage image = new BufferedImage(bytesPerRow * 8, height,
+                BufferedImage.TYPE_BYTE_BINARY);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < bytesPerRow * 8; x++) {
+                final int b = Integer.parseInt(new String(rows[y], (x / 8) * 2, 2), 16);
+                image.setRGB(x, y, ((b >> (7 - x % 8)) & 1) != 0 ? 0 : 0xFFFFFF);
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals((expected.getWidth() + 7) / 8 * 8, actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < actual.getHeight(); y++) {
+            for (int x = 0; x < actual.getWidth(); x++) {
+                final int rgb = x < expected.getWidth() ? expected.getRGB(x, y) & 0xFFFFFF : 0xFFFFFF;
+                assertEquals("pixel " + x + "," + y, rgb, actual.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    /**
+     * Test of writeBarcode method with native commands, of class ZPLWriter.
+     */
+    @Test
+    public void testNativeCommands() throws Exception {
+        System.out.println("native commands");
+        final Code128Bean code128 = new Code128Bean();
+        assertEquals("^FO17,0^BY2,3,120^BCN,120,Y,N,N,A^FDZPL 128^FS\n",
+                write(code128, "ZPL 128", Orientation.ZERO, true));
+        code128.setMsgPosition(HumanReadablePlacement.HRP_NONE);
+        assertEquals("^FO0,17^BY2,3,120^BCB,120,N,N,N,A^FH^FDa_5Eb_7Ec_5Fd_09^FS\n",
+                write(code128, "a^b~c_d\t", Orientation.NINETY, true));
+
+        final Code39Bean code39 = new Code39Bean();
+        code39.setChecksumMode(ChecksumMode.CP_ADD);
+        assertTrue(write(code39, "CODE 39", Orientation.ONEHUNDRED_EIGHTY, true)
+                .contains("^BY2,2.5,120^B3I,Y,120,Y,N^FDCODE 39^FS"));
+
+        final EAN13Bean ean = new EAN13Bean();
+        final String ean12 = write(ean, "400638133393", Orientation.TWOHUNDRED_SEVENTY, true);
+        assertTrue(ean12, ean12.contains("^BER,"));
+        assertTrue(ean12, ean12.endsWith("^FD400638133393^FS\n"));
+        assertEquals(ean12, write(ean, "4006381333931", Orientation.TWOHUNDRED_SEVENTY, true));
+
+        final DataMatrixBean dm = new DataMatrixBean();
+        dm.setModuleWidth(0.5);
+        assertTrue(write(dm, "Hello", Orientation.ZERO, true)
+                .endsWith("^BXN,4,200,12,12,,,1^FDHello^FS\n"));
+
+        final PDF417Bean pdf = new PDF417Bean();
+        final String pdf417 = write(pdf, "PDF417 on a label", Orientation.ZERO, true);
+        final int rows = pdf.encode("PDF417 on a label").getRowCount();
+        assertTrue(pdf417, pdf417.contains("^B7N,"));
+        assertTrue(pdf417, pdf417.endsWith(",2," + rows + ",N^FDPDF417 on a label^FS\n"));
+    }
+
+    /**
+     * Test of writeBarcode method with the graphic field fallback, of class
+     * ZPLWriter.
+     */
+    @Test
+    public void testFallback() throws Exception {
+        System.out.println("fallback");
+        final Code128Bean restricted = new Code128Bean();
+        restricted.setCodeset(Code128Constants.CODESET_B);
+        final Code39Bean extended = new Code39Bean();
+        extended.setExtendedCharSetEnabled(true);
+        final EAN13Bean ignore = new EAN13Bean();
+        ignore.setChecksumMode(ChecksumMode.CP_IGNORE);
+        final BarcodeGenerator[] gens = {new EAN128Bean(), restricted, extended, ignore};
+        final String[] msgs = {"0104006381333931", "restricted", "lower case", "4006381333932"};
+        for (int i = 0; i < gens.length; i++) {
+            final String zpl = write(gens[i], msgs[i], Orientation.NINETY, false);
+            assertTrue(zpl, zpl.startsWith("^FO0,0^GFA,"));
+            final BitmapCanvasProvider canvas = new BitmapCanvasProvider(
+                    203, BufferedImage.TYPE_BYTE_BINARY, false, Orientation.NINETY);
+            gens[i].generateBarcode(canvas, msgs[i]);
+            assertSamePixels(canvas.getBufferedImage(), decodeGraphic(zpl));
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZPLWriter writer = new ZPLWriter(out, 203);
+        writer.setNativeCommandsEnabled(false);
+        writer.startLabel();
+        assertFalse(writer.writeBarcode(new Code128Bean(), "no native", 10, 20, Orientation.ZERO));
+        writer.endLabel();
+        writer.close();
+        final String zpl = out.toString("US-ASCII");
+        assertTrue(zpl, zpl.startsWith("^XA\n^FO10,20^GFA,"));
+        assertTrue(zpl, zpl.endsWith("^FS\n^XZ\n"));
+    }
+
+    /**
+     * Test of writeGraphic method, of class ZPLWriter.
+     */
+    @Test
+    public void testWriteGraphic() throws Exception {
+        System.out.println("writeGraphic");
+        final Random random = new Random(4711);
+        final BufferedImage image = new BufferedImage(1203, 30, BufferedImage.TYPE_BYTE_BINARY);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                final boolean black = y < 10 ? random.nextInt(4) == 0 : (x / (y * 7)) % 2 == 0;
+                image.setRGB(x, y, black && y % 10 != 9 ? 0 : 0xFFFFFF);
+            }
+        }
+        //repeated rows
+        image.getRaster().setRect(0, 20, image.getRaster().createChild(0, 19, 1203, 1, 0, 0, null));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZPLWriter writer = new ZPLWriter(out, 300);
+        writer.writeGraphic(image, 5, 6);
+        writer.close();
+        final String zpl = out.toString("US-ASCII");
+        assertTrue(zpl, zpl.startsWith("^FO5,6^GFA,4530,4530,151,"));
+        assertTrue(zpl.contains(":"));
+        assertSamePixels(image, decodeGraphic(zpl));
+
+        //gray images are converted
+        final BufferedImage gray = new BufferedImage(9, 2, BufferedImage.TYPE_BYTE_GRAY);
+        gray.getRaster().setSample(8, 1, 0, 0xFF);
+        final ByteArrayOutputStream grayOut = new ByteArrayOutputStream();
+        final ZPLWriter grayWriter = new ZPLWriter(grayOut, 300);
+        grayWriter.writeGraphic(gray, 0, 0);
+        grayWriter.close();
+        assertEquals("^FO0,0^GFA,4,4,2,FF8,FF,^FS\n", grayOut.toString("US-ASCII"));
+    }
+
+    /**
+     * Test of createFieldData method, of class ZPLWriter.
+     */
+    @Test
+    public void testCreateFieldData() {
+        System.out.println("createFieldData");
+        assertEquals("^FDplain^FS", ZPLWriter.createFieldData("plain"));
+        assertEquals("^FH^FD_5E_7E_5F_0D_7F^FS", ZPLWriter.createFieldData("^~_\r\u007F"));
+        assertNull(ZPLWriter.createFieldData("\u00E4"));
+        assertTrue(ZPLWriter.isPlainText("Hello, World!"));
+        assertFalse(ZPLWriter.isPlainText("a_b"));
+        assertFalse(ZPLWriter.isPlainText("\u00E4"));
+        assertEquals('N', ZPLWriter.getOrientationCode(Orientation.ZERO));
+        assertEquals('B', ZPLWriter.getOrientationCode(Orientation.NINETY));
+    }
+}
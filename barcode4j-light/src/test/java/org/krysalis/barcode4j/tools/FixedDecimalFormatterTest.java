@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.tools;
+
+import java.io.StringWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author mk
+ */
+public class FixedDecimalFormatterTest {
+
+    /**
+     * Test of format method, of class FixedDecimalFormatter.
+     */
+    @Test
+    public void testFormat() {
+        System.out.println("format");
+        final FixedDecimalFormatter instance = new FixedDecimalFormatter(4);
+        assertEquals("0", instance.format(0));
+        assertEquals("0", instance.format(-0.00001));
+        assertEquals("1", instance.format(1));
+        assertEquals("-1.5", instance.format(-1.5));
+        assertEquals("0.0005", instance.format(0.0005));
+        assertEquals("123456.7891", instance.format(123456.78906));
+        assertEquals("0.3528", instance.format(0.35277777));
+        assertEquals("2", instance.format(1.99999));
+        assertEquals("0.0312", instance.format(0.03125));
+
+        assertEquals("3", new FixedDecimalFormatter(0).format(2.5001));
+        assertEquals("2", new FixedDecimalFormatter(0).format(2.5));
+    }
+
+    /**
+     * Tests that the output equals DecimalFormat.
+     */
+    @Test
+    public void testSameAsDecimalFormat() {
+        System.out.println("same as DecimalFormat");
+        final DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+        dfs.setDecimalSeparator('.');
+        final DecimalFormat df = new DecimalFormat("0.####", dfs);
+        final FixedDecimalFormatter instance = new FixedDecimalFormatter(4);
+        final Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            final double value = random.nextDouble() * 1000;
+            assertEquals(df.format(value), instance.format(value));
+            assertEquals(df.format(-value), instance.format(-value));
+            //multiples of the module width as painted by the barcode beans
+            final double coord = random.nextInt(500) * 0.35277;
+            assertEquals(df.format(coord), instance.format(coord));
+        }
+    }
+
+    /**
+     * Test of formatUnits method, of class FixedDecimalFormatter.
+     */
+    @Test
+    public void testFormatUnits() throws Exception {
+        System.out.println("formatUnits");
+        final FixedDecimalFormatter instance = new FixedDecimalFormatter(3);
+        final char[] buf = new char[FixedDecimalFormatter.MAX_LENGTH + 2];
+        buf[0] = 'x';
+        int end = instance.formatUnits(352, buf, 1);
+        assertEquals("x0.352", new String(buf, 0, end));
+        end = instance.formatUnits(-12050, buf, 0);
+        assertEquals("-12.05", new String(buf, 0, end));
+        end = instance.formatUnits(Long.MAX_VALUE, buf, 0);
+        assertEquals("9223372036854775.807", new String(buf, 0, end));
+
+        final StringWriter writer = new StringWriter();
+        instance.writeUnits(7001, writer);
+        writer.write(' ');
+        instance.write(0.25, writer);
+        assertEquals("7.001 0.25", writer.toString());
+        assertEquals(-1235, instance.toUnits(-1.2346));
+        assertEquals("x1.5", instance.append(1.5, new StringBuilder("x")).toString());
+    }
+
+    /**
+     * Test of the error handling, of class FixedDecimalFormatter.
+     */
+    @Test
+    public void testOutOfRange() {
+        System.out.println("out of range");
+        final FixedDecimalFormatter instance = new FixedDecimalFormatter(4);
+        for (final double value : new double[] {Double.NaN, Double.POSITIVE_INFINITY, 1e20}) {
+            try {
+                instance.format(value);
+                fail("value out of range: " + value);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        try {
+            new FixedDecimalFormatter(FixedDecimalFormatter.MAX_FRACTION_DIGITS + 1);
+            fail("too many fraction digits");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
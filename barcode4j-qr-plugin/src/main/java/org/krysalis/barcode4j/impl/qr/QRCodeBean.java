@@ -18,19 +18,12 @@ package org.krysalis.barcode4j.impl.qr;
 
 import java.awt.Dimension;
 
-import org.krysalis.barcode4j.BarcodeDimension;
-import org.krysalis.barcode4j.TwoDimBarcodeLogicHandler;
-import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
-import org.krysalis.barcode4j.impl.DefaultTwoDimCanvasLogicHandler;
-import org.krysalis.barcode4j.output.Canvas;
-import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.impl.AbstractTwoDimBarcodeBean;
+import org.krysalis.barcode4j.impl.TwoDimSymbol;
+import org.krysalis.barcode4j.impl.TwoDimSymbolBuilder;
 import org.krysalis.barcode4j.tools.ECIUtil;
 import org.krysalis.barcode4j.tools.UnitConv;
 
-import com.google.zxing.WriterException;
-import com.google.zxing.qrcode.encoder.ByteMatrix;
-import com.google.zxing.qrcode.encoder.Encoder;
-import com.google.zxing.qrcode.encoder.QRCode;
 import java.util.Collection;
 import java.util.Set;
 import java.util.TreeSet;
@@ -38,9 +31,9 @@ import java.util.TreeSet;
 /**
  * This class is an implementation of QR Code (ISO 18004:2006(E)).
  *
- * @version 1.2
+ * @version 1.3
  */
-public class QRCodeBean extends AbstractBarcodeBean {
+public class QRCodeBean extends AbstractTwoDimBarcodeBean {
 
     /** The default module width (dot size) for DataMatrix. */
     protected static final double DEFAULT_MODULE_WIDTH = UnitConv.in2mm(1.0 / 72); //1px at 72dpi
@@ -142,41 +135,21 @@ public class QRCodeBean extends AbstractBarcodeBean {
     }
 
     @Override
-    public void generateBarcode(CanvasProvider canvas, String msg) {
-        if (msg == null || msg.isEmpty()) {
-            throw new NullPointerException("Parameter msg must not be empty");
-        }
-
-        final TwoDimBarcodeLogicHandler handler =
-                new DefaultTwoDimCanvasLogicHandler(this, new Canvas(canvas));
-
+    protected TwoDimSymbol createSymbol(String msg) {
+        final TwoDimSymbolBuilder builder = new TwoDimSymbolBuilder();
         final QRLogicImpl impl = new QRLogicImpl();
-        impl.generateBarcodeLogic(handler, msg, encoding, errorCorrectionLevel,
+        impl.generateBarcodeLogic(builder, msg, encoding, errorCorrectionLevel,
                 getMinSize(), getMaxSize());
+        checkSizeConstraints(builder.getColumnCount(), builder.getRowCount());
+        return createSymbol(builder);
     }
 
     @Override
-    public BarcodeDimension calcDimensions(String msg) {
-        QRCode code = null;
-        try {
-            code = Encoder.encode(msg,
-                    QRLogicImpl.getZXingErrorLevel(errorCorrectionLevel),
-                    QRLogicImpl.createHints(encoding));
-        } catch (WriterException e) {
-            throw new IllegalStateException(e);
-        }
-        final ByteMatrix matrix = code.getMatrix();
-        final int effWidth = matrix.getWidth();
-        final int effHeight = matrix.getHeight();
-        checkSizeConstraints(effWidth, effHeight);
-
-        final double width = effWidth * getModuleWidth();
-        final double height = effHeight * getBarHeight();
-        final double qzh = hasQuietZone() ? getQuietZone() : 0;
-        final double qzv = hasQuietZone() ? getVerticalQuietZone() : 0;
-        return new BarcodeDimension(width, height,
-                width + (2 * qzh), height + (2 * qzv),
-                qzh, qzv);
+    protected void appendSymbolSettings(StringBuilder sb) {
+        sb.append(';').append(errorCorrectionLevel)
+                .append(';').append(encoding)
+                .append(';').append(minSize)
+                .append(';').append(maxSize);
     }
 
     private void checkSizeConstraints(int width, int height) {
@@ -204,11 +177,6 @@ public class QRCodeBean extends AbstractBarcodeBean {
         return getQuietZone();
     }
 
-    @Override
-    public double getBarWidth(int width) {
-        return moduleWidth;
-    }
-
     @Override
     public double getBarHeight() {
         return moduleWidth;
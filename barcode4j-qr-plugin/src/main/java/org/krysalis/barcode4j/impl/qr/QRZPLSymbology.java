@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl.qr;
+
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.zpl.ZPLSymbology;
+import org.krysalis.barcode4j.output.zpl.ZPLWriter;
+
+/**
+ * Maps QR Code to the native ZPL II command ^BQ (model 2). The printer only
+ * prints QR Code unrotated and chooses the symbol version itself, so rotated
+ * symbols and symbols with a minimum or maximum size are left to the graphic
+ * field fallback.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class QRZPLSymbology implements ZPLSymbology {
+
+    private static final int MAX_MAGNIFICATION = 10;
+
+    @Override
+    public String createCommand(BarcodeGenerator gen, String msg, int resolution,
+            Orientation orientation) {
+        if (gen.getClass() != QRCodeBean.class || orientation != Orientation.ZERO) {
+            return null;
+        }
+        final QRCodeBean bean = (QRCodeBean) gen;
+        final int module = ZPLWriter.toDots(bean.getModuleWidth(), resolution);
+        if (module < 1 || module > MAX_MAGNIFICATION
+                || bean.getMinSize() != null || bean.getMaxSize() != null
+                || msg.length() == 0 || !ZPLWriter.isPlainText(msg)) {
+            return null;
+        }
+        //error correction level and automatic data mode precede the data
+        return "^BQN,2," + module + "^FD" + bean.getErrorCorrectionLevel() + "A," + msg + "^FS";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl.qr;
+
+import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.output.zpl.ZPLWriter;
+
+/**
+ *
+ * @author mk
+ */
+public class QRZPLSymbologyTest {
+
+    /**
+     * Test of createCommand method, of class QRZPLSymbology.
+     */
+    @Test
+    public void testCreateCommand() {
+        System.out.println("createCommand");
+        final QRZPLSymbology instance = new QRZPLSymbology();
+        final QRCodeBean bean = new QRCodeBean();
+        bean.setModuleWidth(0.5);
+        bean.setErrorCorrectionLevel('M');
+        assertEquals("^BQN,2,4^FDMA,http://barcode4j.sourceforge.net/^FS",
+                instance.createCommand(bean, "http://barcode4j.sourceforge.net/", 203,
+                        Orientation.ZERO));
+        assertNull(instance.createCommand(bean, "rotated", 203, Orientation.NINETY));
+        assertNull(instance.createCommand(bean, "a~b", 203, Orientation.ZERO));
+        bean.setMinSize(new Dimension(25, 25));
+        assertNull(instance.createCommand(bean, "fixed size", 203, Orientation.ZERO));
+    }
+
+    /**
+     * Test of the service registration for ZPLWriter.
+     */
+    @Test
+    public void testWriter() throws Exception {
+        System.out.println("writer");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZPLWriter writer = new ZPLWriter(out, 300);
+        final QRCodeBean bean = new QRCodeBean();
+        bean.setModuleWidth(0.5);
+        assertTrue(writer.writeBarcode(bean, "QR", 10, 10, Orientation.ZERO));
+        assertFalse(writer.writeBarcode(bean, "QR", 10, 10, Orientation.ONEHUNDRED_EIGHTY));
+        writer.close();
+        final String zpl = out.toString("US-ASCII");
+        assertTrue(zpl, zpl.startsWith("^FO27,27^BQN,2,6^FDLA,QR^FS\n^FO10,10^GFA,"));
+    }
+}
@@ -74,6 +74,10 @@ public class Configuration {
         return res;
     }
 
+    public String[] getAttributeNames() {
+        return attributes.keySet().toArray(new String[attributes.size()]);
+    }
+
     public Configuration getChild(String name) throws ConfigurationException {
         return getChild(name, true);
     }
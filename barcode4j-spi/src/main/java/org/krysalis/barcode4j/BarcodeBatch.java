@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+import java.io.IOException;
+
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+
+/**
+ * Generates batches of barcodes with any {@link BarcodeGenerator}.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class BarcodeBatch {
+
+    private BarcodeBatch() {
+    }
+
+    /**
+     * Generates a barcode for each of the given messages. Generators
+     * implementing {@link BatchBarcodeGenerator} render the batch themselves,
+     * others are called once per message.
+     * @param gen the barcode generator
+     * @param msgs messages to encode
+     * @param canvases factory supplying and finishing a canvas per message
+     * @return the number of barcodes generated
+     * @throws IOException if the factory fails to prepare or write an output
+     */
+    public static int generateBarcodes(BarcodeGenerator gen, Iterable<String> msgs,
+            CanvasProviderFactory canvases) throws IOException {
+        if (gen instanceof BatchBarcodeGenerator) {
+            return ((BatchBarcodeGenerator) gen).generateBarcodes(msgs, canvases);
+        }
+        int index = 0;
+        for (String msg : msgs) {
+            final CanvasProvider canvas = canvases.createCanvasProvider(index, msg);
+            gen.generateBarcode(canvas, msg);
+            canvases.finishCanvasProvider(canvas, index, msg);
+            index++;
+        }
+        return index;
+    }
+}
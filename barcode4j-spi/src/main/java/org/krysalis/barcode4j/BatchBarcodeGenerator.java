@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+import java.io.IOException;
+
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+
+/**
+ * Barcode generator which renders many messages in one call. Implementations
+ * set up their painting state (logic handler, canvas wrapper, encoder) only
+ * once for the whole batch.
+ * <p>
+ * Use {@link BarcodeBatch#generateBarcodes(BarcodeGenerator, Iterable, CanvasProviderFactory)}
+ * to generate a batch with any generator.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public interface BatchBarcodeGenerator extends BarcodeGenerator {
+
+    /**
+     * Generates a barcode for each of the given messages.
+     * @param msgs messages to encode
+     * @param canvases factory supplying and finishing a canvas per message
+     * @return the number of barcodes generated
+     * @throws IOException if the factory fails to prepare or write an output
+     */
+    int generateBarcodes(Iterable<String> msgs, CanvasProviderFactory canvases)
+            throws IOException;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output;
+
+import java.io.IOException;
+
+/**
+ * Supplies the canvases for batch generation of barcodes. For every message
+ * the factory is asked for a canvas, the barcode is painted on it and the
+ * canvas is handed back to the factory to be finished (ex. encoded and
+ * written). A factory may reuse canvases and encoders between messages.
+ *
+ * @author mk
+ * @version 1.0
+ * @see org.krysalis.barcode4j.BatchBarcodeGenerator#generateBarcodes(Iterable, CanvasProviderFactory)
+ */
+public interface CanvasProviderFactory {
+
+    /**
+     * Returns the canvas for the next barcode.
+     * @param index the index of the message in the batch (0-based)
+     * @param msg the message which will be painted
+     * @return the canvas to paint on
+     * @throws IOException if the output can't be prepared
+     */
+    CanvasProvider createCanvasProvider(int index, String msg) throws IOException;
+
+    /**
+     * Finishes a canvas after the barcode has been painted on it.
+     * @param canvas the canvas returned by {@link #createCanvasProvider(int, String)}
+     * @param index the index of the message in the batch (0-based)
+     * @param msg the message which has been painted
+     * @throws IOException if the output can't be written
+     */
+    void finishCanvasProvider(CanvasProvider canvas, int index, String msg) throws IOException;
+}
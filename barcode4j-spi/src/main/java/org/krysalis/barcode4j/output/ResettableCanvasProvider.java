@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.output;
+
+/**
+ * A canvas which can paint more than one barcode. After {@link #reset()} the
+ * canvas behaves like a newly created one with the same settings, but it may
+ * recycle its internal buffers (ex. the image raster) for the next barcode.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public interface ResettableCanvasProvider extends CanvasProvider {
+
+    /**
+     * Prepares the canvas for the next barcode. Results obtained from the
+     * canvas before (ex. an image) may be overwritten by the next barcode, so
+     * they must have been consumed before calling this method.
+     */
+    void reset();
+}
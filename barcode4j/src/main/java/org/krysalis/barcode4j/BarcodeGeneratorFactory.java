@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+/**
+ * Creates barcode generators without reflection. Factories are registered
+ * with {@link DefaultBarcodeClassResolver#registerBarcodeFactory} and are
+ * used by {@link BarcodeUtil} instead of instantiating the resolved class.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public interface BarcodeGeneratorFactory {
+
+    /**
+     * Creates a new, unconfigured barcode generator.
+     *
+     * @return the barcode generator
+     */
+    BarcodeGenerator newBarcodeGenerator();
+}
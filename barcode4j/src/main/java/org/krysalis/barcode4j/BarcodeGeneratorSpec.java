@@ -0,0 +1,317 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+
+import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
+
+import com.github.mbhk.barcode4j.Configuration;
+import com.github.mbhk.barcode4j.ConfigurationException;
+
+/**
+ * Immutable, configured barcode generator.
+ * <p>
+ * A spec is created once from a {@link Configuration} or a {@link Builder} and
+ * can't be reconfigured afterwards. It keeps a private copy of the
+ * configuration and the generator configured from it, so neither can be changed
+ * from the outside. Instances are thread-safe: {@link #generateBarcode} and
+ * {@link #calcDimensions} may be called concurrently, e.g. by a servlet holding
+ * one spec per preset.
+ * <p>
+ * Two specs are equal if they were created from equivalent configurations.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public final class BarcodeGeneratorSpec implements BatchBarcodeGenerator {
+
+    private static final Comparator<Configuration> BY_NAME = new Comparator<Configuration>() {
+        @Override
+        public int compare(Configuration o1, Configuration o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    private final Configuration cfg;
+    private final String key;
+    private final BarcodeGenerator generator;
+    private final Collection<String> additionalNames;
+
+    private BarcodeGeneratorSpec(Configuration cfg, BarcodeGenerator generator) {
+        this.cfg = cfg;
+        this.key = createKey(cfg);
+        this.generator = generator;
+        this.additionalNames = Collections.unmodifiableList(
+                new ArrayList<String>(generator.getAdditionalNames()));
+    }
+
+    /**
+     * Creates a spec from a barcode configuration. The configuration is copied,
+     * later changes to it don't affect the spec.
+     *
+     * @param cfg the barcode configuration
+     * @return the immutable spec
+     * @throws BarcodeException if the configuration is invalid
+     */
+    public static BarcodeGeneratorSpec create(Configuration cfg) throws BarcodeException {
+        return create(cfg, BarcodeUtil.getInstance().getClassResolver());
+    }
+
+    /**
+     * Creates a spec from a barcode configuration. The configuration is copied,
+     * later changes to it don't affect the spec.
+     *
+     * @param cfg the barcode configuration
+     * @param classResolver the class resolver used to find the barcode
+     * implementation
+     * @return the immutable spec
+     * @throws BarcodeException if the configuration is invalid
+     */
+    public static BarcodeGeneratorSpec create(Configuration cfg,
+            BarcodeClassResolver classResolver) throws BarcodeException {
+        final Configuration copy = copy(cfg);
+        final BarcodeGenerator gen = BarcodeUtil.createBarcodeGenerator(copy, classResolver);
+        return new BarcodeGeneratorSpec(copy, gen);
+    }
+
+    /**
+     * Returns a builder for a spec.
+     *
+     * @param type the barcode type (ex. "code128", "datamatrix")
+     * @return the builder
+     */
+    public static Builder builder(String type) {
+        return new Builder(type);
+    }
+
+    /**
+     * Returns a canonical string representation of a configuration. Equivalent
+     * configurations (same elements, values and attributes regardless of their
+     * order) result in equal keys.
+     *
+     * @param cfg the configuration
+     * @return the key
+     */
+    public static String createKey(Configuration cfg) {
+        final StringBuilder sb = new StringBuilder(128);
+        appendKey(sb, cfg);
+        return sb.toString();
+    }
+
+    private static void appendKey(StringBuilder sb, Configuration cfg) {
+        sb.append(cfg.getName());
+        final String value = cfg.getValue(null);
+        if (value != null) {
+            sb.append('=');
+            appendQuoted(sb, value);
+        }
+        final String[] attributes = cfg.getAttributeNames();
+        Arrays.sort(attributes);
+        for (String name : attributes) {
+            sb.append(' ').append(name).append('=');
+            appendQuoted(sb, cfg.getAttribute(name, null));
+        }
+        final Configuration[] children = cfg.getChildren();
+        if (children.length > 0) {
+            Arrays.sort(children, BY_NAME);
+            sb.append('{');
+            for (int i = 0; i < children.length; i++) {
+                if (i > 0) {
+                    sb.append(';');
+                }
+                appendKey(sb, children[i]);
+            }
+            sb.append('}');
+        }
+    }
+
+    private static void appendQuoted(StringBuilder sb, String value) {
+        sb.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static Configuration copy(Configuration cfg) {
+        final Configuration res = new Configuration(cfg.getName(), cfg.getValue(null));
+        for (String name : cfg.getAttributeNames()) {
+            res.setAttribute(name, cfg.getAttribute(name, null));
+        }
+        for (Configuration child : cfg.getChildren()) {
+            res.addChild(copy(child));
+        }
+        return res;
+    }
+
+    /**
+     * Returns a copy of the configuration this spec was created from.
+     *
+     * @return the configuration
+     */
+    public Configuration getConfiguration() {
+        return copy(this.cfg);
+    }
+
+    /**
+     * Returns the canonical key of the configuration this spec was created from.
+     *
+     * @return the key
+     * @see #createKey(Configuration)
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    @Override
+    public void generateBarcode(CanvasProvider canvas, String msg) {
+        generator.generateBarcode(canvas, msg);
+    }
+
+    @Override
+    public int generateBarcodes(Iterable<String> msgs, CanvasProviderFactory canvases)
+            throws IOException {
+        return BarcodeBatch.generateBarcodes(generator, msgs, canvases);
+    }
+
+    @Override
+    public BarcodeDimension calcDimensions(String msg) {
+        return generator.calcDimensions(msg);
+    }
+
+    /**
+     * Specs are immutable, so this method always fails.
+     *
+     * @param cfg ignored
+     * @throws ConfigurationException always
+     */
+    @Override
+    public void configure(Configuration cfg) throws ConfigurationException {
+        throw new ConfigurationException("BarcodeGeneratorSpec is immutable");
+    }
+
+    @Override
+    public String getId() {
+        return generator.getId();
+    }
+
+    @Override
+    public Collection<String> getAdditionalNames() {
+        return additionalNames;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BarcodeGeneratorSpec)) {
+            return false;
+        }
+        return key.equals(((BarcodeGeneratorSpec) obj).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BarcodeGeneratorSpec[" + key + "]";
+    }
+
+    /**
+     * Builder for {@link BarcodeGeneratorSpec}. Settings are given with the
+     * element names of the barcode XML, nested elements are addressed with a
+     * '/' separated path (ex. "human-readable/placement").
+     */
+    public static final class Builder {
+
+        private final Configuration cfg;
+
+        private Builder(String type) {
+            this.cfg = new Configuration(type);
+        }
+
+        private Configuration getElement(String path) {
+            Configuration current = cfg;
+            for (String name : path.split("/")) {
+                Configuration child;
+                try {
+                    child = current.getChild(name, false);
+                } catch (ConfigurationException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (child == null) {
+                    child = new Configuration(name);
+                    current.addChild(child);
+                }
+                current = child;
+            }
+            return current;
+        }
+
+        /**
+         * Sets the value of a configuration element.
+         *
+         * @param path the element (ex. "module-width" or "human-readable/placement")
+         * @param value the value (ex. "0.21mm")
+         * @return this builder
+         */
+        public Builder set(String path, String value) {
+            getElement(path).setValue(value);
+            return this;
+        }
+
+        /**
+         * Sets an attribute of a configuration element.
+         *
+         * @param path the element (ex. "quiet-zone")
+         * @param name the attribute name (ex. "enabled")
+         * @param value the attribute value
+         * @return this builder
+         */
+        public Builder attribute(String path, String name, String value) {
+            getElement(path).setAttribute(name, value);
+            return this;
+        }
+
+        /**
+         * Creates the spec. The builder can be used further to create
+         * variations of the spec.
+         *
+         * @return the immutable spec
+         * @throws BarcodeException if the configuration is invalid
+         */
+        public BarcodeGeneratorSpec build() throws BarcodeException {
+            return create(cfg);
+        }
+    }
+}
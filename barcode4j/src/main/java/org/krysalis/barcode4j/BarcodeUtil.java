@@ -31,9 +31,14 @@ import com.github.mbhk.barcode4j.ConfigurationException;
  * Singleton to cache the BarcodeClassResolver. However, the class also contains
  * a set of static methods which you can use of you manage your own
  * BarcodeClassResolver.
+ * <p>
+ * Barcodes registered with a {@link BarcodeGeneratorFactory} at the
+ * {@link DefaultBarcodeClassResolver} are created by their factory, others
+ * are instantiated by reflection.
  *
  * @author Jeremias Maerki
- * @version $Id$
+ * @author mk
+ * @version 1.2
  */
 public class BarcodeUtil {
 
@@ -71,22 +76,36 @@ public class BarcodeUtil {
         return this.classResolver;
     }
 
-    private static Class<?> resolve(BarcodeClassResolver resolver, String type) {
-        Class<?> res = null;
+    private static boolean resolve(BarcodeClassResolver resolver, String type,
+            BarcodeCfgAndClass res) {
+        if (resolver.getClass() == DefaultBarcodeClassResolver.class) {
+            //resolve() isn't overridden, the factory maps the name the same way
+            //without loading the class by name
+            res.factory = ((DefaultBarcodeClassResolver) resolver).resolveFactory(type);
+            if (res.factory != null) {
+                return true;
+            }
+        }
         try {
-            res = resolver.resolve(type);
+            res.clazz = resolver.resolve(type);
         } catch (ClassNotFoundException cnfe) {
-            LOGGER.log(Level.INFO, null, cnfe);
+            //expected for the wrapping element of a barcode configuration
+            LOGGER.log(Level.FINE, null, cnfe);
         }
-        return res;
+        if (res.clazz != null && resolver instanceof DefaultBarcodeClassResolver) {
+            //a subclass may map the name differently, only the factory
+            //registered for the resolved class creates the right generator
+            res.factory = ((DefaultBarcodeClassResolver) resolver).getBarcodeFactory(
+                    res.clazz.getName());
+        }
+        return res.clazz != null;
     }
 
     private static BarcodeCfgAndClass resolveBarcodeCfgAndClass(Configuration cfg, BarcodeClassResolver resolver) throws BarcodeException {
         final BarcodeCfgAndClass res = new BarcodeCfgAndClass();
         //First, check Configuration directly
-        res.clazz = resolve(resolver, cfg.getName());
         res.cfg = null;
-        if (res.clazz == null) {
+        if (!resolve(resolver, cfg.getName(), res)) {
             //Second, check children
             final Configuration[] children = cfg.getChildren();
             if (children.length == 0) {
@@ -97,19 +116,24 @@ public class BarcodeUtil {
             boolean found = false;
             for (int i = 0; i < children.length && !found; ++i) {
                 res.cfg = children[i];
-                res.clazz = resolve(resolver, res.cfg.getName());
-                found = res.clazz != null;
+                found = resolve(resolver, res.cfg.getName(), res);
             }
         }
         return res;
     }
 
     private static class BarcodeCfgAndClass {
+        private BarcodeGeneratorFactory factory = null;
         private Class<?> clazz = null;
         private Configuration cfg = null;
     }
 
-    private static BarcodeGenerator instantiateBarcode(Class<?> clazz) throws BarcodeException {
+    private static BarcodeGenerator instantiateBarcode(BarcodeCfgAndClass cfgAndClass)
+            throws BarcodeException {
+        if (cfgAndClass.factory != null) {
+            return cfgAndClass.factory.newBarcodeGenerator();
+        }
+        final Class<?> clazz = cfgAndClass.clazz;
         if (clazz == null) {
             throw new BarcodeException("No known barcode configuration element found");
         }
@@ -148,7 +172,7 @@ public class BarcodeUtil {
             BarcodeClassResolver classResolver)
             throws BarcodeException {
         final BarcodeCfgAndClass cfgAndClass = resolveBarcodeCfgAndClass(cfg, classResolver);
-        final BarcodeGenerator gen = instantiateBarcode(cfgAndClass.clazz);
+        final BarcodeGenerator gen = instantiateBarcode(cfgAndClass);
         configure((ConfigurableBarcodeGenerator)gen, cfgAndClass.cfg == null ? cfg : cfgAndClass.cfg);
         return gen;
     }
@@ -22,10 +22,33 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.krysalis.barcode4j.impl.codabar.Codabar;
+import org.krysalis.barcode4j.impl.code128.Code128;
+import org.krysalis.barcode4j.impl.code128.EAN128;
+import org.krysalis.barcode4j.impl.code39.Code39;
+import org.krysalis.barcode4j.impl.datamatrix.DataMatrix;
+import org.krysalis.barcode4j.impl.fourstate.RoyalMailCBC;
+import org.krysalis.barcode4j.impl.fourstate.USPSIntelligentMail;
+import org.krysalis.barcode4j.impl.int2of5.ITF14;
+import org.krysalis.barcode4j.impl.int2of5.Interleaved2Of5;
+import org.krysalis.barcode4j.impl.pdf417.PDF417;
+import org.krysalis.barcode4j.impl.postnet.POSTNET;
+import org.krysalis.barcode4j.impl.upcean.EAN13;
+import org.krysalis.barcode4j.impl.upcean.EAN8;
+import org.krysalis.barcode4j.impl.upcean.UPCA;
+import org.krysalis.barcode4j.impl.upcean.UPCE;
+
 /**
  * This is a simple implementation of a BarcodeClassResolver.
+ * <p>
+ * The default implementations are also registered with a
+ * {@link BarcodeGeneratorFactory}, so {@link BarcodeUtil} creates them
+ * without loading classes by name or reflective instantiation. If a subclass
+ * overrides {@link #resolve(String)}, the factory is only used for the class
+ * the overridden method returns.
  *
- * @version $Id$
+ * @author mk
+ * @version 1.2
  */
 public class DefaultBarcodeClassResolver implements BarcodeClassResolver {
 
@@ -33,6 +56,8 @@ public class DefaultBarcodeClassResolver implements BarcodeClassResolver {
     private static final String EAN_128_CLASSNAME = "org.krysalis.barcode4j.impl.code128.EAN128";
     private Map<String, String> classes;
     private Set<String> mainIDs;
+    private final Map<String, BarcodeGeneratorFactory> factories
+            = new HashMap<String, BarcodeGeneratorFactory>();
 
     /**
      * Main constructor.
@@ -66,6 +91,77 @@ public class DefaultBarcodeClassResolver implements BarcodeClassResolver {
         registerBarcodeClass("pdf417", "org.krysalis.barcode4j.impl.pdf417.PDF417", true);
         registerBarcodeClass("datamatrix",
                 "org.krysalis.barcode4j.impl.datamatrix.DataMatrix", true);
+        registerDefaultFactories();
+    }
+
+    private void registerDefaultFactories() {
+        //class names instead of class literals, the classes are loaded on first use
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.codabar.Codabar",
+                new StandardFactory(StandardFactory.TYPE_CODABAR));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.code39.Code39",
+                new StandardFactory(StandardFactory.TYPE_CODE39));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.code128.Code128",
+                new StandardFactory(StandardFactory.TYPE_CODE128));
+        registerBarcodeFactory(EAN_128_CLASSNAME,
+                new StandardFactory(StandardFactory.TYPE_EAN128));
+        registerBarcodeFactory(INTL_2_OF_5_CLASSNAME,
+                new StandardFactory(StandardFactory.TYPE_INTL2OF5));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.int2of5.ITF14",
+                new StandardFactory(StandardFactory.TYPE_ITF14));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.upcean.EAN13",
+                new StandardFactory(StandardFactory.TYPE_EAN13));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.upcean.EAN8",
+                new StandardFactory(StandardFactory.TYPE_EAN8));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.upcean.UPCA",
+                new StandardFactory(StandardFactory.TYPE_UPCA));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.upcean.UPCE",
+                new StandardFactory(StandardFactory.TYPE_UPCE));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.postnet.POSTNET",
+                new StandardFactory(StandardFactory.TYPE_POSTNET));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.fourstate.RoyalMailCBC",
+                new StandardFactory(StandardFactory.TYPE_ROYAL_MAIL_CBC));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.fourstate.USPSIntelligentMail",
+                new StandardFactory(StandardFactory.TYPE_USPS_INTELLIGENT_MAIL));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.pdf417.PDF417",
+                new StandardFactory(StandardFactory.TYPE_PDF417));
+        registerBarcodeFactory("org.krysalis.barcode4j.impl.datamatrix.DataMatrix",
+                new StandardFactory(StandardFactory.TYPE_DATAMATRIX));
+    }
+
+    /**
+     * Registers a factory creating a barcode implementation without
+     * reflection.
+     * @param classname fully qualified classname of the implementation, as
+     * given to {@link #registerBarcodeClass(String, String)}
+     * @param factory the factory creating instances of the class
+     */
+    public final synchronized void registerBarcodeFactory(String classname,
+            BarcodeGeneratorFactory factory) {
+        this.factories.put(classname, factory);
+    }
+
+    /**
+     * Returns the factory of a barcode implementation class.
+     * @param classname fully qualified classname of the implementation
+     * @return the factory or null if the class has no factory
+     */
+    public synchronized BarcodeGeneratorFactory getBarcodeFactory(String classname) {
+        return this.factories.get(classname);
+    }
+
+    /**
+     * Returns the factory of a barcode implementation. The name is mapped
+     * like {@link #resolve(String)} of this class does, an overridden
+     * resolve method isn't consulted.
+     * @param name Name or Classname of a Barcode implementation class
+     * @return the factory or null if the implementation has no factory
+     */
+    public synchronized BarcodeGeneratorFactory resolveFactory(String name) {
+        String clazz = null;
+        if (this.classes != null) {
+            clazz = this.classes.get(name.toLowerCase());
+        }
+        return this.factories.get(clazz != null ? clazz : name);
     }
 
     /**
@@ -131,4 +227,70 @@ public class DefaultBarcodeClassResolver implements BarcodeClassResolver {
     public Collection<String> getBarcodeNames() {
         return Collections.unmodifiableCollection(this.mainIDs);
     }
+
+    /**
+     * Creates the default implementations, one class for all of them keeps
+     * the number of loaded classes low.
+     */
+    private static final class StandardFactory implements BarcodeGeneratorFactory {
+        private static final int TYPE_CODABAR = 0;
+        private static final int TYPE_CODE39 = 1;
+        private static final int TYPE_CODE128 = 2;
+        private static final int TYPE_EAN128 = 3;
+        private static final int TYPE_INTL2OF5 = 4;
+        private static final int TYPE_ITF14 = 5;
+        private static final int TYPE_EAN13 = 6;
+        private static final int TYPE_EAN8 = 7;
+        private static final int TYPE_UPCA = 8;
+        private static final int TYPE_UPCE = 9;
+        private static final int TYPE_POSTNET = 10;
+        private static final int TYPE_ROYAL_MAIL_CBC = 11;
+        private static final int TYPE_USPS_INTELLIGENT_MAIL = 12;
+        private static final int TYPE_PDF417 = 13;
+        private static final int TYPE_DATAMATRIX = 14;
+
+        private final int type;
+
+        private StandardFactory(int type) {
+            this.type = type;
+        }
+
+        @Override
+        public BarcodeGenerator newBarcodeGenerator() {
+            switch (type) {
+                case TYPE_CODABAR:
+                    return new Codabar();
+                case TYPE_CODE39:
+                    return new Code39();
+                case TYPE_CODE128:
+                    return new Code128();
+                case TYPE_EAN128:
+                    return new EAN128();
+                case TYPE_INTL2OF5:
+                    return new Interleaved2Of5();
+                case TYPE_ITF14:
+                    return new ITF14();
+                case TYPE_EAN13:
+                    return new EAN13();
+                case TYPE_EAN8:
+                    return new EAN8();
+                case TYPE_UPCA:
+                    return new UPCA();
+                case TYPE_UPCE:
+                    return new UPCE();
+                case TYPE_POSTNET:
+                    return new POSTNET();
+                case TYPE_ROYAL_MAIL_CBC:
+                    return new RoyalMailCBC();
+                case TYPE_USPS_INTELLIGENT_MAIL:
+                    return new USPSIntelligentMail();
+                case TYPE_PDF417:
+                    return new PDF417();
+                case TYPE_DATAMATRIX:
+                    return new DataMatrix();
+                default:
+                    throw new AssertionError(type);
+            }
+        }
+    }
 }
@@ -20,12 +20,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 import org.krysalis.barcode4j.BarcodeException;
@@ -34,7 +28,7 @@ import org.krysalis.barcode4j.BarcodeUtil;
 import org.krysalis.barcode4j.output.Orientation;
 import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
 import org.krysalis.barcode4j.output.eps.EPSCanvasProvider;
-import org.krysalis.barcode4j.output.svg.SVGCanvasProvider;
+import org.krysalis.barcode4j.output.svg.SVGStreamCanvasProvider;
 import org.krysalis.barcode4j.tools.MimeTypes;
 
 import com.github.mbhk.barcode4j.Configuration;
@@ -98,19 +92,9 @@ public class BarcodeTask extends Task {
 
             if (MimeTypes.MIME_SVG.equals(format)) {
                 // Create Barcode and render it to SVG
-                final SVGCanvasProvider svg = new SVGCanvasProvider(false, orientation);
+                final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(out, false, orientation);
                 gen.generateBarcode(svg, message);
-
-                // Serialize SVG barcode
-                try {
-                    final TransformerFactory factory = TransformerFactory.newInstance();
-                    final Transformer trans = factory.newTransformer();
-                    final Source src = new javax.xml.transform.dom.DOMSource(svg.getDOMFragment());
-                    final Result res = new javax.xml.transform.stream.StreamResult(out);
-                    trans.transform(src, res);
-                } catch (TransformerException te) {
-                    throw new BuildException("XML/XSLT library error", te);
-                }
+                svg.finish();
             } else if (MimeTypes.MIME_EPS.equals(format)) {
                 final EPSCanvasProvider eps = new EPSCanvasProvider(out, orientation);
                 gen.generateBarcode(eps, message);
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+/**
+ * One barcode of a batch: the message and the settings overriding those of
+ * the command line. Unset overrides are null.
+ *
+ * @author mk
+ * @version 1.0
+ */
+final class BatchEntry {
+
+    private final int number;
+    private final String message;
+    private final String name;
+    private final String symbol;
+    private final String format;
+    private final Integer dpi;
+
+    BatchEntry(int number, String message, String name, String symbol, String format,
+            Integer dpi) {
+        this.number = number;
+        this.message = message;
+        this.name = name;
+        this.symbol = symbol;
+        this.format = format;
+        this.dpi = dpi;
+    }
+
+    /** @return the number of the entry in the batch, starting with 1 */
+    int getNumber() {
+        return number;
+    }
+
+    /** @return the message to encode */
+    String getMessage() {
+        return message;
+    }
+
+    /** @return the output file name or null */
+    String getName() {
+        return name;
+    }
+
+    /** @return the barcode symbology or null */
+    String getSymbol() {
+        return symbol;
+    }
+
+    /** @return the output format or null */
+    String getFormat() {
+        return format;
+    }
+
+    /** @return the bitmap resolution or null */
+    Integer getDpi() {
+        return dpi;
+    }
+}
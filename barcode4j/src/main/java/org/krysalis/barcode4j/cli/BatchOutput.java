@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Destination of the barcodes of a batch: a directory, a ZIP or a TAR
+ * archive. Archives are streamed, entries are written in the order of the
+ * calls to {@link #write(String, byte[])}.
+ *
+ * @author mk
+ * @version 1.1
+ */
+abstract class BatchOutput implements Closeable {
+
+    /**
+     * Creates the output for a target. Targets ending with ".zip" or ".tar"
+     * are archives, other targets are directories, which are created if
+     * necessary.
+     *
+     * @param target the target file or directory
+     * @return the output
+     * @throws IOException in case of an I/O problem
+     */
+    static BatchOutput create(File target) throws IOException {
+        final String name = target.getName().toLowerCase(Locale.ENGLISH);
+        if (name.endsWith(".zip")) {
+            return new Zip(new FileOutputStream(target));
+        } else if (name.endsWith(".tar")) {
+            return new Tar(new FileOutputStream(target));
+        }
+        if (!target.isDirectory() && !target.mkdirs()) {
+            throw new IOException("Cannot create the output directory " + target);
+        }
+        return new Directory(target);
+    }
+
+    /**
+     * Writes one barcode.
+     *
+     * @param name the file name
+     * @param data the file content
+     * @throws IOException in case of an I/O problem
+     */
+    abstract void write(String name, byte[] data) throws IOException;
+
+    /**
+     * Checks that a file name stays inside the output.
+     *
+     * @param name the file name
+     */
+    static void checkName(String name) {
+        if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0
+                || ".".equals(name) || "..".equals(name)) {
+            throw new IllegalArgumentException("Invalid file name: " + name);
+        }
+    }
+
+    /**
+     * Checks that a file name can be written to this output. Subclasses add
+     * the limits of their format.
+     *
+     * @param name the file name
+     */
+    void checkEntryName(String name) {
+        checkName(name);
+    }
+
+    /** Writes the barcodes as files of a directory. */
+    static final class Directory extends BatchOutput {
+
+        private final File dir;
+
+        Directory(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        void write(String name, byte[] data) throws IOException {
+            checkName(name);
+            final OutputStream out = new FileOutputStream(new File(dir, name));
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+        }
+
+        @Override
+        public void close() {
+            //nop
+        }
+    }
+
+    /** Streams the barcodes into a ZIP archive. */
+    static final class Zip extends BatchOutput {
+
+        private final ZipOutputStream zip;
+
+        Zip(OutputStream out) {
+            this.zip = new ZipOutputStream(new BufferedOutputStream(out, 65536));
+        }
+
+        @Override
+        void write(String name, byte[] data) throws IOException {
+            checkName(name);
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(data);
+            zip.closeEntry();
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+
+    /** Streams the barcodes into a POSIX (ustar) TAR archive. */
+    static final class Tar extends BatchOutput {
+
+        private static final int BLOCK = 512;
+        private static final int NAME_LENGTH = 100;
+        private static final Charset UTF8 = Charset.forName("UTF-8");
+
+        private final OutputStream out;
+        private final byte[] header = new byte[BLOCK];
+        private final long mtime = System.currentTimeMillis() / 1000;
+
+        Tar(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 65536);
+        }
+
+        @Override
+        void checkEntryName(String name) {
+            super.checkEntryName(name);
+            if (name.getBytes(UTF8).length > NAME_LENGTH) {
+                throw new IllegalArgumentException("File name longer than " + NAME_LENGTH
+                        + " bytes, too long for TAR: " + name);
+            }
+        }
+
+        @Override
+        void write(String name, byte[] data) throws IOException {
+            checkEntryName(name);
+            final byte[] bytes = name.getBytes(UTF8);
+            Arrays.fill(header, (byte) 0);
+            System.arraycopy(bytes, 0, header, 0, bytes.length);
+            putOctal(0644, 100, 8);
+            putOctal(0, 108, 8);
+            putOctal(0, 116, 8);
+            putOctal(data.length, 124, 12);
+            putOctal(mtime, 136, 12);
+            header[156] = '0';
+            putASCII("ustar", 257);
+            putASCII("00", 263);
+            //the checksum is calculated with spaces in its field
+            Arrays.fill(header, 148, 156, (byte) ' ');
+            long checksum = 0;
+            for (byte b : header) {
+                checksum += b & 0xFF;
+            }
+            putOctal(checksum, 148, 7);
+            out.write(header);
+            out.write(data);
+            final int padding = (BLOCK - data.length % BLOCK) % BLOCK;
+            for (int i = 0; i < padding; i++) {
+                out.write(0);
+            }
+        }
+
+        /** Writes a zero-terminated octal number filling the field. */
+        private void putOctal(long value, int offset, int length) {
+            final String octal = Long.toOctalString(value);
+            final int digits = length - 1;
+            if (octal.length() > digits) {
+                throw new IllegalArgumentException("Value too large for TAR: " + value);
+            }
+            for (int i = 0; i < digits; i++) {
+                final int j = i - (digits - octal.length());
+                header[offset + i] = (byte) (j < 0 ? '0' : octal.charAt(j));
+            }
+            header[offset + digits] = 0;
+        }
+
+        private void putASCII(String s, int offset) {
+            for (int i = 0; i < s.length(); i++) {
+                header[offset + i] = (byte) s.charAt(i);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                //two empty blocks end the archive
+                out.write(new byte[BLOCK * 2]);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
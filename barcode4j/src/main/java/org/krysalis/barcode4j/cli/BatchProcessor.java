@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.krysalis.barcode4j.BarcodeException;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.BarcodeGeneratorSpec;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.MimeTypes;
+
+/**
+ * Renders the barcodes of a batch on a thread pool. The barcodes are written
+ * to the {@link BatchOutput} in input order by the calling thread. At most a
+ * few barcodes per thread are held in memory, reading the input waits for the
+ * output when the workers are ahead.
+ * <p>
+ * A barcode that cannot be generated is logged and skipped, the batch goes on.
+ * This includes malformed input lines, file names the output cannot hold and
+ * file names used twice in the batch.
+ *
+ * @author mk
+ * @version 1.2
+ */
+class BatchProcessor {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchProcessor.class.getName());
+
+    /** rendered barcodes waiting to be written, per thread */
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final BarcodeGenerator generator;
+    private final String format;
+    private final int dpi;
+    private final boolean bw;
+    private final int threads;
+    private final Map<String, BarcodeGenerator> symbols = new HashMap<String, BarcodeGenerator>();
+    private final Set<String> names = new HashSet<String>();
+    private int written;
+    private int failed;
+
+    /**
+     * Creates a new processor.
+     *
+     * @param generator the barcode generator for entries without a symbology,
+     * it must be thread-safe
+     * @param format the default output format (MIME type)
+     * @param dpi the default resolution of bitmaps
+     * @param bw true for monochrome bitmaps
+     * @param threads the number of rendering threads
+     */
+    BatchProcessor(BarcodeGenerator generator, String format, int dpi, boolean bw, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.generator = generator;
+        this.format = format;
+        this.dpi = dpi;
+        this.bw = bw;
+        this.threads = threads;
+    }
+
+    /**
+     * Renders all entries of a batch.
+     *
+     * @param reader the batch input
+     * @param output the batch output
+     * @throws IOException in case of an I/O problem
+     */
+    void process(BatchReader reader, BatchOutput output) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread t = new Thread(r, "barcode4j-batch");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        final Deque<Pending> pending = new ArrayDeque<Pending>();
+        try {
+            while (true) {
+                final BatchEntry entry;
+                try {
+                    entry = reader.next();
+                } catch (BatchReader.MalformedLineException e) {
+                    fail(e.getEntry(), e);
+                    continue;
+                }
+                if (entry == null) {
+                    break;
+                }
+                final Pending p = submit(executor, entry, output);
+                if (p != null) {
+                    pending.add(p);
+                }
+                if (pending.size() >= threads * PENDING_PER_THREAD) {
+                    write(pending.remove(), output);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove(), output);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Pending submit(ExecutorService executor, BatchEntry entry, BatchOutput output) {
+        final BarcodeGenerator gen;
+        try {
+            gen = getGenerator(entry.getSymbol());
+        } catch (BarcodeException e) {
+            fail(entry, e);
+            return null;
+        }
+        final String mime = entry.getFormat() != null
+                ? MimeTypes.expandFormat(entry.getFormat()) : format;
+        final int resolution = entry.getDpi() != null ? entry.getDpi().intValue() : dpi;
+        if (resolution < RenderDaemon.MIN_DPI || resolution > RenderDaemon.MAX_DPI) {
+            fail(entry, new IllegalArgumentException("The resolution must be between "
+                    + RenderDaemon.MIN_DPI + " and " + RenderDaemon.MAX_DPI + "dpi: " + resolution));
+            return null;
+        }
+        final String name = entry.getName() != null ? entry.getName()
+                : String.format("%06d.%s", entry.getNumber(), getExtension(mime));
+        try {
+            output.checkEntryName(name);
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate file name: " + name);
+            }
+        } catch (IllegalArgumentException e) {
+            fail(entry, e);
+            return null;
+        }
+        final String message = entry.getMessage();
+        final Future<byte[]> future = executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+                Main.render(message, gen, out, Orientation.ZERO, mime, resolution, bw);
+                return out.toByteArray();
+            }
+        });
+        return new Pending(entry, name, future);
+    }
+
+    private BarcodeGenerator getGenerator(String symbol) throws BarcodeException {
+        if (symbol == null) {
+            return generator;
+        }
+        BarcodeGenerator gen = symbols.get(symbol);
+        if (gen == null) {
+            gen = BarcodeGeneratorSpec.create(ConfigurationBuilder.createDefaultConfiguration(symbol));
+            symbols.put(symbol, gen);
+        }
+        return gen;
+    }
+
+    private void write(Pending p, BatchOutput output) throws IOException {
+        final byte[] data;
+        try {
+            data = p.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering the batch", e);
+        } catch (ExecutionException e) {
+            fail(p.entry, e.getCause());
+            return;
+        }
+        output.write(p.name, data);
+        written++;
+    }
+
+    private void fail(BatchEntry entry, Throwable t) {
+        failed++;
+        LOGGER.log(Level.WARNING, "Barcode " + entry.getNumber() + " (" + entry.getMessage()
+                + ") could not be generated: " + t.getMessage(), t);
+    }
+
+    /**
+     * Returns the file extension for an output format.
+     *
+     * @param mime the output format (MIME type)
+     * @return the extension
+     */
+    static String getExtension(String mime) {
+        if (MimeTypes.MIME_SVG.equals(mime)) {
+            return "svg";
+        } else if (MimeTypes.MIME_EPS.equals(mime)) {
+            return "eps";
+        } else if (MimeTypes.MIME_JPEG.equals(mime)) {
+            return "jpg";
+        } else if (MimeTypes.MIME_PNG.equals(mime)) {
+            return "png";
+        } else if (MimeTypes.MIME_TIFF.equals(mime)) {
+            return "tif";
+        } else if (MimeTypes.MIME_GIF.equals(mime)) {
+            return "gif";
+        } else if (MimeTypes.MIME_BMP.equals(mime)) {
+            return "bmp";
+        }
+        final int slash = mime.lastIndexOf('/');
+        return slash >= 0 ? mime.substring(slash + 1) : mime;
+    }
+
+    /** @return the number of barcodes written */
+    int getWrittenCount() {
+        return written;
+    }
+
+    /** @return the number of barcodes that could not be generated */
+    int getFailedCount() {
+        return failed;
+    }
+
+    private static final class Pending {
+        final BatchEntry entry;
+        final String name;
+        final Future<byte[]> future;
+
+        Pending(BatchEntry entry, String name, Future<byte[]> future) {
+            this.entry = entry;
+            this.name = name;
+            this.future = future;
+        }
+    }
+}
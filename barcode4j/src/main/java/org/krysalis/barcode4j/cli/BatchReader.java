@@ -0,0 +1,404 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the entries of a batch. Three input formats are supported:
+ * <ul>
+ * <li>{@link InputFormat#LINES}: every line is a message.</li>
+ * <li>{@link InputFormat#CSV}: comma-separated values with a header line
+ * naming the columns, quoted values may contain commas and doubled quotes but
+ * no line breaks.</li>
+ * <li>{@link InputFormat#JSON}: JSON lines, every line holds a flat object.</li>
+ * </ul>
+ * CSV columns and JSON keys are "message" (required), "name", "symbol",
+ * "format" and "dpi". Empty lines are skipped.
+ * <p>
+ * A malformed line is reported with a {@link MalformedLineException}, the
+ * next call continues with the following line. A malformed CSV header ends
+ * the batch.
+ *
+ * @author mk
+ * @version 1.1
+ */
+class BatchReader implements Closeable {
+
+    /** The input formats. */
+    enum InputFormat {
+        /** one message per line */
+        LINES,
+        /** CSV with a header line */
+        CSV,
+        /** JSON lines */
+        JSON;
+
+        /**
+         * Returns the input format for a format name or guesses it from the
+         * extension of the input file.
+         *
+         * @param name the format name or null
+         * @param filename the input file name
+         * @return the input format
+         */
+        static InputFormat select(String name, String filename) {
+            if (name != null) {
+                try {
+                    return valueOf(name.toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown input format: " + name, e);
+                }
+            }
+            final String lower = filename.toLowerCase(Locale.ENGLISH);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            } else if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")
+                    || lower.endsWith(".json")) {
+                return JSON;
+            }
+            return LINES;
+        }
+    }
+
+    private static final String MESSAGE = "message";
+    private static final String NAME = "name";
+    private static final String SYMBOL = "symbol";
+    private static final String FORMAT = "format";
+    private static final String DPI = "dpi";
+    private static final String[] KEYS = {MESSAGE, NAME, SYMBOL, FORMAT, DPI};
+
+    private final BufferedReader reader;
+    private final InputFormat format;
+    private String[] columns;
+    private int lineNumber;
+    private int count;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param reader the batch input
+     * @param format the input format
+     */
+    BatchReader(Reader reader, InputFormat format) {
+        this.reader = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        this.format = format;
+    }
+
+    /**
+     * Reported for a line that cannot be parsed. The line counts as an entry
+     * of the batch, so the entries after it keep their numbers.
+     */
+    static final class MalformedLineException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient BatchEntry entry;
+
+        MalformedLineException(BatchEntry entry, String msg) {
+            super(msg);
+            this.entry = entry;
+        }
+
+        /** @return the entry with the raw line as message */
+        BatchEntry getEntry() {
+            return entry;
+        }
+    }
+
+    /**
+     * Reads the next entry.
+     *
+     * @return the entry or null at the end of the input
+     * @throws MalformedLineException if the line cannot be parsed
+     * @throws IOException in case of an I/O problem or a malformed CSV header
+     */
+    BatchEntry next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                //byte order mark
+                line = line.substring(1);
+            }
+        } while (line.trim().isEmpty() || (format == InputFormat.CSV && readHeader(line)));
+
+        final int number = ++count;
+        if (format == InputFormat.LINES) {
+            return new BatchEntry(number, line, null, null, null, null);
+        }
+        try {
+            return parseEntry(number, line);
+        } catch (IOException e) {
+            throw new MalformedLineException(
+                    new BatchEntry(number, line, null, null, null, null), e.getMessage());
+        }
+    }
+
+    private BatchEntry parseEntry(int number, String line) throws IOException {
+        final Map<String, String> values = format == InputFormat.CSV ? parseCSV(line) : parseJSON(line);
+        final String message = values.get(MESSAGE);
+        if (message == null) {
+            throw error("No message");
+        }
+        Integer dpi = null;
+        if (values.get(DPI) != null && !values.get(DPI).isEmpty()) {
+            try {
+                dpi = Integer.valueOf(values.get(DPI));
+            } catch (NumberFormatException e) {
+                throw error("Invalid dpi: " + values.get(DPI));
+            }
+        }
+        return new BatchEntry(number, message, emptyToNull(values.get(NAME)),
+                emptyToNull(values.get(SYMBOL)), emptyToNull(values.get(FORMAT)), dpi);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private IOException error(String msg) {
+        return new IOException("Line " + lineNumber + ": " + msg);
+    }
+
+    private static void checkKey(String key) throws IOException {
+        for (String known : KEYS) {
+            if (known.equals(key)) {
+                return;
+            }
+        }
+        throw new IOException("Unknown column: " + key);
+    }
+
+    /** @return true if the line is the header line */
+    private boolean readHeader(String line) throws IOException {
+        if (columns != null) {
+            return false;
+        }
+        final List<String> names = splitCSV(line);
+        columns = new String[names.size()];
+        boolean hasMessage = false;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.get(i).trim().toLowerCase(Locale.ENGLISH);
+            checkKey(columns[i]);
+            hasMessage |= MESSAGE.equals(columns[i]);
+        }
+        if (!hasMessage) {
+            throw error("The header has no message column");
+        }
+        return true;
+    }
+
+    private Map<String, String> parseCSV(String line) throws IOException {
+        final List<String> fields = splitCSV(line);
+        if (fields.size() > columns.length) {
+            throw error("Too many values");
+        }
+        final Map<String, String> values = new HashMap<String, String>();
+        for (int i = 0; i < fields.size(); i++) {
+            values.put(columns[i], fields.get(i));
+        }
+        return values;
+    }
+
+    private List<String> splitCSV(String line) throws IOException {
+        final List<String> fields = new ArrayList<String>();
+        final StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (true) {
+            sb.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw error("Unterminated quoted value");
+                    }
+                    final char c = line.charAt(i++);
+                    if (c != '"') {
+                        sb.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw error("Unexpected character after quoted value");
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    sb.append(line.charAt(i++));
+                }
+            }
+            fields.add(sb.toString());
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++;
+        }
+    }
+
+    private Map<String, String> parseJSON(String line) throws IOException {
+        final JSONParser parser = new JSONParser(line);
+        final Map<String, String> values = new HashMap<String, String>();
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                final String key = parser.readString();
+                checkKey(key);
+                parser.expect(':');
+                values.put(key, parser.readValue());
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return values;
+    }
+
+    /** @return the number of lines read so far */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parser for a flat JSON object. Numbers and literals are returned as
+     * their text, null as null.
+     */
+    private final class JSONParser {
+
+        private final String text;
+        private int pos;
+
+        JSONParser(String text) {
+            this.text = text;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) throws IOException {
+            if (!consume(c)) {
+                throw error("'" + c + "' expected at column " + (pos + 1));
+            }
+        }
+
+        void expectEnd() throws IOException {
+            skipSpace();
+            if (pos < text.length()) {
+                throw error("Unexpected character at column " + (pos + 1));
+            }
+        }
+
+        String readValue() throws IOException {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == '"') {
+                return readString();
+            }
+            final int start = pos;
+            while (pos < text.length() && text.charAt(pos) != ',' && text.charAt(pos) != '}'
+                    && !Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            final String value = text.substring(start, pos);
+            if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[') {
+                throw error("Only strings, numbers and literals are supported at column "
+                        + (start + 1));
+            }
+            return "null".equals(value) ? null : value;
+        }
+
+        String readString() throws IOException {
+            expect('"');
+            final StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                final char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                } else if (c != '\\') {
+                    sb.append(c);
+                } else if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                } else {
+                    final char e = text.charAt(pos++);
+                    switch (e) {
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -16,19 +16,22 @@
 package org.krysalis.barcode4j.cli;
 
 import java.awt.image.BufferedImage;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -40,12 +43,13 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.krysalis.barcode4j.BarcodeException;
 import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.BarcodeGeneratorSpec;
 import org.krysalis.barcode4j.BarcodeUtil;
 import org.krysalis.barcode4j.output.Orientation;
 import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
 import org.krysalis.barcode4j.output.bitmap.BitmapEncoderRegistry;
 import org.krysalis.barcode4j.output.eps.EPSCanvasProvider;
-import org.krysalis.barcode4j.output.svg.SVGCanvasProvider;
+import org.krysalis.barcode4j.output.svg.SVGStreamCanvasProvider;
 import org.krysalis.barcode4j.tools.MimeTypes;
 
 import com.github.mbhk.barcode4j.Configuration;
@@ -55,7 +59,7 @@ import com.github.mbhk.barcode4j.Configuration;
  *
  * @author Jeremias Maerki
  * @author mk
- * @version 1.3
+ * @version 1.6
  */
 public class Main {
 
@@ -66,6 +70,10 @@ public class Main {
      * stdout for this application (default: System.out)
      */
     private PrintStream stdout = System.out;
+    /**
+     * stdin for batches (default: System.in)
+     */
+    private InputStream stdin = System.in;
 
     private ExitHandler exitHandler = new DefaultExitHandler();
     private Options options;
@@ -85,6 +93,15 @@ public class Main {
         stdout = out;
     }
 
+    /**
+     * Sets the stream batches are read from with "-b -".
+     *
+     * @param in the input stream
+     */
+    public void setInStream(InputStream in) {
+        stdin = in;
+    }
+
     /**
      * Set an alternative exit handler here.
      *
@@ -102,6 +119,24 @@ public class Main {
 
             //Message
             String[] msg = res.getArgs();
+            if (res.hasOption("daemon")) {
+                if (msg.length > 0) {
+                    throw new ParseException("No message allowed in daemon mode");
+                }
+                return res;
+            }
+            if (res.hasOption("port")) {
+                throw new ParseException("--port requires --daemon");
+            }
+            if (res.hasOption("b")) {
+                if (msg.length > 0) {
+                    throw new ParseException("No message allowed in batch mode");
+                }
+                if (!res.hasOption("o")) {
+                    throw new ParseException("Batch mode requires an output directory or archive (-o)");
+                }
+                return res;
+            }
             if (msg.length == 0) {
                 throw new ParseException("No message");
             }
@@ -133,6 +168,14 @@ public class Main {
         if (cl == null) {
             return;
         }
+        if (cl.hasOption("daemon")) {
+            handleDaemon(cl);
+            return;
+        }
+        if (cl.hasOption("b")) {
+            handleBatch(cl);
+            return;
+        }
 
         final String message = cl.getArgs()[0];
 
@@ -161,18 +204,11 @@ public class Main {
             final BarcodeGenerator gen = util.createBarcodeGenerator(
                     getConfiguration(cl));
 
-            final boolean renderRes;
-            if (MimeTypes.MIME_SVG.equals(format)) {
-                renderRes = renderSvg(message, gen, out, orientation);
-            } else if (MimeTypes.MIME_EPS.equals(format)) {
-                renderRes = renderEps(message, gen, out, orientation);
-            } else {
-                renderRes = renderBitmap(message, gen, out, orientation, format, Integer.parseInt(cl.getOptionValue('d', "300")), cl.hasOption("bw"));
-            }
-
-            if (!renderRes) {
-                throw new IOException("Failure while writing BarcodeImage.");
-            }
+            final int dpi = Integer.parseInt(cl.getOptionValue('d', "300"));
+            final boolean bw = cl.hasOption("bw");
+            LOGGER.log(Level.FINE, "Resolution: {0}dpi", dpi);
+            LOGGER.log(Level.FINE, bw ? "Black/white image (1-bit)" : "Grayscale image (8-bit) with anti-aliasing");
+            render(message, gen, out, orientation, format, dpi, bw);
             LOGGER.info("done.");
             exitHandler.successfulExit(this);
         } catch (IOException ioe) {
@@ -194,6 +230,107 @@ public class Main {
         }
     }
 
+    /**
+     * Renders the barcodes of a batch file.
+     */
+    private void handleBatch(CommandLine cl) {
+        if (cl.hasOption('v')) {
+            Logger.getGlobal().setLevel(Level.ALL);
+        }
+        printAppHeader();
+        final String input = cl.getOptionValue("b");
+        BatchReader reader = null;
+        BatchOutput output = null;
+        try {
+            final BatchReader.InputFormat inputFormat = BatchReader.InputFormat.select(
+                    cl.getOptionValue("input-format"), input);
+            final int threads = Integer.parseInt(cl.getOptionValue('t',
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            final String format = MimeTypes.expandFormat(cl.getOptionValue("f", MimeTypes.MIME_SVG));
+            final int dpi = Integer.parseInt(cl.getOptionValue('d', "300"));
+            final BarcodeGenerator gen = BarcodeGeneratorSpec.create(getConfiguration(cl));
+            final BatchProcessor processor = new BatchProcessor(gen, format, dpi, cl.hasOption("bw"), threads);
+
+            final InputStream in = "-".equals(input) ? stdin : new FileInputStream(input);
+            reader = new BatchReader(new InputStreamReader(in, "UTF-8"), inputFormat);
+            output = BatchOutput.create(new File(cl.getOptionValue("o")));
+            LOGGER.log(Level.INFO, "Generating {0} with {1} threads...", new Object[]{format, threads});
+            processor.process(reader, output);
+            final BatchOutput finished = output;
+            output = null;
+            finished.close();
+            LOGGER.log(Level.INFO, "{0} barcodes written.", processor.getWrittenCount());
+            if (processor.getFailedCount() > 0) {
+                exitHandler.failureExit(this, String.format("%d of %d barcodes could not be generated",
+                        processor.getFailedCount(),
+                        processor.getFailedCount() + processor.getWrittenCount()), null, -6);
+            } else {
+                exitHandler.successfulExit(this);
+            }
+        } catch (IOException ioe) {
+            exitHandler.failureExit(this,
+                    "Error processing the batch: " + ioe.getMessage(), ioe, -5);
+        } catch (IllegalArgumentException e) {
+            exitHandler.failureExit(this,
+                    "Error processing the batch", e, -6);
+        } catch (BarcodeException be) {
+            exitHandler.failureExit(this,
+                    "Error generating the barcode", be, -3);
+        } finally {
+            close(reader);
+            close(output);
+        }
+    }
+
+    /**
+     * Renders barcodes on request until stdin ends or, with a port, until the
+     * process is stopped.
+     */
+    private void handleDaemon(CommandLine cl) {
+        if (cl.hasOption('v')) {
+            Logger.getGlobal().setLevel(Level.ALL);
+        }
+        printAppHeader();
+        try {
+            final String format = MimeTypes.expandFormat(cl.getOptionValue("f", MimeTypes.MIME_SVG));
+            final int dpi = Integer.parseInt(cl.getOptionValue('d', "300"));
+            final BarcodeGenerator gen = BarcodeGeneratorSpec.create(getConfiguration(cl));
+            final RenderDaemon daemon = new RenderDaemon(gen, format, dpi, cl.hasOption("bw"));
+            if (cl.hasOption("port")) {
+                final int threads = Integer.parseInt(cl.getOptionValue('t',
+                        String.valueOf(Runtime.getRuntime().availableProcessors())));
+                final ServerSocket server = new ServerSocket(
+                        Integer.parseInt(cl.getOptionValue("port")), 50, InetAddress.getLoopbackAddress());
+                LOGGER.log(Level.INFO, "Listening on port {0}", String.valueOf(server.getLocalPort()));
+                daemon.serve(server, threads);
+            } else {
+                LOGGER.log(Level.INFO, "Reading requests from stdin...");
+                final int count = daemon.serve(stdin, stdout);
+                LOGGER.log(Level.INFO, "{0} requests answered.", count);
+            }
+            exitHandler.successfulExit(this);
+        } catch (IOException ioe) {
+            exitHandler.failureExit(this,
+                    "Error in daemon mode: " + ioe.getMessage(), ioe, -5);
+        } catch (IllegalArgumentException e) {
+            exitHandler.failureExit(this,
+                    "Error in daemon mode", e, -6);
+        } catch (BarcodeException be) {
+            exitHandler.failureExit(this,
+                    "Error generating the barcode", be, -3);
+        }
+    }
+
+    private void close(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Error closing the batch", ex);
+            }
+        }
+    }
+
     private Options getOptions() {
         if (options == null) {
             this.options = new Options();
@@ -225,6 +362,27 @@ public class Main {
             options.addOption(Option.builder().longOpt("bw")
                     .desc("(for bitmaps) create monochrome (1-bit) image instead of grayscale (8-bit)").build());
 
+            // Batch mode
+            options.addOption(Option.builder("b").longOpt("batch").hasArg().argName("file")
+                    .desc("render all messages of a file (- for stdin) into the directory, ZIP or TAR"
+                            + " archive given with -o").build());
+            options.addOption(Option.builder("t").longOpt("threads").hasArg().argName("integer")
+                    .type(Integer.class)
+                    .desc(String.format("(for batches and the daemon) the number of rendering threads%nDefault: number of processors"))
+                    .build());
+            options.addOption(Option.builder().longOpt("input-format").hasArg().argName("format")
+                    .desc(String.format("(for batches) lines, csv or json (JSON lines)%nDefault: by file extension, lines"))
+                    .build());
+
+            // Daemon mode
+            options.addOption(Option.builder().longOpt("daemon")
+                    .desc("render barcodes on request: length-prefixed JSON requests on stdin,"
+                            + " length-prefixed responses on stdout").build());
+            options.addOption(Option.builder().longOpt("port").hasArg().argName("integer")
+                    .type(Integer.class)
+                    .desc("(for the daemon) accept connections on this port of the loopback interface"
+                            + " instead of stdin").build());
+
         }
         return this.options;
     }
@@ -293,11 +451,23 @@ public class Main {
         help.printHelp(writer, HelpFormatter.DEFAULT_WIDTH,
                 "java -jar barcode4j.jar "
                 + "[-v] [[-s <symbology>]|[-c <cfg-file>]] [-f <format>] "
-                + "[-d <dpi>] [-bw] [-o <file>] <message>",
+                + "[-d <dpi>] [-bw] [-o <file>] <message>" + System.getProperty("line.separator")
+                + "       java -jar barcode4j.jar "
+                + "[-v] [[-s <symbology>]|[-c <cfg-file>]] [-f <format>] "
+                + "[-d <dpi>] [-bw] [-t <threads>] [--input-format <format>] -b <file> -o <dir|zip|tar>"
+                + System.getProperty("line.separator")
+                + "       java -jar barcode4j.jar "
+                + "[-v] [[-s <symbology>]|[-c <cfg-file>]] [-f <format>] "
+                + "[-d <dpi>] [-bw] [-t <threads>] --daemon [--port <port>]",
                 null,
                 getOptions(),
                 HelpFormatter.DEFAULT_LEFT_PAD, HelpFormatter.DEFAULT_DESC_PAD,
-                getAvailableFormatsHelp(computeAdditionalMimes()) + "\n\nIf -o is omitted the output is written to stdout.");
+                getAvailableFormatsHelp(computeAdditionalMimes()) + "\n\nIf -o is omitted the output is written to stdout."
+                + "\n\nBatch files hold one message per line, CSV with a header line or JSON lines."
+                + "\nCSV columns and JSON keys: message, name, symbol, format, dpi."
+                + "\n\nDaemon requests are a 4 byte big-endian length and a JSON object with the keys"
+                + "\nmessage, symbol, format and dpi. Responses are a 4 byte length and the barcode,"
+                + "\nor a negative length -n and an error message of n bytes.");
         writer.flush();
     }
 
@@ -326,48 +496,35 @@ public class Main {
         return formats.toString();
     }
 
-    private boolean renderBitmap(String message, BarcodeGenerator gen, OutputStream out, Orientation orientation, String format, int dpi, boolean bw) {
-        final BitmapCanvasProvider bitmap;
-        boolean res = true;
-        final boolean antiAlias = !bw;
-        final int imageType = bw ? BufferedImage.TYPE_BYTE_BINARY : BufferedImage.TYPE_BYTE_GRAY;
-        LOGGER.log(Level.FINE, "Resolution: {}dpi", dpi);
-        LOGGER.log(Level.FINE, bw ? "Black/white image (1-bit)" : "Grayscale image (8-bit) with anti-aliasing");
-        LOGGER.log(Level.FINE, "AntiAlias: {}, ImageType: {}", new Object[]{antiAlias, imageType});
-
-        bitmap = new BitmapCanvasProvider(out, format, dpi, imageType, antiAlias, orientation);
-        gen.generateBarcode(bitmap, message);
-        try {
-            bitmap.finish();
-        } catch (IOException e) {
-            res = false;
-            LOGGER.log(Level.SEVERE, "Error rendering Barcode in Bitmap format " + format + ".", e);
-        }
-        return res;
-    }
-
-    private boolean renderEps(String message, BarcodeGenerator gen, OutputStream out, Orientation orientation) {
-        boolean res = true;
-        try {
+    /**
+     * Writes one barcode.
+     *
+     * @param message the message to encode
+     * @param gen the barcode generator
+     * @param out the stream to write the barcode to
+     * @param orientation the barcode orientation
+     * @param format the output format (MIME type)
+     * @param dpi the resolution of bitmaps
+     * @param bw true for monochrome bitmaps
+     * @throws IOException in case of an I/O problem
+     */
+    static void render(String message, BarcodeGenerator gen, OutputStream out,
+            Orientation orientation, String format, int dpi, boolean bw) throws IOException {
+        if (MimeTypes.MIME_SVG.equals(format)) {
+            final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(out, true, orientation);
+            gen.generateBarcode(svg, message);
+            svg.finish();
+        } else if (MimeTypes.MIME_EPS.equals(format)) {
             final EPSCanvasProvider eps = new EPSCanvasProvider(out, orientation);
             gen.generateBarcode(eps, message);
             eps.finish();
-        } catch (IOException e) {
-            res = false;
-            LOGGER.log(Level.SEVERE, "Error rendering Barcode in EPS format.", e);
-        }
-        return res;
-    }
-
-    private boolean renderSvg(String message, BarcodeGenerator gen, OutputStream out, Orientation orientation) {
-        final SVGCanvasProvider svg = new SVGCanvasProvider(true, orientation);
-        gen.generateBarcode(svg, message);
-        try {
-            TransformerFactory.newInstance().newTransformer()
-                    .transform(new javax.xml.transform.dom.DOMSource(svg.getDOMFragment()), new javax.xml.transform.stream.StreamResult(out));
-        } catch (TransformerException te) {
-            exitHandler.failureExit(this, "XML/XSLT library error", te, -6);
+        } else {
+            final boolean antiAlias = !bw;
+            final int imageType = bw ? BufferedImage.TYPE_BYTE_BINARY : BufferedImage.TYPE_BYTE_GRAY;
+            final BitmapCanvasProvider bitmap = new BitmapCanvasProvider(
+                    out, format, dpi, imageType, antiAlias, orientation);
+            gen.generateBarcode(bitmap, message);
+            bitmap.finish();
         }
-        return true;
     }
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.krysalis.barcode4j.BarcodeException;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.BarcodeGeneratorSpec;
+import org.krysalis.barcode4j.output.Orientation;
+import org.krysalis.barcode4j.tools.MimeTypes;
+
+/**
+ * Renders barcodes on request for other processes, so they don't pay the JVM
+ * start-up per barcode. Requests and responses are frames: a 4 byte length
+ * (big-endian) followed by the data.
+ * <ul>
+ * <li>A request holds a JSON object in UTF-8 with the keys of the JSON lines
+ * batch input: "message" (required), "symbol", "format" and "dpi".</li>
+ * <li>A response with a positive or zero length holds the barcode. A negative
+ * length -n is followed by an error message of n bytes in UTF-8.</li>
+ * </ul>
+ * Frames are exchanged over stdin/stdout or over connections to a socket on
+ * the loopback interface, each connection may send any number of requests.
+ * Generators are created once per symbology and shared by all connections.
+ * <p>
+ * Every connection has its own thread, up to {@link #MAX_CONNECTIONS}. Further
+ * connections get an error frame and are closed, connections idle for longer
+ * than the read timeout are closed. Rendering is limited to the given number
+ * of threads, so idle or slow clients don't hold up the others.
+ *
+ * @author mk
+ * @version 1.1
+ */
+class RenderDaemon implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(RenderDaemon.class.getName());
+
+    /** the largest request accepted */
+    static final int MAX_REQUEST = 1024 * 1024;
+
+    /** the maximum number of open connections */
+    static final int MAX_CONNECTIONS = 256;
+
+    /** the default time a connection may wait for a request (ms) */
+    static final int DEFAULT_READ_TIMEOUT = 60000;
+
+    /** the lowest resolution accepted (dpi) */
+    static final int MIN_DPI = 10;
+
+    /** the highest resolution accepted (dpi) */
+    static final int MAX_DPI = 2400;
+
+    private static final String UTF8 = "UTF-8";
+
+    private final BarcodeGenerator generator;
+    private final String format;
+    private final int dpi;
+    private final boolean bw;
+    private final ConcurrentMap<String, BarcodeGenerator> generators
+            = new ConcurrentHashMap<String, BarcodeGenerator>();
+    private volatile ServerSocket server;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+
+    /**
+     * Creates a new daemon.
+     *
+     * @param generator the barcode generator for requests without a
+     * symbology, it must be thread-safe
+     * @param format the default output format (MIME type)
+     * @param dpi the default resolution of bitmaps
+     * @param bw true for monochrome bitmaps
+     */
+    RenderDaemon(BarcodeGenerator generator, String format, int dpi, boolean bw) {
+        this.generator = generator;
+        this.format = format;
+        this.dpi = dpi;
+        this.bw = bw;
+    }
+
+    /**
+     * Sets the time a connection may wait for the next request or for the
+     * rest of a request before it is closed.
+     *
+     * @param millis the read timeout in milliseconds, 0 for no timeout
+     */
+    void setReadTimeout(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("The read timeout must not be negative");
+        }
+        this.readTimeout = millis;
+    }
+
+    /**
+     * Answers requests until the input ends.
+     *
+     * @param in the request stream
+     * @param out the response stream
+     * @return the number of requests answered
+     * @throws IOException in case of an I/O problem or a malformed frame
+     */
+    int serve(InputStream in, OutputStream out) throws IOException {
+        return serve(in, out, null);
+    }
+
+    private int serve(InputStream in, OutputStream out, Semaphore renderers) throws IOException {
+        final DataInputStream requests = new DataInputStream(new BufferedInputStream(in));
+        final DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(out, 65536));
+        int count = 0;
+        while (true) {
+            final int length;
+            try {
+                length = requests.readInt();
+            } catch (EOFException e) {
+                responses.flush();
+                return count;
+            }
+            if (length < 0 || length > MAX_REQUEST) {
+                throw new IOException("Invalid request length: " + length);
+            }
+            final byte[] request = new byte[length];
+            requests.readFully(request);
+            byte[] response;
+            boolean success;
+            if (renderers != null) {
+                renderers.acquireUninterruptibly();
+            }
+            try {
+                response = render(new String(request, UTF8));
+                success = true;
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Request failed", e);
+                final String msg = e.getMessage() != null ? e.getMessage() : e.toString();
+                response = msg.getBytes(UTF8);
+                success = false;
+            } finally {
+                if (renderers != null) {
+                    renderers.release();
+                }
+            }
+            responses.writeInt(success ? response.length : -response.length);
+            responses.write(response);
+            count++;
+            //don't keep the client waiting for the next request
+            if (requests.available() == 0) {
+                responses.flush();
+            }
+        }
+    }
+
+    /**
+     * Accepts connections until the daemon is closed.
+     *
+     * @param serverSocket the bound server socket
+     * @param threads the number of requests rendered at the same time
+     * @throws IOException in case of an I/O problem
+     */
+    void serve(ServerSocket serverSocket, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        final Semaphore renderers = new Semaphore(threads);
+        final ThreadPoolExecutor connections = new ThreadPoolExecutor(
+                0, MAX_CONNECTIONS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        final Thread t = new Thread(r, "barcode4j-daemon");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        this.server = serverSocket;
+        try {
+            while (true) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketException e) {
+                    if (serverSocket.isClosed()) {
+                        return;
+                    }
+                    throw e;
+                }
+                try {
+                    connections.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket, renderers);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Too many connections, closing a new one");
+                    refuse(socket, "Too many connections");
+                }
+            }
+        } finally {
+            serverSocket.close();
+            connections.shutdownNow();
+        }
+    }
+
+    private void serve(Socket socket, Semaphore renderers) {
+        try {
+            socket.setSoTimeout(readTimeout);
+            serve(socket.getInputStream(), socket.getOutputStream(), renderers);
+        } catch (SocketTimeoutException e) {
+            LOGGER.log(Level.FINE, "Closing an idle connection");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Connection failed: " + e.getMessage(), e);
+        } finally {
+            close(socket);
+        }
+    }
+
+    private static void refuse(Socket socket, String msg) {
+        try {
+            final byte[] error = msg.getBytes(UTF8);
+            final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(-error.length);
+            out.write(error);
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error refusing the connection", e);
+        } finally {
+            close(socket);
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing the connection", e);
+        }
+    }
+
+    /**
+     * Renders the barcode of a request.
+     *
+     * @param request the request (a JSON object)
+     * @return the barcode
+     * @throws IOException if the request is malformed or the barcode cannot
+     * be written
+     * @throws BarcodeException if the symbology is unknown
+     * @throws IllegalArgumentException if the resolution is out of range
+     */
+    byte[] render(String request) throws IOException, BarcodeException {
+        //line breaks are whitespace in JSON but end a line of the batch reader
+        final BatchEntry entry = new BatchReader(
+                new StringReader(request.replace('\r', ' ').replace('\n', ' ')),
+                BatchReader.InputFormat.JSON).next();
+        if (entry == null) {
+            throw new IOException("Empty request");
+        }
+        final String mime = entry.getFormat() != null
+                ? MimeTypes.expandFormat(entry.getFormat()) : format;
+        final int resolution = entry.getDpi() != null ? entry.getDpi().intValue() : dpi;
+        if (resolution < MIN_DPI || resolution > MAX_DPI) {
+            throw new IllegalArgumentException("The resolution must be between " + MIN_DPI
+                    + " and " + MAX_DPI + "dpi: " + resolution);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        Main.render(entry.getMessage(), getGenerator(entry.getSymbol()), out,
+                Orientation.ZERO, mime, resolution, bw);
+        return out.toByteArray();
+    }
+
+    private BarcodeGenerator getGenerator(String symbol) throws BarcodeException {
+        if (symbol == null) {
+            return generator;
+        }
+        BarcodeGenerator gen = generators.get(symbol);
+        if (gen == null) {
+            gen = BarcodeGeneratorSpec.create(ConfigurationBuilder.createDefaultConfiguration(symbol));
+            final BarcodeGenerator existing = generators.putIfAbsent(symbol, gen);
+            if (existing != null) {
+                gen = existing;
+            }
+        }
+        return gen;
+    }
+
+    /**
+     * Stops accepting connections.
+     *
+     * @throws IOException in case of an I/O problem
+     */
+    @Override
+    public void close() throws IOException {
+        final ServerSocket s = server;
+        if (s != null) {
+            s.close();
+        }
+    }
+}
@@ -15,16 +15,18 @@
  */
 package org.krysalis.barcode4j.impl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import org.krysalis.barcode4j.BarcodeDimension;
-import org.krysalis.barcode4j.BarcodeGenerator;
 import org.krysalis.barcode4j.BarcodeUtil;
+import org.krysalis.barcode4j.BatchBarcodeGenerator;
 import org.krysalis.barcode4j.HumanReadablePlacement;
 import org.krysalis.barcode4j.output.CanvasProvider;
+import org.krysalis.barcode4j.output.CanvasProviderFactory;
 import org.krysalis.barcode4j.tools.Length;
 
 import com.github.mbhk.barcode4j.Configuration;
@@ -36,7 +38,7 @@ import com.github.mbhk.barcode4j.ConfigurationException;
  * @version $Id$
  */
 public abstract class ConfigurableBarcodeGenerator
-        implements BarcodeGenerator {
+        implements BatchBarcodeGenerator {
 
     /**
      * Contains all possible element names that may appear in barcode XML.
@@ -181,6 +183,12 @@ public abstract class ConfigurableBarcodeGenerator
         getBean().generateBarcode(canvas, msg);
     }
 
+    @Override
+    public int generateBarcodes(Iterable<String> msgs, CanvasProviderFactory canvases)
+            throws IOException {
+        return getBean().generateBarcodes(msgs, canvases);
+    }
+
     @Override
     public BarcodeDimension calcDimensions(String msg) {
         return getBean().calcDimensions(msg);
@@ -17,6 +17,7 @@ package org.krysalis.barcode4j.impl.datamatrix;
 
 import java.awt.Dimension;
 
+import org.krysalis.barcode4j.impl.AbstractTwoDimBarcodeBean;
 import org.krysalis.barcode4j.impl.ConfigurableBarcodeGenerator;
 import org.krysalis.barcode4j.tools.Length;
 
@@ -60,6 +61,8 @@ public class DataMatrix extends ConfigurableBarcodeGenerator {
         if (size != null) {
             getDataMatrixBean().setMaxSize(parseSymbolSize(size));
         }
+
+        AbstractTwoDimBarcodeBean.configureRectangleMerging(getDataMatrixBean(), cfg);
     }
 
     private Dimension parseSymbolSize(String size) {
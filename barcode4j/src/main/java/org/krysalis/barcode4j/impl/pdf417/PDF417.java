@@ -15,6 +15,7 @@
  */
 package org.krysalis.barcode4j.impl.pdf417;
 
+import org.krysalis.barcode4j.impl.AbstractTwoDimBarcodeBean;
 import org.krysalis.barcode4j.impl.ConfigurableBarcodeGenerator;
 import org.krysalis.barcode4j.tools.Length;
 
@@ -94,6 +95,8 @@ public class PDF417 extends ConfigurableBarcodeGenerator {
             getPDF417Bean().setEncoding(child.getValue(null));
             getPDF417Bean().setECIEnabled(child.getAttributeAsBoolean("enable-eci", false));
         }
+
+        AbstractTwoDimBarcodeBean.configureRectangleMerging(getPDF417Bean(), cfg);
     }
 
     /**
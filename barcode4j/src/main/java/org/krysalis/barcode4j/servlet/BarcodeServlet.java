@@ -18,6 +18,8 @@ package org.krysalis.barcode4j.servlet;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,19 +27,14 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 
 import org.krysalis.barcode4j.BarcodeException;
 import org.krysalis.barcode4j.BarcodeGenerator;
-import org.krysalis.barcode4j.BarcodeUtil;
+import org.krysalis.barcode4j.BarcodeGeneratorSpec;
 import org.krysalis.barcode4j.output.Orientation;
 import org.krysalis.barcode4j.output.bitmap.BitmapCanvasProvider;
 import org.krysalis.barcode4j.output.eps.EPSCanvasProvider;
-import org.krysalis.barcode4j.output.svg.SVGCanvasProvider;
+import org.krysalis.barcode4j.output.svg.SVGStreamCanvasProvider;
 import org.krysalis.barcode4j.tools.MimeTypes;
 
 import com.github.mbhk.barcode4j.Configuration;
@@ -80,8 +77,26 @@ public class BarcodeServlet extends HttpServlet {
 
     private static final String ERROR_WHILE_GENERATING_BARCODE = "Error while generating barcode";
 
+    /**
+     * Maximum number of distinct barcode presets kept by the servlet, the
+     * least recently used ones are dropped
+     */
+    static final int MAX_CACHED_SPECS = 64;
+
     private static final Logger LOGGER = Logger.getLogger(BarcodeServlet.class.getName());
 
+    /** Recently used barcode presets, guarded by itself */
+    private final transient Map<String, BarcodeGeneratorSpec> specs =
+            new LinkedHashMap<String, BarcodeGeneratorSpec>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BarcodeGeneratorSpec> eldest) {
+                    //Request parameters are arbitrary, so don't let the cache grow unbounded
+                    return size() > MAX_CACHED_SPECS;
+                }
+            };
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -97,23 +112,15 @@ public class BarcodeServlet extends HttpServlet {
                 msg = "0123456789";
             }
 
-            final BarcodeUtil util = BarcodeUtil.getInstance();
-            final BarcodeGenerator gen = util.createBarcodeGenerator(cfg);
+            final BarcodeGenerator gen = getBarcodeGenerator(cfg);
 
             final ByteArrayOutputStream bout = new ByteArrayOutputStream(4096);
             try {
                 if (format.equals(MimeTypes.MIME_SVG)) {
                     // Create Barcode and render it to SVG
-                    final SVGCanvasProvider svg = new SVGCanvasProvider(true, orientation);
+                    final SVGStreamCanvasProvider svg = new SVGStreamCanvasProvider(bout, true, orientation);
                     gen.generateBarcode(svg, msg);
-                    final org.w3c.dom.DocumentFragment frag = svg.getDOMFragment();
-
-                    // Serialize SVG barcode
-                    final TransformerFactory factory = TransformerFactory.newInstance();
-                    final Transformer trans = factory.newTransformer();
-                    final Source src = new javax.xml.transform.dom.DOMSource(frag);
-                    final Result res = new javax.xml.transform.stream.StreamResult(bout);
-                    trans.transform(src, res);
+                    svg.finish();
                 } else if (format.equals(MimeTypes.MIME_EPS)) {
                     final EPSCanvasProvider eps = new EPSCanvasProvider(bout, orientation);
                     gen.generateBarcode(eps, msg);
@@ -149,9 +156,6 @@ public class BarcodeServlet extends HttpServlet {
         } catch (BarcodeException e) {
             LOGGER.log(Level.SEVERE, ERROR_WHILE_GENERATING_BARCODE, e);
             throw new ServletException(e);
-        } catch (TransformerException e) {
-            LOGGER.log(Level.SEVERE, ERROR_WHILE_GENERATING_BARCODE, e);
-            throw new ServletException(e);
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, ERROR_WHILE_GENERATING_BARCODE, e);
             throw new ServletException(e);
@@ -161,6 +165,31 @@ public class BarcodeServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Returns the barcode generator for a configuration. Generators are
+     * immutable and therefore shared between requests using the same preset.
+     *
+     * @param cfg the barcode configuration
+     * @return the barcode generator
+     * @throws BarcodeException if the configuration is invalid
+     */
+    protected BarcodeGenerator getBarcodeGenerator(Configuration cfg) throws BarcodeException {
+        final String key = BarcodeGeneratorSpec.createKey(cfg);
+        synchronized (specs) {
+            final BarcodeGeneratorSpec spec = specs.get(key);
+            if (spec != null) {
+                return spec;
+            }
+        }
+        //created outside the lock, concurrent requests for a new preset may
+        //create it twice but the generators are equivalent
+        final BarcodeGeneratorSpec spec = BarcodeGeneratorSpec.create(cfg);
+        synchronized (specs) {
+            specs.put(key, spec);
+        }
+        return spec;
+    }
+
     /**
      * Check the request for the desired output format.
      * 
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.krysalis.barcode4j.output.AbstractCanvasProvider;
+import org.krysalis.barcode4j.output.Orientation;
+
+import com.github.mbhk.barcode4j.Configuration;
+import com.github.mbhk.barcode4j.ConfigurationException;
+
+/**
+ *
+ * @author mk
+ */
+public class BarcodeGeneratorSpecTest {
+
+    private static final String[] MESSAGES = {
+        "0112345678901231" + "1001234", "0198765432109879" + "104567",
+        "0111111111111113" + "101", "0122222222222226" + "1098765432"
+    };
+
+    @Test
+    public void testCreateFromConfiguration() throws Exception {
+        System.out.println("create");
+        final Configuration cfg = new Configuration("datamatrix");
+        cfg.addChild(new Configuration("module-width", "0.5mm"));
+        final BarcodeGeneratorSpec spec = BarcodeGeneratorSpec.create(cfg);
+        assertEquals("datamatrix", spec.getId());
+
+        final BarcodeDimension dim = spec.calcDimensions("Hello");
+        //changing the original configuration must not affect the spec
+        cfg.addChild(new Configuration("module-width", "1mm"));
+        assertEquals(dim.getWidth(), spec.calcDimensions("Hello").getWidth(), 0.0001);
+        assertEquals("0.5mm", spec.getConfiguration().getChild("module-width").getValue());
+    }
+
+    @Test
+    public void testBuilder() throws Exception {
+        System.out.println("builder");
+        final BarcodeGeneratorSpec built = BarcodeGeneratorSpec.builder("code128")
+                .set("module-width", "0.3mm")
+                .set("human-readable/placement", "top")
+                .attribute("quiet-zone", "enabled", "false")
+                .build();
+
+        final Configuration cfg = new Configuration("code128");
+        final Configuration qz = new Configuration("quiet-zone");
+        qz.setAttribute("enabled", "false");
+        cfg.addChild(qz);
+        final Configuration hr = new Configuration("human-readable");
+        hr.addChild(new Configuration("placement", "top"));
+        cfg.addChild(hr);
+        cfg.addChild(new Configuration("module-width", "0.3mm"));
+        final BarcodeGeneratorSpec created = BarcodeGeneratorSpec.create(cfg);
+
+        assertEquals(created, built);
+        assertEquals(created.hashCode(), built.hashCode());
+        assertEquals(created.getKey(), BarcodeGeneratorSpec.createKey(cfg));
+        assertFalse(created.equals(BarcodeGeneratorSpec.builder("code128").build()));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testConfigure() throws Exception {
+        System.out.println("configure");
+        BarcodeGeneratorSpec.builder("ean-13").build().configure(new Configuration("ean-13"));
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        System.out.println("concurrent use");
+        final BarcodeGeneratorSpec spec = BarcodeGeneratorSpec.builder("ean-128").build();
+        final String[] expected = new String[MESSAGES.length];
+        for (int i = 0; i < MESSAGES.length; i++) {
+            expected[i] = render(spec, MESSAGES[i]);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int n = 0; n < 50; n++) {
+                            final int i = n % MESSAGES.length;
+                            if (!expected[i].equals(render(spec, MESSAGES[i]))) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String render(BarcodeGenerator gen, String msg) {
+        final RecordingCanvasProvider provider = new RecordingCanvasProvider();
+        gen.generateBarcode(provider, msg);
+        return provider.toString();
+    }
+
+    /**
+     * Canvas provider which records all painting operations.
+     */
+    private static class RecordingCanvasProvider extends AbstractCanvasProvider {
+
+        private final StringBuilder sb = new StringBuilder();
+
+        RecordingCanvasProvider() {
+            super(Orientation.ZERO);
+        }
+
+        @Override
+        public void deviceFillRect(double x, double y, double w, double h) {
+            sb.append(x).append(',').append(y).append(',')
+                    .append(w).append(',').append(h).append(';');
+        }
+
+        @Override
+        public void deviceText(String text, double x1, double x2, double y1,
+                String fontName, double fontSize, TextAlignment textAlign) {
+            sb.append(text).append('@').append(x1).append(',').append(y1).append(';');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
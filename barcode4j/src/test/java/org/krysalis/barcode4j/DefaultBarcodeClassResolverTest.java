@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j;
+
+import java.util.Collection;
+
+import com.github.mbhk.barcode4j.Configuration;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.upcean.EAN13;
+import org.krysalis.barcode4j.impl.upcean.EAN8;
+import org.krysalis.barcode4j.impl.upcean.UPCA;
+
+/**
+ *
+ * @author mk
+ */
+public class DefaultBarcodeClassResolverTest {
+
+    /**
+     * Test of resolveFactory method, of class DefaultBarcodeClassResolver.
+     */
+    @Test
+    public void testResolveFactory() throws Exception {
+        System.out.println("resolveFactory");
+        final DefaultBarcodeClassResolver resolver = new DefaultBarcodeClassResolver();
+        for (final String name : resolver.getBarcodeNames()) {
+            final BarcodeGeneratorFactory factory = resolver.resolveFactory(name);
+            assertNotNull(name, factory);
+            assertSame(name, resolver.resolve(name), factory.newBarcodeGenerator().getClass());
+        }
+        assertNotNull(resolver.resolveFactory("EAN-13"));
+        assertNotNull(resolver.resolveFactory("usps4cb"));
+        assertNotNull(resolver.resolveFactory("org.krysalis.barcode4j.impl.upcean.EAN13"));
+        assertNotSame(resolver.resolveFactory("ean13").newBarcodeGenerator(),
+                resolver.resolveFactory("ean13").newBarcodeGenerator());
+        assertNull(resolver.resolveFactory("unknown"));
+        assertNull(resolver.resolveFactory("barcode"));
+        assertSame(resolver.resolveFactory("ean-13"),
+                resolver.getBarcodeFactory("org.krysalis.barcode4j.impl.upcean.EAN13"));
+        assertNull(resolver.getBarcodeFactory("ean-13"));
+
+        resolver.registerBarcodeClass("custom", "org.krysalis.barcode4j.impl.upcean.EAN13");
+        assertNotNull(resolver.resolveFactory("custom"));
+        resolver.registerBarcodeClass("reflective", "org.example.Barcode");
+        assertNull(resolver.resolveFactory("reflective"));
+        resolver.registerBarcodeFactory("org.example.Barcode", new BarcodeGeneratorFactory() {
+            @Override
+            public BarcodeGenerator newBarcodeGenerator() {
+                return new EAN13();
+            }
+        });
+        assertTrue(resolver.resolveFactory("reflective").newBarcodeGenerator() instanceof EAN13);
+    }
+
+    /**
+     * Test of createBarcodeGenerator method with factories, of class BarcodeUtil.
+     */
+    @Test
+    public void testCreateBarcodeGenerator() throws Exception {
+        System.out.println("createBarcodeGenerator");
+        final Configuration cfg = new Configuration("barcode");
+        final Configuration child = new Configuration("ean-13");
+        child.addChild(new Configuration("module-width", "0.5mm"));
+        cfg.addChild(child);
+        final BarcodeGenerator gen = BarcodeUtil.getInstance().createBarcodeGenerator(cfg);
+        assertTrue(gen instanceof EAN13);
+        assertEquals(0.5, ((EAN13) gen).getBean().getModuleWidth(), 1e-9);
+
+        //resolvers without factories instantiate by reflection
+        final BarcodeClassResolver reflective = new BarcodeClassResolver() {
+            private final BarcodeClassResolver delegate = new DefaultBarcodeClassResolver();
+
+            @Override
+            public Class<?> resolve(String name) throws ClassNotFoundException {
+                return delegate.resolve(name);
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public Class<?> resolveBean(String name) throws ClassNotFoundException {
+                return delegate.resolveBean(name);
+            }
+
+            @Override
+            public Collection<String> getBarcodeNames() {
+                return delegate.getBarcodeNames();
+            }
+        };
+        assertTrue(BarcodeUtil.createBarcodeGenerator(cfg, reflective) instanceof EAN13);
+
+        //a subclass remapping a name gets the class it resolves
+        final DefaultBarcodeClassResolver remapping = new DefaultBarcodeClassResolver() {
+            @Override
+            public Class<?> resolve(String name) throws ClassNotFoundException {
+                return "ean-13".equals(name) ? EAN8.class : super.resolve(name);
+            }
+        };
+        assertTrue(BarcodeUtil.createBarcodeGenerator(cfg, remapping) instanceof EAN8);
+        assertTrue(BarcodeUtil.createBarcodeGenerator(new Configuration("upc-a"), remapping)
+                instanceof UPCA);
+    }
+}
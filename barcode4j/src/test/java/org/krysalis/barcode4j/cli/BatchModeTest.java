@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author mk
+ */
+public class BatchModeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExitHandlerForTests exitHandler;
+    private ByteArrayOutputStream out;
+
+    @Before
+    public void setUp() {
+        this.exitHandler = new ExitHandlerForTests();
+        this.out = new ByteArrayOutputStream();
+    }
+
+    private void callCLI(InputStream in, String... args) {
+        final Main app = new Main();
+        app.setOutStream(new PrintStream(out));
+        app.setInStream(in);
+        app.setExitHandler(exitHandler);
+        try {
+            app.handleCommandLine(args);
+        } catch (SimulateVMExitError se) {
+            //ignore
+        }
+    }
+
+    private static InputStream input(String text) throws IOException {
+        return new ByteArrayInputStream(text.getBytes("UTF-8"));
+    }
+
+    private static List<String> readZip(File zip) throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final ZipInputStream in = new ZipInputStream(new FileInputStream(zip));
+        try {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                final ByteArrayOutputStream data = new ByteArrayOutputStream();
+                final byte[] buf = new byte[4096];
+                int n;
+                while ((n = in.read(buf)) > 0) {
+                    data.write(buf, 0, n);
+                }
+                assertTrue(entry.getName(), data.size() > 0);
+                names.add(entry.getName());
+            }
+        } finally {
+            in.close();
+        }
+        return names;
+    }
+
+    /**
+     * Test of a batch read from stdin into a directory.
+     */
+    @Test
+    public void testDirectory() throws Exception {
+        System.out.println("directory");
+        final File dir = new File(folder.getRoot(), "out");
+        callCLI(input("4006381333931\n\n9771422985503\n"),
+                "-s", "ean-13", "-b", "-", "-o", dir.getPath());
+        assertEquals(exitHandler.getLastMsg(), 0, exitHandler.getLastExitCode());
+        final String[] files = dir.list();
+        Arrays.sort(files);
+        assertArrayEquals(new String[]{"000001.svg", "000002.svg"}, files);
+        assertTrue(new File(dir, "000002.svg").length() > 0);
+    }
+
+    /**
+     * Test of a CSV batch with overrides into a ZIP archive, keeping the input
+     * order.
+     */
+    @Test
+    public void testZip() throws Exception {
+        System.out.println("zip");
+        final StringBuilder csv = new StringBuilder("message,name,symbol,format,dpi\n");
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            csv.append(String.format("\"Item, %d\",item%03d.png,,png,%d%n", i, i, 72 + i));
+            expected.add(String.format("item%03d.png", i));
+        }
+        csv.append("\"QR \"\"code\"\"\",,datamatrix,,\n");
+        expected.add("000101.svg");
+        final File zip = new File(folder.getRoot(), "labels.zip");
+        callCLI(input(csv.toString()), "-s", "code128", "-b", "-", "--input-format", "csv",
+                "-t", "3", "-o", zip.getPath());
+        assertEquals(exitHandler.getLastMsg(), 0, exitHandler.getLastExitCode());
+        assertEquals(expected, readZip(zip));
+    }
+
+    /**
+     * Test of a JSON lines batch into a TAR archive with failing entries: a
+     * message that cannot be encoded, a duplicate name, a malformed line, a
+     * name too long for TAR and a resolution out of range.
+     */
+    @Test
+    public void testTarWithFailure() throws Exception {
+        System.out.println("tar with failure");
+        final File batch = folder.newFile("batch.jsonl");
+        final StringBuilder longName = new StringBuilder();
+        while (longName.length() <= 100) {
+            longName.append("long");
+        }
+        longName.append(".svg");
+        final Writer writer = new OutputStreamWriter(
+                new FileOutputStream(batch), "UTF-8");
+        writer.write("{\"message\": \"400638133393\", \"name\": \"a.eps\", \"format\": \"eps\"}\n"
+                + "{\"message\": \"not a number\"}\n"
+                + "{\"message\": \"9771422985503\", \"dpi\": 150, \"format\": \"png\"}\n"
+                + "{\"message\": \"400638133393\", \"name\": \"a.eps\"}\n"
+                + "{\"message\": 9771422985503\n"
+                + "{\"message\": \"400638133393\", \"name\": \"" + longName + "\"}\n"
+                + "{\"message\": \"9771422985503\"}\n"
+                + "{\"message\": \"9771422985503\", \"dpi\": 100000, \"format\": \"png\"}\n");
+        writer.close();
+        final File tar = new File(folder.getRoot(), "labels.tar");
+        callCLI(null, "-s", "ean-13", "-b", batch.getPath(), "-o", tar.getPath());
+        assertEquals(-6, exitHandler.getLastExitCode());
+        assertEquals("5 of 8 barcodes could not be generated", exitHandler.getLastMsg());
+
+        final byte[] data = Files.readAllBytes(tar.toPath());
+        assertEquals(0, data.length % 512);
+        final List<String> names = new ArrayList<String>();
+        int pos = 0;
+        while (data[pos] != 0) {
+            long checksum = 0;
+            for (int i = 0; i < 512; i++) {
+                checksum += i >= 148 && i < 156 ? ' ' : data[pos + i] & 0xFF;
+            }
+            assertEquals(checksum, Long.parseLong(new String(data, pos + 148, 6, "US-ASCII"), 8));
+            assertEquals("ustar", new String(data, pos + 257, 5, "US-ASCII"));
+            int end = pos;
+            while (data[end] != 0) {
+                end++;
+            }
+            names.add(new String(data, pos, end - pos, "UTF-8"));
+            final int size = Integer.parseInt(new String(data, pos + 124, 11, "US-ASCII"), 8);
+            assertTrue(size > 0);
+            pos += 512 + (size + 511) / 512 * 512;
+        }
+        assertEquals(data.length, pos + 1024);
+        assertEquals(Arrays.asList("a.eps", "000003.png", "000007.svg"), names);
+    }
+
+    /**
+     * Test of the command line checks of the batch mode.
+     */
+    @Test
+    public void testBadCommandLine() throws Exception {
+        System.out.println("bad command line");
+        callCLI(input("1\n"), "-s", "ean-13", "-b", "-");
+        assertEquals(-2, exitHandler.getLastExitCode());
+        callCLI(input("1\n"), "-s", "ean-13", "-b", "-", "-o", folder.getRoot().getPath(), "123");
+        assertEquals(-2, exitHandler.getLastExitCode());
+        callCLI(input("a,b\n"), "-s", "ean-13", "-b", "-", "--input-format", "csv",
+                "-o", folder.getRoot().getPath());
+        assertEquals(-5, exitHandler.getLastExitCode());
+    }
+
+    /**
+     * Test of the input formats, of class BatchReader.
+     */
+    @Test
+    public void testReader() throws Exception {
+        System.out.println("reader");
+        final BatchReader json = new BatchReader(new StringReader(
+                "{\"message\": \"a\\\"b\\u00e4\", \"dpi\": 200, \"name\": null}\n{}\n{\"message\": \"c\"}\n"),
+                BatchReader.InputFormat.JSON);
+        final BatchEntry entry = json.next();
+        assertEquals("a\"b\u00E4", entry.getMessage());
+        assertEquals(Integer.valueOf(200), entry.getDpi());
+        assertNull(entry.getName());
+        try {
+            json.next();
+            fail("message missing");
+        } catch (BatchReader.MalformedLineException e) {
+            assertEquals("Line 2: No message", e.getMessage());
+            assertEquals(2, e.getEntry().getNumber());
+            assertEquals("{}", e.getEntry().getMessage());
+        }
+        //the reader goes on after a malformed line
+        assertEquals(3, json.next().getNumber());
+        assertNull(json.next());
+
+        final BatchReader csv = new BatchReader(new StringReader(
+                "\uFEFFMessage,Symbol\n\"a,\"\"b\"\"\",qr\nc\n"), BatchReader.InputFormat.CSV);
+        assertEquals("a,\"b\"", csv.next().getMessage());
+        final BatchEntry second = csv.next();
+        assertEquals("c", second.getMessage());
+        assertEquals(2, second.getNumber());
+        assertNull(second.getSymbol());
+        assertNull(csv.next());
+
+        assertEquals(BatchReader.InputFormat.CSV, BatchReader.InputFormat.select(null, "x.CSV"));
+        assertEquals(BatchReader.InputFormat.JSON, BatchReader.InputFormat.select(null, "x.jsonl"));
+        assertEquals(BatchReader.InputFormat.LINES, BatchReader.InputFormat.select(null, "-"));
+        assertEquals(BatchReader.InputFormat.JSON, BatchReader.InputFormat.select("json", "x.csv"));
+    }
+}
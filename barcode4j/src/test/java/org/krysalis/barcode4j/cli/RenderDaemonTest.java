@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.BarcodeGeneratorSpec;
+import org.krysalis.barcode4j.tools.MimeTypes;
+
+/**
+ *
+ * @author mk
+ */
+public class RenderDaemonTest {
+
+    private static void writeRequest(DataOutputStream out, String json) throws IOException {
+        final byte[] data = json.getBytes("UTF-8");
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static byte[] readResponse(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        final byte[] data = new byte[Math.abs(length)];
+        in.readFully(data);
+        if (length < 0) {
+            throw new IOException(new String(data, "UTF-8"));
+        }
+        return data;
+    }
+
+    /**
+     * Test of the stdin/stdout framing of the command line.
+     */
+    @Test
+    public void testStdin() throws Exception {
+        System.out.println("stdin");
+        final ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(requests);
+        writeRequest(out, "{\"message\": \"9771422985503\"}");
+        writeRequest(out, "{\"message\": \"invalid\"}");
+        writeRequest(out, "{\n  \"message\": \"Daemon\",\n  \"symbol\": \"code128\",\n"
+                + "  \"format\": \"png\", \"dpi\": 100\n}");
+
+        final ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        final ExitHandlerForTests exitHandler = new ExitHandlerForTests();
+        final Main app = new Main();
+        app.setOutStream(new PrintStream(responses));
+        app.setInStream(new ByteArrayInputStream(requests.toByteArray()));
+        app.setExitHandler(exitHandler);
+        try {
+            app.handleCommandLine("-s", "ean-13", "--daemon");
+        } catch (SimulateVMExitError se) {
+            //ignore
+        }
+        assertEquals(exitHandler.getLastMsg(), 0, exitHandler.getLastExitCode());
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(responses.toByteArray()));
+        final String svg = new String(readResponse(in), "UTF-8");
+        assertTrue(svg, svg.startsWith("<?xml"));
+        try {
+            readResponse(in);
+            fail("invalid EAN-13 message");
+        } catch (IOException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+        final byte[] png = readResponse(in);
+        assertEquals((byte) 0x89, png[0]);
+        assertEquals('P', png[1]);
+        assertEquals(-1, in.read());
+    }
+
+    /**
+     * Test of the socket connections, of class RenderDaemon.
+     */
+    @Test
+    public void testSocket() throws Exception {
+        System.out.println("socket");
+        final RenderDaemon daemon = new RenderDaemon(BarcodeGeneratorSpec.builder("datamatrix").build(),
+                MimeTypes.MIME_EPS, 300, false);
+        daemon.setReadTimeout(500);
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> serving = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    daemon.serve(server, 1);
+                    return null;
+                }
+            });
+            //an idle client must neither block the others nor stay open forever
+            final Socket idle = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            for (int c = 0; c < 2; c++) {
+                final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+                try {
+                    final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    final DataInputStream in = new DataInputStream(socket.getInputStream());
+                    for (int i = 0; i < 5; i++) {
+                        writeRequest(out, "{\"message\": \"Request " + i + "\"}");
+                        out.flush();
+                        final String eps = new String(readResponse(in), "US-ASCII");
+                        assertTrue(eps, eps.startsWith("%!PS-Adobe-3.0 EPSF-3.0"));
+                    }
+                    writeRequest(out, "{\"message\": \"x\", \"symbol\": \"unknown\"}");
+                    out.flush();
+                    try {
+                        readResponse(in);
+                        fail("unknown symbology");
+                    } catch (IOException e) {
+                        assertFalse(e.getMessage().isEmpty());
+                    }
+                } finally {
+                    socket.close();
+                }
+            }
+            idle.setSoTimeout(10000);
+            assertEquals(-1, idle.getInputStream().read());
+            idle.close();
+            daemon.close();
+            serving.get();
+            assertTrue(server.isClosed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test of render method with malformed requests, of class RenderDaemon.
+     */
+    @Test
+    public void testMalformedRequest() throws Exception {
+        System.out.println("malformed request");
+        final RenderDaemon daemon = new RenderDaemon(BarcodeGeneratorSpec.builder("code128").build(),
+                MimeTypes.MIME_SVG, 300, false);
+        final String[] requests = {"", "message", "{\"text\": \"a\"}", "{\"message\": \"a\""};
+        for (String request : requests) {
+            try {
+                daemon.render(request);
+                fail(request);
+            } catch (IOException e) {
+                //expected
+            }
+        }
+        for (String request : new String[]{"{\"message\": \"a\", \"format\": \"png\", \"dpi\": 9}",
+                "{\"message\": \"a\", \"format\": \"png\", \"dpi\": 100000}"}) {
+            try {
+                daemon.render(request);
+                fail(request);
+            } catch (IllegalArgumentException e) {
+                //expected
+            }
+        }
+
+        //an out-of-range resolution is answered with an error frame
+        final ByteArrayOutputStream dpiRequest = new ByteArrayOutputStream();
+        writeRequest(new DataOutputStream(dpiRequest), "{\"message\": \"a\", \"dpi\": -300}");
+        final ByteArrayOutputStream dpiResponse = new ByteArrayOutputStream();
+        assertEquals(1, daemon.serve(new ByteArrayInputStream(dpiRequest.toByteArray()), dpiResponse));
+        try {
+            readResponse(new DataInputStream(new ByteArrayInputStream(dpiResponse.toByteArray())));
+            fail("negative resolution");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("resolution"));
+        }
+
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        new DataOutputStream(frames).writeInt(RenderDaemon.MAX_REQUEST + 1);
+        try {
+            daemon.serve(new ByteArrayInputStream(frames.toByteArray()), new ByteArrayOutputStream());
+            fail("request too long");
+        } catch (IOException e) {
+            //expected
+        }
+    }
+}
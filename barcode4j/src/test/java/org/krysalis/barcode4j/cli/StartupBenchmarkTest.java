@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.krysalis.barcode4j.BarcodeGenerator;
+import org.krysalis.barcode4j.impl.AbstractBarcodeBean;
+
+/**
+ * Measures the time to the first barcode: the command-line tool is started
+ * in a new process for every run and writes one EAN-13 barcode as SVG and as
+ * PNG. The benchmark only runs if the number of runs is given:
+ * <pre>
+ * mvn -B test -pl barcode4j -am -Dtest=StartupBenchmarkTest -DfailIfNoTests=false \
+ *     -Dbarcode4j.startup.runs=20
+ * </pre>
+ * By default the tool runs on the JVM of the test with the class path of the
+ * tool only. Another command, for example a native executable, is measured
+ * with {@code -Dbarcode4j.startup.command="/path/to/barcode4j"}, the
+ * arguments of the tool are appended to it.
+ *
+ * @author mk
+ * @version 1.0
+ */
+public class StartupBenchmarkTest {
+
+    private static final String RUNS = "barcode4j.startup.runs";
+    private static final String COMMAND = "barcode4j.startup.command";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String location(Class<?> clazz) throws URISyntaxException {
+        return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    private static List<String> createCommand() throws URISyntaxException {
+        final String command = System.getProperty(COMMAND);
+        if (command != null && !command.trim().isEmpty()) {
+            return new ArrayList<String>(Arrays.asList(command.trim().split("\\s+")));
+        }
+        final String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        final String classpath = location(Main.class) + File.pathSeparator
+                + location(AbstractBarcodeBean.class) + File.pathSeparator
+                + location(BarcodeGenerator.class) + File.pathSeparator
+                + location(org.apache.commons.cli.CommandLine.class);
+        return new ArrayList<String>(Arrays.asList(java, "-cp", classpath, Main.class.getName()));
+    }
+
+    /**
+     * Runs the tool once.
+     *
+     * @return the time until the process ended (ms)
+     */
+    private long run(List<String> command, String format, File out)
+            throws IOException, InterruptedException {
+        final List<String> args = new ArrayList<String>(command);
+        args.addAll(Arrays.asList("-s", "ean-13", "-f", format, "-o", out.getPath(), "4006381333931"));
+        final ProcessBuilder pb = new ProcessBuilder(args);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(new File(folder.getRoot(), "output.log"));
+        final long start = System.nanoTime();
+        final int exitCode = pb.start().waitFor();
+        final long millis = (System.nanoTime() - start) / 1000000;
+        assertEquals("Exit code of " + args, 0, exitCode);
+        assertTrue(out.getPath(), out.length() > 0);
+        return millis;
+    }
+
+    private void measure(List<String> command, String format, int runs) throws Exception {
+        final File out = new File(folder.getRoot(), "barcode." + format);
+        //the first run fills the file system cache
+        run(command, format, out);
+        final long[] times = new long[runs];
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            out.delete();
+            times[i] = run(command, format, out);
+            total += times[i];
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%s: %d runs, min %d ms, median %d ms, mean %d ms, max %d ms",
+                format, runs, times[0], times[runs / 2], total / runs, times[runs - 1]));
+    }
+
+    /**
+     * Measures the time to the first SVG and PNG barcode.
+     */
+    @Test
+    public void testTimeToFirstBarcode() throws Exception {
+        final int runs = Integer.getInteger(RUNS, 0);
+        Assume.assumeTrue(runs > 0);
+        System.out.println("time to first barcode");
+        final List<String> command = createCommand();
+        System.out.println("Command: " + command);
+        measure(command, "svg", runs);
+        measure(command, "png", runs);
+    }
+}
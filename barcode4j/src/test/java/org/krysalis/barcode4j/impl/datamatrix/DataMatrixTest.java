@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.impl.datamatrix;
+
+import com.github.mbhk.barcode4j.Configuration;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.krysalis.barcode4j.impl.pdf417.PDF417;
+
+/**
+ *
+ * @author mk
+ */
+public class DataMatrixTest {
+
+    /**
+     * Test of the rectangle-merging element, of classes DataMatrix and PDF417.
+     */
+    @Test
+    public void testConfigureRectangleMerging() throws Exception {
+        System.out.println("configure rectangle-merging");
+        final Configuration cfg = new Configuration("datamatrix");
+        final DataMatrix dm = new DataMatrix();
+        dm.configure(cfg);
+        assertFalse(dm.getDataMatrixBean().isRectangleMerging());
+
+        cfg.addChild(new Configuration("rectangle-merging", "true"));
+        final DataMatrix merging = new DataMatrix();
+        merging.configure(cfg);
+        assertTrue(merging.getDataMatrixBean().isRectangleMerging());
+        final PDF417 pdf417 = new PDF417();
+        pdf417.configure(cfg);
+        assertTrue(pdf417.getPDF417Bean().isRectangleMerging());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 mk.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.krysalis.barcode4j.servlet;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.krysalis.barcode4j.BarcodeGenerator;
+
+import com.github.mbhk.barcode4j.Configuration;
+
+/**
+ *
+ * @author mk
+ */
+public class BarcodeServletTest {
+
+    private static Configuration createConfiguration(int i) {
+        final Configuration cfg = new Configuration("code128");
+        cfg.addChild(new Configuration("module-width", "0." + (100 + i) + "mm"));
+        return cfg;
+    }
+
+    /**
+     * Test of getBarcodeGenerator method, of class BarcodeServlet.
+     */
+    @Test
+    public void testGetBarcodeGenerator() throws Exception {
+        System.out.println("getBarcodeGenerator");
+        final BarcodeServlet instance = new BarcodeServlet();
+        final BarcodeGenerator[] generators = new BarcodeGenerator[BarcodeServlet.MAX_CACHED_SPECS];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = instance.getBarcodeGenerator(createConfiguration(i));
+        }
+        assertSame(generators[1], instance.getBarcodeGenerator(createConfiguration(1)));
+        //a full cache drops the least recently used preset
+        assertSame(generators[0], instance.getBarcodeGenerator(createConfiguration(0)));
+        final BarcodeGenerator newest = instance.getBarcodeGenerator(
+                createConfiguration(generators.length));
+        assertSame(newest, instance.getBarcodeGenerator(createConfiguration(generators.length)));
+        assertSame(generators[0], instance.getBarcodeGenerator(createConfiguration(0)));
+        assertSame(generators[1], instance.getBarcodeGenerator(createConfiguration(1)));
+        assertNotSame(generators[2], instance.getBarcodeGenerator(createConfiguration(2)));
+    }
+}